@@ -0,0 +1,92 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decrypt throughput of one core for a range response, against a plain copy of
+ * the same bytes as the baseline.
+ * <p>
+ * The ciphertext is in memory, so this measures AES-CTR alone (AES-NI on any
+ * recent x86 or ARMv8 CPU); disk reads come on top. Ranges start at an
+ * unaligned offset, so the counter seek and partial first block are included.
+ * Aux counter {@code bytes} reports bytes/s per thread, i.e. per core.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class AudioDecryptBenchmark {
+
+    private static final int OBJECT_SIZE = 32 * 1024 * 1024;
+
+    @Param({"65536", "1048576"})
+    private int rangeSize;
+
+    @Param({"16", "32"})
+    private int keyBytes;
+
+    private AudioCipher cipher;
+    private AudioCipher.Header header;
+    private byte[] ciphertext;
+    private ByteBuffer sink;
+    private long offset;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] key = new byte[keyBytes];
+        new Random(7).nextBytes(key);
+        cipher = new AudioCipher(Map.of(1, key), 1);
+
+        byte[] plaintext = new byte[OBJECT_SIZE];
+        new Random(42).nextBytes(plaintext);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(OBJECT_SIZE + AudioCipher.HEADER_BYTES);
+        header = cipher.encrypt(Channels.newChannel(new ByteArrayInputStream(plaintext)), Channels.newChannel(out));
+        ciphertext = out.toByteArray();
+
+        sink = ByteBuffer.allocateDirect(64 * 1024);
+        offset = OBJECT_SIZE / 3 + 5;
+    }
+
+    @Benchmark
+    public void decrypt(Counters counters) throws IOException {
+        counters.bytes += drain(cipher.decrypt(ciphertextRange(), header, offset));
+    }
+
+    @Benchmark
+    public void plainCopy(Counters counters) throws IOException {
+        counters.bytes += drain(ciphertextRange());
+    }
+
+    private ReadableByteChannel ciphertextRange() {
+        int from = AudioCipher.HEADER_BYTES + (int) offset;
+        return Channels.newChannel(new ByteArrayInputStream(ciphertext, from, rangeSize));
+    }
+
+    private long drain(ReadableByteChannel channel) throws IOException {
+        long total = 0;
+        int read;
+        while ((read = channel.read(sink.clear())) >= 0) {
+            total += read;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,109 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent small positional reads, straight from the channel vs through
+ * {@link DiskIoScheduler}.
+ * <p>
+ * Each benchmark thread is one stream reading {@code chunkSize} bytes per call:
+ * {@code random} picks chunks anywhere in the file (independent listeners),
+ * {@code clustered} picks them from a 1 MB window (listeners of the same
+ * popular episode, e.g. right after a release), which is where merging pays.
+ * The file stays in the page cache unless {@code fileSize} exceeds RAM or the
+ * cache is dropped between iterations ({@code echo 1 > /proc/sys/vm/drop_caches}),
+ * so run both ways: the cached run shows the scheduler's overhead, the cold
+ * run shows what sorting and merging save on the device. Aux counter
+ * {@code bytes} reports bytes/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class DiskIoSchedulerBenchmark {
+
+    private static final long HOT_WINDOW = 1024 * 1024;
+
+    @Param({"268435456"})
+    private long fileSize;
+
+    @Param({"65536"})
+    private int chunkSize;
+
+    @Param({"random", "clustered"})
+    private String pattern;
+
+    private Path file;
+    private FileChannel channel;
+    private DiskIoScheduler scheduler;
+
+    @State(Scope.Thread)
+    public static class Stream {
+        ByteBuffer buffer;
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp(DiskIoSchedulerBenchmark benchmark) {
+            buffer = ByteBuffer.allocateDirect(benchmark.chunkSize);
+            random = new SplittableRandom(Thread.currentThread().threadId());
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("io-scheduler-bench", ".mp3");
+        byte[] block = new byte[1024 * 1024];
+        new Random(42).nextBytes(block);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (long written = 0; written < fileSize; written += block.length) {
+                out.write(block);
+            }
+        }
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        scheduler = new DiskIoScheduler(true, 0, 64, 1024 * 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        scheduler.destroy();
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void direct(Stream stream, Counters counters) throws IOException {
+        ByteBuffer buffer = stream.buffer.clear();
+        counters.bytes += channel.read(buffer, nextPosition(stream));
+    }
+
+    @Benchmark
+    public void scheduled(Stream stream, Counters counters) throws IOException {
+        ByteBuffer buffer = stream.buffer.clear();
+        counters.bytes += scheduler.read(null, channel, buffer, nextPosition(stream));
+    }
+
+    private long nextPosition(Stream stream) {
+        long span = "clustered".equals(pattern) ? HOT_WINDOW : fileSize;
+        return stream.random.nextLong(span / chunkSize) * chunkSize;
+    }
+}
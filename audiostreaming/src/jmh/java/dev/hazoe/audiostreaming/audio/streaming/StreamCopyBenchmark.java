@@ -0,0 +1,142 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the legacy RandomAccessFile/InputStream copy loop with
+ * {@link FileRegion} (FileChannel.transferTo) for one range response.
+ * <p>
+ * The sink is /dev/null opened as a FileChannel. {@code fileRegionKernelTransfer}
+ * writes to it directly, so transferTo takes the kernel path, as Tomcat sendfile
+ * does for a socket. {@code fileRegionServletStream} writes through a stream
+ * wrapper, as {@link StreamBodyHttpMessageConverter} does with the servlet output
+ * stream, so the JDK copies through a buffer. Aux counters report
+ * {@code bytes} (bytes/s) and {@code cpuNanos} (CPU ns/s); CPU per GB is
+ * {@code cpuNanos / bytes * 2^30}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamCopyBenchmark {
+
+    private static final long FILE_SIZE = 64L * 1024 * 1024;
+
+    @Param({"1048576", "16777216"})
+    private long rangeSize;
+
+    private Path file;
+    private FileChannel sink;
+    private long rangeStart;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long bytes;
+        public long cpuNanos;
+    }
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("stream-bench", ".mp3");
+        byte[] block = new byte[1024 * 1024];
+        new Random(42).nextBytes(block);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (long written = 0; written < FILE_SIZE; written += block.length) {
+                out.write(block);
+            }
+        }
+        sink = FileChannel.open(Path.of("/dev/null"), StandardOpenOption.WRITE);
+        rangeStart = FILE_SIZE / 4;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        sink.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void legacyCopyLoop(Counters counters) throws IOException {
+        long cpu = THREADS.getCurrentThreadCpuTime();
+
+        try (InputStream in = legacyStream(file, rangeStart, rangeSize)) {
+            // Same 8 KB copy loop as StreamUtils.copy in the resource converter
+            in.transferTo(Channels.newOutputStream(sink));
+        }
+
+        counters.cpuNanos += THREADS.getCurrentThreadCpuTime() - cpu;
+        counters.bytes += rangeSize;
+    }
+
+    @Benchmark
+    public void fileRegionKernelTransfer(Counters counters) throws IOException {
+        long cpu = THREADS.getCurrentThreadCpuTime();
+
+        ByteRange range = new ByteRange(rangeStart, rangeStart + rangeSize - 1, rangeSize, true);
+        new FileRegion(file, range).writeTo(sink);
+
+        counters.cpuNanos += THREADS.getCurrentThreadCpuTime() - cpu;
+        counters.bytes += rangeSize;
+    }
+
+    @Benchmark
+    public void fileRegionServletStream(Counters counters) throws IOException {
+        long cpu = THREADS.getCurrentThreadCpuTime();
+
+        ByteRange range = new ByteRange(rangeStart, rangeStart + rangeSize - 1, rangeSize, true);
+        new FileRegion(file, range).writeTo(Channels.newChannel(Channels.newOutputStream(sink)));
+
+        counters.cpuNanos += THREADS.getCurrentThreadCpuTime() - cpu;
+        counters.bytes += rangeSize;
+    }
+
+    /** The pre-FileRegion openStream implementation of AudioStreamService. */
+    private static InputStream legacyStream(Path path, long start, long length) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path.toFile(), "r");
+        file.seek(start);
+
+        return new InputStream() {
+            private long remaining = length;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) return -1;
+                remaining--;
+                return file.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (remaining <= 0) return -1;
+                len = (int) Math.min(len, remaining);
+                int read = file.read(b, off, len);
+                if (read > 0) remaining -= read;
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                file.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package dev.hazoe.audiostreaming.audio.cache;
+
+import dev.hazoe.audiostreaming.audio.domain.Audio;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+
+/**
+ * The few audio fields the hot paths (authorization, streaming, progress) need,
+ * detached from the JPA entity so it can be shared safely across requests.
+ *
+ * @param recorded the storage object as recorded on the row, if it is to be
+ *                 trusted instead of asking the storage; otherwise null
+ */
+public record AudioDescriptor(
+        Long id,
+        String audioPath,
+        String contentType,
+        boolean premium,
+        int durationSeconds,
+        StorageObject recorded
+) {
+
+    public AudioDescriptor(Long id, String audioPath, String contentType, boolean premium, int durationSeconds) {
+        this(id, audioPath, contentType, premium, durationSeconds, null);
+    }
+
+    public static AudioDescriptor from(Audio audio) {
+        return from(audio, false);
+    }
+
+    /**
+     * @param withRecorded whether to carry the recorded file state, if the row has one
+     */
+    public static AudioDescriptor from(Audio audio, boolean withRecorded) {
+        boolean recorded = withRecorded
+                && audio.getFileSize() != null
+                && audio.getFileMtime() != null
+                && audio.getFileVersion() != null;
+        return new AudioDescriptor(
+                audio.getId(),
+                audio.getAudioPath(),
+                audio.getContentType(),
+                audio.isPremium(),
+                audio.getDurationSeconds(),
+                recorded
+                        ? new StorageObject(
+                                audio.getAudioPath(),
+                                audio.getFileSize(),
+                                audio.getFileMtime(),
+                                audio.getFileVersion())
+                        : null
+        );
+    }
+}
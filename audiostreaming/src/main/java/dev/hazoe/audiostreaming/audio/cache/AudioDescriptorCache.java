@@ -0,0 +1,188 @@
+package dev.hazoe.audiostreaming.audio.cache;
+
+import dev.hazoe.audiostreaming.audio.repository.AudioRepository;
+import dev.hazoe.audiostreaming.common.exception.AudioNotFoundException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded cache of {@link AudioDescriptor}s by audio id.
+ * <p>
+ * A single range request used to load the audio twice (authorization, then
+ * streaming) and every progress heartbeat loaded it again. With the cache,
+ * steady-state streaming and heartbeats make no database round trips.
+ * <p>
+ * Eviction is LRU by entry count; entries also expire after a TTL so that
+ * changes made by other instances become visible. Writers in this instance
+ * should call {@link #invalidate(Long)}. Missing ids are not cached.
+ * <p>
+ * With {@code recorded-metadata} enabled, descriptors carry the file state the
+ * storage reconciliation recorded on the row, and streaming uses it instead of
+ * asking the storage. Only enable it when files change through the application
+ * (or the reconciliation runs after changes made around it): a file replaced
+ * behind the row's back is served with its old size until the next run.
+ */
+@Component
+public class AudioDescriptorCache implements MeterBinder {
+
+    private record Entry(AudioDescriptor descriptor, long expiresAt) {}
+
+    private final AudioRepository audioRepository;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final boolean recordedMetadata;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, Entry> entries;
+    // bumped on invalidation, so a load racing with an update is not stored
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public AudioDescriptorCache(
+            AudioRepository audioRepository,
+            @Value("${app.audio.descriptor-cache.enabled:true}") boolean enabled,
+            @Value("${app.audio.descriptor-cache.max-entries:10000}") int maxEntries,
+            @Value("${app.audio.descriptor-cache.ttl-seconds:600}") long ttlSeconds,
+            @Value("${app.audio.descriptor-cache.recorded-metadata:false}") boolean recordedMetadata) {
+        this(audioRepository, enabled, maxEntries, Duration.ofSeconds(ttlSeconds), recordedMetadata, System::nanoTime);
+    }
+
+    AudioDescriptorCache(AudioRepository audioRepository,
+                         boolean enabled,
+                         int maxEntries,
+                         Duration ttl,
+                         boolean recordedMetadata,
+                         LongSupplier nanoClock) {
+        this.audioRepository = audioRepository;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.recordedMetadata = recordedMetadata;
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > AudioDescriptorCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<AudioDescriptor> find(Long audioId) {
+        if (!enabled) {
+            return load(audioId);
+        }
+
+        long loadGeneration;
+        lock.lock();
+        try {
+            Entry entry = entries.get(audioId);
+            if (entry != null && entry.expiresAt() - nanoClock.getAsLong() > 0) {
+                hits.increment();
+                return Optional.of(entry.descriptor());
+            }
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        misses.increment();
+        Optional<AudioDescriptor> loaded = load(audioId);
+
+        loaded.ifPresent(descriptor -> {
+            lock.lock();
+            try {
+                if (generation == loadGeneration) {
+                    entries.put(audioId, new Entry(descriptor, nanoClock.getAsLong() + ttlNanos));
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+        return loaded;
+    }
+
+    private Optional<AudioDescriptor> load(Long audioId) {
+        return audioRepository.findById(audioId).map(audio -> AudioDescriptor.from(audio, recordedMetadata));
+    }
+
+    /**
+     * @throws AudioNotFoundException if no audio has this id
+     */
+    public AudioDescriptor get(Long audioId) {
+        return find(audioId).orElseThrow(() -> new AudioNotFoundException(audioId));
+    }
+
+    public void invalidate(Long audioId) {
+        lock.lock();
+        try {
+            generation++;
+            entries.remove(audioId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generation++;
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", "audio-descriptors").tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", "audio-descriptors").tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", "audio-descriptors")
+                .register(registry);
+        Gauge.builder("cache.size", this, AudioDescriptorCache::size)
+                .tag("cache", "audio-descriptors")
+                .register(registry);
+    }
+}
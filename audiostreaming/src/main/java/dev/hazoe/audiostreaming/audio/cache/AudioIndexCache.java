@@ -0,0 +1,140 @@
+package dev.hazoe.audiostreaming.audio.cache;
+
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * LRU of per-audio indexes derived from the file contents (HLS segments, seek table).
+ * <p>
+ * Entries are tagged with the version they were built from; a lookup with a
+ * different version reloads, so a replaced file never serves a stale index.
+ * Loads run outside the lock, and concurrent misses for the same audio and
+ * version share one load ({@link SingleFlight}): a new release scans its file
+ * once, not once per request.
+ */
+public final class AudioIndexCache<T> implements MeterBinder {
+
+    private record Entry<T>(String version, T value) {}
+
+    private record Key(Long audioId, String version) {}
+
+    private final String name;
+    private final int maxEntries;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, Entry<T>> entries;
+    private final SingleFlight<Key, T> loads = new SingleFlight<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param name value of the {@code cache} metric tag
+     */
+    public AudioIndexCache(String name, int maxEntries) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry<T>> eldest) {
+                return size() > AudioIndexCache.this.maxEntries;
+            }
+        };
+    }
+
+    public T get(Long audioId, String version, Supplier<T> loader) {
+        T cached = cached(audioId, version);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        try {
+            return loads.execute(new Key(audioId, version), () -> {
+                // published by a load that completed after the lookup above
+                T value = cached(audioId, version);
+                if (value != null) {
+                    return value;
+                }
+                T loaded = loader.get();
+                lock.lock();
+                try {
+                    entries.put(audioId, new Entry<>(version, loaded));
+                } finally {
+                    lock.unlock();
+                }
+                return loaded;
+            });
+        } catch (IOException e) {
+            // only waiting for another caller's load throws it
+            throw new AudioStorageException("Interrupted while loading the " + name + " of audio " + audioId, e);
+        }
+    }
+
+    private T cached(Long audioId, String version) {
+        lock.lock();
+        try {
+            Entry<T> entry = entries.get(audioId);
+            return entry != null && entry.version().equals(version) ? entry.value() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(Long audioId) {
+        lock.lock();
+        try {
+            entries.remove(audioId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long coalescedCount() {
+        return loads.sharedCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", name).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", name).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.loads.coalesced", loads, SingleFlight::sharedCount)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", this, AudioIndexCache::size)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
@@ -3,19 +3,38 @@ package dev.hazoe.audiostreaming.audio.controller;
 import dev.hazoe.audiostreaming.audio.dto.AudioDetailDto;
 import dev.hazoe.audiostreaming.audio.dto.AudioListItemDto;
 import dev.hazoe.audiostreaming.audio.dto.AudioStreamResponse;
+import dev.hazoe.audiostreaming.audio.dto.AudioUploadResponse;
+import dev.hazoe.audiostreaming.audio.ingest.AudioIngestService;
+import dev.hazoe.audiostreaming.audio.ingest.AudioUpload;
+import dev.hazoe.audiostreaming.audio.security.Listener;
+import dev.hazoe.audiostreaming.audio.security.ListenerTier;
 import dev.hazoe.audiostreaming.audio.service.AudioService;
 import dev.hazoe.audiostreaming.audio.service.AudioStreamService;
+import dev.hazoe.audiostreaming.audio.streaming.AccelRedirectSupport;
+import dev.hazoe.audiostreaming.audio.streaming.AsyncStreamDelivery;
+import dev.hazoe.audiostreaming.audio.streaming.ConditionalHeaders;
+import dev.hazoe.audiostreaming.audio.streaming.SendfileSupport;
+import dev.hazoe.audiostreaming.audio.streaming.StreamBody;
+import dev.hazoe.audiostreaming.common.security.UserPrincipal;
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 
 @RestController
 @RequestMapping("/api/audios")
@@ -24,6 +43,10 @@ public class AudioController {
 
     private final AudioService audioService;
     private final AudioStreamService streamService;
+    private final SendfileSupport sendfileSupport;
+    private final AccelRedirectSupport accelRedirectSupport;
+    private final AsyncStreamDelivery asyncStreamDelivery;
+    private final AudioIngestService ingestService;
 
     @GetMapping
     public ResponseEntity<Page<AudioListItemDto>> listAudios(
@@ -41,6 +64,53 @@ public class AudioController {
                         ));
     }
 
+    /**
+     * Uploads an MP3 sent as the raw request body; the body is streamed
+     * through the ingest pipeline without being buffered first. Publishing,
+     * and with it choosing {@code premium}, is reserved to admins.
+     */
+    @PostMapping(consumes = {"audio/mpeg", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AudioUploadResponse> upload(
+            @RequestParam String title,
+            @RequestParam(required = false) String description,
+            @RequestParam(defaultValue = "false") boolean premium,
+            Authentication authentication,
+            HttpServletRequest request
+    ) throws IOException {
+        AudioUploadResponse response = ingestService.ingest(
+                request.getInputStream(),
+                new AudioUpload(title, description, premium),
+                getUserId(authentication));
+        return ResponseEntity
+                .created(URI.create("/api/audios/" + response.id()))
+                .body(response);
+    }
+
+    /**
+     * Uploads an MP3 from a form. The container spools the part to disk
+     * before the handler runs; prefer the raw body for large files.
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AudioUploadResponse> uploadForm(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam String title,
+            @RequestParam(required = false) String description,
+            @RequestParam(defaultValue = "false") boolean premium,
+            Authentication authentication
+    ) {
+        AudioUploadResponse response;
+        try (InputStream body = file.getInputStream()) {
+            response = ingestService.ingest(body, new AudioUpload(title, description, premium), getUserId(authentication));
+        } catch (IOException e) {
+            throw new AudioStorageException("Failed to read uploaded file", e);
+        }
+        return ResponseEntity
+                .created(URI.create("/api/audios/" + response.id()))
+                .body(response);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<AudioDetailDto> getAudio(@PathVariable Long id) {
         return ResponseEntity
@@ -48,20 +118,69 @@ public class AudioController {
                 .body(audioService.getAudioDetail(id));
     }
 
-    @GetMapping("/{id}/stream")
+    @RequestMapping(value = "/{id}/stream", method = {RequestMethod.GET, RequestMethod.HEAD})
     @PreAuthorize("@audioAuth.canStream(#id, authentication)")
-    public ResponseEntity<Resource> stream(
+    public ResponseEntity<StreamBody> stream(
             @PathVariable Long id,
+            @RequestParam(value = "t", required = false) Double seekSeconds,
             @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
-            Authentication authentication
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            Authentication authentication,
+            HttpServletRequest request,
+            HttpServletResponse servletResponse
     ) {
-        AudioStreamResponse response = streamService.stream(id, range);
+        // authorized: let nginx serve the file (Range and conditionals included);
+        // ?t= needs the seek index, so it is served here
+        if (accelRedirectSupport.isEnabled() && seekSeconds == null) {
+            return ResponseEntity.ok()
+                    .headers(accelRedirectSupport.redirectHeaders(id, ListenerTier.of(authentication)))
+                    .build();
+        }
 
-        return ResponseEntity
+        ConditionalHeaders conditions = new ConditionalHeaders(ifNoneMatch, ifModifiedSince, ifRange);
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+
+        // ?t= replaces the Range header with a frame-aligned range
+        AudioStreamResponse response;
+        if (head) {
+            // headers only: no read-ahead, pacing or chunk history
+            response = seekSeconds != null
+                    ? streamService.headSeek(id, seekSeconds, conditions)
+                    : streamService.head(id, range, conditions);
+        } else {
+            Listener listener = Listener.of(authentication, request);
+            response = seekSeconds != null
+                    ? streamService.seek(id, seekSeconds, conditions, listener)
+                    : streamService.stream(id, range, conditions, listener);
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity
                 .status(response.status())
                 .headers(response.headers())
-                .contentType(MediaType.parseMediaType(response.contentType()))
-                .body(response.resource());
+                .contentType(MediaType.parseMediaType(response.contentType()));
+
+        // 304, or HEAD: headers only, the file is never opened
+        if (response.body() == null || head) {
+            return builder.build();
+        }
+
+        // Tomcat writes the file region itself once the handler returns
+        if (sendfileSupport.offer(request, response.body())) {
+            return builder.build();
+        }
+
+        // non-blocking writes on write-readiness callbacks; the request thread returns now
+        if (asyncStreamDelivery.isEnabled()) {
+            asyncStreamDelivery.start(request, servletResponse, response);
+            return null;
+        }
+        return builder.body(response.body());
+    }
+
+    private Long getUserId(Authentication authentication) {
+        return ((UserPrincipal) authentication.getPrincipal()).getUserId();
     }
 
 }
@@ -0,0 +1,48 @@
+package dev.hazoe.audiostreaming.audio.controller;
+
+import dev.hazoe.audiostreaming.audio.dto.AudioStreamResponse;
+import dev.hazoe.audiostreaming.audio.service.HlsService;
+import dev.hazoe.audiostreaming.audio.streaming.StreamBody;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/audios/{id}/hls")
+@RequiredArgsConstructor
+public class HlsController {
+
+    private final HlsService hlsService;
+
+    @GetMapping("/playlist.m3u8")
+    @PreAuthorize("@audioAuth.canStream(#id, authentication)")
+    public ResponseEntity<String> playlist(@PathVariable Long id) {
+        // small and cheap to render; segment URLs change when the file does
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(HlsService.PLAYLIST_CONTENT_TYPE))
+                .cacheControl(CacheControl.noCache())
+                .body(hlsService.playlist(id));
+    }
+
+    @GetMapping("/{version}/{index}.mp3")
+    @PreAuthorize("@audioAuth.canStream(#id, authentication)")
+    public ResponseEntity<StreamBody> segment(
+            @PathVariable Long id,
+            @PathVariable String version,
+            @PathVariable int index
+    ) {
+        AudioStreamResponse response = hlsService.segment(id, version, index);
+
+        return ResponseEntity
+                .status(response.status())
+                .headers(response.headers())
+                .contentType(MediaType.parseMediaType(response.contentType()))
+                .body(response.body());
+    }
+}
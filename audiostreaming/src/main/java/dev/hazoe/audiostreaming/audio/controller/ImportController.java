@@ -0,0 +1,50 @@
+package dev.hazoe.audiostreaming.audio.controller;
+
+import dev.hazoe.audiostreaming.audio.dto.ImportReport;
+import dev.hazoe.audiostreaming.audio.ingest.CatalogImportService;
+import dev.hazoe.audiostreaming.common.security.UserPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Bulk catalog imports. A manifest is posted as {@code text/csv} or JSON Lines
+ * and imported in the background; its report is polled until it completes.
+ */
+@RestController
+@RequestMapping("/api/admin/imports")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class ImportController {
+
+    private final CatalogImportService importService;
+
+    @PostMapping(consumes = {"text/csv", "application/x-ndjson", "application/jsonl"})
+    public ResponseEntity<ImportReport> start(
+            @RequestParam(required = false) Long ownerId,
+            Authentication authentication,
+            HttpServletRequest request
+    ) throws IOException {
+        Long owner = ownerId != null ? ownerId : ((UserPrincipal) authentication.getPrincipal()).getUserId();
+        ImportReport report = importService.start(request.getInputStream(), request.getContentType(), owner);
+        return ResponseEntity
+                .accepted()
+                .location(URI.create("/api/admin/imports/" + report.id()))
+                .body(report);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportReport> status(@PathVariable UUID id) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(importService.status(id));
+    }
+}
@@ -0,0 +1,41 @@
+package dev.hazoe.audiostreaming.audio.controller;
+
+import dev.hazoe.audiostreaming.audio.dto.ReconciliationReport;
+import dev.hazoe.audiostreaming.audio.service.StorageReconciliationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+/**
+ * Storage reconciliation: compares the catalog with the stored files. Runs
+ * also start on a schedule; the report of the latest one is polled here.
+ */
+@RestController
+@RequestMapping("/api/admin/storage/reconciliation")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class ReconciliationController {
+
+    private final StorageReconciliationService reconciliationService;
+
+    @PostMapping
+    public ResponseEntity<ReconciliationReport> start(@RequestParam(defaultValue = "false") boolean verify) {
+        return ResponseEntity
+                .accepted()
+                .location(URI.create("/api/admin/storage/reconciliation"))
+                .body(reconciliationService.start(verify));
+    }
+
+    @GetMapping
+    public ResponseEntity<ReconciliationReport> status() {
+        return reconciliationService.latest()
+                .map(report -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noStore())
+                        .body(report))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
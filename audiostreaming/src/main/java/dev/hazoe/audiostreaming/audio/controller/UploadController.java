@@ -0,0 +1,98 @@
+package dev.hazoe.audiostreaming.audio.controller;
+
+import dev.hazoe.audiostreaming.audio.domain.UploadSession;
+import dev.hazoe.audiostreaming.audio.dto.AudioUploadResponse;
+import dev.hazoe.audiostreaming.audio.dto.UploadSessionResponse;
+import dev.hazoe.audiostreaming.audio.ingest.AudioUpload;
+import dev.hazoe.audiostreaming.audio.ingest.ResumableUploadService;
+import dev.hazoe.audiostreaming.common.security.UserPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+import static dev.hazoe.audiostreaming.audio.ingest.ResumableUploadService.UPLOAD_LENGTH_HEADER;
+import static dev.hazoe.audiostreaming.audio.ingest.ResumableUploadService.UPLOAD_OFFSET_HEADER;
+
+/**
+ * Resumable uploads: {@code POST} opens a session, {@code PATCH} appends bytes
+ * at {@code Upload-Offset}, {@code HEAD} reports the offset to resume from, and
+ * {@code POST .../complete} adds the audio to the catalog. Like the other
+ * upload endpoints, reserved to admins.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class UploadController {
+
+    public static final String CHUNK_CONTENT_TYPE = "application/offset+octet-stream";
+
+    private final ResumableUploadService uploadService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> create(
+            @RequestHeader(UPLOAD_LENGTH_HEADER) long length,
+            @RequestParam String title,
+            @RequestParam(required = false) String description,
+            @RequestParam(defaultValue = "false") boolean premium,
+            Authentication authentication
+    ) {
+        UploadSession session = uploadService.create(
+                new AudioUpload(title, description, premium), length, getUserId(authentication));
+        return ResponseEntity
+                .created(URI.create("/api/uploads/" + session.getId()))
+                .header(UPLOAD_OFFSET_HEADER, "0")
+                .header(UPLOAD_LENGTH_HEADER, Long.toString(length))
+                .body(new UploadSessionResponse(session.getId(), session.getOffset(), session.getLength()));
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> offset(@PathVariable UUID id, Authentication authentication) {
+        UploadSession session = uploadService.get(id, getUserId(authentication));
+        // the offset moves with every PATCH
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(UPLOAD_OFFSET_HEADER, Long.toString(session.getOffset()))
+                .header(UPLOAD_LENGTH_HEADER, Long.toString(session.getLength()))
+                .build();
+    }
+
+    @PatchMapping(value = "/{id}", consumes = CHUNK_CONTENT_TYPE)
+    public ResponseEntity<Void> append(
+            @PathVariable UUID id,
+            @RequestHeader(UPLOAD_OFFSET_HEADER) long offset,
+            Authentication authentication,
+            HttpServletRequest request
+    ) throws IOException {
+        long newOffset = uploadService.append(id, getUserId(authentication), offset, request.getInputStream());
+        return ResponseEntity.noContent()
+                .header(UPLOAD_OFFSET_HEADER, Long.toString(newOffset))
+                .build();
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<AudioUploadResponse> complete(@PathVariable UUID id, Authentication authentication) {
+        AudioUploadResponse response = uploadService.complete(id, getUserId(authentication));
+        return ResponseEntity
+                .created(URI.create("/api/audios/" + response.id()))
+                .body(response);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancel(@PathVariable UUID id, Authentication authentication) {
+        uploadService.cancel(id, getUserId(authentication));
+        return ResponseEntity.noContent().build();
+    }
+
+    private Long getUserId(Authentication authentication) {
+        return ((UserPrincipal) authentication.getPrincipal()).getUserId();
+    }
+}
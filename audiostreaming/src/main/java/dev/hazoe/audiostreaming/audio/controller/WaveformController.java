@@ -0,0 +1,49 @@
+package dev.hazoe.audiostreaming.audio.controller;
+
+import dev.hazoe.audiostreaming.audio.dto.WaveformResponse;
+import dev.hazoe.audiostreaming.audio.service.WaveformService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+
+/**
+ * Waveform peaks of an audio, public like its details: they show the shape of
+ * the track, not its content.
+ */
+@RestController
+@RequestMapping("/api/audios/{id}/waveform")
+@RequiredArgsConstructor
+public class WaveformController {
+
+    // peaks only change when the audio is replaced; revalidation is a 304 by ETag
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
+
+    private final WaveformService waveformService;
+
+    @GetMapping
+    public ResponseEntity<byte[]> waveform(@PathVariable Long id, WebRequest request) {
+        WaveformResponse waveform = waveformService.peaks(id);
+        if (request.checkNotModified(waveform.etag(), waveform.lastModified().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(waveform.etag())
+                    .cacheControl(CACHE_CONTROL)
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .eTag(waveform.etag())
+                .lastModified(waveform.lastModified())
+                .cacheControl(CACHE_CONTROL)
+                .body(waveform.data());
+    }
+}
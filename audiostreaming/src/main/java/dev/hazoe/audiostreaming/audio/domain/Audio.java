@@ -46,6 +46,19 @@ public class Audio {
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
 
+    // file state as last recorded by the storage reconciliation; null until then
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "file_mtime")
+    private Instant fileMtime;
+
+    @Column(name = "file_version", length = 100)
+    private String fileVersion;
+
+    @Column(name = "content_sha256", length = 64)
+    private String contentSha256;
+
     @Column(
             name = "search_vector",
             columnDefinition = "tsvector",
@@ -0,0 +1,23 @@
+package dev.hazoe.audiostreaming.audio.domain;
+
+import java.time.Instant;
+
+/**
+ * The storage key and content type of an audio and the file state recorded for
+ * it, without the rest of the row. The recorded fields are null until the file
+ * was first seen.
+ */
+public record AudioFileState(
+        Long id,
+        String audioPath,
+        String contentType,
+        Long fileSize,
+        Instant fileMtime,
+        String fileVersion,
+        String contentSha256
+) {
+
+    public boolean isRecorded() {
+        return fileSize != null && fileMtime != null && fileVersion != null;
+    }
+}
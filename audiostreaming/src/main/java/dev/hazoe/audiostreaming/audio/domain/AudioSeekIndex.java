@@ -0,0 +1,48 @@
+package dev.hazoe.audiostreaming.audio.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "audio_seek_index")
+public class AudioSeekIndex {
+
+    @Id
+    @Column(name = "audio_id")
+    private Long audioId;
+
+    @Column(name = "source_version", nullable = false, length = 100)
+    private String sourceVersion;
+
+    @Column(name = "frames_per_entry", nullable = false)
+    private Integer framesPerEntry;
+
+    @Column(name = "entry_count", nullable = false)
+    private Integer entryCount;
+
+    @Column(name = "data", nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public AudioSeekIndex(Long audioId,
+                          String sourceVersion,
+                          int framesPerEntry,
+                          int entryCount,
+                          byte[] data) {
+        this.audioId = audioId;
+        this.sourceVersion = sourceVersion;
+        this.framesPerEntry = framesPerEntry;
+        this.entryCount = entryCount;
+        this.data = data;
+        this.createdAt = Instant.now();
+    }
+}
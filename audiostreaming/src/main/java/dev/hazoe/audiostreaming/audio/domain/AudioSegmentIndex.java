@@ -0,0 +1,48 @@
+package dev.hazoe.audiostreaming.audio.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "audio_segment_index")
+public class AudioSegmentIndex {
+
+    @Id
+    @Column(name = "audio_id")
+    private Long audioId;
+
+    @Column(name = "source_version", nullable = false, length = 100)
+    private String sourceVersion;
+
+    @Column(name = "target_duration_millis", nullable = false)
+    private Integer targetDurationMillis;
+
+    @Column(name = "segment_count", nullable = false)
+    private Integer segmentCount;
+
+    @Column(name = "data", nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public AudioSegmentIndex(Long audioId,
+                             String sourceVersion,
+                             int targetDurationMillis,
+                             int segmentCount,
+                             byte[] data) {
+        this.audioId = audioId;
+        this.sourceVersion = sourceVersion;
+        this.targetDurationMillis = targetDurationMillis;
+        this.segmentCount = segmentCount;
+        this.data = data;
+        this.createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,64 @@
+package dev.hazoe.audiostreaming.audio.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "upload_session")
+public class UploadSession {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(nullable = false, length = 255)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "is_premium", nullable = false)
+    private boolean isPremium;
+
+    @Column(name = "upload_length", nullable = false)
+    private long length;
+
+    @Column(name = "upload_offset", nullable = false)
+    private long offset;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public UploadSession(Long ownerId,
+                         String title,
+                         String description,
+                         boolean isPremium,
+                         long length) {
+        this.id = UUID.randomUUID();
+        this.ownerId = ownerId;
+        this.title = title;
+        this.description = description;
+        this.isPremium = isPremium;
+        this.length = length;
+        this.offset = 0;
+        this.createdAt = Instant.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    public boolean isComplete() {
+        return offset == length;
+    }
+}
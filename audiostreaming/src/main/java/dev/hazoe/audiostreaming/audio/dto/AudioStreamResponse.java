@@ -1,12 +1,12 @@
 package dev.hazoe.audiostreaming.audio.dto;
 
-import org.springframework.core.io.Resource;
+import dev.hazoe.audiostreaming.audio.streaming.StreamBody;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 
 
 public record AudioStreamResponse(
-        Resource resource,
+        StreamBody body,
         HttpHeaders headers,
         HttpStatus status,
         String contentType
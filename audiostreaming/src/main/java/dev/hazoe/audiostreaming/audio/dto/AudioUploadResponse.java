@@ -0,0 +1,11 @@
+package dev.hazoe.audiostreaming.audio.dto;
+
+public record AudioUploadResponse(
+        Long id,
+        String title,
+        int durationSeconds,
+        String contentType,
+        long sizeBytes,
+        String sha256
+) {
+}
@@ -0,0 +1,29 @@
+package dev.hazoe.audiostreaming.audio.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Progress of a catalog import; counts grow while the import runs.
+ *
+ * @param duplicates verified rows not inserted because their audio path is already in the
+ *                   catalog or repeated in the manifest
+ * @param rejections the first rejected records, by manifest line
+ */
+public record ImportReport(
+        UUID id,
+        String phase,
+        long read,
+        long verified,
+        long rejected,
+        long inserted,
+        long duplicates,
+        Instant startedAt,
+        Instant finishedAt,
+        String error,
+        List<Rejection> rejections
+) {
+
+    public record Rejection(long line, String reason) {}
+}
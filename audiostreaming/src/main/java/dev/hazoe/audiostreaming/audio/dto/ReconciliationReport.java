@@ -0,0 +1,35 @@
+package dev.hazoe.audiostreaming.audio.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress of a storage reconciliation; counts grow while it runs.
+ *
+ * @param verify     whether unchanged files were hashed again as well
+ * @param updated    rows whose file state was recorded for the first time or changed
+ * @param mismatched files whose size and version are unchanged but whose content hash is not
+ * @param orphans    stored objects no row points to; -1 if the storage cannot list its objects
+ * @param findings   the first missing, orphaned, mismatched and unreadable files
+ */
+public record ReconciliationReport(
+        boolean verify,
+        String phase,
+        long checked,
+        long unchanged,
+        long updated,
+        long mismatched,
+        long missing,
+        long orphans,
+        long failed,
+        Instant startedAt,
+        Instant finishedAt,
+        String error,
+        List<Finding> findings
+) {
+
+    /**
+     * @param audioId null for orphans
+     */
+    public record Finding(String type, Long audioId, String key) {}
+}
@@ -0,0 +1,10 @@
+package dev.hazoe.audiostreaming.audio.dto;
+
+import java.util.UUID;
+
+public record UploadSessionResponse(
+        UUID id,
+        long offset,
+        long length
+) {
+}
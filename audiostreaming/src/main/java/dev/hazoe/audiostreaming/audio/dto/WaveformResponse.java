@@ -0,0 +1,12 @@
+package dev.hazoe.audiostreaming.audio.dto;
+
+import java.time.Instant;
+
+/**
+ * An encoded {@link dev.hazoe.audiostreaming.audio.waveform.WaveformPeaks} file with its validators.
+ */
+public record WaveformResponse(
+        byte[] data,
+        String etag,
+        Instant lastModified
+) {}
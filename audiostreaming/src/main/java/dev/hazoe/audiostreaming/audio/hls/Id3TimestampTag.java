@@ -0,0 +1,49 @@
+package dev.hazoe.audiostreaming.audio.hls;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The ID3 tag HLS requires at the start of every packed audio segment
+ * (RFC 8216 §3.4): a {@code PRIV} frame carrying the 33-bit MPEG-2 timestamp
+ * (90 kHz) of the first sample, so players can place segments on the timeline.
+ */
+public final class Id3TimestampTag {
+
+    static final String OWNER = "com.apple.streaming.transportStreamTimestamp";
+
+    private static final int HEADER_SIZE = 10;
+
+    private Id3TimestampTag() {
+    }
+
+    public static byte[] of(long startMicros) {
+        byte[] owner = OWNER.getBytes(StandardCharsets.ISO_8859_1);
+        int frameBody = owner.length + 1 + 8;
+        int tagBody = HEADER_SIZE + frameBody;
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + tagBody);
+
+        // ID3v2.4 header
+        buffer.put((byte) 'I').put((byte) 'D').put((byte) '3')
+                .put((byte) 4).put((byte) 0)
+                .put((byte) 0)
+                .putInt(syncsafe(tagBody));
+
+        // PRIV frame
+        buffer.put((byte) 'P').put((byte) 'R').put((byte) 'I').put((byte) 'V')
+                .putInt(syncsafe(frameBody))
+                .putShort((short) 0)
+                .put(owner).put((byte) 0)
+                .putLong((startMicros * 9 / 100) & 0x1_FFFF_FFFFL);
+
+        return buffer.array();
+    }
+
+    private static int syncsafe(int value) {
+        return ((value & 0x0FE00000) << 3)
+                | ((value & 0x001FC000) << 2)
+                | ((value & 0x00003F80) << 1)
+                | (value & 0x0000007F);
+    }
+}
@@ -0,0 +1,142 @@
+package dev.hazoe.audiostreaming.audio.hls;
+
+import dev.hazoe.audiostreaming.audio.mp3.Mp3FrameHeader;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3FrameScanner;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Frame-aligned HLS segment boundaries of one audio file.
+ * <p>
+ * Built once by scanning the file and persisted in a compact binary form
+ * (16 bytes per segment), so playlists and segments are served without
+ * reading the MP3 again. {@code sourceVersion} ties the index to the exact
+ * file it was built from.
+ */
+public record SegmentIndex(String sourceVersion, List<Segment> segments) {
+
+    private static final int SEGMENT_BYTES = 16;
+
+    /**
+     * @param offset         byte offset of the first frame of the segment
+     * @param length         bytes up to the end of its last frame
+     * @param startMicros    presentation time of the first frame
+     * @param durationMicros playback duration of the segment
+     */
+    public record Segment(long offset, int length, long startMicros, int durationMicros) {}
+
+    public SegmentIndex {
+        segments = List.copyOf(segments);
+    }
+
+    public int size() {
+        return segments.size();
+    }
+
+    public Segment segment(int index) {
+        return segments.get(index);
+    }
+
+    public long maxDurationMicros() {
+        long max = 0;
+        for (Segment segment : segments) {
+            max = Math.max(max, segment.durationMicros());
+        }
+        return max;
+    }
+
+    /**
+     * Offset, length and duration only; start times are recomputed on decode.
+     */
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(segments.size() * SEGMENT_BYTES);
+        for (Segment segment : segments) {
+            buffer.putLong(segment.offset())
+                    .putInt(segment.length())
+                    .putInt(segment.durationMicros());
+        }
+        return buffer.array();
+    }
+
+    public static SegmentIndex decode(String sourceVersion, byte[] data) {
+        if (data.length % SEGMENT_BYTES != 0) {
+            throw new IllegalArgumentException("Corrupt segment index: " + data.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        List<Segment> segments = new ArrayList<>(data.length / SEGMENT_BYTES);
+        long start = 0;
+        while (buffer.hasRemaining()) {
+            long offset = buffer.getLong();
+            int length = buffer.getInt();
+            int duration = buffer.getInt();
+            segments.add(new Segment(offset, length, start, duration));
+            start += duration;
+        }
+        return new SegmentIndex(sourceVersion, segments);
+    }
+
+    public static Builder builder(long targetDurationMicros) {
+        return new Builder(targetDurationMicros);
+    }
+
+    /**
+     * Groups scanned frames into segments, closing a segment at the first frame
+     * boundary at or after the target duration. Durations are accumulated in
+     * samples so rounding does not drift over long files.
+     */
+    public static final class Builder implements Mp3FrameScanner.FrameVisitor {
+
+        private final long targetDurationMicros;
+        private final List<Segment> segments = new ArrayList<>();
+
+        private long segmentOffset = -1;
+        private long segmentEnd;
+        private long segmentSamples;
+        private long totalSamples;
+        private int sampleRate;
+
+        private Builder(long targetDurationMicros) {
+            this.targetDurationMicros = targetDurationMicros;
+        }
+
+        @Override
+        public void frame(long offset, Mp3FrameHeader header) {
+            if (segmentOffset < 0) {
+                segmentOffset = offset;
+                sampleRate = header.sampleRate();
+            }
+            segmentEnd = offset + header.frameLength();
+            segmentSamples += header.samplesPerFrame();
+
+            if (micros(segmentSamples) >= targetDurationMicros) {
+                close();
+            }
+        }
+
+        public SegmentIndex build(String sourceVersion) {
+            if (segmentOffset >= 0) {
+                close();
+            }
+            return new SegmentIndex(sourceVersion, segments);
+        }
+
+        private void close() {
+            long start = micros(totalSamples);
+            totalSamples += segmentSamples;
+            segments.add(new Segment(
+                    segmentOffset,
+                    Math.toIntExact(segmentEnd - segmentOffset),
+                    start,
+                    (int) (micros(totalSamples) - start)
+            ));
+            segmentOffset = -1;
+            segmentSamples = 0;
+        }
+
+        private long micros(long samples) {
+            return samples * 1_000_000L / sampleRate;
+        }
+    }
+}
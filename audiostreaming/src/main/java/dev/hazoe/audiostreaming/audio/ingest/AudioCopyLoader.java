@@ -0,0 +1,288 @@
+package dev.hazoe.audiostreaming.audio.ingest;
+
+import dev.hazoe.audiostreaming.audio.mp3.Mp3SeekIndex;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HexFormat;
+import java.util.Iterator;
+
+/**
+ * Loads verified manifest rows into {@code audio}.
+ * <p>
+ * Rows are streamed with {@code COPY} into a temporary table while verification
+ * is still running, then moved in one transaction with one
+ * {@code INSERT ... SELECT} that skips audio paths already in the catalog, so an
+ * interrupted import can be re-run. Rows carry the file state seen by verification,
+ * and the seek indexes built by it are inserted in the same transaction.
+ * <p>
+ * Every inserted row also updates the GIN index on {@code search_vector}. When
+ * the import is large compared to the table, the index is dropped before the
+ * insert and built once afterwards, which is much cheaper than that many
+ * incremental updates. Both happen {@code CONCURRENTLY}, outside the insert's
+ * transaction, so reads and writes of {@code audio} carry on; searches just run
+ * without the index until it is valid again. Smaller imports keep the index and
+ * let the rows collect in its pending list, merged into the index once at the end.
+ */
+@Slf4j
+@Component
+public class AudioCopyLoader {
+
+    record Result(long inserted, long duplicates, boolean indexRebuilt) {}
+
+    static final String SEARCH_INDEX = "idx_audio_search_vector";
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE audio_import
+            (
+                audio_path       VARCHAR(255) NOT NULL,
+                title            VARCHAR(255) NOT NULL,
+                description      TEXT,
+                duration_seconds INTEGER      NOT NULL,
+                content_type     VARCHAR(100) NOT NULL,
+                cover_path       VARCHAR(255),
+                is_premium       BOOLEAN      NOT NULL,
+                owner_id         BIGINT       NOT NULL,
+                file_size        BIGINT,
+                file_mtime       TIMESTAMP(6) WITH TIME ZONE,
+                file_version     VARCHAR(100),
+                frames_per_entry INTEGER,
+                entry_count      INTEGER,
+                seek_index       BYTEA
+            )""";
+
+    private static final String COPY_STAGING = """
+            COPY audio_import (audio_path, title, description, duration_seconds,
+                               content_type, cover_path, is_premium, owner_id,
+                               file_size, file_mtime, file_version,
+                               frames_per_entry, entry_count, seek_index)
+            FROM STDIN WITH (FORMAT csv)""";
+
+    private static final String INSERT_FROM_STAGING = """
+            INSERT INTO audio (audio_path, title, description, duration_seconds,
+                               content_type, cover_path, is_premium, owner_id, created_at,
+                               file_size, file_mtime, file_version)
+            SELECT DISTINCT ON (i.audio_path)
+                   i.audio_path, i.title, i.description, i.duration_seconds,
+                   i.content_type, i.cover_path, i.is_premium, i.owner_id, now(),
+                   i.file_size, i.file_mtime, i.file_version
+            FROM audio_import i
+            WHERE NOT EXISTS (SELECT 1 FROM audio a WHERE a.audio_path = i.audio_path)
+            ORDER BY i.audio_path""";
+
+    // matched by path and version, so only rows whose file is the one scanned get an index
+    private static final String INSERT_SEEK_INDEXES = """
+            INSERT INTO audio_seek_index (audio_id, source_version, frames_per_entry,
+                                          entry_count, data, created_at)
+            SELECT DISTINCT ON (a.id)
+                   a.id, i.file_version, i.frames_per_entry, i.entry_count, i.seek_index, now()
+            FROM audio_import i
+                     JOIN audio a ON a.audio_path = i.audio_path AND a.file_version = i.file_version
+            WHERE i.seek_index IS NOT NULL
+            ORDER BY a.id
+            ON CONFLICT (audio_id) DO NOTHING""";
+
+    private static final String CREATE_SEARCH_INDEX =
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + SEARCH_INDEX + " ON audio USING GIN (search_vector)";
+
+    private static final String ESTIMATED_ROWS =
+            "SELECT greatest(reltuples, 0)::bigint FROM pg_class WHERE oid = 'audio'::regclass";
+
+    // kB; large enough that a small import is merged into the index in one pass
+    private static final int GIN_PENDING_LIST_KB = 64 * 1024;
+
+    private final DataSource dataSource;
+    private final double rebuildRatio;
+    private final String maintenanceWorkMem;
+
+    public AudioCopyLoader(
+            DataSource dataSource,
+            @Value("${app.import.index-rebuild-ratio:0.2}") double rebuildRatio,
+            @Value("${app.import.maintenance-work-mem:512MB}") String maintenanceWorkMem) {
+        if (!maintenanceWorkMem.matches("\\d+\\s*[kMG]B")) {
+            throw new IllegalArgumentException("app.import.maintenance-work-mem must look like 512MB");
+        }
+        this.dataSource = dataSource;
+        this.rebuildRatio = rebuildRatio;
+        this.maintenanceWorkMem = maintenanceWorkMem;
+    }
+
+    /**
+     * Copies {@code rows} as they become available, then inserts them.
+     * Nothing is inserted if {@code rows} throws.
+     *
+     * @param onCopied called once every row is copied, before the insert starts
+     */
+    Result load(Iterator<ImportEntry> rows, Runnable onCopied) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            try {
+                // repairs an index lost by an import that died between drop and rebuild
+                statement.execute(CREATE_SEARCH_INDEX);
+
+                long staged = inTransaction(connection, () -> stage(connection, statement, rows));
+                onCopied.run();
+
+                boolean rebuild = staged > 0 && staged >= rebuildRatio * estimatedRows(statement);
+                long inserted = rebuild
+                        ? insertWithoutIndex(connection, statement)
+                        : inTransaction(connection, () -> insertIntoIndex(statement));
+                // fresh statistics for the search and listing plans
+                statement.execute("ANALYZE audio");
+
+                log.info("Imported {} audio rows ({} staged, search index {})",
+                        inserted, staged, rebuild ? "rebuilt" : "updated in place");
+                return new Result(inserted, staged - inserted, rebuild);
+            } finally {
+                // the temporary table lives as long as the pooled connection
+                statement.execute("DROP TABLE IF EXISTS audio_import");
+            }
+        }
+    }
+
+    private static long stage(Connection connection, Statement statement, Iterator<ImportEntry> rows)
+            throws SQLException, IOException {
+        statement.execute(CREATE_STAGING);
+
+        long staged = 0;
+        PGConnection pg = connection.unwrap(PGConnection.class);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new PGCopyOutputStream(pg, COPY_STAGING, 64 * 1024), StandardCharsets.UTF_8))) {
+            while (rows.hasNext()) {
+                writeRow(out, rows.next());
+                staged++;
+            }
+        }
+        return staged;
+    }
+
+    private static long insertIntoIndex(Statement statement) throws SQLException {
+        statement.execute("SET LOCAL gin_pending_list_limit = " + GIN_PENDING_LIST_KB);
+        long inserted = insertRows(statement);
+        statement.execute("SELECT gin_clean_pending_list('" + SEARCH_INDEX + "'::regclass)");
+        return inserted;
+    }
+
+    /**
+     * Drops the search index, inserts, and builds the index again, even if the
+     * insert failed. CONCURRENTLY waits for running queries instead of locking
+     * them out, and cannot run inside a transaction.
+     */
+    private long insertWithoutIndex(Connection connection, Statement statement) throws SQLException, IOException {
+        statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + SEARCH_INDEX);
+        try {
+            return inTransaction(connection, () -> insertRows(statement));
+        } finally {
+            statement.execute("SET maintenance_work_mem = '" + maintenanceWorkMem + "'");
+            try {
+                statement.execute(CREATE_SEARCH_INDEX);
+            } catch (SQLException e) {
+                // a failed concurrent build leaves an invalid index behind
+                statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + SEARCH_INDEX);
+                throw e;
+            } finally {
+                statement.execute("RESET maintenance_work_mem");
+            }
+        }
+    }
+
+    private static long insertRows(Statement statement) throws SQLException {
+        long inserted = statement.executeUpdate(INSERT_FROM_STAGING);
+        statement.executeUpdate(INSERT_SEEK_INDEXES);
+        return inserted;
+    }
+
+    private static long inTransaction(Connection connection, Work work) throws SQLException, IOException {
+        connection.setAutoCommit(false);
+        try {
+            long result = work.run();
+            connection.commit();
+            return result;
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private interface Work {
+        long run() throws SQLException, IOException;
+    }
+
+    private static long estimatedRows(Statement statement) throws SQLException {
+        try (ResultSet result = statement.executeQuery(ESTIMATED_ROWS)) {
+            return result.next() ? result.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * One row in COPY's CSV format: strings quoted, NULL as an empty unquoted field,
+     * the seek index as bytea hex.
+     */
+    static void writeRow(Writer out, ImportEntry entry) throws IOException {
+        quoted(out, entry.audioPath());
+        out.write(',');
+        quoted(out, entry.title());
+        out.write(',');
+        quoted(out, entry.description());
+        out.write(',');
+        out.write(Integer.toString(entry.durationSeconds()));
+        out.write(',');
+        quoted(out, entry.contentType());
+        out.write(',');
+        quoted(out, entry.coverPath());
+        out.write(',');
+        out.write(entry.premium() ? "true" : "false");
+        out.write(',');
+        out.write(Long.toString(entry.ownerId()));
+        out.write(',');
+        StorageObject file = entry.file();
+        if (file != null) {
+            out.write(Long.toString(file.size()));
+            out.write(',');
+            out.write(file.lastModified().toString());
+            out.write(',');
+            quoted(out, file.version());
+        } else {
+            out.write(",,");
+        }
+        out.write(',');
+        Mp3SeekIndex index = entry.seekIndex();
+        if (index != null) {
+            out.write(Integer.toString(index.framesPerEntry()));
+            out.write(',');
+            out.write(Integer.toString(index.entryCount()));
+            out.write(',');
+            // bytea hex input
+            out.write("\\x");
+            out.write(HexFormat.of().formatHex(index.encode()));
+        } else {
+            out.write(",,");
+        }
+        out.write('\n');
+    }
+
+    private static void quoted(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
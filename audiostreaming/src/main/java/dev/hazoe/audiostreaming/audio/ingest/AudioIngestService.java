@@ -0,0 +1,330 @@
+package dev.hazoe.audiostreaming.audio.ingest;
+
+import dev.hazoe.audiostreaming.audio.domain.Audio;
+import dev.hazoe.audiostreaming.audio.dto.AudioUploadResponse;
+import dev.hazoe.audiostreaming.audio.repository.AudioRepository;
+import dev.hazoe.audiostreaming.audio.service.SeekIndexService;
+import dev.hazoe.audiostreaming.audio.service.WaveformService;
+import dev.hazoe.audiostreaming.audio.storage.AudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import dev.hazoe.audiostreaming.common.exception.UnsupportedAudioException;
+import dev.hazoe.audiostreaming.common.exception.UploadTooLargeException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adds audio to the catalog from an upload stream.
+ * <p>
+ * The request thread copies the body to a staging file in fixed-size buffers,
+ * while an {@link UploadScanner} on a virtual thread checksums the same
+ * buffers and scans their MP3 frames. When the body ends, size, checksum,
+ * duration and seek index are already known: the file is moved into storage,
+ * the {@link Audio} row inserted with its file state and the seek index saved,
+ * so the first seek needs no scan and the reconciliation no hash. Heap use per upload is bounded by the buffer pool.
+ * The waveform is queued for computation as soon as the row exists.
+ * <p>
+ * Resumable uploads are staged by {@link ResumableUploadService} and enter the
+ * same pipeline through {@link #ingest(Path, AudioUpload, Long)}.
+ * <p>
+ * A row is only inserted once the file is in storage. If the insert fails, the
+ * stored file is left behind as an orphan for the storage reconciliation to report.
+ */
+@Slf4j
+@Service
+public class AudioIngestService implements MeterBinder, DisposableBean {
+
+    static final String MP3_CONTENT_TYPE = "audio/mpeg";
+
+    private final AudioStorage audioStorage;
+    private final AudioRepository audioRepository;
+    private final SeekIndexService seekIndexService;
+    private final WaveformService waveformService;
+    private final Path stagingDir;
+    private final long maxBytes;
+    private final int bufferSize;
+    private final int buffers;
+
+    private final ExecutorService scanners = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("upload-scanner-", 0).factory());
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    public AudioIngestService(
+            AudioStorage audioStorage,
+            AudioRepository audioRepository,
+            SeekIndexService seekIndexService,
+            WaveformService waveformService,
+            @Value("${app.ingest.staging-dir:${java.io.tmpdir}/audio-ingest}") String stagingDir,
+            @Value("${app.ingest.max-bytes:2147483648}") long maxBytes,
+            @Value("${app.ingest.buffer-size:65536}") int bufferSize,
+            @Value("${app.ingest.buffers:4}") int buffers) throws IOException {
+        this.audioStorage = audioStorage;
+        this.audioRepository = audioRepository;
+        this.seekIndexService = seekIndexService;
+        this.waveformService = waveformService;
+        this.stagingDir = Files.createDirectories(Path.of(stagingDir));
+        this.maxBytes = maxBytes;
+        this.bufferSize = bufferSize;
+        this.buffers = buffers;
+    }
+
+    /**
+     * Stores the uploaded MP3 and creates its catalog entry.
+     *
+     * @throws UnsupportedAudioException if the body holds no MPEG audio frames
+     * @throws UploadTooLargeException   if the body exceeds {@code app.ingest.max-bytes}
+     */
+    public AudioUploadResponse ingest(InputStream body, AudioUpload upload, Long ownerId) {
+        Path staged = null;
+        try {
+            staged = Files.createTempFile(stagingDir, "upload-", ".part");
+            UploadScanner.Result scanned;
+            try (FileChannel out = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+                scanned = scan(buffer -> fill(body, buffer), out);
+            }
+            return register(staged, scanned, upload, ownerId);
+        } catch (IOException | RuntimeException e) {
+            throw failure(e);
+        } finally {
+            deleteQuietly(staged);
+        }
+    }
+
+    /**
+     * Creates a catalog entry from a file that is already complete on local
+     * disk, e.g. a finished resumable upload. The file is scanned with the same
+     * pipeline as a streamed body and moved into storage on success; on failure
+     * it is left in place for the caller to retry or discard.
+     *
+     * @throws UnsupportedAudioException if the file holds no MPEG audio frames
+     * @throws UploadTooLargeException   if the file exceeds {@code app.ingest.max-bytes}
+     */
+    public AudioUploadResponse ingest(Path file, AudioUpload upload, Long ownerId) {
+        try {
+            UploadScanner.Result scanned;
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                scanned = scan(buffer -> fill(in, buffer), null);
+            }
+            return register(file, scanned, upload, ownerId);
+        } catch (IOException | RuntimeException e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * Moves the scanned file into storage, then inserts the row and saves the seek index.
+     */
+    private AudioUploadResponse register(Path staged,
+                                         UploadScanner.Result scanned,
+                                         AudioUpload upload,
+                                         Long ownerId) throws IOException {
+        if (scanned.index().frameCount() == 0) {
+            throw new UnsupportedAudioException("No MPEG audio frames in upload");
+        }
+
+        String key = newKey();
+        StorageObject object = audioStorage.store(key, staged);
+
+        Audio audio = audioRepository.save(Audio.builder()
+                .title(upload.title())
+                .description(upload.description())
+                .durationSeconds((int) Math.round(scanned.index().durationSeconds()))
+                .audioPath(key)
+                .contentType(MP3_CONTENT_TYPE)
+                .isPremium(upload.premium())
+                .ownerId(ownerId)
+                .fileSize(object.size())
+                .fileMtime(object.lastModified())
+                .fileVersion(object.version())
+                .contentSha256(scanned.sha256())
+                .build());
+        saveSeekIndex(audio, object, scanned);
+        // if the queue is full, the backfill picks it up
+        waveformService.schedule(audio.getId());
+
+        created.increment();
+        bytes.add(scanned.size());
+        log.info("Ingested audio {} ({} bytes, {} s, sha256 {}) as {}",
+                audio.getId(), scanned.size(), audio.getDurationSeconds(), scanned.sha256(), key);
+        return new AudioUploadResponse(
+                audio.getId(),
+                audio.getTitle(),
+                audio.getDurationSeconds(),
+                audio.getContentType(),
+                scanned.size(),
+                scanned.sha256()
+        );
+    }
+
+    private RuntimeException failure(Exception e) {
+        if (e instanceof UnsupportedAudioException || e instanceof UploadTooLargeException) {
+            rejected.increment();
+            return (RuntimeException) e;
+        }
+        failed.increment();
+        return e instanceof RuntimeException runtime
+                ? runtime
+                : new AudioStorageException("Failed to store upload", e);
+    }
+
+    @FunctionalInterface
+    private interface Filler {
+
+        /**
+         * @return bytes read, or -1 at the end of the input
+         */
+        int fill(ByteBuffer buffer) throws IOException;
+    }
+
+    /**
+     * Runs the input through the scanner, copying each buffer to {@code copy}
+     * (if not null) while the scanner works on the one before.
+     */
+    private UploadScanner.Result scan(Filler input, FileChannel copy) throws IOException {
+        UploadScanner scanner = new UploadScanner(buffers, bufferSize, seekIndexService.framesPerEntry());
+        Future<UploadScanner.Result> scan = scanners.submit(scanner);
+
+        boolean complete = false;
+        try {
+            long received = 0;
+            while (true) {
+                ByteBuffer buffer = scanner.take();
+                int read = input.fill(buffer);
+                if (read < 0) {
+                    break;
+                }
+                received += read;
+                if (received > maxBytes) {
+                    throw new UploadTooLargeException(maxBytes);
+                }
+
+                buffer.flip();
+                if (copy != null) {
+                    ByteBuffer write = buffer.duplicate();
+                    while (write.hasRemaining()) {
+                        copy.write(write);
+                    }
+                }
+                scanner.submit(buffer);
+            }
+            complete = true;
+        } finally {
+            scanner.finish();
+            if (!complete) {
+                scan.cancel(true);
+            }
+        }
+
+        try {
+            return scan.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while scanning upload", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new AudioStorageException("Failed to scan upload", e.getCause());
+        }
+    }
+
+    /**
+     * Reads until the buffer is full or the body ends, so buffers are written whole.
+     *
+     * @return bytes read, or -1 at the end of the body
+     */
+    private static int fill(InputStream body, ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            int read = body.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            if (read < 0) {
+                break;
+            }
+            buffer.position(buffer.position() + read);
+        }
+        int count = buffer.position() - start;
+        return count == 0 ? -1 : count;
+    }
+
+    private static int fill(ReadableByteChannel in, ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                break;
+            }
+        }
+        int count = buffer.position() - start;
+        return count == 0 ? -1 : count;
+    }
+
+    private void saveSeekIndex(Audio audio, StorageObject object, UploadScanner.Result scanned) {
+        try {
+            seekIndexService.save(audio.getId(), object, scanned.index());
+        } catch (RuntimeException e) {
+            // rebuilt from the file on the first seek
+            log.warn("Failed to save seek index of audio {}: {}", audio.getId(), e.toString());
+        }
+    }
+
+    private static String newKey() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        return "audio/%d/%02d/%s.mp3".formatted(today.getYear(), today.getMonthValue(), UUID.randomUUID());
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete staged upload {}: {}", path, e.toString());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("audio.uploads", created, LongAdder::sum)
+                .tag("result", "created")
+                .register(registry);
+        FunctionCounter.builder("audio.uploads", rejected, LongAdder::sum)
+                .tag("result", "rejected")
+                .register(registry);
+        FunctionCounter.builder("audio.uploads", failed, LongAdder::sum)
+                .tag("result", "failed")
+                .register(registry);
+        FunctionCounter.builder("audio.uploads.bytes", bytes, LongAdder::sum)
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        scanners.shutdownNow();
+    }
+}
@@ -0,0 +1,10 @@
+package dev.hazoe.audiostreaming.audio.ingest;
+
+/**
+ * Catalog fields supplied with an upload; everything else is read from the file.
+ */
+public record AudioUpload(
+        String title,
+        String description,
+        boolean premium
+) {}
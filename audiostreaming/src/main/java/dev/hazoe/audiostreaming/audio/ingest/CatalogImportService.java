@@ -0,0 +1,338 @@
+package dev.hazoe.audiostreaming.audio.ingest;
+
+import dev.hazoe.audiostreaming.audio.dto.ImportReport;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3FrameScanner;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3SeekIndex;
+import dev.hazoe.audiostreaming.audio.service.SeekIndexService;
+import dev.hazoe.audiostreaming.audio.storage.AudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import dev.hazoe.audiostreaming.common.exception.ImportNotFoundException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Imports catalog entries in bulk from a CSV or JSON Lines manifest.
+ * <p>
+ * A reader thread parses the manifest and starts one virtual thread per entry
+ * to check its file: it must exist in storage, match {@code size_bytes} if
+ * given, and MP3 files are scanned for their duration (compared against
+ * {@code duration_seconds} if given). The scan builds the seek index, which is
+ * loaded with the row like the file state, as an upload does. At most
+ * {@code parallelism} checks run at once. Entries that pass are streamed
+ * straight into {@link AudioCopyLoader}; the others are counted and reported
+ * by manifest line.
+ * <p>
+ * Imports run one at a time on a dedicated thread. Their progress stays
+ * available for the last {@value #MAX_JOBS} imports.
+ */
+@Slf4j
+@Service
+public class CatalogImportService implements MeterBinder, DisposableBean {
+
+    private static final int MAX_JOBS = 50;
+
+    private final AudioStorage audioStorage;
+    private final SeekIndexService seekIndexService;
+    private final AudioCopyLoader loader;
+    private final ObjectMapper objectMapper;
+    private final Path stagingDir;
+    private final int parallelism;
+    private final boolean scanDuration;
+    private final int durationToleranceSeconds;
+
+    private final ExecutorService imports = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("catalog-import").factory());
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<UUID, ImportJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, ImportJob> eldest) {
+            return size() > MAX_JOBS;
+        }
+    };
+
+    private final LongAdder inserted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    public CatalogImportService(
+            AudioStorage audioStorage,
+            SeekIndexService seekIndexService,
+            AudioCopyLoader loader,
+            ObjectMapper objectMapper,
+            @Value("${app.ingest.staging-dir:${java.io.tmpdir}/audio-ingest}") String stagingDir,
+            @Value("${app.import.parallelism:32}") int parallelism,
+            @Value("${app.import.scan-duration:true}") boolean scanDuration,
+            @Value("${app.import.duration-tolerance-seconds:2}") int durationToleranceSeconds) throws IOException {
+        this.audioStorage = audioStorage;
+        this.seekIndexService = seekIndexService;
+        this.loader = loader;
+        this.objectMapper = objectMapper;
+        this.stagingDir = Files.createDirectories(Path.of(stagingDir));
+        this.parallelism = parallelism;
+        this.scanDuration = scanDuration;
+        this.durationToleranceSeconds = durationToleranceSeconds;
+    }
+
+    /**
+     * Saves the manifest and queues its import.
+     *
+     * @param contentType {@code text/csv} for CSV, anything else for JSON Lines
+     * @param ownerId     owner of entries without {@code owner_id}
+     */
+    public ImportReport start(InputStream manifest, String contentType, Long ownerId) {
+        ImportManifest.Format format = ImportManifest.Format.ofContentType(contentType);
+        Path file;
+        try {
+            file = Files.createTempFile(stagingDir, "manifest-", ".part");
+            Files.copy(manifest, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new AudioStorageException("Failed to save import manifest", e);
+        }
+
+        ImportJob job = new ImportJob();
+        lock.lock();
+        try {
+            jobs.put(job.id(), job);
+        } finally {
+            lock.unlock();
+        }
+        imports.execute(() -> run(job, file, format, ownerId));
+        return job.report();
+    }
+
+    public ImportReport status(UUID id) {
+        lock.lock();
+        try {
+            ImportJob job = jobs.get(id);
+            if (job == null) {
+                throw new ImportNotFoundException(id);
+            }
+            return job.report();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void run(ImportJob job, Path file, ImportManifest.Format format, long ownerId) {
+        job.start();
+        try (Verification verified = new Verification(job, file, format, ownerId)) {
+            AudioCopyLoader.Result result = loader.load(verified, job::loading);
+            job.complete(result.inserted(), result.duplicates());
+            inserted.add(result.inserted());
+            duplicates.add(result.duplicates());
+        } catch (Exception e) {
+            log.warn("Catalog import {} failed: {}", job.id(), e.toString());
+            job.fail(e.getMessage());
+        } finally {
+            rejected.add(job.report().rejected());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete import manifest {}: {}", file, e.toString());
+            }
+        }
+    }
+
+    /**
+     * Checks one entry against storage.
+     *
+     * @return the entry with its file state, and with its duration and seek index
+     *         filled in from the file if scanned
+     * @throws IllegalArgumentException if the entry does not match its file
+     */
+    ImportEntry verify(ImportEntry entry) throws IOException {
+        StorageObject object = audioStorage.stat(entry.audioPath());
+        if (entry.sizeBytes() != null && entry.sizeBytes() != object.size()) {
+            throw new IllegalArgumentException(
+                    "size is " + object.size() + " bytes, manifest says " + entry.sizeBytes());
+        }
+
+        if (!scanDuration || !AudioIngestService.MP3_CONTENT_TYPE.equals(entry.contentType())) {
+            if (entry.durationSeconds() == null) {
+                throw new IllegalArgumentException("duration_seconds is required for files that are not scanned");
+            }
+            return entry.verified(object, entry.durationSeconds(), null);
+        }
+
+        Mp3SeekIndex.Builder frames = Mp3SeekIndex.builder(seekIndexService.framesPerEntry());
+        try (ReadableByteChannel source = audioStorage.openRange(object, 0, object.size())) {
+            Mp3FrameScanner.scan(source, object.size(), frames);
+        }
+        Mp3SeekIndex index = frames.build();
+        if (index.frameCount() == 0) {
+            throw new IllegalArgumentException("no MPEG audio frames");
+        }
+
+        int seconds = (int) Math.round(index.durationSeconds());
+        if (entry.durationSeconds() != null
+                && Math.abs(entry.durationSeconds() - seconds) > durationToleranceSeconds) {
+            throw new IllegalArgumentException(
+                    "duration is " + seconds + " s, manifest says " + entry.durationSeconds());
+        }
+        return entry.verified(object, seconds, index);
+    }
+
+    /**
+     * The verified entries of one manifest, in completion order. Ends when the
+     * manifest is read and every check has finished; throws if the manifest
+     * cannot be read.
+     */
+    private final class Verification implements Iterator<ImportEntry>, AutoCloseable {
+
+        private static final Object END = new Object();
+
+        private final ImportJob job;
+        private final BlockingQueue<Object> results = new ArrayBlockingQueue<>(parallelism * 4);
+        private final Semaphore permits = new Semaphore(parallelism);
+        private final ExecutorService verifiers = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("import-verifier-", 0).factory());
+        private final Thread reader;
+
+        private Object next;
+
+        Verification(ImportJob job, Path file, ImportManifest.Format format, long ownerId) {
+            this.job = job;
+            this.reader = Thread.ofVirtual().name("import-reader").start(() -> read(file, format, ownerId));
+        }
+
+        private void read(Path file, ImportManifest.Format format, long ownerId) {
+            Object last = END;
+            try (ImportManifest manifest = new ImportManifest(file, format, objectMapper)) {
+                while (true) {
+                    Map<String, Object> fields;
+                    try {
+                        fields = manifest.next();
+                    } catch (IllegalArgumentException e) {
+                        job.recordRead();
+                        job.reject(manifest.line(), e.getMessage());
+                        continue;
+                    }
+                    if (fields == null) {
+                        break;
+                    }
+                    job.recordRead();
+
+                    ImportEntry entry;
+                    try {
+                        entry = ImportEntry.of(manifest.line(), fields, ownerId);
+                    } catch (IllegalArgumentException | ArithmeticException e) {
+                        job.reject(manifest.line(), e.getMessage());
+                        continue;
+                    }
+                    permits.acquire();
+                    verifiers.execute(() -> check(entry));
+                }
+                // every permit back: all checks have finished
+                permits.acquire(parallelism);
+            } catch (InterruptedException e) {
+                // the import was abandoned
+                return;
+            } catch (IOException | RuntimeException e) {
+                last = e;
+            }
+            try {
+                results.put(last);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void check(ImportEntry entry) {
+            try {
+                ImportEntry verified;
+                try {
+                    verified = verify(entry);
+                } catch (IOException | RuntimeException e) {
+                    // checks cut short by an abandoned import are not the entry's fault
+                    if (!verifiers.isShutdown()) {
+                        job.reject(entry.line(), e.getMessage() != null ? e.getMessage() : e.toString());
+                    }
+                    return;
+                }
+                job.recordVerified();
+                results.put(verified);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                permits.release();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = results.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while verifying the manifest", e);
+                }
+            }
+            if (next instanceof Exception e) {
+                throw new IllegalStateException("Failed to read the manifest: " + e.getMessage(), e);
+            }
+            return next != END;
+        }
+
+        @Override
+        public ImportEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ImportEntry entry = (ImportEntry) next;
+            next = null;
+            return entry;
+        }
+
+        @Override
+        public void close() {
+            reader.interrupt();
+            verifiers.shutdownNow();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("audio.imports.rows", inserted, LongAdder::sum)
+                .tag("result", "inserted")
+                .register(registry);
+        FunctionCounter.builder("audio.imports.rows", duplicates, LongAdder::sum)
+                .tag("result", "duplicate")
+                .register(registry);
+        FunctionCounter.builder("audio.imports.rows", rejected, LongAdder::sum)
+                .tag("result", "rejected")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        imports.shutdownNow();
+    }
+}
@@ -0,0 +1,111 @@
+package dev.hazoe.audiostreaming.audio.ingest;
+
+import dev.hazoe.audiostreaming.audio.mp3.Mp3SeekIndex;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+
+import java.util.Map;
+
+/**
+ * One manifest record, validated but not yet checked against storage.
+ *
+ * @param line            manifest line the record starts on, for the report
+ * @param durationSeconds from the manifest, or null to take it from the file
+ * @param sizeBytes       expected file size, or null to skip the check
+ * @param file            the stored file, once verified; recorded as the row's file state
+ * @param seekIndex       built while scanning the duration, or null for files not scanned
+ */
+record ImportEntry(
+        long line,
+        String audioPath,
+        String title,
+        String description,
+        Integer durationSeconds,
+        Long sizeBytes,
+        String contentType,
+        String coverPath,
+        boolean premium,
+        long ownerId,
+        StorageObject file,
+        Mp3SeekIndex seekIndex
+) {
+
+    /**
+     * Reads the snake_case manifest fields; CSV values arrive as strings, JSON
+     * values as strings, numbers or booleans.
+     *
+     * @throws IllegalArgumentException if a required field is missing or a value is malformed
+     */
+    static ImportEntry of(long line, Map<String, ?> fields, long defaultOwnerId) {
+        Long ownerId = number(fields, "owner_id");
+        Long duration = number(fields, "duration_seconds");
+        String contentType = text(fields, "content_type");
+        return new ImportEntry(
+                line,
+                required(fields, "audio_path"),
+                required(fields, "title"),
+                text(fields, "description"),
+                duration == null ? null : Math.toIntExact(duration),
+                number(fields, "size_bytes"),
+                contentType == null ? AudioIngestService.MP3_CONTENT_TYPE : contentType,
+                text(fields, "cover_path"),
+                bool(fields, "is_premium"),
+                ownerId == null ? defaultOwnerId : ownerId,
+                null,
+                null
+        );
+    }
+
+    ImportEntry verified(StorageObject file, int seconds, Mp3SeekIndex seekIndex) {
+        return new ImportEntry(line, audioPath, title, description, seconds, sizeBytes,
+                contentType, coverPath, premium, ownerId, file, seekIndex);
+    }
+
+    private static String required(Map<String, ?> fields, String name) {
+        String value = text(fields, name);
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value;
+    }
+
+    private static String text(Map<String, ?> fields, String name) {
+        Object value = fields.get(name);
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString().strip();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static Long number(Map<String, ?> fields, String name) {
+        Object value = fields.get(name);
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        String text = text(fields, name);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + text);
+        }
+    }
+
+    private static boolean bool(Map<String, ?> fields, String name) {
+        Object value = fields.get(name);
+        if (value instanceof Boolean flag) {
+            return flag;
+        }
+        String text = text(fields, name);
+        if (text == null) {
+            return false;
+        }
+        return switch (text.toLowerCase()) {
+            case "true", "t", "1", "yes" -> true;
+            case "false", "f", "0", "no" -> false;
+            default -> throw new IllegalArgumentException(name + " is not a boolean: " + text);
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package dev.hazoe.audiostreaming.audio.ingest;
+
+import dev.hazoe.audiostreaming.audio.dto.ImportReport;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live state of one catalog import, updated by the verifier threads and the
+ * loader and read by status requests.
+ */
+final class ImportJob {
+
+    enum Phase { QUEUED, VERIFYING, LOADING, COMPLETED, FAILED }
+
+    private static final int MAX_REJECTIONS = 100;
+
+    private final UUID id = UUID.randomUUID();
+    private final LongAdder read = new LongAdder();
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final List<ImportReport.Rejection> rejections = new ArrayList<>();
+
+    private volatile Phase phase = Phase.QUEUED;
+    private volatile long inserted;
+    private volatile long duplicates;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    UUID id() {
+        return id;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        phase = Phase.VERIFYING;
+    }
+
+    void recordRead() {
+        read.increment();
+    }
+
+    void recordVerified() {
+        verified.increment();
+    }
+
+    void reject(long line, String reason) {
+        rejected.increment();
+        synchronized (rejections) {
+            if (rejections.size() < MAX_REJECTIONS) {
+                rejections.add(new ImportReport.Rejection(line, reason));
+            }
+        }
+    }
+
+    void loading() {
+        phase = Phase.LOADING;
+    }
+
+    void complete(long inserted, long duplicates) {
+        this.inserted = inserted;
+        this.duplicates = duplicates;
+        finish(Phase.COMPLETED);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finish(Phase.FAILED);
+    }
+
+    private void finish(Phase phase) {
+        finishedAt = Instant.now();
+        this.phase = phase;
+    }
+
+    boolean isFinished() {
+        return phase == Phase.COMPLETED || phase == Phase.FAILED;
+    }
+
+    ImportReport report() {
+        List<ImportReport.Rejection> firstRejections;
+        synchronized (rejections) {
+            firstRejections = List.copyOf(rejections);
+        }
+        return new ImportReport(
+                id,
+                phase.name(),
+                read.sum(),
+                verified.sum(),
+                rejected.sum(),
+                inserted,
+                duplicates,
+                startedAt,
+                finishedAt,
+                error,
+                firstRejections
+        );
+    }
+}
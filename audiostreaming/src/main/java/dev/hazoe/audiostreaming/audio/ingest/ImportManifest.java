@@ -0,0 +1,168 @@
+package dev.hazoe.audiostreaming.audio.ingest;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a catalog manifest one record at a time: CSV with a header row
+ * (RFC 4180 quoting, quoted fields may span lines) or JSON Lines.
+ */
+final class ImportManifest implements Closeable {
+
+    enum Format {
+        CSV, JSONL;
+
+        static Format ofContentType(String contentType) {
+            if (contentType != null && contentType.toLowerCase().startsWith("text/csv")) {
+                return CSV;
+            }
+            return JSONL;
+        }
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+
+    private List<String> header;
+    private long nextLine = 1;
+    private long line;
+
+    ImportManifest(Path file, Format format, ObjectMapper objectMapper) throws IOException {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Line the record last returned by {@link #next()} starts on.
+     */
+    long line() {
+        return line;
+    }
+
+    /**
+     * The next record as field name → value, or null at the end.
+     *
+     * @throws IllegalArgumentException if the record is malformed; the next call moves past it
+     */
+    Map<String, Object> next() throws IOException {
+        return format == Format.CSV ? nextCsv() : nextJson();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> nextJson() throws IOException {
+        String text;
+        do {
+            line = nextLine++;
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+
+        try {
+            return objectMapper.readValue(text, Map.class);
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, Object> nextCsv() throws IOException {
+        if (header == null) {
+            header = readRecord();
+            if (header == null) {
+                return null;
+            }
+            header.replaceAll(name -> name.strip().toLowerCase());
+        }
+
+        List<String> values;
+        do {
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.getFirst().isBlank());
+
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException(
+                    "Expected " + header.size() + " fields, found " + values.size());
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return fields;
+    }
+
+    /**
+     * One CSV record, or null at the end of the input.
+     */
+    private List<String> readRecord() throws IOException {
+        line = nextLine;
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IllegalArgumentException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        value.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        nextLine++;
+                    }
+                    value.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\n' || c < 0) {
+                if (c == '\n') {
+                    nextLine++;
+                }
+                int last = value.length() - 1;
+                if (last >= 0 && value.charAt(last) == '\r') {
+                    value.setLength(last);
+                }
+                values.add(value.toString());
+                return values;
+            } else {
+                value.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,302 @@
+package dev.hazoe.audiostreaming.audio.ingest;
+
+import dev.hazoe.audiostreaming.audio.domain.UploadSession;
+import dev.hazoe.audiostreaming.audio.dto.AudioUploadResponse;
+import dev.hazoe.audiostreaming.audio.repository.UploadSessionRepository;
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import dev.hazoe.audiostreaming.common.exception.UnsupportedAudioException;
+import dev.hazoe.audiostreaming.common.exception.UploadIncompleteException;
+import dev.hazoe.audiostreaming.common.exception.UploadLimitExceededException;
+import dev.hazoe.audiostreaming.common.exception.UploadLockedException;
+import dev.hazoe.audiostreaming.common.exception.UploadNotFoundException;
+import dev.hazoe.audiostreaming.common.exception.UploadOffsetMismatchException;
+import dev.hazoe.audiostreaming.common.exception.UploadTooLargeException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resumable uploads: create a session, append chunks at the offset the server
+ * reports, then complete.
+ * <p>
+ * Each session owns a file of the announced length, created up front. Chunks
+ * are written into it with positional writes, so a retried chunk overwrites
+ * whatever a dropped connection left behind. The offset in the
+ * {@code upload_session} row only moves after the bytes before it are forced
+ * to disk, at least every {@code checkpoint-bytes} and when a request ends
+ * (cleanly or not), so a restart resumes from a durable offset.
+ * <p>
+ * Completing hands the file to {@link AudioIngestService}, which scans it and
+ * creates the {@code Audio} row like any other upload. Sessions idle for longer
+ * than {@code expire-after-hours} are removed with their files. Each owner may
+ * hold at most {@code max-sessions-per-owner} sessions, so the disk one account
+ * can reserve is bounded by that many times {@code app.ingest.max-bytes}.
+ */
+@Slf4j
+@Service
+public class ResumableUploadService implements DisposableBean {
+
+    public static final String UPLOAD_OFFSET_HEADER = "Upload-Offset";
+    public static final String UPLOAD_LENGTH_HEADER = "Upload-Length";
+
+    private final UploadSessionRepository sessionRepository;
+    private final AudioIngestService ingestService;
+    private final Path directory;
+    private final long maxBytes;
+    private final int maxSessionsPerOwner;
+    private final int bufferSize;
+    private final long checkpointBytes;
+    private final Duration expireAfter;
+
+    // sessions with a request in progress; one writer per session at a time
+    private final Set<UUID> busy = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("upload-session-purger").daemon().factory());
+
+    public ResumableUploadService(
+            UploadSessionRepository sessionRepository,
+            AudioIngestService ingestService,
+            @Value("${app.ingest.resumable.dir:${java.io.tmpdir}/audio-ingest/sessions}") String directory,
+            @Value("${app.ingest.max-bytes:2147483648}") long maxBytes,
+            @Value("${app.ingest.resumable.max-sessions-per-owner:3}") int maxSessionsPerOwner,
+            @Value("${app.ingest.buffer-size:65536}") int bufferSize,
+            @Value("${app.ingest.resumable.checkpoint-bytes:8388608}") long checkpointBytes,
+            @Value("${app.ingest.resumable.expire-after-hours:24}") long expireAfterHours) throws IOException {
+        this.sessionRepository = sessionRepository;
+        this.ingestService = ingestService;
+        this.directory = Files.createDirectories(Path.of(directory));
+        this.maxBytes = maxBytes;
+        this.maxSessionsPerOwner = maxSessionsPerOwner;
+        this.bufferSize = bufferSize;
+        this.checkpointBytes = checkpointBytes;
+        this.expireAfter = Duration.ofHours(expireAfterHours);
+        purger.scheduleWithFixedDelay(this::purgeExpiredQuietly, 1, 1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Opens a session for {@code length} bytes and creates its file.
+     *
+     * @throws UnsupportedAudioException    if {@code length} is not positive
+     * @throws UploadTooLargeException      if {@code length} exceeds {@code app.ingest.max-bytes}
+     * @throws UploadLimitExceededException if {@code ownerId} already has the maximum number of sessions
+     */
+    public UploadSession create(AudioUpload upload, long length, Long ownerId) {
+        if (length <= 0) {
+            throw new UnsupportedAudioException("Empty upload");
+        }
+        if (length > maxBytes) {
+            throw new UploadTooLargeException(maxBytes);
+        }
+        if (sessionRepository.countByOwnerId(ownerId) >= maxSessionsPerOwner) {
+            throw new UploadLimitExceededException(maxSessionsPerOwner);
+        }
+
+        UploadSession session = new UploadSession(
+                ownerId, upload.title(), upload.description(), upload.premium(), length);
+        Path file = fileOf(session.getId());
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            // reserves the size; blocks are allocated as chunks arrive
+            raf.setLength(length);
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new AudioStorageException("Failed to create upload file", e);
+        }
+        return sessionRepository.save(session);
+    }
+
+    /**
+     * The session, if it belongs to {@code ownerId}.
+     */
+    public UploadSession get(UUID id, Long ownerId) {
+        return sessionRepository.findById(id)
+                .filter(session -> Objects.equals(session.getOwnerId(), ownerId))
+                .orElseThrow(() -> new UploadNotFoundException(id));
+    }
+
+    /**
+     * Writes {@code body} at {@code offset}, which must be the session's current
+     * offset. Whatever arrived before the body ended or failed is kept.
+     *
+     * @return the new offset
+     * @throws UploadOffsetMismatchException if {@code offset} is not the current offset
+     * @throws UploadTooLargeException       if the body runs past the announced length
+     */
+    public long append(UUID id, Long ownerId, long offset, InputStream body) {
+        lock(id);
+        try {
+            UploadSession session = get(id, ownerId);
+            if (offset != session.getOffset()) {
+                throw new UploadOffsetMismatchException(session.getOffset(), offset);
+            }
+            return write(session, body);
+        } finally {
+            busy.remove(id);
+        }
+    }
+
+    private long write(UploadSession session, InputStream body) {
+        long length = session.getLength();
+        long position = session.getOffset();
+        long checkpoint = position;
+
+        try (FileChannel channel = FileChannel.open(fileOf(session.getId()), StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            try {
+                int read;
+                while ((read = body.read(buffer.array(), 0, buffer.capacity())) >= 0) {
+                    if (position + read > length) {
+                        throw new UploadTooLargeException(length);
+                    }
+                    buffer.clear().limit(read);
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                    if (position - checkpoint >= checkpointBytes) {
+                        checkpoint = saveOffset(session, channel, position);
+                    }
+                }
+            } finally {
+                // a dropped connection keeps what arrived; the client resumes from here
+                if (position != checkpoint) {
+                    saveOffset(session, channel, position);
+                }
+            }
+        } catch (IOException e) {
+            log.info("Upload {} interrupted at offset {}: {}", session.getId(), session.getOffset(), e.toString());
+            throw new AudioStorageException("Upload interrupted at offset " + session.getOffset(), e);
+        }
+        return position;
+    }
+
+    private long saveOffset(UploadSession session, FileChannel channel, long position) throws IOException {
+        channel.force(false);
+        session.setOffset(position);
+        session.setUpdatedAt(Instant.now());
+        sessionRepository.save(session);
+        return position;
+    }
+
+    /**
+     * Creates the catalog entry from a fully received upload and ends the session.
+     * An upload that turns out not to be MP3 ends the session too; other failures
+     * keep it, so completing can be retried.
+     *
+     * @throws UploadIncompleteException if bytes are still missing
+     */
+    public AudioUploadResponse complete(UUID id, Long ownerId) {
+        lock(id);
+        try {
+            UploadSession session = get(id, ownerId);
+            if (!session.isComplete()) {
+                throw new UploadIncompleteException(session.getOffset(), session.getLength());
+            }
+
+            AudioUpload upload = new AudioUpload(session.getTitle(), session.getDescription(), session.isPremium());
+            Path file = fileOf(id);
+            try {
+                AudioUploadResponse response = ingestService.ingest(file, upload, session.getOwnerId());
+                sessionRepository.delete(session);
+                // storing across file systems copies, leaving the received file behind
+                deleteQuietly(file);
+                return response;
+            } catch (UnsupportedAudioException | UploadTooLargeException e) {
+                remove(session);
+                throw e;
+            }
+        } finally {
+            busy.remove(id);
+        }
+    }
+
+    /**
+     * Abandons the upload and deletes what was received.
+     */
+    public void cancel(UUID id, Long ownerId) {
+        lock(id);
+        try {
+            remove(get(id, ownerId));
+        } finally {
+            busy.remove(id);
+        }
+    }
+
+    /**
+     * Removes sessions without activity for {@code expire-after-hours}.
+     *
+     * @return the number of sessions removed
+     */
+    public int purgeExpired() {
+        int removed = 0;
+        for (UploadSession session : sessionRepository.findByUpdatedAtBefore(Instant.now().minus(expireAfter))) {
+            if (!busy.add(session.getId())) {
+                continue;
+            }
+            try {
+                remove(session);
+                removed++;
+            } finally {
+                busy.remove(session.getId());
+            }
+        }
+        return removed;
+    }
+
+    private void purgeExpiredQuietly() {
+        try {
+            int removed = purgeExpired();
+            if (removed > 0) {
+                log.info("Removed {} expired upload sessions", removed);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to purge expired upload sessions: {}", e.toString());
+        }
+    }
+
+    private void lock(UUID id) {
+        if (!busy.add(id)) {
+            throw new UploadLockedException(id);
+        }
+    }
+
+    private void remove(UploadSession session) {
+        sessionRepository.delete(session);
+        deleteQuietly(fileOf(session.getId()));
+    }
+
+    Path fileOf(UUID id) {
+        return directory.resolve(id + ".part");
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete upload file {}: {}", path, e.toString());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        purger.shutdownNow();
+    }
+}
@@ -0,0 +1,164 @@
+package dev.hazoe.audiostreaming.audio.ingest;
+
+import dev.hazoe.audiostreaming.audio.mp3.Mp3FrameScanner;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3SeekIndex;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checksums and frame-scans upload bytes on a worker thread while the request
+ * thread keeps reading from the network.
+ * <p>
+ * The reader fills buffers from a small fixed pool and hands them over in
+ * order; the worker digests each one, feeds it to the {@link Mp3FrameScanner}
+ * and returns it to the pool. A worker that falls behind blocks the reader once
+ * the pool is empty, so an upload never holds more than
+ * {@code buffers × bufferSize} bytes of heap, whatever its size.
+ */
+final class UploadScanner implements Callable<UploadScanner.Result> {
+
+    /**
+     * @param declaredFrames frame count of the Xing/Info or VBRI header, or -1
+     */
+    record Result(long size, String sha256, Mp3SeekIndex index, long declaredFrames) {}
+
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<ByteBuffer> filled = new LinkedBlockingQueue<>();
+    private final MessageDigest digest;
+    private final Mp3SeekIndex.Builder frames;
+
+    private long size;
+    private volatile boolean stopped;
+
+    UploadScanner(int buffers, int bufferSize, int framesPerEntry) {
+        this.free = new ArrayBlockingQueue<>(buffers);
+        for (int i = 0; i < buffers; i++) {
+            free.add(ByteBuffer.allocate(bufferSize));
+        }
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        this.frames = Mp3SeekIndex.builder(framesPerEntry);
+    }
+
+    /* ================= reader side ================= */
+
+    /**
+     * An empty buffer to fill; blocks while the worker catches up.
+     */
+    ByteBuffer take() throws IOException {
+        try {
+            ByteBuffer buffer;
+            while ((buffer = free.poll(100, TimeUnit.MILLISECONDS)) == null) {
+                if (stopped) {
+                    throw new IOException("Upload scanner stopped");
+                }
+            }
+            return buffer.clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the upload scanner");
+        }
+    }
+
+    /**
+     * Hands over a flipped buffer. The reader must not touch it afterwards.
+     */
+    void submit(ByteBuffer buffer) {
+        filled.add(buffer);
+    }
+
+    /**
+     * Marks the end of the upload, or abandons it.
+     */
+    void finish() {
+        filled.add(END);
+    }
+
+    /* ================= worker side ================= */
+
+    @Override
+    public Result call() throws IOException {
+        try {
+            Source source = new Source();
+            // the size is unknown until the end, so a trailing ID3v1 tag is skipped as junk
+            Mp3FrameScanner.scan(source, Long.MAX_VALUE, frames);
+            // the scanner stops at a truncated last frame; the rest still counts
+            source.drain();
+            return new Result(size, HexFormat.of().formatHex(digest.digest()), frames.build(), frames.declaredFrames());
+        } finally {
+            stopped = true;
+        }
+    }
+
+    /**
+     * The filled buffers as one channel. Each buffer is digested when taken and
+     * recycled once consumed.
+     */
+    private final class Source implements ReadableByteChannel {
+
+        private ByteBuffer current;
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            while (current == null || !current.hasRemaining()) {
+                if (current == END || !next()) {
+                    return -1;
+                }
+            }
+            int count = Math.min(dst.remaining(), current.remaining());
+            dst.put(dst.position(), current, current.position(), count);
+            dst.position(dst.position() + count);
+            current.position(current.position() + count);
+            return count;
+        }
+
+        void drain() throws IOException {
+            while (current != END && next()) {
+                // digest and recycle
+            }
+        }
+
+        private boolean next() throws IOException {
+            if (current != null && current != END) {
+                free.add(current);
+            }
+            try {
+                current = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while scanning an upload");
+            }
+            if (current == END) {
+                return false;
+            }
+            size += current.remaining();
+            digest.update(current.duplicate());
+            return true;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package dev.hazoe.audiostreaming.audio.mp3;
+
+/**
+ * Decoded 4-byte MPEG audio frame header (MPEG-1, MPEG-2 and MPEG-2.5, layers I-III).
+ *
+ * @param version 10 = MPEG-1, 20 = MPEG-2, 25 = MPEG-2.5
+ */
+public record Mp3FrameHeader(
+        int version,
+        int layer,
+        int bitrateKbps,
+        int sampleRate,
+        boolean padding,
+        boolean mono,
+        int frameLength,
+        int samplesPerFrame
+) {
+
+    public static final int MPEG1 = 10;
+    public static final int MPEG2 = 20;
+    public static final int MPEG25 = 25;
+
+    private static final int[][] BITRATES = {
+            // MPEG-1 layer I, II, III
+            {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448},
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},
+            {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320},
+            // MPEG-2/2.5 layer I, II & III
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},
+            {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160},
+    };
+
+    private static final int[] SAMPLE_RATES_MPEG1 = {44100, 48000, 32000};
+
+    /**
+     * @return the header, or null if the 32 bits are not a valid (non-free-format) frame header
+     */
+    public static Mp3FrameHeader parse(int bits) {
+        if ((bits >>> 21) != 0x7FF) {
+            return null;
+        }
+
+        int versionBits = (bits >>> 19) & 0x3;
+        int layerBits = (bits >>> 17) & 0x3;
+        int bitrateIndex = (bits >>> 12) & 0xF;
+        int sampleRateIndex = (bits >>> 10) & 0x3;
+        boolean padding = ((bits >>> 9) & 0x1) == 1;
+        boolean mono = ((bits >>> 6) & 0x3) == 3;
+
+        if (versionBits == 1 || layerBits == 0 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+            return null; // reserved / free format / bad
+        }
+
+        int version = switch (versionBits) {
+            case 3 -> MPEG1;
+            case 2 -> MPEG2;
+            default -> MPEG25;
+        };
+        int layer = 4 - layerBits;
+
+        int table = version == MPEG1 ? layer - 1 : (layer == 1 ? 3 : 4);
+        int bitrate = BITRATES[table][bitrateIndex];
+
+        int sampleRate = SAMPLE_RATES_MPEG1[sampleRateIndex];
+        if (version == MPEG2) {
+            sampleRate /= 2;
+        } else if (version == MPEG25) {
+            sampleRate /= 4;
+        }
+
+        int samples;
+        int frameLength;
+        if (layer == 1) {
+            samples = 384;
+            frameLength = (12 * bitrate * 1000 / sampleRate + (padding ? 1 : 0)) * 4;
+        } else {
+            samples = (layer == 3 && version != MPEG1) ? 576 : 1152;
+            frameLength = samples / 8 * bitrate * 1000 / sampleRate + (padding ? 1 : 0);
+        }
+
+        return new Mp3FrameHeader(version, layer, bitrate, sampleRate, padding, mono, frameLength, samples);
+    }
+
+    /**
+     * Offset of the Xing/Info tag inside a layer III frame (after header and side info).
+     */
+    public int xingOffset() {
+        if (version == MPEG1) {
+            return mono ? 4 + 17 : 4 + 32;
+        }
+        return mono ? 4 + 9 : 4 + 17;
+    }
+
+    public long durationMicros() {
+        return samplesPerFrame * 1_000_000L / sampleRate;
+    }
+}
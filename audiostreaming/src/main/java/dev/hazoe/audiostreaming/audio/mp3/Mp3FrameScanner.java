@@ -0,0 +1,202 @@
+package dev.hazoe.audiostreaming.audio.mp3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Walks the frames of an MP3 stream in one sequential pass.
+ * <p>
+ * Skips a leading ID3v2 tag and stops at a trailing ID3v1 tag. A candidate
+ * sync word only counts as a frame if another frame (or the end of the audio)
+ * follows it, which filters out false syncs in tag data and junk.
+ * A leading Xing/Info/VBRI frame is reported separately, since it carries no audio.
+ */
+public final class Mp3FrameScanner {
+
+    public interface FrameVisitor {
+
+        void frame(long offset, Mp3FrameHeader header);
+
+        default void infoFrame(long offset, Mp3FrameHeader header, byte[] frame) {
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int ID3V1_SIZE = 128;
+
+    private final ReadableByteChannel source;
+    private final long size;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int start;
+    private int end;
+    private long position; // stream offset of buffer[start]
+    private boolean eof;
+
+    private Mp3FrameScanner(ReadableByteChannel source, long size) {
+        this.source = source;
+        this.size = size;
+    }
+
+    /**
+     * @param size total stream size, used to recognize a trailing ID3v1 tag
+     */
+    public static void scan(ReadableByteChannel source, long size, FrameVisitor visitor) throws IOException {
+        new Mp3FrameScanner(source, size).run(visitor);
+    }
+
+    private void run(FrameVisitor visitor) throws IOException {
+        skipId3v2();
+
+        boolean first = true;
+        while (peek(0) >= 0) {
+            if (position == size - ID3V1_SIZE && peek(0) == 'T' && peek(1) == 'A' && peek(2) == 'G') {
+                return;
+            }
+
+            Mp3FrameHeader header = candidate();
+            if (header == null) {
+                skip(1);
+                continue;
+            }
+
+            int length = header.frameLength();
+            if (peek(length - 1) < 0) {
+                return; // truncated last frame
+            }
+
+            if (first && isInfoFrame(header)) {
+                visitor.infoFrame(position, header, copy(length));
+            } else {
+                visitor.frame(position, header);
+            }
+            first = false;
+            skip(length);
+        }
+    }
+
+    private Mp3FrameHeader candidate() throws IOException {
+        if (peek(0) != 0xFF || (peek(1) & 0xE0) != 0xE0) {
+            return null;
+        }
+        Mp3FrameHeader header = Mp3FrameHeader.parse(readInt(0));
+        if (header == null || header.frameLength() < 4) {
+            return null;
+        }
+
+        int next = header.frameLength();
+        int b0 = peek(next);
+        if (b0 < 0 || position + next == size - ID3V1_SIZE) {
+            return header; // end of audio
+        }
+        if (b0 == 0xFF && (peek(next + 1) & 0xE0) == 0xE0
+                && Mp3FrameHeader.parse(readInt(next)) != null) {
+            return header;
+        }
+        return null;
+    }
+
+    private boolean isInfoFrame(Mp3FrameHeader header) throws IOException {
+        int offset = header.layer() == 3 ? header.xingOffset() : -1;
+        if (offset > 0 && offset + 4 <= header.frameLength()) {
+            String tag = ascii(offset, 4);
+            if (tag.equals("Xing") || tag.equals("Info")) {
+                return true;
+            }
+        }
+        // VBRI always sits 32 bytes after the header
+        return 36 + 4 <= header.frameLength() && ascii(36, 4).equals("VBRI");
+    }
+
+    private void skipId3v2() throws IOException {
+        if (peek(0) != 'I' || peek(1) != 'D' || peek(2) != '3') {
+            return;
+        }
+        int flags = peek(5);
+        long tagSize = ((peek(6) & 0x7F) << 21) | ((peek(7) & 0x7F) << 14)
+                | ((peek(8) & 0x7F) << 7) | (peek(9) & 0x7F);
+        boolean footer = (flags & 0x10) != 0;
+        skip(10 + tagSize + (footer ? 10 : 0));
+    }
+
+    /* ================= buffered access ================= */
+
+    private int peek(int index) throws IOException {
+        if (!fill(index + 1)) {
+            return -1;
+        }
+        return buffer[start + index] & 0xFF;
+    }
+
+    private int readInt(int index) throws IOException {
+        return (peek(index) << 24) | (peek(index + 1) << 16) | (peek(index + 2) << 8) | peek(index + 3);
+    }
+
+    private String ascii(int index, int length) throws IOException {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            int b = peek(index + i);
+            if (b < 0) {
+                return "";
+            }
+            sb.append((char) b);
+        }
+        return sb.toString();
+    }
+
+    private byte[] copy(int length) throws IOException {
+        fill(length);
+        return Arrays.copyOfRange(buffer, start, start + Math.min(length, end - start));
+    }
+
+    private void skip(long n) throws IOException {
+        long buffered = end - start;
+        if (n <= buffered) {
+            start += (int) n;
+            position += n;
+            return;
+        }
+
+        position += buffered;
+        start = end = 0;
+        long remaining = n - buffered;
+        ByteBuffer discard = ByteBuffer.wrap(buffer);
+        while (remaining > 0 && !eof) {
+            discard.clear().limit((int) Math.min(buffer.length, remaining));
+            int read = source.read(discard);
+            if (read < 0) {
+                eof = true;
+            } else {
+                remaining -= read;
+                position += read;
+            }
+        }
+    }
+
+    private boolean fill(int needed) throws IOException {
+        if (end - start >= needed) {
+            return true;
+        }
+        if (needed > buffer.length) {
+            return false;
+        }
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+        }
+        ByteBuffer target = ByteBuffer.wrap(buffer);
+        while (end < needed && !eof) {
+            target.clear().position(end);
+            int read = source.read(target);
+            if (read < 0) {
+                eof = true;
+            } else {
+                end += read;
+            }
+        }
+        return end - start >= needed;
+    }
+}
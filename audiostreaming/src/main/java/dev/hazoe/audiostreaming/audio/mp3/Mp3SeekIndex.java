@@ -0,0 +1,233 @@
+package dev.hazoe.audiostreaming.audio.mp3;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Time → byte offset table of an MP3 file.
+ * <p>
+ * Holds the offset of every {@code framesPerEntry}-th audio frame. All frames
+ * of a stream share one sample rate and frame size, so frame {@code n} starts
+ * at {@code n × samplesPerFrame / sampleRate} seconds, for CBR and VBR alike.
+ * Offsets are delta/varint encoded: about 2 bytes per entry.
+ * <p>
+ * Seeks land on the last indexed frame at or before the requested time, so
+ * the returned offset is always frame-aligned.
+ */
+public final class Mp3SeekIndex {
+
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8 + 8;
+
+    /**
+     * @param offset  byte offset of the first frame to play
+     * @param seconds presentation time of that frame
+     */
+    public record Seek(long offset, double seconds) {}
+
+    private final int sampleRate;
+    private final int samplesPerFrame;
+    private final int framesPerEntry;
+    private final long frameCount;
+    private final long audioEnd;
+    private final long[] offsets;
+
+    Mp3SeekIndex(int sampleRate,
+                 int samplesPerFrame,
+                 int framesPerEntry,
+                 long frameCount,
+                 long audioEnd,
+                 long[] offsets) {
+        this.sampleRate = sampleRate;
+        this.samplesPerFrame = samplesPerFrame;
+        this.framesPerEntry = framesPerEntry;
+        this.frameCount = frameCount;
+        this.audioEnd = audioEnd;
+        this.offsets = offsets;
+    }
+
+    public long frameCount() {
+        return frameCount;
+    }
+
+    public int entryCount() {
+        return offsets.length;
+    }
+
+    public int framesPerEntry() {
+        return framesPerEntry;
+    }
+
+    /** End of the last audio frame; a trailing ID3v1 tag starts here. */
+    public long audioEnd() {
+        return audioEnd;
+    }
+
+    public double durationSeconds() {
+        return (double) frameCount * samplesPerFrame / sampleRate;
+    }
+
+    /**
+     * @return the seek target, or null if {@code seconds} is negative or past the last frame
+     */
+    public Seek seek(double seconds) {
+        if (!(seconds >= 0) || frameCount == 0) {
+            return null; // also rejects NaN
+        }
+        long frame = (long) Math.floor(seconds * sampleRate / samplesPerFrame);
+        if (frame >= frameCount) {
+            return null;
+        }
+
+        int entry = (int) (frame / framesPerEntry);
+        long indexedFrame = (long) entry * framesPerEntry;
+        return new Seek(offsets[entry], (double) indexedFrame * samplesPerFrame / sampleRate);
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(HEADER_BYTES + offsets.length * 2);
+        out.writeBytes(ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(sampleRate)
+                .putInt(samplesPerFrame)
+                .putInt(framesPerEntry)
+                .putLong(frameCount)
+                .putLong(audioEnd)
+                .array());
+
+        long previous = 0;
+        for (long offset : offsets) {
+            writeVarLong(out, offset - previous);
+            previous = offset;
+        }
+        return out.toByteArray();
+    }
+
+    public static Mp3SeekIndex decode(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try {
+            int sampleRate = buffer.getInt();
+            int samplesPerFrame = buffer.getInt();
+            int framesPerEntry = buffer.getInt();
+            long frameCount = buffer.getLong();
+            long audioEnd = buffer.getLong();
+
+            long[] offsets = new long[Math.toIntExact((frameCount + framesPerEntry - 1) / framesPerEntry)];
+            long offset = 0;
+            for (int i = 0; i < offsets.length; i++) {
+                offset += readVarLong(buffer);
+                offsets[i] = offset;
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Trailing bytes in seek index");
+            }
+            return new Mp3SeekIndex(sampleRate, samplesPerFrame, framesPerEntry, frameCount, audioEnd, offsets);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated seek index", e);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in seek index");
+    }
+
+    public static Builder builder(int framesPerEntry) {
+        return new Builder(framesPerEntry);
+    }
+
+    /**
+     * Collects offsets from a frame scan. The frame count declared in a
+     * Xing/Info or VBRI header is kept, so callers can detect damaged files.
+     */
+    public static final class Builder implements Mp3FrameScanner.FrameVisitor {
+
+        private final int framesPerEntry;
+
+        private long[] offsets = new long[1024];
+        private int entries;
+        private long frames;
+        private long audioEnd;
+        private int sampleRate;
+        private int samplesPerFrame;
+        private long declaredFrames = -1;
+
+        private Builder(int framesPerEntry) {
+            if (framesPerEntry <= 0) {
+                throw new IllegalArgumentException("framesPerEntry must be positive");
+            }
+            this.framesPerEntry = framesPerEntry;
+        }
+
+        @Override
+        public void frame(long offset, Mp3FrameHeader header) {
+            if (frames == 0) {
+                sampleRate = header.sampleRate();
+                samplesPerFrame = header.samplesPerFrame();
+            }
+            if (frames % framesPerEntry == 0) {
+                if (entries == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, entries * 2);
+                }
+                offsets[entries++] = offset;
+            }
+            frames++;
+            audioEnd = offset + header.frameLength();
+        }
+
+        @Override
+        public void infoFrame(long offset, Mp3FrameHeader header, byte[] frame) {
+            declaredFrames = declaredFrameCount(header, frame);
+        }
+
+        /**
+         * @return frames declared by the Xing/Info or VBRI header, or -1 if there is none
+         */
+        public long declaredFrames() {
+            return declaredFrames;
+        }
+
+        public Mp3SeekIndex build() {
+            return new Mp3SeekIndex(
+                    sampleRate,
+                    samplesPerFrame,
+                    framesPerEntry,
+                    frames,
+                    audioEnd,
+                    Arrays.copyOf(offsets, entries)
+            );
+        }
+
+        private static long declaredFrameCount(Mp3FrameHeader header, byte[] frame) {
+            int xing = header.xingOffset();
+            if (frame.length >= xing + 12 && (frame[xing + 7] & 0x01) != 0) {
+                String tag = new String(frame, xing, 4, StandardCharsets.US_ASCII);
+                if (tag.equals("Xing") || tag.equals("Info")) {
+                    return ByteBuffer.wrap(frame, xing + 8, 4).getInt() & 0xFFFFFFFFL;
+                }
+            }
+            // VBRI: tag, version, delay, quality, bytes, frames
+            if (frame.length >= 36 + 18
+                    && new String(frame, 36, 4, StandardCharsets.US_ASCII).equals("VBRI")) {
+                return ByteBuffer.wrap(frame, 36 + 14, 4).getInt() & 0xFFFFFFFFL;
+            }
+            return -1;
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package dev.hazoe.audiostreaming.audio.repository;
 
 import dev.hazoe.audiostreaming.audio.domain.Audio;
+import dev.hazoe.audiostreaming.audio.domain.AudioFileState;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
 
 @Repository
 public interface AudioRepository extends JpaRepository<Audio, Long> {
@@ -27,5 +34,29 @@ public interface AudioRepository extends JpaRepository<Audio, Long> {
     )
     Page<Audio> search(@Param("query") String query, Pageable pageable);
 
-}
+    /**
+     * The file state of up to {@code limit} audios with an id above {@code afterId}, by id.
+     */
+    @Query("""
+            SELECT new dev.hazoe.audiostreaming.audio.domain.AudioFileState(
+                a.id, a.audioPath, a.contentType, a.fileSize, a.fileMtime, a.fileVersion, a.contentSha256)
+            FROM Audio a
+            WHERE a.id > :afterId
+            ORDER BY a.id
+            """)
+    List<AudioFileState> findFileStates(@Param("afterId") long afterId, Limit limit);
 
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE Audio a
+            SET a.fileSize = :size, a.fileMtime = :mtime, a.fileVersion = :version, a.contentSha256 = :sha256
+            WHERE a.id = :id
+            """)
+    int updateFileState(@Param("id") Long id,
+                        @Param("size") Long size,
+                        @Param("mtime") Instant mtime,
+                        @Param("version") String version,
+                        @Param("sha256") String sha256);
+
+}
@@ -0,0 +1,44 @@
+package dev.hazoe.audiostreaming.audio.repository;
+
+import dev.hazoe.audiostreaming.audio.domain.AudioSeekIndex;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface AudioSeekIndexRepository extends JpaRepository<AudioSeekIndex, Long> {
+
+    /**
+     * Inserts the index or replaces the stored one. Instances that scan the
+     * same audio at once would otherwise collide on the primary key.
+     */
+    default void upsert(AudioSeekIndex index) {
+        upsert(index.getAudioId(), index.getSourceVersion(), index.getFramesPerEntry(),
+                index.getEntryCount(), index.getData(), index.getCreatedAt());
+    }
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO audio_seek_index
+                (audio_id, source_version, frames_per_entry, entry_count, data, created_at)
+            VALUES (:audioId, :sourceVersion, :framesPerEntry, :entryCount, :data, :createdAt)
+            ON CONFLICT (audio_id) DO UPDATE
+            SET source_version   = EXCLUDED.source_version,
+                frames_per_entry = EXCLUDED.frames_per_entry,
+                entry_count      = EXCLUDED.entry_count,
+                data             = EXCLUDED.data,
+                created_at       = EXCLUDED.created_at
+            """, nativeQuery = true)
+    void upsert(@Param("audioId") Long audioId,
+                @Param("sourceVersion") String sourceVersion,
+                @Param("framesPerEntry") int framesPerEntry,
+                @Param("entryCount") int entryCount,
+                @Param("data") byte[] data,
+                @Param("createdAt") Instant createdAt);
+}
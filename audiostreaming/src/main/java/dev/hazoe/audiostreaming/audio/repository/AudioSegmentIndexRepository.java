@@ -0,0 +1,44 @@
+package dev.hazoe.audiostreaming.audio.repository;
+
+import dev.hazoe.audiostreaming.audio.domain.AudioSegmentIndex;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface AudioSegmentIndexRepository extends JpaRepository<AudioSegmentIndex, Long> {
+
+    /**
+     * Inserts the index or replaces the stored one. Instances that build the
+     * index of the same audio at once would otherwise collide on the primary key.
+     */
+    default void upsert(AudioSegmentIndex index) {
+        upsert(index.getAudioId(), index.getSourceVersion(), index.getTargetDurationMillis(),
+                index.getSegmentCount(), index.getData(), index.getCreatedAt());
+    }
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO audio_segment_index
+                (audio_id, source_version, target_duration_millis, segment_count, data, created_at)
+            VALUES (:audioId, :sourceVersion, :targetDurationMillis, :segmentCount, :data, :createdAt)
+            ON CONFLICT (audio_id) DO UPDATE
+            SET source_version         = EXCLUDED.source_version,
+                target_duration_millis = EXCLUDED.target_duration_millis,
+                segment_count          = EXCLUDED.segment_count,
+                data                   = EXCLUDED.data,
+                created_at             = EXCLUDED.created_at
+            """, nativeQuery = true)
+    void upsert(@Param("audioId") Long audioId,
+                @Param("sourceVersion") String sourceVersion,
+                @Param("targetDurationMillis") int targetDurationMillis,
+                @Param("segmentCount") int segmentCount,
+                @Param("data") byte[] data,
+                @Param("createdAt") Instant createdAt);
+}
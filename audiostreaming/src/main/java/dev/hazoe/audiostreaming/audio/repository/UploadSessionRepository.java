@@ -0,0 +1,17 @@
+package dev.hazoe.audiostreaming.audio.repository;
+
+import dev.hazoe.audiostreaming.audio.domain.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+
+    List<UploadSession> findByUpdatedAtBefore(Instant cutoff);
+
+    long countByOwnerId(Long ownerId);
+}
@@ -0,0 +1,44 @@
+package dev.hazoe.audiostreaming.audio.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.regex.Pattern;
+
+/**
+ * Who is streaming: the tier drives pacing, the key groups consecutive
+ * requests of one player for read-ahead, chunk sizing and pacing.
+ * <p>
+ * Only signed-in users get a key: the player's {@value #PLAYER_ID_HEADER} if
+ * it sends one, else the client address. Anonymous requests share addresses
+ * (NAT, proxies) and cannot be told apart, so they are never correlated.
+ *
+ * @param key null when requests should not be correlated
+ */
+public record Listener(ListenerTier tier, String key) {
+
+    public static final Listener ANONYMOUS = new Listener(ListenerTier.FREE, null);
+
+    /**
+     * Random id a player may send with every request, so two players of one user stay apart.
+     */
+    public static final String PLAYER_ID_HEADER = "X-Player-Id";
+
+    private static final Pattern PLAYER_ID = Pattern.compile("[A-Za-z0-9_-]{8,64}");
+
+    public static Listener of(Authentication auth, HttpServletRequest request) {
+        boolean authenticated = auth != null
+                && !(auth instanceof AnonymousAuthenticationToken)
+                && auth.isAuthenticated();
+        if (!authenticated) {
+            return ANONYMOUS;
+        }
+
+        String playerId = request.getHeader(PLAYER_ID_HEADER);
+        String key = playerId != null && PLAYER_ID.matcher(playerId).matches()
+                ? auth.getName() + "#" + playerId
+                : auth.getName() + "@" + request.getRemoteAddr();
+        return new Listener(ListenerTier.of(auth), key);
+    }
+}
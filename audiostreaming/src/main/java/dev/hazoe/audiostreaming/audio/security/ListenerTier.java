@@ -0,0 +1,26 @@
+package dev.hazoe.audiostreaming.audio.security;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+public enum ListenerTier {
+    FREE,
+    PREMIUM;
+
+    public static ListenerTier of(Authentication auth) {
+        if (auth == null ||
+                auth instanceof AnonymousAuthenticationToken ||
+                !auth.isAuthenticated()) {
+            return FREE;
+        }
+
+        boolean premium = auth.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(role ->
+                        role.equals("ROLE_PREMIUM")
+                                || role.equals("ROLE_ADMIN")
+                );
+        return premium ? PREMIUM : FREE;
+    }
+}
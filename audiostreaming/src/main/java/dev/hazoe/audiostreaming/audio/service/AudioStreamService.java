@@ -1,27 +1,33 @@
 package dev.hazoe.audiostreaming.audio.service;
 
 
-import dev.hazoe.audiostreaming.audio.domain.Audio;
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptor;
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptorCache;
 import dev.hazoe.audiostreaming.audio.dto.AudioStreamResponse;
-import dev.hazoe.audiostreaming.audio.repository.AudioRepository;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3SeekIndex;
+import dev.hazoe.audiostreaming.audio.security.Listener;
+import dev.hazoe.audiostreaming.audio.storage.AudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
 
 import dev.hazoe.audiostreaming.audio.streaming.ByteRange;
+import dev.hazoe.audiostreaming.audio.streaming.ChunkSizePolicy;
+import dev.hazoe.audiostreaming.audio.streaming.ConditionalHeaders;
+import dev.hazoe.audiostreaming.audio.streaming.MultipartByteRanges;
 import dev.hazoe.audiostreaming.audio.streaming.RangeResolver;
-import dev.hazoe.audiostreaming.common.exception.AudioNotFoundException;
-import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import dev.hazoe.audiostreaming.audio.streaming.StreamBody;
+import dev.hazoe.audiostreaming.audio.streaming.StreamBodyFactory;
+import dev.hazoe.audiostreaming.audio.streaming.StreamPacing;
+import dev.hazoe.audiostreaming.audio.streaming.StreamReadAhead;
+import dev.hazoe.audiostreaming.audio.streaming.StreamValidators;
+import dev.hazoe.audiostreaming.common.exception.RangeNotSatisfiableException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.RandomAccessFile;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
@@ -29,42 +35,204 @@ public class AudioStreamService {
 
     private static final long DEFAULT_CHUNK_SIZE = 1024 * 1024; // 1MB
 
-    private final AudioRepository audioRepository;
+    private static final String MP3_CONTENT_TYPE = "audio/mpeg";
 
+    public static final String SEEK_POSITION_HEADER = "X-Seek-Position";
+
+    private final AudioDescriptorCache audioDescriptorCache;
+    private final AudioStorage audioStorage;
+    private final StreamBodyFactory streamBodyFactory;
+    private final StreamPacing streamPacing;
+    private final SeekIndexService seekIndexService;
+    private final StreamReadAhead streamReadAhead;
+    private final ChunkSizePolicy chunkSizePolicy;
+
+    // only a fallback: open-ended lengths come from ChunkSizePolicy
     private final RangeResolver rangeResolver =
             new RangeResolver(DEFAULT_CHUNK_SIZE);
 
-    @Value("${app.cdn.audio-base-url}")
-    private String storageRoot;
-
     public AudioStreamResponse stream(Long audioId, String rangeHeader) {
+        return stream(audioId, rangeHeader, ConditionalHeaders.none());
+    }
+
+    public AudioStreamResponse stream(Long audioId,
+                                      String rangeHeader,
+                                      ConditionalHeaders conditions) {
+        return stream(audioId, rangeHeader, conditions, Listener.ANONYMOUS);
+    }
+
+    public AudioStreamResponse stream(Long audioId,
+                                      String rangeHeader,
+                                      ConditionalHeaders conditions,
+                                      Listener listener) {
+        return respond(audioId, rangeHeader, conditions, listener, false);
+    }
 
-        Audio audio = audioRepository.findById(audioId)
-                .orElseThrow(() -> new AudioNotFoundException(audioId));
+    /**
+     * The status and headers {@link #stream} would send, without a body. Nothing
+     * is read, paced or remembered: no read-ahead, no pacing tokens, no chunk
+     * history that would make the following GET look like a seek.
+     */
+    public AudioStreamResponse head(Long audioId,
+                                    String rangeHeader,
+                                    ConditionalHeaders conditions) {
+        return respond(audioId, rangeHeader, conditions, Listener.ANONYMOUS, true);
+    }
 
-        Path path = Path.of(storageRoot, audio.getAudioPath());
-        validateFile(path);
+    private AudioStreamResponse respond(Long audioId,
+                                        String rangeHeader,
+                                        ConditionalHeaders conditions,
+                                        Listener listener,
+                                        boolean head) {
 
-        String contentType = audio.getContentType();
+        AudioDescriptor audio = audioDescriptorCache.get(audioId);
 
-        long fileSize = getFileSize(path);
-        ByteRange range = rangeResolver.resolve(rangeHeader, fileSize);
+        StorageObject object = objectOf(audio);
 
-        Resource resource = new InputStreamResource(
-                openStream(path, range.start(), range.contentLength()));
+        String contentType = audio.contentType();
 
-        HttpHeaders headers = buildHeaders(range, fileSize);
+        long fileSize = object.size();
+        StreamValidators validators = StreamValidators.of(
+                fileSize,
+                object.lastModified().toEpochMilli()
+        );
 
-        return new AudioStreamResponse(
-                resource,
-                headers,
-                range.partial() ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK,
-                contentType
+        if (conditions.isNotModified(validators)) {
+            return new AudioStreamResponse(
+                    null,
+                    validatorHeaders(validators),
+                    HttpStatus.NOT_MODIFIED,
+                    contentType
+            );
+        }
+
+        // stale If-Range → ignore Range and send the full representation
+        String effectiveRange = conditions.isRangeApplicable(validators) ? rangeHeader : null;
+        List<ByteRange> ranges = rangeResolver.resolveAll(
+                effectiveRange,
+                fileSize,
+                head
+                        ? start -> chunkSizePolicy.initialChunkSize(object, audio.durationSeconds())
+                        : start -> chunkSizePolicy.chunkSize(listener.key(), object, audio.durationSeconds(), start)
         );
+
+        if (ranges.size() > 1) {
+            MultipartByteRanges multipart = multipartBody(object, ranges, contentType);
+            HttpHeaders headers = validatorHeaders(validators);
+            headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            headers.set(HttpHeaders.CONTENT_LENGTH, String.valueOf(multipart.contentLength()));
+            if (head) {
+                return new AudioStreamResponse(null, headers, HttpStatus.PARTIAL_CONTENT, multipart.contentType());
+            }
+
+            streamReadAhead.onRange(listener.key(), object, ranges.getFirst(), false);
+            // open-ended parts are a chunk each, so paced like a single range of the same length
+            StreamBody body = streamPacing.pace(multipart, object, audio.durationSeconds(), listener);
+            return new AudioStreamResponse(body, headers, HttpStatus.PARTIAL_CONTENT, multipart.contentType());
+        }
+
+        ByteRange range = ranges.getFirst();
+        HttpHeaders headers = buildHeaders(range, fileSize, validators);
+        HttpStatus status = range.partial() ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK;
+        if (head) {
+            return new AudioStreamResponse(null, headers, status, contentType);
+        }
+
+        // bytes=N- clamped to one chunk: the player will ask for the next one
+        streamReadAhead.onRange(listener.key(), object, range, range.partial() && isOpenEnded(effectiveRange));
+
+        StreamBody body = streamPacing.pace(
+                streamBodyFactory.create(object, range),
+                object,
+                audio.durationSeconds(),
+                listener
+        );
+
+        return new AudioStreamResponse(body, headers, status, contentType);
     }
 
-    private HttpHeaders buildHeaders(ByteRange range, long fileSize) {
-        HttpHeaders headers = new HttpHeaders();
+    /**
+     * Streams from the frame at or before {@code seconds}, as if the client had
+     * sent {@code Range: bytes=<frame offset>-}. The exact start time of that
+     * frame is returned in {@value #SEEK_POSITION_HEADER}.
+     *
+     * @throws RangeNotSatisfiableException if the time is outside the audio or the audio is not MP3
+     */
+    public AudioStreamResponse seek(Long audioId,
+                                    double seconds,
+                                    ConditionalHeaders conditions,
+                                    Listener listener) {
+        return seek(audioId, seconds, conditions, listener, false);
+    }
+
+    /**
+     * The status and headers {@link #seek} would send, without a body; see {@link #head}.
+     */
+    public AudioStreamResponse headSeek(Long audioId,
+                                        double seconds,
+                                        ConditionalHeaders conditions) {
+        return seek(audioId, seconds, conditions, Listener.ANONYMOUS, true);
+    }
+
+    private AudioStreamResponse seek(Long audioId,
+                                     double seconds,
+                                     ConditionalHeaders conditions,
+                                     Listener listener,
+                                     boolean head) {
+
+        AudioDescriptor audio = audioDescriptorCache.get(audioId);
+        StorageObject object = objectOf(audio);
+
+        if (!MP3_CONTENT_TYPE.equalsIgnoreCase(audio.contentType())) {
+            throw new RangeNotSatisfiableException(
+                    "Time-based seek is only supported for " + MP3_CONTENT_TYPE,
+                    object.size()
+            );
+        }
+
+        Mp3SeekIndex.Seek seek = seekIndexService.index(audioId, object).seek(seconds);
+        if (seek == null) {
+            throw new RangeNotSatisfiableException("Seek position out of range: " + seconds, object.size());
+        }
+
+        AudioStreamResponse response = respond(audioId, "bytes=" + seek.offset() + "-", conditions, listener, head);
+
+        // a stale If-Range yields the full file, which does not start at the seek position
+        if (response.status() == HttpStatus.PARTIAL_CONTENT) {
+            response.headers().set(SEEK_POSITION_HEADER, String.format(Locale.ROOT, "%.3f", seek.seconds()));
+        }
+        return response;
+    }
+
+    /**
+     * The file state recorded on the row if the descriptor carries it, so
+     * headers and ETag need no storage round trip; otherwise a fresh stat.
+     */
+    private StorageObject objectOf(AudioDescriptor audio) {
+        return audio.recorded() != null ? audio.recorded() : audioStorage.stat(audio.audioPath());
+    }
+
+    private MultipartByteRanges multipartBody(StorageObject object, List<ByteRange> ranges, String contentType) {
+        List<MultipartByteRanges.Part> parts = ranges.stream()
+                .map(range -> new MultipartByteRanges.Part(range, streamBodyFactory.create(object, range)))
+                .toList();
+
+        return new MultipartByteRanges(
+                parts,
+                MimeTypeUtils.generateMultipartBoundaryString(),
+                contentType,
+                object.size()
+        );
+    }
+
+    private static boolean isOpenEnded(String rangeHeader) {
+        return rangeHeader != null
+                && rangeHeader.indexOf(',') < 0
+                && rangeHeader.strip().endsWith("-");
+    }
+
+    private HttpHeaders buildHeaders(ByteRange range, long fileSize, StreamValidators validators) {
+        HttpHeaders headers = validatorHeaders(validators);
         headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
         headers.set(HttpHeaders.CONTENT_LENGTH, String.valueOf(range.contentLength()));
 
@@ -77,53 +245,10 @@ public class AudioStreamService {
         return headers;
     }
 
-    private long getFileSize(Path path) {
-        long fileSize;
-        try {
-            fileSize = Files.size(path);
-        } catch (IOException e) {
-            throw new AudioStorageException("Failed to read file size: " + path, e);
-        }
-        return fileSize;
-    }
-
-    private void validateFile(Path path) {
-        if (!Files.exists(path) || !Files.isReadable(path)) {
-            throw new AudioStorageException("Audio file not accessible: " + path);
-        }
-    }
-
-    private InputStream openStream(Path path, long start, long length) {
-        try {
-            RandomAccessFile file = new RandomAccessFile(path.toFile(), "r");
-            file.seek(start);
-
-            return new InputStream() {
-                private long remaining = length;
-
-                @Override
-                public int read() throws IOException {
-                    if (remaining <= 0) return -1;
-                    remaining--;
-                    return file.read();
-                }
-
-                @Override
-                public int read(byte[] b, int off, int len) throws IOException {
-                    if (remaining <= 0) return -1;
-                    len = (int) Math.min(len, remaining);
-                    int read = file.read(b, off, len);
-                    if (read > 0) remaining -= read;
-                    return read;
-                }
-
-                @Override
-                public void close() throws IOException {
-                    file.close();
-                }
-            };
-        } catch (IOException e) {
-            throw new AudioStorageException("Failed to open audio stream: " + path, e);
-        }
+    private HttpHeaders validatorHeaders(StreamValidators validators) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(validators.etag());
+        headers.setLastModified(validators.lastModified());
+        return headers;
     }
 }
@@ -0,0 +1,209 @@
+package dev.hazoe.audiostreaming.audio.service;
+
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptor;
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptorCache;
+import dev.hazoe.audiostreaming.audio.cache.AudioIndexCache;
+import dev.hazoe.audiostreaming.audio.domain.AudioSegmentIndex;
+import dev.hazoe.audiostreaming.audio.dto.AudioStreamResponse;
+import dev.hazoe.audiostreaming.audio.hls.Id3TimestampTag;
+import dev.hazoe.audiostreaming.audio.hls.SegmentIndex;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3FrameScanner;
+import dev.hazoe.audiostreaming.audio.repository.AudioSegmentIndexRepository;
+import dev.hazoe.audiostreaming.audio.storage.AudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import dev.hazoe.audiostreaming.audio.streaming.ByteRange;
+import dev.hazoe.audiostreaming.audio.streaming.PrefixedBody;
+import dev.hazoe.audiostreaming.audio.streaming.StreamBodyFactory;
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import dev.hazoe.audiostreaming.common.exception.HlsSegmentNotFoundException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HLS packaging of the MP3 catalog.
+ * <p>
+ * Each file is cut into frame-aligned segments of a fixed target duration.
+ * The boundaries are computed once per file version and persisted, so requests
+ * only read the index (memory, then database) and never rescan the MP3.
+ * <p>
+ * Segment URLs embed a short hash of the file version and the target duration,
+ * which makes them immutable: a changed file gets new URLs, so caches in front
+ * of the JVM can keep segments forever.
+ */
+@Slf4j
+@Service
+public class HlsService implements MeterBinder {
+
+    public static final String PLAYLIST_CONTENT_TYPE = "application/vnd.apple.mpegurl";
+    public static final String SEGMENT_CONTENT_TYPE = "audio/mpeg";
+
+    private static final String IMMUTABLE = "max-age=31536000, immutable";
+
+    private record Cached(String urlVersion, SegmentIndex index) {}
+
+    private final AudioDescriptorCache audioDescriptorCache;
+    private final AudioStorage audioStorage;
+    private final StreamBodyFactory streamBodyFactory;
+    private final AudioSegmentIndexRepository segmentIndexRepository;
+    private final int targetDurationMillis;
+
+    private final AudioIndexCache<SegmentIndex> indexes;
+
+    private final LongAdder builds = new LongAdder();
+
+    public HlsService(
+            AudioDescriptorCache audioDescriptorCache,
+            AudioStorage audioStorage,
+            StreamBodyFactory streamBodyFactory,
+            AudioSegmentIndexRepository segmentIndexRepository,
+            @Value("${app.hls.segment-duration-seconds:6}") int segmentDurationSeconds,
+            @Value("${app.hls.index-cache.max-entries:1000}") int maxCachedIndexes) {
+        this.audioDescriptorCache = audioDescriptorCache;
+        this.audioStorage = audioStorage;
+        this.streamBodyFactory = streamBodyFactory;
+        this.segmentIndexRepository = segmentIndexRepository;
+        this.targetDurationMillis = segmentDurationSeconds * 1000;
+        this.indexes = new AudioIndexCache<>("hls-index", maxCachedIndexes);
+    }
+
+    public String playlist(Long audioId) {
+        AudioDescriptor audio = audioDescriptorCache.get(audioId);
+        StorageObject object = audioStorage.stat(audio.audioPath());
+        Cached cached = index(audio, object);
+
+        SegmentIndex index = cached.index();
+        StringBuilder m3u8 = new StringBuilder(64 + index.size() * 40)
+                .append("#EXTM3U\n")
+                .append("#EXT-X-VERSION:3\n")
+                .append("#EXT-X-TARGETDURATION:")
+                .append((index.maxDurationMicros() + 999_999) / 1_000_000).append('\n')
+                .append("#EXT-X-MEDIA-SEQUENCE:0\n")
+                .append("#EXT-X-PLAYLIST-TYPE:VOD\n");
+
+        for (int i = 0; i < index.size(); i++) {
+            m3u8.append(String.format(Locale.ROOT, "#EXTINF:%.3f,\n",
+                            index.segment(i).durationMicros() / 1_000_000.0))
+                    .append(cached.urlVersion()).append('/').append(i).append(".mp3\n");
+        }
+        return m3u8.append("#EXT-X-ENDLIST\n").toString();
+    }
+
+    /**
+     * @throws HlsSegmentNotFoundException if the version is stale or the index out of range
+     */
+    public AudioStreamResponse segment(Long audioId, String version, int segmentIndex) {
+        AudioDescriptor audio = audioDescriptorCache.get(audioId);
+        StorageObject object = audioStorage.stat(audio.audioPath());
+        Cached cached = index(audio, object);
+
+        if (!cached.urlVersion().equals(version) || segmentIndex < 0 || segmentIndex >= cached.index().size()) {
+            throw new HlsSegmentNotFoundException(audioId, version, segmentIndex);
+        }
+
+        SegmentIndex.Segment segment = cached.index().segment(segmentIndex);
+        ByteRange range = new ByteRange(
+                segment.offset(),
+                segment.offset() + segment.length() - 1,
+                segment.length(),
+                true
+        );
+        PrefixedBody body = new PrefixedBody(
+                Id3TimestampTag.of(segment.startMicros()),
+                streamBodyFactory.create(object, range)
+        );
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_LENGTH, String.valueOf(body.contentLength()));
+        headers.setETag("\"" + version + "-" + segmentIndex + "\"");
+        // premium segments must not land in shared caches
+        headers.setCacheControl((audio.premium() ? "private, " : "public, ") + IMMUTABLE);
+
+        return new AudioStreamResponse(body, headers, HttpStatus.OK, SEGMENT_CONTENT_TYPE);
+    }
+
+    /* ================= index lookup ================= */
+
+    private Cached index(AudioDescriptor audio, StorageObject object) {
+        String urlVersion = urlVersion(audio, object);
+        SegmentIndex index = indexes.get(audio.id(), urlVersion, () -> loadOrBuild(audio.id(), object));
+        return new Cached(urlVersion, index);
+    }
+
+    private SegmentIndex loadOrBuild(Long audioId, StorageObject object) {
+        AudioSegmentIndex stored = segmentIndexRepository.findById(audioId).orElse(null);
+        if (stored != null
+                && stored.getSourceVersion().equals(object.version())
+                && stored.getTargetDurationMillis() == targetDurationMillis) {
+            return SegmentIndex.decode(object.version(), stored.getData());
+        }
+
+        SegmentIndex index = build(object);
+        segmentIndexRepository.upsert(new AudioSegmentIndex(
+                audioId,
+                object.version(),
+                targetDurationMillis,
+                index.size(),
+                index.encode()
+        ));
+        return index;
+    }
+
+    private SegmentIndex build(StorageObject object) {
+        builds.increment();
+        long started = System.nanoTime();
+
+        SegmentIndex.Builder builder = SegmentIndex.builder(targetDurationMillis * 1000L);
+        try (ReadableByteChannel source = audioStorage.openRange(object, 0, object.size())) {
+            Mp3FrameScanner.scan(source, object.size(), builder);
+        } catch (IOException e) {
+            throw new AudioStorageException("Failed to scan audio: " + object.key(), e);
+        }
+
+        SegmentIndex index = builder.build(object.version());
+        if (index.size() == 0) {
+            throw new AudioStorageException("No MPEG audio frames in: " + object.key());
+        }
+
+        log.info("Built HLS index for {}: {} segments in {} ms",
+                object.key(), index.size(), (System.nanoTime() - started) / 1_000_000);
+        return index;
+    }
+
+    // the premium flag is included so that publicly cached URLs die when an audio becomes premium
+    private String urlVersion(AudioDescriptor audio, StorageObject object) {
+        try {
+            String source = object.version() + ":" + targetDurationMillis + ":" + audio.premium();
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    long buildCount() {
+        return builds.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        indexes.bindTo(registry);
+        FunctionCounter.builder("audio.hls.index.builds", builds, LongAdder::sum)
+                .register(registry);
+    }
+}
@@ -0,0 +1,133 @@
+package dev.hazoe.audiostreaming.audio.service;
+
+import dev.hazoe.audiostreaming.audio.dto.ReconciliationReport;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live state of one storage reconciliation, updated by the workers and read by
+ * status requests.
+ */
+final class ReconciliationRun {
+
+    enum Phase { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private static final int MAX_FINDINGS = 100;
+
+    private final boolean verify;
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+    private final LongAdder missing = new LongAdder();
+    private final LongAdder orphans = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final List<ReconciliationReport.Finding> findings = new ArrayList<>();
+
+    private volatile Phase phase = Phase.QUEUED;
+    private volatile boolean orphansListed = true;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    ReconciliationRun(boolean verify) {
+        this.verify = verify;
+    }
+
+    boolean verify() {
+        return verify;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        phase = Phase.RUNNING;
+    }
+
+    void unchanged() {
+        checked.increment();
+        unchanged.increment();
+    }
+
+    void updated() {
+        checked.increment();
+        updated.increment();
+    }
+
+    void mismatched(Long audioId, String key) {
+        checked.increment();
+        mismatched.increment();
+        record("MISMATCHED", audioId, key);
+    }
+
+    void missing(Long audioId, String key) {
+        checked.increment();
+        missing.increment();
+        record("MISSING", audioId, key);
+    }
+
+    void failed(Long audioId, String key) {
+        checked.increment();
+        failed.increment();
+        record("FAILED", audioId, key);
+    }
+
+    void orphan(String key) {
+        orphans.increment();
+        record("ORPHAN", null, key);
+    }
+
+    void orphansNotListed() {
+        orphansListed = false;
+    }
+
+    private void record(String type, Long audioId, String key) {
+        synchronized (findings) {
+            if (findings.size() < MAX_FINDINGS) {
+                findings.add(new ReconciliationReport.Finding(type, audioId, key));
+            }
+        }
+    }
+
+    void complete() {
+        finish(Phase.COMPLETED);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finish(Phase.FAILED);
+    }
+
+    private void finish(Phase phase) {
+        finishedAt = Instant.now();
+        this.phase = phase;
+    }
+
+    boolean isFinished() {
+        return phase == Phase.COMPLETED || phase == Phase.FAILED;
+    }
+
+    ReconciliationReport report() {
+        List<ReconciliationReport.Finding> firstFindings;
+        synchronized (findings) {
+            firstFindings = List.copyOf(findings);
+        }
+        return new ReconciliationReport(
+                verify,
+                phase.name(),
+                checked.sum(),
+                unchanged.sum(),
+                updated.sum(),
+                mismatched.sum(),
+                missing.sum(),
+                orphansListed ? orphans.sum() : -1,
+                failed.sum(),
+                startedAt,
+                finishedAt,
+                error,
+                firstFindings
+        );
+    }
+}
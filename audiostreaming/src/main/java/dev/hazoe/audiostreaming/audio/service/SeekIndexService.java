@@ -0,0 +1,122 @@
+package dev.hazoe.audiostreaming.audio.service;
+
+import dev.hazoe.audiostreaming.audio.cache.AudioIndexCache;
+import dev.hazoe.audiostreaming.audio.domain.AudioSeekIndex;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3FrameScanner;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3SeekIndex;
+import dev.hazoe.audiostreaming.audio.repository.AudioSeekIndexRepository;
+import dev.hazoe.audiostreaming.audio.storage.AudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Provides the {@link Mp3SeekIndex} of an audio file.
+ * <p>
+ * Lookup order: in-memory LRU, then the persisted row if it was built from the
+ * same file version and granularity, then a frame scan of the file (upserted for
+ * the next instance). Concurrent misses for one file version share a single
+ * scan. Xing/VBRI tables of contents are not used for seeking: their 100
+ * entries are coarse and not frame-aligned. Their declared frame count is
+ * compared with the scan to flag damaged uploads.
+ */
+@Slf4j
+@Service
+public class SeekIndexService implements MeterBinder {
+
+    private final AudioStorage audioStorage;
+    private final AudioSeekIndexRepository seekIndexRepository;
+    private final int framesPerEntry;
+
+    private final AudioIndexCache<Mp3SeekIndex> indexes;
+    private final LongAdder builds = new LongAdder();
+
+    public SeekIndexService(
+            AudioStorage audioStorage,
+            AudioSeekIndexRepository seekIndexRepository,
+            @Value("${app.streaming.seek.frames-per-entry:8}") int framesPerEntry,
+            @Value("${app.streaming.seek.index-cache.max-entries:1000}") int maxCachedIndexes) {
+        this.audioStorage = audioStorage;
+        this.seekIndexRepository = seekIndexRepository;
+        this.framesPerEntry = framesPerEntry;
+        this.indexes = new AudioIndexCache<>("seek-index", maxCachedIndexes);
+    }
+
+    public Mp3SeekIndex index(Long audioId, StorageObject object) {
+        return indexes.get(audioId, object.version(), () -> loadOrBuild(audioId, object));
+    }
+
+    private Mp3SeekIndex loadOrBuild(Long audioId, StorageObject object) {
+        AudioSeekIndex stored = seekIndexRepository.findById(audioId).orElse(null);
+        if (stored != null
+                && stored.getSourceVersion().equals(object.version())
+                && stored.getFramesPerEntry() == framesPerEntry) {
+            return Mp3SeekIndex.decode(stored.getData());
+        }
+
+        Mp3SeekIndex index = build(object);
+        save(audioId, object, index);
+        return index;
+    }
+
+    public int framesPerEntry() {
+        return framesPerEntry;
+    }
+
+    /**
+     * Persists an index built elsewhere from {@code object}, e.g. while the file was uploaded.
+     */
+    public void save(Long audioId, StorageObject object, Mp3SeekIndex index) {
+        seekIndexRepository.upsert(new AudioSeekIndex(
+                audioId,
+                object.version(),
+                index.framesPerEntry(),
+                index.entryCount(),
+                index.encode()
+        ));
+    }
+
+    private Mp3SeekIndex build(StorageObject object) {
+        builds.increment();
+
+        Mp3SeekIndex.Builder builder = Mp3SeekIndex.builder(framesPerEntry);
+        try (ReadableByteChannel source = audioStorage.openRange(object, 0, object.size())) {
+            Mp3FrameScanner.scan(source, object.size(), builder);
+        } catch (IOException e) {
+            throw new AudioStorageException("Failed to scan audio: " + object.key(), e);
+        }
+
+        Mp3SeekIndex index = builder.build();
+        if (index.frameCount() == 0) {
+            throw new AudioStorageException("No MPEG audio frames in: " + object.key());
+        }
+
+        long declared = builder.declaredFrames();
+        // encoders disagree on whether the info frame itself is counted
+        if (declared >= 0 && Math.abs(declared - index.frameCount()) > 1) {
+            log.warn("Frame count mismatch for {}: header declares {}, scan found {}",
+                    object.key(), declared, index.frameCount());
+        }
+        return index;
+    }
+
+    long buildCount() {
+        return builds.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        indexes.bindTo(registry);
+        FunctionCounter.builder("audio.seek.index.builds", builds, LongAdder::sum)
+                .register(registry);
+    }
+}
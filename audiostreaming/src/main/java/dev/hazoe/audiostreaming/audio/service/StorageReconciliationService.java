@@ -0,0 +1,295 @@
+package dev.hazoe.audiostreaming.audio.service;
+
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptorCache;
+import dev.hazoe.audiostreaming.audio.domain.AudioFileState;
+import dev.hazoe.audiostreaming.audio.dto.ReconciliationReport;
+import dev.hazoe.audiostreaming.audio.repository.AudioRepository;
+import dev.hazoe.audiostreaming.audio.storage.AudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Compares the {@code audio} table with what is actually in storage.
+ * <p>
+ * Rows are read by id in pages and each one is checked on a virtual thread, at
+ * most {@code parallelism} at once: its object is stat'ed, and hashed (SHA-256)
+ * only if size or version differ from what the row recorded, or nothing was
+ * recorded yet. The new state is written back to the row. With
+ * {@code verify}, unchanged files are hashed too, and a hash that changed
+ * under the same size and version is reported as mismatched (left as recorded).
+ * While the last checks finish, the storage is walked for objects no row
+ * points to (waveform peaks stored next to an audio count as its own).
+ * <p>
+ * Missing files, orphans, mismatches and unreadable files are counted and the
+ * first ones reported. Rows of missing files lose their recorded state, so
+ * streaming does not trust it. Runs happen one at a time on a dedicated
+ * thread, every {@code interval-hours} and on demand.
+ */
+@Slf4j
+@Service
+public class StorageReconciliationService implements MeterBinder, DisposableBean {
+
+    private final AudioRepository audioRepository;
+    private final AudioStorage audioStorage;
+    private final AudioDescriptorCache audioDescriptorCache;
+    private final int parallelism;
+    private final int pageSize;
+    private final int bufferSize;
+
+    private final ScheduledExecutorService runner = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("storage-reconciler").daemon().factory());
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private ReconciliationRun current; // guarded by lock
+
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+    private final LongAdder missing = new LongAdder();
+    private final LongAdder orphans = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public StorageReconciliationService(
+            AudioRepository audioRepository,
+            AudioStorage audioStorage,
+            AudioDescriptorCache audioDescriptorCache,
+            @Value("${app.storage.reconcile.parallelism:8}") int parallelism,
+            @Value("${app.storage.reconcile.page-size:1000}") int pageSize,
+            @Value("${app.storage.reconcile.buffer-size:65536}") int bufferSize,
+            @Value("${app.storage.reconcile.interval-hours:24}") long intervalHours) {
+        this.audioRepository = audioRepository;
+        this.audioStorage = audioStorage;
+        this.audioDescriptorCache = audioDescriptorCache;
+        this.parallelism = parallelism;
+        this.pageSize = pageSize;
+        this.bufferSize = bufferSize;
+        if (intervalHours > 0) {
+            runner.scheduleWithFixedDelay(() -> start(false), intervalHours, intervalHours, TimeUnit.HOURS);
+        }
+    }
+
+    /**
+     * Queues a run, unless one is already queued or running.
+     *
+     * @param verify also hash files whose size and version are unchanged
+     * @return the report of the queued or already active run
+     */
+    public ReconciliationReport start(boolean verify) {
+        lock.lock();
+        try {
+            if (current != null && !current.isFinished()) {
+                return current.report();
+            }
+            ReconciliationRun run = new ReconciliationRun(verify);
+            current = run;
+            runner.execute(() -> run(run));
+            return run.report();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The report of the active run, or else of the last one.
+     */
+    public Optional<ReconciliationReport> latest() {
+        lock.lock();
+        try {
+            return Optional.ofNullable(current).map(ReconciliationRun::report);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void run(ReconciliationRun run) {
+        run.start();
+        try (ExecutorService workers = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("storage-reconcile-", 0).factory())) {
+            Semaphore permits = new Semaphore(parallelism);
+            Set<String> known = new HashSet<>();
+
+            long afterId = 0;
+            List<AudioFileState> page;
+            do {
+                page = audioRepository.findFileStates(afterId, Limit.of(pageSize));
+                for (AudioFileState row : page) {
+                    known.add(row.audioPath());
+                    // derived objects stored next to the audio
+                    known.add(row.audioPath() + WaveformService.PEAKS_SUFFIX);
+                    permits.acquire();
+                    workers.execute(() -> {
+                        try {
+                            check(run, row);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                    afterId = row.id();
+                }
+            } while (page.size() == pageSize);
+
+            // overlaps with the checks still running
+            try (Stream<String> keys = audioStorage.keys()) {
+                keys.filter(key -> !known.contains(key)).forEach(run::orphan);
+            } catch (UnsupportedOperationException e) {
+                run.orphansNotListed();
+            }
+            // closing the executor waits for the remaining checks
+        } catch (Exception e) {
+            log.warn("Storage reconciliation failed: {}", e.toString());
+            run.fail(e.getMessage() != null ? e.getMessage() : e.toString());
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            if (!run.isFinished()) {
+                run.complete();
+            }
+            record(run.report());
+        }
+    }
+
+    /**
+     * Checks one row against its object and records what changed.
+     */
+    void check(ReconciliationRun run, AudioFileState row) {
+        try {
+            StorageObject object;
+            try {
+                object = audioStorage.stat(row.audioPath());
+            } catch (AudioStorageException e) {
+                run.missing(row.id(), row.audioPath());
+                if (row.isRecorded()) {
+                    forget(row);
+                }
+                return;
+            }
+
+            boolean same = row.isRecorded()
+                    && row.fileSize() == object.size()
+                    && row.fileVersion().equals(object.version());
+            if (same && row.contentSha256() != null && !run.verify()) {
+                run.unchanged();
+                return;
+            }
+
+            String sha256 = sha256(object);
+            if (same && row.contentSha256() != null) {
+                if (sha256.equals(row.contentSha256())) {
+                    run.unchanged();
+                } else {
+                    log.warn("Content of audio {} ({}) changed without a new version: sha256 {} recorded, {} found",
+                            row.id(), row.audioPath(), row.contentSha256(), sha256);
+                    run.mismatched(row.id(), row.audioPath());
+                }
+                return;
+            }
+
+            audioRepository.updateFileState(row.id(), object.size(), object.lastModified(), object.version(), sha256);
+            audioDescriptorCache.invalidate(row.id());
+            run.updated();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to check audio {} ({}): {}", row.id(), row.audioPath(), e.toString());
+            run.failed(row.id(), row.audioPath());
+        }
+    }
+
+    private void forget(AudioFileState row) {
+        audioRepository.updateFileState(row.id(), null, null, null, null);
+        audioDescriptorCache.invalidate(row.id());
+    }
+
+    /**
+     * Reads the object through its local file if it has one, so a full scan
+     * does not churn the channel pool that serves streams.
+     */
+    private String sha256(StorageObject object) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        Optional<Path> path = audioStorage.localPath(object);
+        try (ReadableByteChannel source = path.isPresent()
+                ? FileChannel.open(path.get(), StandardOpenOption.READ)
+                : audioStorage.openRange(object, 0, object.size())) {
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            long remaining = object.size();
+            while (remaining > 0) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+                int read = source.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                digest.update(buffer.flip());
+                remaining -= read;
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void record(ReconciliationReport report) {
+        unchanged.add(report.unchanged());
+        updated.add(report.updated());
+        mismatched.add(report.mismatched());
+        missing.add(report.missing());
+        orphans.add(Math.max(report.orphans(), 0));
+        failed.add(report.failed());
+        log.info("Storage reconciliation {}: {} checked, {} updated, {} mismatched, {} missing, {} orphans, {} failed",
+                report.phase(), report.checked(), report.updated(), report.mismatched(),
+                report.missing(), report.orphans(), report.failed());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        register(registry, "unchanged", unchanged);
+        register(registry, "updated", updated);
+        register(registry, "mismatched", mismatched);
+        register(registry, "missing", missing);
+        register(registry, "orphan", orphans);
+        register(registry, "failed", failed);
+    }
+
+    private static void register(MeterRegistry registry, String result, LongAdder count) {
+        FunctionCounter.builder("storage.reconcile.files", count, LongAdder::sum)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        runner.shutdownNow();
+    }
+}
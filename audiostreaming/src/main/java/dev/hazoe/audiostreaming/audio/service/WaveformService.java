@@ -0,0 +1,290 @@
+package dev.hazoe.audiostreaming.audio.service;
+
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptor;
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptorCache;
+import dev.hazoe.audiostreaming.audio.domain.AudioFileState;
+import dev.hazoe.audiostreaming.audio.dto.WaveformResponse;
+import dev.hazoe.audiostreaming.audio.repository.AudioRepository;
+import dev.hazoe.audiostreaming.audio.storage.AudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import dev.hazoe.audiostreaming.audio.waveform.WaveformDecoder;
+import dev.hazoe.audiostreaming.audio.waveform.WaveformPeaks;
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import dev.hazoe.audiostreaming.common.exception.WaveformNotFoundException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Precomputed waveform peaks, so players can draw a track before downloading it.
+ * <p>
+ * The peaks of an MP3 are computed once by decoding it ({@link WaveformDecoder})
+ * and stored next to it, under the audio's key plus {@value #PEAKS_SUFFIX}, as
+ * a {@link WaveformPeaks} file of at most {@code points} min/max pairs. A peaks
+ * object older than its audio is stale. Peaks are queued for computation when
+ * an audio is uploaded, and every {@code backfill-interval-hours} for every audio
+ * whose peaks are missing or stale; requests never queue work, since anyone may
+ * request any audio. Computations run on {@code parallelism} threads, one per
+ * audio at a time, behind a queue of {@code queue-capacity} audios. A backfill
+ * that finds the queue full continues from where it stopped a minute later.
+ * <p>
+ * Storing needs a writable {@link AudioStorage}; on read-only backends every
+ * computation fails and waveforms stay unavailable.
+ */
+@Slf4j
+@Service
+public class WaveformService implements MeterBinder, DisposableBean {
+
+    public static final String PEAKS_SUFFIX = ".peaks";
+
+    private static final String MP3_CONTENT_TYPE = "audio/mpeg";
+    private static final int BACKFILL_PAGE_SIZE = 1000;
+    private static final long BACKFILL_RESUME_MINUTES = 1;
+
+    private final AudioDescriptorCache audioDescriptorCache;
+    private final AudioStorage audioStorage;
+    private final AudioRepository audioRepository;
+    private final Path stagingDir;
+    private final int points;
+    private final int bufferSize;
+
+    private final ExecutorService generators;
+    private final ScheduledExecutorService backfiller = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("waveform-backfill").daemon().factory());
+
+    // audios queued or being computed
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    // where a backfill stopped by a full queue continues; only used on the backfill thread
+    private long backfillAfterId;
+    private boolean backfillStopped;
+    private boolean backfillResumeScheduled;
+
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public WaveformService(
+            AudioDescriptorCache audioDescriptorCache,
+            AudioStorage audioStorage,
+            AudioRepository audioRepository,
+            @Value("${app.ingest.staging-dir:${java.io.tmpdir}/audio-ingest}") String stagingDir,
+            @Value("${app.waveform.points:1000}") int points,
+            @Value("${app.waveform.parallelism:2}") int parallelism,
+            @Value("${app.waveform.queue-capacity:1000}") int queueCapacity,
+            @Value("${app.waveform.buffer-size:65536}") int bufferSize,
+            @Value("${app.waveform.backfill-interval-hours:24}") long backfillIntervalHours) throws IOException {
+        this.audioDescriptorCache = audioDescriptorCache;
+        this.audioStorage = audioStorage;
+        this.audioRepository = audioRepository;
+        this.stagingDir = Files.createDirectories(Path.of(stagingDir));
+        this.points = points;
+        this.bufferSize = bufferSize;
+        // bounded, so a flood of requests for computation is rejected instead of piling up
+        this.generators = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("waveform-", 0).daemon().factory());
+        if (backfillIntervalHours > 0) {
+            backfiller.scheduleWithFixedDelay(this::backfillQuietly, 1, backfillIntervalHours * 60, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * The stored peaks of an audio.
+     *
+     * @throws WaveformNotFoundException if the peaks are not (yet) available
+     */
+    public WaveformResponse peaks(Long audioId) {
+        AudioDescriptor audio = audioDescriptorCache.get(audioId);
+        if (!MP3_CONTENT_TYPE.equalsIgnoreCase(audio.contentType())) {
+            throw new WaveformNotFoundException(audioId, "is not available for " + audio.contentType());
+        }
+
+        StorageObject peaks = freshPeaks(audio.audioPath());
+        if (peaks == null) {
+            throw new WaveformNotFoundException(audioId, "is not computed yet");
+        }
+
+        try {
+            return new WaveformResponse(read(peaks), "\"" + peaks.version() + "\"", peaks.lastModified());
+        } catch (IOException e) {
+            throw new AudioStorageException("Failed to read waveform of audio " + audioId, e);
+        }
+    }
+
+    /**
+     * Queues the computation of an audio's peaks, unless it is already queued
+     * or the queue is full.
+     *
+     * @return whether it was queued by this call
+     */
+    public boolean schedule(Long audioId) {
+        if (!pending.add(audioId)) {
+            return false;
+        }
+        try {
+            generators.execute(() -> {
+                try {
+                    generate(audioId);
+                } catch (IOException | RuntimeException e) {
+                    failed.increment();
+                    log.warn("Failed to compute waveform of audio {}: {}", audioId, e.toString());
+                } finally {
+                    pending.remove(audioId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(audioId);
+            return false;
+        }
+    }
+
+    /**
+     * Decodes the audio and stores its peaks, replacing any previous ones.
+     */
+    public WaveformPeaks generate(Long audioId) throws IOException {
+        AudioDescriptor audio = audioDescriptorCache.get(audioId);
+        StorageObject source = audioStorage.stat(audio.audioPath());
+
+        WaveformPeaks peaks;
+        try (InputStream in = new BufferedInputStream(
+                Channels.newInputStream(audioStorage.openRange(source, 0, source.size())), bufferSize)) {
+            peaks = WaveformDecoder.decode(in, points);
+        }
+        if (peaks.size() == 0) {
+            throw new IOException("No MPEG audio frames in " + audio.audioPath());
+        }
+
+        Path staged = Files.createTempFile(stagingDir, "peaks-", ".part");
+        try {
+            Files.write(staged, peaks.encode());
+            audioStorage.store(audio.audioPath() + PEAKS_SUFFIX, staged);
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+        generated.increment();
+        return peaks;
+    }
+
+    /**
+     * Queues every audio whose peaks are missing or stale, until the queue is
+     * full; the next call then continues with the audio that did not fit.
+     *
+     * @return the number of audios queued
+     */
+    public int backfill() {
+        int queued = 0;
+        List<AudioFileState> page;
+        do {
+            page = audioRepository.findFileStates(backfillAfterId, Limit.of(BACKFILL_PAGE_SIZE));
+            for (AudioFileState row : page) {
+                if (MP3_CONTENT_TYPE.equalsIgnoreCase(row.contentType())
+                        && !pending.contains(row.id())
+                        && freshPeaks(row.audioPath()) == null) {
+                    if (!schedule(row.id())) {
+                        backfillStopped = true;
+                        return queued;
+                    }
+                    queued++;
+                }
+                backfillAfterId = row.id();
+            }
+        } while (page.size() == BACKFILL_PAGE_SIZE);
+        backfillAfterId = 0;
+        backfillStopped = false;
+        return queued;
+    }
+
+    private void backfillQuietly() {
+        try {
+            int queued = backfill();
+            if (queued > 0) {
+                log.info("Queued {} waveforms", queued);
+            }
+            if (backfillStopped && !backfillResumeScheduled) {
+                // the queue is full; continue once part of it is done
+                backfillResumeScheduled = true;
+                backfiller.schedule(() -> {
+                    backfillResumeScheduled = false;
+                    backfillQuietly();
+                }, BACKFILL_RESUME_MINUTES, TimeUnit.MINUTES);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to queue missing waveforms: {}", e.toString());
+        }
+    }
+
+    /**
+     * The peaks object of an audio, or null if there is none or it predates the audio.
+     */
+    private StorageObject freshPeaks(String audioPath) {
+        try {
+            StorageObject peaks = audioStorage.stat(audioPath + PEAKS_SUFFIX);
+            StorageObject source = audioStorage.stat(audioPath);
+            return peaks.lastModified().isBefore(source.lastModified()) ? null : peaks;
+        } catch (AudioStorageException e) {
+            return null;
+        }
+    }
+
+    private byte[] read(StorageObject peaks) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(Math.toIntExact(peaks.size()));
+        try (ReadableByteChannel channel = audioStorage.openRange(peaks, 0, peaks.size())) {
+            while (data.hasRemaining()) {
+                if (channel.read(data) < 0) {
+                    throw new EOFException("Waveform shorter than its size: " + peaks.key());
+                }
+            }
+        }
+        return data.array();
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("audio.waveforms", generated, LongAdder::sum)
+                .tag("result", "generated")
+                .register(registry);
+        FunctionCounter.builder("audio.waveforms", failed, LongAdder::sum)
+                .tag("result", "failed")
+                .register(registry);
+        Gauge.builder("audio.waveforms.pending", this, WaveformService::pendingCount)
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        backfiller.shutdownNow();
+        generators.shutdownNow();
+    }
+}
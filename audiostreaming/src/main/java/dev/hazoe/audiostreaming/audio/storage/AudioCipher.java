@@ -0,0 +1,214 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AES-CTR encryption of stored audio, seekable to any byte.
+ * <p>
+ * Encrypted object layout:
+ * <pre>
+ * int   magic "AEC1"
+ * byte  key id
+ * byte[16] initial counter block (random per object)
+ * byte[n]  ciphertext, same length as the plaintext
+ * </pre>
+ * Byte {@code p} of the plaintext is XORed with the key stream of counter
+ * block {@code iv + p / 16}, so a range is decrypted by starting the counter at
+ * the range's block and skipping {@code p % 16} bytes: a 1 MB range costs 1 MB
+ * of AES whatever its offset. Keys are identified by id so they can be rotated;
+ * old objects keep decrypting with the key they were written with.
+ */
+public final class AudioCipher {
+
+    static final int MAGIC = 0x41454331;
+    public static final int HEADER_BYTES = 4 + 1 + 16;
+
+    private static final int BLOCK_BYTES = 16;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final String TRANSFORMATION = "AES/CTR/NoPadding";
+
+    /**
+     * @param iv initial counter block
+     */
+    public record Header(int keyId, byte[] iv) {}
+
+    private final Map<Integer, SecretKeySpec> keys;
+    private final int activeKeyId;
+    private final SecureRandom random = new SecureRandom();
+
+    public AudioCipher(Map<Integer, byte[]> keys, int activeKeyId) {
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalArgumentException("No key with id " + activeKeyId);
+        }
+        Map<Integer, SecretKeySpec> specs = new HashMap<>();
+        keys.forEach((id, key) -> {
+            if (id < 0 || id > 0xFF) {
+                throw new IllegalArgumentException("Key id must be 0-255: " + id);
+            }
+            if (key.length != 16 && key.length != 24 && key.length != 32) {
+                throw new IllegalArgumentException("Key %d must be 16, 24 or 32 bytes".formatted(id));
+            }
+            specs.put(id, new SecretKeySpec(key, "AES"));
+        });
+        this.keys = Map.copyOf(specs);
+        this.activeKeyId = activeKeyId;
+    }
+
+    /**
+     * @param keys comma-separated {@code id:base64} pairs, e.g. {@code 1:q2Fz...,2:0Ykx...}
+     */
+    public static AudioCipher of(String keys, int activeKeyId) {
+        Map<Integer, byte[]> parsed = new HashMap<>();
+        for (String entry : keys.split(",")) {
+            String trimmed = entry.strip();
+            int colon = trimmed.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Expected id:base64 key, got an entry without an id");
+            }
+            parsed.put(Integer.parseInt(trimmed.substring(0, colon)),
+                    Base64.getDecoder().decode(trimmed.substring(colon + 1)));
+        }
+        return new AudioCipher(parsed, activeKeyId);
+    }
+
+    /**
+     * @return the header, or null if {@code bytes} do not start an encrypted object
+     */
+    public Header readHeader(ByteBuffer bytes) {
+        if (bytes.remaining() < HEADER_BYTES || bytes.getInt(bytes.position()) != MAGIC) {
+            return null;
+        }
+        int keyId = Byte.toUnsignedInt(bytes.get(bytes.position() + 4));
+        byte[] iv = new byte[BLOCK_BYTES];
+        bytes.get(bytes.position() + 5, iv);
+        return new Header(keyId, iv);
+    }
+
+    /**
+     * Writes the header and the encrypted contents of {@code source} to {@code target}.
+     *
+     * @return the header written
+     */
+    public Header encrypt(ReadableByteChannel source, WritableByteChannel target) throws IOException {
+        byte[] iv = new byte[BLOCK_BYTES];
+        random.nextBytes(iv);
+        Header header = new Header(activeKeyId, iv);
+
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .put((byte) activeKeyId)
+                .put(iv)
+                .flip();
+        writeFully(target, head);
+
+        // not closed: the caller owns the source
+        ReadableByteChannel encrypted = new CipherChannel(source, cipherAt(header, 0, Cipher.ENCRYPT_MODE));
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        while (encrypted.read(buffer.clear()) >= 0) {
+            writeFully(target, buffer.flip());
+        }
+        return header;
+    }
+
+    /**
+     * Decrypts ciphertext that starts at plaintext {@code offset}.
+     */
+    public ReadableByteChannel decrypt(ReadableByteChannel ciphertext, Header header, long offset) throws IOException {
+        return new CipherChannel(ciphertext, cipherAt(header, offset, Cipher.DECRYPT_MODE));
+    }
+
+    private Cipher cipherAt(Header header, long offset, int mode) throws IOException {
+        SecretKeySpec key = keys.get(header.keyId());
+        if (key == null) {
+            throw new IOException("Unknown encryption key id " + header.keyId());
+        }
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(mode, key, new IvParameterSpec(counterAt(header.iv(), offset / BLOCK_BYTES)));
+            int skip = (int) (offset % BLOCK_BYTES);
+            if (skip > 0) {
+                cipher.update(new byte[skip]);
+            }
+            return cipher;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Cannot initialize " + TRANSFORMATION, e);
+        }
+    }
+
+    /**
+     * {@code iv + block} as a 128-bit big-endian counter, the way CTR mode increments it.
+     */
+    static byte[] counterAt(byte[] iv, long block) {
+        byte[] counter = iv.clone();
+        long carry = 0;
+        for (int i = BLOCK_BYTES - 1; i >= 0; i--) {
+            long sum = (counter[i] & 0xFF) + (block & 0xFF) + carry;
+            counter[i] = (byte) sum;
+            carry = sum >>> 8;
+            block >>>= 8;
+        }
+        return counter;
+    }
+
+    private static void writeFully(WritableByteChannel target, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+    /**
+     * Applies a CTR cipher to everything read from the source. CTR is a stream
+     * cipher, so every byte read comes out transformed in the same call.
+     */
+    private static final class CipherChannel implements ReadableByteChannel {
+
+        private final ReadableByteChannel source;
+        private final Cipher cipher;
+        private final ByteBuffer input = ByteBuffer.allocate(BUFFER_BYTES);
+
+        CipherChannel(ReadableByteChannel source, Cipher cipher) {
+            this.source = source;
+            this.cipher = cipher;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            input.clear();
+            if (dst.remaining() < input.capacity()) {
+                input.limit(dst.remaining());
+            }
+            int read = source.read(input);
+            if (read <= 0) {
+                return read;
+            }
+            input.flip();
+            try {
+                return cipher.update(input, dst);
+            } catch (ShortBufferException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return source.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Where audio bytes live.
+ * <p>
+ * Keys are the {@code audio_path} values stored with each audio. The streaming
+ * layer only needs metadata and ranged reads; backends that keep objects on a
+ * local file system also expose the {@link Path} so the zero-copy paths
+ * (sendfile, mapped segments) keep working. Writable backends accept new
+ * objects through {@link #store}; backends that can enumerate their objects
+ * list them through {@link #keys}.
+ */
+public interface AudioStorage {
+
+    /**
+     * @throws dev.hazoe.audiostreaming.common.exception.AudioStorageException
+     *         if the object does not exist or cannot be read
+     */
+    StorageObject stat(String key);
+
+    /**
+     * Opens {@code [offset, offset + length)} of an object previously returned by {@link #stat}.
+     */
+    ReadableByteChannel openRange(StorageObject object, long offset, long length) throws IOException;
+
+    /**
+     * @return the local file backing the object, if the backend has one
+     */
+    default Optional<Path> localPath(StorageObject object) {
+        return Optional.empty();
+    }
+
+    /**
+     * Stores a fully written file under {@code key}, replacing any previous object.
+     * The file may be moved into place; the caller deletes it if it still exists.
+     *
+     * @throws UnsupportedOperationException if the backend is read-only
+     */
+    default StorageObject store(String key, Path file) throws IOException {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not accept uploads");
+    }
+
+    /**
+     * Every stored key, each once, in no particular order. The stream holds
+     * open resources and must be closed.
+     *
+     * @throws UnsupportedOperationException if the backend cannot enumerate its objects
+     */
+    default Stream<String> keys() throws IOException {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot list its objects");
+    }
+}
@@ -0,0 +1,191 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import dev.hazoe.audiostreaming.audio.cache.SingleFlight;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded read-through cache of object blocks on local disk.
+ * <p>
+ * Each block is one file. The index lives in memory (LRU, bounded by total bytes),
+ * so files left over from a previous run are removed on startup. Blocks are
+ * downloaded outside the lock into a temp file and moved into place, which keeps
+ * slow remote reads from blocking cache hits. Concurrent misses for the same
+ * block are coalesced into one download ({@link SingleFlight}), so a release
+ * spike costs one remote read per block rather than one per listener.
+ * <p>
+ * An evicted block that is still open by a reader stays readable until closed
+ * (the file is only unlinked).
+ */
+final class DiskBlockCache {
+
+    @FunctionalInterface
+    interface BlockLoader {
+        void load(Path target) throws IOException;
+    }
+
+    private static final String BLOCK_SUFFIX = ".blk";
+
+    private final Path directory;
+    private final long maxBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Long> blocks = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    private final SingleFlight<String, Boolean> loads = new SingleFlight<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    DiskBlockCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "*" + BLOCK_SUFFIX)) {
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Opens a cached block, loading it first on a miss. Concurrent misses for the
+     * same block share one load.
+     *
+     * @param blockName file-name-safe, unique per object version and block index
+     */
+    FileChannel open(String blockName, BlockLoader loader) throws IOException {
+        Path path = directory.resolve(blockName + BLOCK_SUFFIX);
+
+        FileChannel cached = openCached(blockName, path);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        while (true) {
+            Path[] uncacheable = new Path[1];
+            boolean stored = loads.execute(blockName, () -> {
+                misses.increment();
+                Path temp = download(loader);
+                long size = Files.size(temp);
+                if (size > maxBytes) {
+                    uncacheable[0] = temp;
+                    return false;
+                }
+                store(blockName, path, temp, size);
+                return true;
+            });
+
+            if (uncacheable[0] != null) {
+                // not cacheable: read once, gone on close
+                return FileChannel.open(uncacheable[0], StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            if (!stored) {
+                // joined the load of a block too large to share
+                return FileChannel.open(download(loader), StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+            }
+
+            cached = openCached(blockName, path);
+            if (cached != null) {
+                return cached;
+            }
+            // evicted before this reader could open it
+        }
+    }
+
+    private FileChannel openCached(String blockName, Path path) throws IOException {
+        lock.lock();
+        try {
+            return blocks.get(blockName) != null
+                    ? FileChannel.open(path, StandardOpenOption.READ)
+                    : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Path download(BlockLoader loader) throws IOException {
+        Path temp = Files.createTempFile(directory, "block-", ".tmp");
+        try {
+            loader.load(temp);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    private void store(String blockName, Path path, Path temp, long size) throws IOException {
+        lock.lock();
+        try {
+            if (blocks.get(blockName) != null) {
+                // loaded by a reader that missed the in-flight load
+                Files.deleteIfExists(temp);
+            } else {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                blocks.put(blockName, size);
+                totalBytes += size;
+                evictOverflow(blockName);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Misses that waited for another reader's load of the same block.
+     */
+    long coalescedCount() {
+        return loads.sharedCount();
+    }
+
+    long evictionCount() {
+        return evictions.sum();
+    }
+
+    long sizeBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictOverflow(String keep) throws IOException {
+        Iterator<Map.Entry<String, Long>> it = blocks.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            it.remove();
+            totalBytes -= eldest.getValue();
+            evictions.increment();
+            Files.deleteIfExists(directory.resolve(eldest.getKey() + BLOCK_SUFFIX));
+        }
+    }
+}
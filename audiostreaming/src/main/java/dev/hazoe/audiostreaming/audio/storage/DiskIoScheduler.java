@@ -0,0 +1,310 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-disk scheduling of positional reads.
+ * <p>
+ * Each disk (storage root) has a FIFO queue and one worker. The worker takes
+ * what is queued, up to {@code max-batch} requests, optionally lingering for
+ * {@code window} to collect more. It sorts the batch by file and offset, and
+ * merges adjacent or overlapping reads of the same file into one read of up to
+ * {@code max-merge-bytes}, copied out to each requester. Under load, many small
+ * random reads from concurrent streams become fewer, larger, ordered ones.
+ * Requests are admitted in arrival order and each stream has at most one read
+ * in flight, so every stream is served once per batch.
+ * <p>
+ * Only the positional-read paths go through here (copy loop, async delivery,
+ * read-ahead, packs); sendfile and mapped segments are scheduled by the kernel.
+ */
+@Slf4j
+@Component
+public class DiskIoScheduler implements MeterBinder, DisposableBean {
+
+    private static final Path DEFAULT_DISK = Path.of("");
+
+    private record Request(FileChannel channel, ByteBuffer dst, long position, int length,
+                           CompletableFuture<Integer> done) {
+
+        long end() {
+            return position + length;
+        }
+    }
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final int maxMergeBytes;
+
+    private final Map<Path, DiskQueue> disks = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private final LongAdder singleReads = new LongAdder();
+    private final LongAdder mergedReads = new LongAdder();
+    private final LongAdder mergedRequests = new LongAdder();
+    private DistributionSummary batchSize;
+
+    @Autowired
+    public DiskIoScheduler(
+            @Value("${app.storage.io-scheduler.enabled:false}") boolean enabled,
+            @Value("${app.storage.io-scheduler.window-micros:0}") long windowMicros,
+            @Value("${app.storage.io-scheduler.max-batch:64}") int maxBatch,
+            @Value("${app.storage.io-scheduler.max-merge-bytes:1048576}") int maxMergeBytes) {
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxBatch = maxBatch;
+        this.maxMergeBytes = maxMergeBytes;
+    }
+
+    /**
+     * A scheduler that reads on the caller's thread.
+     */
+    public static DiskIoScheduler disabled() {
+        return new DiskIoScheduler(false, 0, 1, 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reads into {@code dst} at {@code position}, like {@link FileChannel#read(ByteBuffer, long)}.
+     *
+     * @param disk root the file lives on, or null
+     */
+    public int read(Path disk, FileChannel channel, ByteBuffer dst, long position) throws IOException {
+        if (!enabled || !dst.hasRemaining()) {
+            return channel.read(dst, position);
+        }
+        if (closed) {
+            throw new IOException("Disk I/O scheduler is shut down");
+        }
+
+        Request request = new Request(channel, dst, position, dst.remaining(), new CompletableFuture<>());
+        disks.computeIfAbsent(disk == null ? DEFAULT_DISK : disk, DiskQueue::new).queue.add(request);
+        return await(request.done());
+    }
+
+    private static int await(CompletableFuture<Integer> done) throws IOException {
+        try {
+            return done.get();
+        } catch (InterruptedException e) {
+            // the worker may still write into the caller's buffer; wait it out
+            try {
+                done.join();
+            } catch (RuntimeException ignored) {
+                // reported as interrupted below
+            }
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a scheduled read");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private final class DiskQueue {
+
+        final LinkedBlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+        final ByteBuffer scratch = ByteBuffer.allocateDirect(Math.max(maxMergeBytes, 1));
+        final Thread worker;
+
+        DiskQueue(Path disk) {
+            this.worker = Thread.ofPlatform()
+                    .name("disk-io-" + (disk.toString().isEmpty() ? "default" : disk.getFileName()))
+                    .daemon(true)
+                    .start(this::run);
+        }
+
+        private void run() {
+            List<Request> batch = new ArrayList<>(maxBatch);
+            while (!closed) {
+                try {
+                    batch.add(queue.take());
+                    collect(batch);
+                    if (batchSize != null) {
+                        batchSize.record(batch.size());
+                    }
+                    serve(batch);
+                } catch (InterruptedException e) {
+                    break;
+                } catch (RuntimeException e) {
+                    log.warn("Disk I/O batch failed: {}", e.toString());
+                    batch.forEach(request -> request.done().completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+            List<Request> rest = new ArrayList<>();
+            queue.drainTo(rest);
+            rest.forEach(request -> request.done().completeExceptionally(
+                    new IOException("Disk I/O scheduler is shut down")));
+        }
+
+        private void collect(List<Request> batch) throws InterruptedException {
+            queue.drainTo(batch, maxBatch - batch.size());
+            long deadline = System.nanoTime() + windowNanos;
+            while (batch.size() < maxBatch) {
+                long wait = deadline - System.nanoTime();
+                if (wait <= 0) {
+                    return;
+                }
+                Request next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    return;
+                }
+                batch.add(next);
+                queue.drainTo(batch, maxBatch - batch.size());
+            }
+        }
+
+        private void serve(List<Request> batch) {
+            // group per file in arrival order of the first request, then by offset
+            Map<FileChannel, List<Request>> byFile = new IdentityHashMap<>();
+            List<FileChannel> order = new ArrayList<>();
+            for (Request request : batch) {
+                byFile.computeIfAbsent(request.channel(), channel -> {
+                    order.add(channel);
+                    return new ArrayList<>();
+                }).add(request);
+            }
+
+            for (FileChannel channel : order) {
+                List<Request> requests = byFile.get(channel);
+                requests.sort(Comparator.comparingLong(Request::position));
+
+                int i = 0;
+                while (i < requests.size()) {
+                    long start = requests.get(i).position();
+                    long end = requests.get(i).end();
+                    int j = i + 1;
+                    while (j < requests.size()
+                            && requests.get(j).position() <= end
+                            && Math.max(end, requests.get(j).end()) - start <= maxMergeBytes) {
+                        end = Math.max(end, requests.get(j).end());
+                        j++;
+                    }
+                    List<Request> span = requests.subList(i, j);
+                    try {
+                        if (span.size() == 1) {
+                            readSingle(span.getFirst());
+                        } else {
+                            readMerged(channel, span, start, end);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        span.forEach(request -> request.done().completeExceptionally(e));
+                    }
+                    i = j;
+                }
+            }
+        }
+
+        private void readSingle(Request request) throws IOException {
+            singleReads.increment();
+            request.done().complete(request.channel().read(request.dst(), request.position()));
+        }
+
+        private void readMerged(FileChannel channel, List<Request> span, long start, long end) throws IOException {
+            mergedReads.increment();
+            mergedRequests.add(span.size());
+
+            scratch.clear().limit((int) (end - start));
+            long position = start;
+            while (scratch.hasRemaining()) {
+                int read = channel.read(scratch, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+            }
+            long available = position; // exclusive end of the bytes actually read
+
+            for (Request request : span) {
+                if (request.position() >= available) {
+                    request.done().complete(-1);
+                    continue;
+                }
+                int count = (int) Math.min(request.length(), available - request.position());
+                ByteBuffer slice = scratch.duplicate();
+                int from = (int) (request.position() - start);
+                slice.limit(from + count).position(from);
+                request.dst().put(slice);
+                request.done().complete(count);
+            }
+        }
+    }
+
+    long singleReadCount() {
+        return singleReads.sum();
+    }
+
+    long mergedReadCount() {
+        return mergedReads.sum();
+    }
+
+    long mergedRequestCount() {
+        return mergedRequests.sum();
+    }
+
+    private int queuedCount() {
+        int total = 0;
+        for (DiskQueue disk : disks.values()) {
+            total += disk.queue.size();
+        }
+        return total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        FunctionCounter.builder("storage.io.reads", singleReads, LongAdder::sum)
+                .tag("kind", "single")
+                .register(registry);
+        FunctionCounter.builder("storage.io.reads", mergedReads, LongAdder::sum)
+                .tag("kind", "merged")
+                .register(registry);
+        FunctionCounter.builder("storage.io.merged.requests", mergedRequests, LongAdder::sum)
+                .description("Requests served by merged reads")
+                .register(registry);
+        Gauge.builder("storage.io.queue.depth", this, DiskIoScheduler::queuedCount)
+                .register(registry);
+        batchSize = DistributionSummary.builder("storage.io.batch.size")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        disks.values().forEach(disk -> disk.worker.interrupt());
+    }
+}
@@ -0,0 +1,68 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outstanding reads per storage root (disk).
+ * <p>
+ * {@link FileChannelPool} counts a read from lease to release against the root
+ * that contains the file, so pooled read paths (file regions, ranged reads, packs)
+ * are accounted for in one place. Sendfile and mapped segments are not counted:
+ * they use the raw path, and the container or the page cache finishes them.
+ * Files outside any registered root are not counted either.
+ */
+public final class DiskLoad {
+
+    private record Root(Path path, AtomicInteger inFlight) {}
+
+    // copy-on-write: roots are registered at startup, looked up on every read
+    private volatile List<Root> roots = List.of();
+
+    public synchronized void register(Path root) {
+        Path normalized = root.toAbsolutePath().normalize();
+        if (counter(normalized, true) != null) {
+            return;
+        }
+        List<Root> updated = new ArrayList<>(roots);
+        updated.add(new Root(normalized, new AtomicInteger()));
+        // longest prefix first, so nested roots resolve to the innermost one
+        updated.sort((a, b) -> Integer.compare(b.path().getNameCount(), a.path().getNameCount()));
+        roots = List.copyOf(updated);
+    }
+
+    public int inFlight(Path root) {
+        AtomicInteger counter = counter(root.toAbsolutePath().normalize(), true);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * @return the counter of the root containing {@code file}, or null
+     */
+    AtomicInteger counterFor(Path file) {
+        return counter(file, false);
+    }
+
+    /**
+     * @return the root containing {@code file}, or null
+     */
+    Path rootOf(Path file) {
+        for (Root root : roots) {
+            if (file.startsWith(root.path())) {
+                return root.path();
+            }
+        }
+        return null;
+    }
+
+    private AtomicInteger counter(Path path, boolean exact) {
+        for (Root root : roots) {
+            if (exact ? root.path().equals(path) : path.startsWith(root.path())) {
+                return root.inFlight();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,208 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Decrypts {@link AudioCipher}-encrypted objects of another backend on read.
+ * <p>
+ * Encrypted and plain objects can live side by side (objects are encrypted one
+ * by one), so each object's first bytes are checked once per version and the
+ * answer is cached. Encrypted objects are reported with their plaintext size,
+ * a version tagged {@value #VERSION_SUFFIX}, and no local path: sendfile and
+ * mapped segments would hand out ciphertext, so they are served by the copy
+ * loop through a decrypting channel. Plain objects pass through untouched.
+ */
+public class EncryptedAudioStorage implements AudioStorage, MeterBinder {
+
+    static final String VERSION_SUFFIX = "+ctr";
+
+    private record CacheKey(String key, String version) {}
+
+    private final AudioStorage delegate;
+    private final AudioCipher cipher;
+    private final int maxEntries;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Optional.empty(): the object is stored in plain
+    private final LinkedHashMap<CacheKey, Optional<AudioCipher.Header>> headers;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public EncryptedAudioStorage(AudioStorage delegate, AudioCipher cipher, int maxEntries) {
+        this.delegate = delegate;
+        this.cipher = cipher;
+        this.maxEntries = maxEntries;
+        this.headers = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, Optional<AudioCipher.Header>> eldest) {
+                return size() > EncryptedAudioStorage.this.maxEntries;
+            }
+        };
+    }
+
+    public AudioStorage delegate() {
+        return delegate;
+    }
+
+    @Override
+    public StorageObject stat(String key) {
+        StorageObject stored = delegate.stat(key);
+        Optional<AudioCipher.Header> header;
+        try {
+            header = header(stored);
+        } catch (IOException e) {
+            throw new AudioStorageException("Failed to read encryption header: " + key, e);
+        }
+        if (header.isEmpty()) {
+            return stored;
+        }
+        return new StorageObject(
+                key,
+                stored.size() - AudioCipher.HEADER_BYTES,
+                stored.lastModified(),
+                stored.version() + VERSION_SUFFIX
+        );
+    }
+
+    @Override
+    public ReadableByteChannel openRange(StorageObject object, long offset, long length) throws IOException {
+        if (!isEncrypted(object)) {
+            return delegate.openRange(object, offset, length);
+        }
+
+        StorageObject stored = storedObject(object);
+        AudioCipher.Header header = header(stored)
+                .orElseThrow(() -> new IOException("Object is no longer encrypted: " + object.key()));
+        ReadableByteChannel ciphertext = delegate.openRange(stored, AudioCipher.HEADER_BYTES + offset, length);
+        return cipher.decrypt(ciphertext, header, offset);
+    }
+
+    @Override
+    public Optional<Path> localPath(StorageObject object) {
+        return isEncrypted(object) ? Optional.empty() : delegate.localPath(object);
+    }
+
+    /**
+     * Encrypts the file next to itself and stores the encrypted copy.
+     */
+    @Override
+    public StorageObject store(String key, Path file) throws IOException {
+        Path encrypted = file.resolveSibling(file.getFileName() + ".enc");
+        try {
+            try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+                 FileChannel target = FileChannel.open(encrypted,
+                         StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                cipher.encrypt(source, target);
+            }
+            delegate.store(key, encrypted);
+        } finally {
+            Files.deleteIfExists(encrypted);
+        }
+        return stat(key);
+    }
+
+    @Override
+    public Stream<String> keys() throws IOException {
+        return delegate.keys();
+    }
+
+    static boolean isEncrypted(StorageObject object) {
+        return object.version().endsWith(VERSION_SUFFIX);
+    }
+
+    private static StorageObject storedObject(StorageObject object) {
+        String version = object.version();
+        return new StorageObject(
+                object.key(),
+                object.size() + AudioCipher.HEADER_BYTES,
+                object.lastModified(),
+                version.substring(0, version.length() - VERSION_SUFFIX.length())
+        );
+    }
+
+    private Optional<AudioCipher.Header> header(StorageObject stored) throws IOException {
+        CacheKey cacheKey = new CacheKey(stored.key(), stored.version());
+        lock.lock();
+        try {
+            Optional<AudioCipher.Header> cached = headers.get(cacheKey);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        misses.increment();
+        Optional<AudioCipher.Header> header = Optional.ofNullable(readHeader(stored));
+
+        lock.lock();
+        try {
+            headers.put(cacheKey, header);
+        } finally {
+            lock.unlock();
+        }
+        return header;
+    }
+
+    private AudioCipher.Header readHeader(StorageObject stored) throws IOException {
+        if (stored.size() < AudioCipher.HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(AudioCipher.HEADER_BYTES);
+        try (ReadableByteChannel channel = delegate.openRange(stored, 0, AudioCipher.HEADER_BYTES)) {
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes) < 0) {
+                    throw new EOFException("Object shorter than its size: " + stored.key());
+                }
+            }
+        }
+        return cipher.readHeader(bytes.flip());
+    }
+
+    int cachedHeaderCount() {
+        lock.lock();
+        try {
+            return headers.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // the backend is registered under this wrapper, so its meters are bound from here
+        if (delegate instanceof MeterBinder binder) {
+            binder.bindTo(registry);
+        }
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", "encryption-headers").tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", "encryption-headers").tag("result", "miss")
+                .register(registry);
+        Gauge.builder("cache.size", this, EncryptedAudioStorage::cachedHeaderCount)
+                .tag("cache", "encryption-headers")
+                .register(registry);
+    }
+}
@@ -0,0 +1,252 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory cache of file metadata under a storage root.
+ * <p>
+ * Seek-heavy sessions stat the same file for every range request. Entries are
+ * invalidated by a {@link WatchService} on the whole tree when available, with a
+ * TTL as a backstop (watchers can overflow, and network mounts may not emit events).
+ * Bounded by entry count, LRU. Only successful lookups are cached, so a newly
+ * uploaded file is visible on the next request.
+ */
+@Slf4j
+final class FileAttributeCache implements Closeable {
+
+    private record Entry(StorageObject object, long expiresAt) {}
+
+    private final Path root;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries;
+    // bumped on every invalidation, so a load racing with a change is not stored
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
+    private WatchService watcher;
+    private Thread watchThread;
+
+    FileAttributeCache(Path root, Duration ttl, int maxEntries, boolean watch) {
+        this(root, ttl, maxEntries, watch, System::nanoTime);
+    }
+
+    /**
+     * A cache without a root to watch, e.g. for object storage metadata; entries
+     * expire by TTL or explicit invalidation only.
+     */
+    static FileAttributeCache ttlOnly(Duration ttl, int maxEntries) {
+        return new FileAttributeCache(null, ttl, maxEntries, false);
+    }
+
+    FileAttributeCache(Path root, Duration ttl, int maxEntries, boolean watch, LongSupplier nanoClock) {
+        this.root = root;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > FileAttributeCache.this.maxEntries;
+            }
+        };
+
+        if (watch) {
+            startWatching();
+        }
+    }
+
+    /**
+     * @param key normalized key relative to the root, '/'-separated
+     */
+    StorageObject get(String key, Function<String, StorageObject> loader) {
+        long loadGeneration;
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() - nanoClock.getAsLong() > 0) {
+                hits.increment();
+                return entry.object();
+            }
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        misses.increment();
+        StorageObject object = loader.apply(key);
+
+        lock.lock();
+        try {
+            if (generation == loadGeneration) {
+                entries.put(key, new Entry(object, nanoClock.getAsLong() + ttlNanos));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return object;
+    }
+
+    void invalidate(String key) {
+        lock.lock();
+        try {
+            generation++;
+            entries.remove(key);
+            // a deleted or renamed directory takes its files with it
+            String prefix = key + "/";
+            entries.keySet().removeIf(k -> k.startsWith(prefix));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void invalidateAll() {
+        lock.lock();
+        try {
+            generation++;
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isWatching() {
+        return watchThread != null;
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    /* ================= watching ================= */
+
+    private void startWatching() {
+        if (!Files.isDirectory(root)) {
+            log.warn("Storage root {} does not exist, attribute cache relies on TTL only", root);
+            return;
+        }
+        try {
+            watcher = root.getFileSystem().newWatchService();
+            registerTree(root);
+        } catch (IOException e) {
+            log.warn("Cannot watch storage root {}, attribute cache relies on TTL only", root, e);
+            closeWatcherQuietly();
+            return;
+        }
+
+        watchThread = Thread.ofPlatform()
+                .name("storage-watch")
+                .daemon(true)
+                .start(this::watchLoop);
+    }
+
+    private void registerTree(Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey key = dir.register(
+                        watcher,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY
+                );
+                watchedDirs.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void watchLoop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watcher.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path dir = watchedDirs.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                    invalidateAll();
+                    continue;
+                }
+
+                Path child = dir.resolve((Path) event.context());
+                invalidate(keyOf(child));
+
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                    try {
+                        registerTree(child);
+                    } catch (IOException e) {
+                        log.warn("Cannot watch new directory {}", child, e);
+                    }
+                }
+            }
+
+            if (!key.reset()) {
+                watchedDirs.remove(key);
+            }
+        }
+    }
+
+    private String keyOf(Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private void closeWatcherQuietly() {
+        try {
+            close();
+        } catch (IOException ignored) {
+        }
+        watcher = null;
+    }
+}
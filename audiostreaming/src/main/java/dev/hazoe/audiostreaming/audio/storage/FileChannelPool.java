@@ -0,0 +1,318 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LRU pool of open read-only {@link FileChannel}s, keyed by path and file version.
+ * <p>
+ * Readers only use positional I/O ({@code read(dst, position)},
+ * {@code transferTo}), which never touches the channel position, so any number
+ * of concurrent ranges can share one handle. Handles are reference counted:
+ * eviction removes a handle from the pool, and it is closed when its last
+ * lease is released. Keying by version means a replaced file is opened afresh.
+ * <p>
+ * An interrupted reader closes the shared channel (NIO semantics); a closed
+ * handle is dropped on the next acquire and reopened.
+ * <p>
+ * Leases are also counted per storage root ({@link DiskLoad}), which is what
+ * multi-disk storage routes reads by, and the disk a lease's reads are queued
+ * on when the {@link DiskIoScheduler} is enabled.
+ */
+@Slf4j
+@Component
+public class FileChannelPool implements MeterBinder, DisposableBean {
+
+    private record Key(Path path, String version) {}
+
+    private static final class Handle {
+        final Key key;
+        final FileChannel channel;
+        int refs; // guarded by pool lock
+        boolean evicted;
+
+        Handle(Key key, FileChannel channel) {
+            this.key = key;
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * A borrowed channel. Must be closed exactly once; further closes are ignored.
+     */
+    public final class Lease implements Closeable {
+
+        private final Handle handle;
+        private final Path disk;
+        private final AtomicInteger diskReads;
+        private boolean released;
+
+        private Lease(Handle handle) {
+            this.handle = handle;
+            this.disk = diskLoad.rootOf(handle.key.path());
+            this.diskReads = diskLoad.counterFor(handle.key.path());
+            if (diskReads != null) {
+                diskReads.incrementAndGet();
+            }
+        }
+
+        public FileChannel channel() {
+            return handle.channel;
+        }
+
+        /**
+         * A positional read, queued on the file's disk when I/O scheduling is enabled.
+         */
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return ioScheduler.read(disk, handle.channel, dst, position);
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                if (diskReads != null) {
+                    diskReads.decrementAndGet();
+                }
+                release(handle);
+            }
+        }
+    }
+
+    private final boolean enabled;
+    private final int maxOpen;
+    private final DiskIoScheduler ioScheduler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, Handle> handles = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final DiskLoad diskLoad = new DiskLoad();
+    private final AtomicInteger leased = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public FileChannelPool(boolean enabled, int maxOpen) {
+        this(enabled, maxOpen, DiskIoScheduler.disabled());
+    }
+
+    @Autowired
+    public FileChannelPool(
+            @Value("${app.storage.channel-pool.enabled:true}") boolean enabled,
+            @Value("${app.storage.channel-pool.max-open:256}") int maxOpen,
+            DiskIoScheduler ioScheduler) {
+        this.enabled = enabled;
+        this.maxOpen = maxOpen;
+        this.ioScheduler = ioScheduler;
+    }
+
+    /**
+     * A pool that opens a channel per lease and closes it on release (the old behavior).
+     */
+    public static FileChannelPool unpooled() {
+        return new FileChannelPool(false, 0);
+    }
+
+    /**
+     * @param version identifies the file contents, e.g. {@link StorageObject#version()};
+     *                null when unknown
+     */
+    public Lease acquire(Path path, String version) throws IOException {
+        if (!enabled) {
+            misses.increment();
+            leased.incrementAndGet();
+            return new Lease(new Handle(new Key(path, version), open(path)));
+        }
+
+        Key key = new Key(path, version);
+        lock.lock();
+        try {
+            Handle handle = handles.get(key);
+            if (handle != null && handle.channel.isOpen()) {
+                hits.increment();
+                return lease(handle);
+            }
+            if (handle != null) {
+                handles.remove(key);
+                handle.evicted = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // open outside the lock; a racing acquire of the same file may open it too
+        misses.increment();
+        FileChannel channel = open(path);
+
+        List<Handle> toClose = new ArrayList<>();
+        Lease lease;
+        lock.lock();
+        try {
+            Handle existing = handles.get(key);
+            if (existing != null && existing.channel.isOpen()) {
+                toClose.add(new Handle(key, channel));
+                lease = lease(existing);
+            } else {
+                Handle handle = new Handle(key, channel);
+                handles.put(key, handle);
+                lease = lease(handle);
+                evictOverflow(toClose);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        toClose.forEach(FileChannelPool::closeQuietly);
+        return lease;
+    }
+
+    /**
+     * Evicts every version of a file, e.g. after it was replaced in place.
+     */
+    public void invalidate(Path path) {
+        List<Handle> toClose = new ArrayList<>();
+        lock.lock();
+        try {
+            Iterator<Handle> it = handles.values().iterator();
+            while (it.hasNext()) {
+                Handle handle = it.next();
+                if (handle.key.path().equals(path)) {
+                    it.remove();
+                    retire(handle, toClose);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        toClose.forEach(FileChannelPool::closeQuietly);
+    }
+
+    private Lease lease(Handle handle) {
+        handle.refs++;
+        leased.incrementAndGet();
+        return new Lease(handle);
+    }
+
+    private void release(Handle handle) {
+        leased.decrementAndGet();
+        if (!enabled) {
+            closeQuietly(handle);
+            return;
+        }
+
+        boolean close;
+        lock.lock();
+        try {
+            handle.refs--;
+            close = handle.evicted && handle.refs == 0;
+        } finally {
+            lock.unlock();
+        }
+        if (close) {
+            closeQuietly(handle);
+        }
+    }
+
+    private void evictOverflow(List<Handle> toClose) {
+        Iterator<Handle> eldest = handles.values().iterator();
+        while (handles.size() > maxOpen && eldest.hasNext()) {
+            Handle handle = eldest.next();
+            eldest.remove();
+            evictions.increment();
+            retire(handle, toClose);
+        }
+    }
+
+    // leased handles stay open until their last lease is released
+    private static void retire(Handle handle, List<Handle> toClose) {
+        handle.evicted = true;
+        if (handle.refs == 0) {
+            toClose.add(handle);
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    private static void closeQuietly(Handle handle) {
+        try {
+            handle.channel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close {}: {}", handle.key.path(), e.toString());
+        }
+    }
+
+    /**
+     * Outstanding leases per registered storage root.
+     */
+    public DiskLoad diskLoad() {
+        return diskLoad;
+    }
+
+    public int openCount() {
+        lock.lock();
+        try {
+            return handles.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int leasedCount() {
+        return leased.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", "file-channels").tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", "file-channels").tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", "file-channels")
+                .register(registry);
+        Gauge.builder("cache.size", this, FileChannelPool::openCount)
+                .tag("cache", "file-channels")
+                .register(registry);
+        Gauge.builder("storage.channels.leased", leased, AtomicInteger::get)
+                .description("File channel leases currently held by readers")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        List<Handle> toClose = new ArrayList<>();
+        lock.lock();
+        try {
+            handles.values().forEach(handle -> retire(handle, toClose));
+            handles.clear();
+        } finally {
+            lock.unlock();
+        }
+        toClose.forEach(FileChannelPool::closeQuietly);
+    }
+}
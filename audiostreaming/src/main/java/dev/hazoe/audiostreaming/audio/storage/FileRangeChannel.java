@@ -0,0 +1,93 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Positional reads over {@code [start, start + length)} of a file channel.
+ * Closing this channel closes the file channel, or runs the given close action
+ * instead when the file channel is shared (see {@link FileChannelPool}).
+ * Reads through a pool lease go through the lease, and so through the
+ * {@link DiskIoScheduler} when it is enabled.
+ */
+public final class FileRangeChannel implements ReadableByteChannel {
+
+    @FunctionalInterface
+    interface PositionalReader {
+        int read(ByteBuffer dst, long position) throws IOException;
+    }
+
+    private final FileChannel channel;
+    private final PositionalReader reader;
+    private final Closeable onClose;
+    private long position;
+    private long remaining;
+    private boolean closed;
+
+    public FileRangeChannel(FileChannel channel, long start, long length) {
+        this(channel, start, length, channel);
+    }
+
+    public FileRangeChannel(FileChannel channel, long start, long length, Closeable onClose) {
+        this(channel, channel::read, start, length, onClose);
+    }
+
+    /**
+     * Reads through {@code lease} and releases it on close.
+     */
+    public FileRangeChannel(FileChannelPool.Lease lease, long start, long length) {
+        this(lease.channel(), lease::read, start, length, lease);
+    }
+
+    private FileRangeChannel(FileChannel channel, PositionalReader reader, long start, long length,
+                             Closeable onClose) {
+        this.channel = channel;
+        this.reader = reader;
+        this.onClose = onClose;
+        this.position = start;
+        this.remaining = length;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+
+        int limit = dst.limit();
+        if (dst.remaining() > remaining) {
+            dst.limit(dst.position() + (int) remaining);
+        }
+
+        int read;
+        try {
+            read = reader.read(dst, position);
+        } finally {
+            dst.limit(limit);
+        }
+
+        if (read < 0) {
+            throw new EOFException("Unexpected end of file at position " + position);
+        }
+        position += read;
+        remaining -= read;
+        return read;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed && channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            onClose.close();
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * Audio files on the local (or mounted) file system under one or more roots.
+ * <p>
+ * File metadata is served from a {@link FileAttributeCache} when enabled, so
+ * repeated range requests for the same track do not stat the file each time,
+ * and ranges are read through a shared {@link FileChannelPool} instead of
+ * opening the file per request.
+ * <p>
+ * With several roots (one per disk), keys are placed by consistent hashing
+ * ({@link StorageRing}). A key is looked up on its primary root first, then on
+ * the others, so files written before a root was added stay readable. Keys read
+ * often enough are copied to the next roots on the ring, and each read goes to
+ * the copy on the root with the fewest outstanding reads ({@link DiskLoad}),
+ * taking equally loaded copies in turn.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalAudioStorage implements AudioStorage, MeterBinder, DisposableBean {
+
+    private record Located(Path root, StorageObject object) {}
+
+    private static final class Heat {
+        long windowStart;
+        int reads;
+    }
+
+    private final StorageRing ring;
+    private final Map<Path, FileAttributeCache> attributeCaches;
+    private final FileChannelPool channelPool;
+
+    private final int copies;
+    private final int hotReads;
+    private final long windowNanos;
+    private final ReentrantLock heatLock = new ReentrantLock();
+    private final LinkedHashMap<String, Heat> heat;
+    // roots holding a verified copy of a replicated key, the original included
+    private final Map<String, List<Path>> replicas = new ConcurrentHashMap<>();
+    private final Set<String> replicating = ConcurrentHashMap.newKeySet();
+    private final ExecutorService replicator;
+    private final LongAdder replications = new LongAdder();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    @Autowired
+    public LocalAudioStorage(
+            @Value("${app.storage.local.root:${app.cdn.audio-base-url}}") String root,
+            @Value("${app.storage.local.roots:}") String roots,
+            @Value("${app.storage.local.virtual-nodes:128}") int virtualNodes,
+            @Value("${app.storage.local.attribute-cache.enabled:true}") boolean cacheEnabled,
+            @Value("${app.storage.local.attribute-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${app.storage.local.attribute-cache.max-entries:10000}") int maxEntries,
+            @Value("${app.storage.local.attribute-cache.watch:true}") boolean watch,
+            @Value("${app.storage.local.replication.copies:1}") int copies,
+            @Value("${app.storage.local.replication.hot-reads:200}") int hotReads,
+            @Value("${app.storage.local.replication.window-seconds:60}") long windowSeconds,
+            FileChannelPool channelPool) {
+        List<Path> paths = (roots.isBlank() ? List.of(root) : Arrays.asList(roots.split(","))).stream()
+                .map(String::strip)
+                .map(path -> Path.of(path).toAbsolutePath().normalize())
+                .distinct()
+                .toList();
+        this.ring = new StorageRing(paths, virtualNodes);
+        this.attributeCaches = new LinkedHashMap<>();
+        if (cacheEnabled) {
+            for (Path path : paths) {
+                attributeCaches.put(path,
+                        new FileAttributeCache(path, Duration.ofSeconds(ttlSeconds), maxEntries, watch));
+            }
+        }
+        this.channelPool = channelPool;
+        paths.forEach(channelPool.diskLoad()::register);
+
+        this.copies = Math.min(copies, paths.size());
+        this.hotReads = hotReads;
+        this.windowNanos = Duration.ofSeconds(windowSeconds).toNanos();
+        this.heat = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Heat> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.replicator = this.copies > 1
+                ? Executors.newSingleThreadExecutor(Thread.ofPlatform()
+                        .name("storage-replicator")
+                        .daemon(true)
+                        .factory())
+                : null;
+    }
+
+    /**
+     * Uncached single-root storage, e.g. for tests and tools.
+     */
+    public LocalAudioStorage(Path root) {
+        this.ring = new StorageRing(List.of(root.toAbsolutePath().normalize()), 1);
+        this.attributeCaches = Map.of();
+        this.channelPool = FileChannelPool.unpooled();
+        this.copies = 1;
+        this.hotReads = Integer.MAX_VALUE;
+        this.windowNanos = 0;
+        this.heat = new LinkedHashMap<>();
+        this.replicator = null;
+    }
+
+    @Override
+    public StorageObject stat(String key) {
+        Located located = locate(key);
+        if (replicator != null) {
+            recordRead(key, located);
+        }
+        return located.object();
+    }
+
+    /**
+     * Moves the file to the key's primary root. A file staged on another file
+     * system is copied next to the target first, so readers never see a partial file.
+     */
+    @Override
+    public StorageObject store(String key, Path file) throws IOException {
+        Path root = ring.placement(key, 1).getFirst();
+        Path target = resolve(root, key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+            try {
+                Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        invalidate(key);
+        return statOn(root, key);
+    }
+
+    /**
+     * Walks every root, one after the other. Keys copied to several roots are
+     * listed once; temporary files of uploads and replication (dot files) are skipped.
+     */
+    @Override
+    public Stream<String> keys() throws IOException {
+        Stream<String> keys = Stream.empty();
+        try {
+            for (Path root : ring.roots()) {
+                if (Files.isDirectory(root)) {
+                    keys = Stream.concat(keys, Files.walk(root)
+                            .filter(Files::isRegularFile)
+                            .filter(path -> !path.getFileName().toString().startsWith("."))
+                            .map(path -> keyOf(root, path)));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            keys.close();
+            throw e;
+        }
+        return ring.roots().size() == 1 ? keys : keys.distinct();
+    }
+
+    /**
+     * Drops cached metadata for a key, e.g. after the file was replaced by the application.
+     */
+    public void invalidate(String key) {
+        replicas.remove(key);
+        for (Path root : ring.roots()) {
+            Path path = resolve(root, key);
+            FileAttributeCache cache = attributeCaches.get(root);
+            if (cache != null) {
+                cache.invalidate(keyOf(root, path));
+            }
+            channelPool.invalidate(path);
+        }
+    }
+
+    /**
+     * The storage roots, each one a disk.
+     */
+    public List<Path> roots() {
+        return ring.roots();
+    }
+
+    /**
+     * Finds the key on its primary root, falling back to the other roots in ring order.
+     */
+    private Located locate(String key) {
+        AudioStorageException notFound = null;
+        for (Path root : ring.placement(key, ring.roots().size())) {
+            try {
+                return new Located(root, statOn(root, key));
+            } catch (AudioStorageException e) {
+                notFound = e;
+            }
+        }
+        throw notFound;
+    }
+
+    private StorageObject statOn(Path root, String key) {
+        Path path = resolve(root, key);
+        FileAttributeCache cache = attributeCaches.get(root);
+        if (cache == null) {
+            return load(key, path);
+        }
+        return cache.get(keyOf(root, path), normalized -> load(key, path));
+    }
+
+    private StorageObject load(String key, Path path) {
+        if (!Files.exists(path) || !Files.isReadable(path)) {
+            throw new AudioStorageException("Audio file not accessible: " + path);
+        }
+
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long mtime = attributes.lastModifiedTime().toMillis();
+            return new StorageObject(
+                    key,
+                    attributes.size(),
+                    attributes.lastModifiedTime().toInstant(),
+                    "%x-%x".formatted(mtime, attributes.size())
+            );
+        } catch (IOException e) {
+            throw new AudioStorageException("Failed to read file attributes: " + path, e);
+        }
+    }
+
+    @Override
+    public ReadableByteChannel openRange(StorageObject object, long offset, long length) throws IOException {
+        FileChannelPool.Lease lease = channelPool.acquire(select(object), object.version());
+        return new FileRangeChannel(lease, offset, length);
+    }
+
+    @Override
+    public Optional<Path> localPath(StorageObject object) {
+        return Optional.of(select(object));
+    }
+
+    /**
+     * The copy of the object on the root with the fewest outstanding reads.
+     * Only reads through {@link FileChannelPool} are counted; sendfile and mapped
+     * reads take the raw path and finish unseen, so equally loaded copies are
+     * taken in turn rather than always the primary one.
+     */
+    private Path select(StorageObject object) {
+        if (ring.roots().size() == 1) {
+            return resolve(ring.roots().getFirst(), object.key());
+        }
+
+        Path primary = locate(object.key()).root();
+        List<Path> holders = replicasOf(object.key());
+        if (holders.isEmpty()) {
+            return resolve(primary, object.key());
+        }
+
+        List<Path> least = new ArrayList<>(holders.size());
+        least.add(primary);
+        int leastLoad = channelPool.diskLoad().inFlight(primary);
+        for (Path holder : holders) {
+            if (holder.equals(primary)) {
+                continue;
+            }
+            int load = channelPool.diskLoad().inFlight(holder);
+            if (load > leastLoad || !holds(holder, object)) {
+                continue;
+            }
+            if (load < leastLoad) {
+                least.clear();
+                leastLoad = load;
+            }
+            least.add(holder);
+        }
+        Path best = least.get(Math.floorMod(nextReplica.getAndIncrement(), least.size()));
+        return resolve(best, object.key());
+    }
+
+    private boolean holds(Path root, StorageObject object) {
+        try {
+            return statOn(root, object.key()).version().equals(object.version());
+        } catch (AudioStorageException e) {
+            return false;
+        }
+    }
+
+    private void recordRead(String key, Located located) {
+        long now = System.nanoTime();
+        boolean hot;
+        heatLock.lock();
+        try {
+            Heat entry = heat.computeIfAbsent(key, k -> new Heat());
+            if (entry.reads == 0 || now - entry.windowStart > windowNanos) {
+                entry.windowStart = now;
+                entry.reads = 0;
+            }
+            hot = ++entry.reads == hotReads;
+        } finally {
+            heatLock.unlock();
+        }
+
+        if (hot && replicasOf(key).size() < copies && replicating.add(key)) {
+            try {
+                replicator.execute(() -> {
+                    try {
+                        replicate(key, located);
+                    } finally {
+                        replicating.remove(key);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                replicating.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Copies a hot key to the next roots on the ring, keeping its mtime (and so its version).
+     */
+    private void replicate(String key, Located located) {
+        Path source = resolve(located.root(), key);
+        List<Path> holders = new ArrayList<>(replicasOf(key));
+        if (!holders.contains(located.root())) {
+            holders.add(located.root());
+        }
+
+        for (Path root : ring.placement(key, ring.roots().size())) {
+            if (holders.size() >= copies) {
+                break;
+            }
+            if (holders.contains(root)) {
+                continue;
+            }
+            try {
+                if (!holds(root, located.object())) {
+                    copy(source, root, key, located.object());
+                    replications.increment();
+                }
+                holders.add(root);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to replicate {} to {}: {}", key, root, e.toString());
+            }
+        }
+        replicas.put(key, List.copyOf(holders));
+    }
+
+    private void copy(Path source, Path root, String key, StorageObject object) throws IOException {
+        Path target = resolve(root, key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".replica-", ".tmp");
+        try {
+            Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(temp, FileTime.from(object.lastModified()));
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        FileAttributeCache cache = attributeCaches.get(root);
+        if (cache != null) {
+            cache.invalidate(keyOf(root, target));
+        }
+    }
+
+    List<Path> replicasOf(String key) {
+        return replicas.getOrDefault(key, List.of());
+    }
+
+    long replicationCount() {
+        return replications.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (ring.roots().size() > 1) {
+            DiskLoad diskLoad = channelPool.diskLoad();
+            for (Path root : ring.roots()) {
+                Gauge.builder("storage.disk.reads.inflight", diskLoad, load -> load.inFlight(root))
+                        .tag("root", root.toString())
+                        .register(registry);
+            }
+            FunctionCounter.builder("storage.replications", replications, LongAdder::sum)
+                    .register(registry);
+        }
+
+        if (attributeCaches.isEmpty()) {
+            return;
+        }
+        FunctionCounter.builder("cache.gets", this, storage -> storage.sumCaches(FileAttributeCache::hitCount))
+                .tag("cache", "file-attributes").tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, storage -> storage.sumCaches(FileAttributeCache::missCount))
+                .tag("cache", "file-attributes").tag("result", "miss")
+                .register(registry);
+        Gauge.builder("cache.size", this, storage -> storage.sumCaches(FileAttributeCache::size))
+                .tag("cache", "file-attributes")
+                .register(registry);
+    }
+
+    private double sumCaches(ToDoubleFunction<FileAttributeCache> metric) {
+        double total = 0;
+        for (FileAttributeCache cache : attributeCaches.values()) {
+            total += metric.applyAsDouble(cache);
+        }
+        return total;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (replicator != null) {
+            replicator.shutdownNow();
+        }
+        for (FileAttributeCache cache : attributeCaches.values()) {
+            cache.close();
+        }
+    }
+
+    private static String keyOf(Path root, Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private static Path resolve(Path root, String key) {
+        Path path = Path.of(root.toString(), key).normalize();
+        if (!path.startsWith(root)) {
+            throw new AudioStorageException("Audio path escapes storage root: " + key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,444 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Audio objects appended into a few large pack files (Haystack-style).
+ * <p>
+ * Serving a clip costs an in-memory index lookup (key → pack, offset, length)
+ * and a positional read on a long-lived pack handle from the
+ * {@link FileChannelPool}, instead of a path lookup and an open per file.
+ * <p>
+ * The index is rebuilt on startup by scanning record headers; for the same key
+ * the last record wins. Replacing or deleting an object flags its old record
+ * deleted in place. Once a sealed pack's garbage crosses the configured ratio,
+ * its live records are copied into the active pack in the background and the
+ * pack is removed. Object versions derive from the content (mtime, size, CRC),
+ * so moving a record does not invalidate cached copies or derived indexes.
+ * <p>
+ * Packed objects have no file of their own, so they are streamed with the
+ * copy loop; sendfile, mapped segments and {@code X-Accel-Redirect} need
+ * {@link LocalAudioStorage}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "pack")
+public class PackAudioStorage implements AudioStorage, MeterBinder, DisposableBean {
+
+    private static final Pattern PACK_NAME = Pattern.compile("pack-(\\d{8})\\.dat");
+    // pack files only grow, so one pooled handle serves every read
+    private static final String POOL_VERSION = "pack";
+
+    private record Location(PackFile pack, PackFile.Record record) {}
+
+    private final Path directory;
+    private final long maxPackBytes;
+    private final double compactionGarbageRatio;
+    private final FileChannelPool channelPool;
+
+    private final ConcurrentHashMap<String, Location> index = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final TreeMap<Integer, PackFile> packs = new TreeMap<>(); // guarded by writeLock
+    private PackFile active; // guarded by writeLock
+
+    private final ExecutorService compactor;
+    private final LongAdder compactions = new LongAdder();
+
+    public PackAudioStorage(
+            @Value("${app.storage.pack.dir}") String directory,
+            @Value("${app.storage.pack.max-pack-bytes:4294967296}") long maxPackBytes,
+            @Value("${app.storage.pack.compaction.garbage-ratio:0.5}") double compactionGarbageRatio,
+            @Value("${app.storage.pack.import-from:}") String importFrom,
+            FileChannelPool channelPool) throws IOException {
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.maxPackBytes = maxPackBytes;
+        this.compactionGarbageRatio = compactionGarbageRatio;
+        this.channelPool = channelPool;
+        this.compactor = Executors.newSingleThreadExecutor(Thread.ofPlatform()
+                .name("pack-compactor")
+                .daemon(true)
+                .factory());
+
+        Files.createDirectories(this.directory);
+        channelPool.diskLoad().register(this.directory);
+        load();
+        if (!importFrom.isBlank()) {
+            importTree(Path.of(importFrom));
+        }
+    }
+
+    @Override
+    public StorageObject stat(String key) {
+        Location location = index.get(key);
+        if (location == null) {
+            throw new AudioStorageException("Audio object not found: " + key);
+        }
+        return toObject(location.record());
+    }
+
+    @Override
+    public ReadableByteChannel openRange(StorageObject object, long offset, long length) throws IOException {
+        // one retry: the record may have been moved by compaction after the lookup
+        for (int attempt = 0; ; attempt++) {
+            Location location = index.get(object.key());
+            if (location == null || !version(location.record()).equals(object.version())) {
+                throw new NoSuchFileException(object.key(), null, "object changed or deleted");
+            }
+            try {
+                FileChannelPool.Lease lease = channelPool.acquire(location.pack().path(), POOL_VERSION);
+                return new FileRangeChannel(lease, location.record().dataOffset() + offset, length);
+            } catch (NoSuchFileException e) {
+                if (attempt > 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores an object under {@code key}, replacing any previous content.
+     */
+    public StorageObject put(String key, ReadableByteChannel source, long length, Instant lastModified)
+            throws IOException {
+        writeLock.lock();
+        try {
+            PackFile pack = activeFor(PackFile.recordLength(key, length));
+            PackFile.Record record = pack.append(key, lastModified.toEpochMilli(), source, length);
+            pack.liveBytes.addAndGet(record.length());
+
+            Location previous = index.put(key, new Location(pack, record));
+            if (previous != null) {
+                retire(previous);
+            }
+            return toObject(record);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public StorageObject store(String key, Path file) throws IOException {
+        return put(key, file);
+    }
+
+    public StorageObject put(String key, Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+            return put(key, source, attributes.size(), attributes.lastModifiedTime().toInstant());
+        }
+    }
+
+    /**
+     * The live keys as of the call; later puts and deletes may or may not show.
+     */
+    @Override
+    public Stream<String> keys() {
+        return index.keySet().stream();
+    }
+
+    /**
+     * @return whether the key existed
+     */
+    public boolean delete(String key) throws IOException {
+        writeLock.lock();
+        try {
+            Location removed = index.remove(key);
+            if (removed == null) {
+                return false;
+            }
+            retire(removed);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private StorageObject toObject(PackFile.Record record) {
+        return new StorageObject(
+                record.key(),
+                record.dataLength(),
+                Instant.ofEpochMilli(record.lastModified()),
+                version(record)
+        );
+    }
+
+    private static String version(PackFile.Record record) {
+        return "%x-%x-%08x".formatted(record.lastModified(), record.dataLength(), record.crc());
+    }
+
+    private void load() throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = PACK_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    ids.add(Integer.parseInt(matcher.group(1)));
+                }
+            });
+        }
+        ids.sort(null);
+
+        long tornTail = 0;
+        for (int id : ids) {
+            Path path = PackFile.pathOf(directory, id);
+            List<PackFile.Record> records = new ArrayList<>();
+            long fileSize;
+            long end;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                fileSize = channel.size();
+                end = PackFile.scan(channel, records::add);
+            }
+            PackFile pack = PackFile.of(directory, id, end);
+            packs.put(id, pack);
+
+            for (PackFile.Record record : records) {
+                if (record.flags() != PackFile.LIVE) {
+                    pack.garbageBytes.addAndGet(record.length());
+                    continue;
+                }
+                pack.liveBytes.addAndGet(record.length());
+                Location previous = index.put(record.key(), new Location(pack, record));
+                if (previous != null) {
+                    // a crash between appending a replacement and flagging the old record
+                    previous.pack().markDeleted(previous.record());
+                    previous.pack().liveBytes.addAndGet(-previous.record().length());
+                    previous.pack().garbageBytes.addAndGet(previous.record().length());
+                }
+            }
+            tornTail = fileSize - end;
+            if (tornTail > 0) {
+                log.warn("Pack {} has {} unreadable trailing bytes", path, tornTail);
+                pack.garbageBytes.addAndGet(tornTail);
+            }
+        }
+
+        if (!packs.isEmpty() && packs.lastEntry().getValue().size() < maxPackBytes) {
+            active = packs.lastEntry().getValue();
+            // only the newest pack is appended to; reopening it drops a torn tail
+            active.openForAppend();
+            active.garbageBytes.addAndGet(-tornTail);
+        } else {
+            newActivePack();
+        }
+        for (PackFile pack : packs.values()) {
+            maybeCompact(pack);
+        }
+        log.info("Loaded {} audio objects from {} packs in {}", index.size(), packs.size(), directory);
+    }
+
+    private void importTree(Path root) throws IOException {
+        Path normalizedRoot = root.toAbsolutePath().normalize();
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(normalizedRoot)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(file -> !file.startsWith(directory))
+                    .toList();
+        }
+
+        int imported = 0;
+        for (Path file : files) {
+            String key = normalizedRoot.relativize(file).toString().replace(File.separatorChar, '/');
+            Location existing = index.get(key);
+            if (existing != null
+                    && existing.record().dataLength() == Files.size(file)
+                    && existing.record().lastModified() == Files.getLastModifiedTime(file).toMillis()) {
+                continue;
+            }
+            put(key, file);
+            imported++;
+        }
+        log.info("Imported {} of {} files from {}", imported, files.size(), normalizedRoot);
+    }
+
+    // callers hold writeLock
+    private PackFile activeFor(long recordLength) throws IOException {
+        if (active.size() > 0 && active.size() + recordLength > maxPackBytes) {
+            active.seal();
+            maybeCompact(active);
+            newActivePack();
+        }
+        return active;
+    }
+
+    private void newActivePack() throws IOException {
+        int id = packs.isEmpty() ? 1 : packs.lastKey() + 1;
+        active = PackFile.of(directory, id, 0);
+        active.openForAppend();
+        packs.put(id, active);
+    }
+
+    private void retire(Location location) throws IOException {
+        PackFile pack = location.pack();
+        long length = location.record().length();
+        pack.markDeleted(location.record());
+        pack.liveBytes.addAndGet(-length);
+        pack.garbageBytes.addAndGet(length);
+        maybeCompact(pack);
+    }
+
+    private void maybeCompact(PackFile pack) {
+        if (pack == active || pack.size() == 0
+                || pack.garbageBytes.get() < compactionGarbageRatio * pack.size()
+                || !pack.compacting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            compactor.execute(() -> {
+                try {
+                    compact(pack);
+                } catch (IOException | RuntimeException e) {
+                    pack.compacting.set(false);
+                    log.warn("Failed to compact {}: {}", pack.path(), e.toString());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pack.compacting.set(false);
+        }
+    }
+
+    /**
+     * Copies the live records of a sealed pack into the active pack and removes it.
+     * Readers still holding the old pack finish on their open handle.
+     */
+    void compact(PackFile pack) throws IOException {
+        long moved = 0;
+        try (FileChannelPool.Lease lease = channelPool.acquire(pack.path(), POOL_VERSION)) {
+            FileChannel source = lease.channel();
+            List<PackFile.Record> records = new ArrayList<>();
+            PackFile.scan(source, records::add);
+
+            for (PackFile.Record record : records) {
+                if (record.flags() != PackFile.LIVE) {
+                    continue;
+                }
+                writeLock.lock();
+                try {
+                    Location current = index.get(record.key());
+                    if (current == null || current.pack() != pack
+                            || current.record().offset() != record.offset()) {
+                        continue;
+                    }
+                    PackFile target = activeFor(record.length());
+                    PackFile.Record copy = target.append(record.key(), record.lastModified(),
+                            new FileRangeChannel(source, record.dataOffset(), record.dataLength(), () -> {}),
+                            record.dataLength());
+                    target.liveBytes.addAndGet(copy.length());
+                    index.put(record.key(), new Location(target, copy));
+                    moved++;
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+        }
+
+        writeLock.lock();
+        try {
+            packs.remove(pack.id());
+        } finally {
+            writeLock.unlock();
+        }
+        channelPool.invalidate(pack.path());
+        Files.deleteIfExists(pack.path());
+        compactions.increment();
+        log.info("Compacted {}: moved {} live records, reclaimed {} bytes",
+                pack.path(), moved, pack.garbageBytes.get());
+    }
+
+    int packCount() {
+        writeLock.lock();
+        try {
+            return packs.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    PackFile pack(int id) {
+        writeLock.lock();
+        try {
+            return packs.get(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    long liveBytes() {
+        return sumPacks(true);
+    }
+
+    long garbageBytes() {
+        return sumPacks(false);
+    }
+
+    private long sumPacks(boolean live) {
+        writeLock.lock();
+        try {
+            long total = 0;
+            for (PackFile pack : packs.values()) {
+                total += live ? pack.liveBytes.get() : pack.garbageBytes.get();
+            }
+            return total;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("storage.pack.count", this, PackAudioStorage::packCount)
+                .register(registry);
+        Gauge.builder("storage.pack.objects", index, ConcurrentHashMap::size)
+                .register(registry);
+        Gauge.builder("storage.pack.bytes", this, PackAudioStorage::liveBytes)
+                .tag("state", "live")
+                .register(registry);
+        Gauge.builder("storage.pack.bytes", this, PackAudioStorage::garbageBytes)
+                .tag("state", "garbage")
+                .register(registry);
+        FunctionCounter.builder("storage.pack.compactions", compactions, LongAdder::sum)
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        compactor.shutdownNow();
+        writeLock.lock();
+        try {
+            active.seal();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
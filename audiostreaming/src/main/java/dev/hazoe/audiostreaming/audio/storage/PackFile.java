@@ -0,0 +1,244 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * One append-only pack of audio records.
+ * <p>
+ * Record layout (big-endian):
+ * <pre>
+ * int   magic "APR1"
+ * byte  flags     LIVE, DELETED, or PENDING while the data is being written
+ * short keyLength
+ * long  dataLength
+ * long  lastModified (epoch millis)
+ * int   crc32 of the data
+ * byte[keyLength]  key (UTF-8)
+ * byte[dataLength] data
+ * </pre>
+ * A record is written as PENDING and flipped to LIVE once its data and checksum
+ * are on disk, so a crash mid-append leaves a PENDING tail that the next scan
+ * drops. Deleting only flips the flag; the bytes are reclaimed by compaction.
+ */
+final class PackFile {
+
+    static final int MAGIC = 0x41505231;
+    static final byte LIVE = 0;
+    static final byte DELETED = 1;
+    static final byte PENDING = 2;
+    static final int HEADER_BYTES = 4 + 1 + 2 + 8 + 8 + 4;
+
+    private static final int FLAGS_OFFSET = 4;
+    private static final int CRC_OFFSET = 4 + 1 + 2 + 8 + 8;
+    private static final int COPY_BUFFER = 64 * 1024;
+
+    /**
+     * @param offset     start of the record header
+     * @param dataOffset start of the audio bytes
+     */
+    record Record(long offset, byte flags, String key, long dataOffset, long dataLength,
+                  long lastModified, int crc) {
+
+        long end() {
+            return dataOffset + dataLength;
+        }
+
+        long length() {
+            return end() - offset;
+        }
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        void record(Record record) throws IOException;
+    }
+
+    private final int id;
+    private final Path path;
+    private FileChannel writer; // open while this is the active pack
+    private long size;
+
+    final AtomicLong liveBytes = new AtomicLong();
+    final AtomicLong garbageBytes = new AtomicLong();
+    final AtomicBoolean compacting = new AtomicBoolean();
+
+    private PackFile(int id, Path path, long size) {
+        this.id = id;
+        this.path = path;
+        this.size = size;
+    }
+
+    static Path pathOf(Path directory, int id) {
+        return directory.resolve("pack-%08d.dat".formatted(id));
+    }
+
+    static PackFile of(Path directory, int id, long size) {
+        return new PackFile(id, pathOf(directory, id), size);
+    }
+
+    static long recordLength(String key, long dataLength) {
+        return HEADER_BYTES + key.getBytes(StandardCharsets.UTF_8).length + dataLength;
+    }
+
+    int id() {
+        return id;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * Visits complete records from the start of the pack.
+     *
+     * @return the end of the last complete, non-pending record
+     */
+    static long scan(FileChannel channel, RecordVisitor visitor) throws IOException {
+        long fileSize = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+
+        while (position + HEADER_BYTES <= fileSize) {
+            header.clear();
+            readFully(channel, header, position);
+            header.flip();
+
+            int magic = header.getInt();
+            byte flags = header.get();
+            int keyLength = Short.toUnsignedInt(header.getShort());
+            long dataLength = header.getLong();
+            long lastModified = header.getLong();
+            int crc = header.getInt();
+
+            long dataOffset = position + HEADER_BYTES + keyLength;
+            if (magic != MAGIC || flags == PENDING || dataLength < 0 || dataOffset + dataLength > fileSize) {
+                break;
+            }
+
+            ByteBuffer key = ByteBuffer.allocate(keyLength);
+            readFully(channel, key, position + HEADER_BYTES);
+            visitor.record(new Record(position, flags, new String(key.array(), StandardCharsets.UTF_8),
+                    dataOffset, dataLength, lastModified, crc));
+            position = dataOffset + dataLength;
+        }
+        return position;
+    }
+
+    /**
+     * Opens the pack for appending at {@code size}, dropping anything beyond it.
+     */
+    void openForAppend() throws IOException {
+        writer = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (writer.size() > size) {
+            writer.truncate(size);
+        }
+    }
+
+    void seal() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Appends {@code length} bytes from {@code source}; the caller serializes appends.
+     */
+    Record append(String key, long lastModified, ReadableByteChannel source, long length) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Key too long: " + key);
+        }
+
+        long start = size;
+        long dataOffset = start + HEADER_BYTES + keyBytes.length;
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + keyBytes.length)
+                    .putInt(MAGIC)
+                    .put(PENDING)
+                    .putShort((short) keyBytes.length)
+                    .putLong(length)
+                    .putLong(lastModified)
+                    .putInt(0)
+                    .put(keyBytes)
+                    .flip();
+            writeFully(header, start);
+
+            CRC32 crc = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(COPY_BUFFER, Math.max(1, length)));
+            long position = dataOffset;
+            long remaining = length;
+            while (remaining > 0) {
+                buffer.clear();
+                if (buffer.remaining() > remaining) {
+                    buffer.limit((int) remaining);
+                }
+                if (source.read(buffer) < 0) {
+                    throw new EOFException("Source ended %d bytes early for %s".formatted(remaining, key));
+                }
+                buffer.flip();
+                crc.update(buffer.duplicate());
+                int written = buffer.remaining();
+                writeFully(buffer, position);
+                position += written;
+                remaining -= written;
+            }
+
+            int checksum = (int) crc.getValue();
+            writeFully(ByteBuffer.allocate(4).putInt(0, checksum), start + CRC_OFFSET);
+            writer.force(false);
+            writeFully(ByteBuffer.wrap(new byte[]{LIVE}), start + FLAGS_OFFSET);
+            writer.force(false);
+
+            size = dataOffset + length;
+            return new Record(start, LIVE, key, dataOffset, length, lastModified, checksum);
+        } catch (IOException | RuntimeException e) {
+            writer.truncate(start);
+            throw e;
+        }
+    }
+
+    void markDeleted(Record record) throws IOException {
+        ByteBuffer flag = ByteBuffer.wrap(new byte[]{DELETED});
+        if (writer != null) {
+            writer.write(flag, record.offset() + FLAGS_OFFSET);
+            writer.force(false);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(flag, record.offset() + FLAGS_OFFSET);
+            channel.force(false);
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += writer.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of pack at " + position);
+            }
+            position += read;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * S3-compatible object storage read with HTTP range GETs.
+ * <p>
+ * Objects are read in fixed, aligned blocks through a bounded {@link DiskBlockCache},
+ * so repeated plays and seeks of warm content are served from local disk and
+ * only cold blocks go to the network. Requests use path-style URLs
+ * ({@code endpoint/bucket/key}), which S3 and MinIO both accept, and are signed
+ * with SigV4 when credentials are configured.
+ * <p>
+ * The JDK {@link HttpClient} keeps HTTP/1.1 connections alive and reuses them
+ * per host, so block fetches share a connection pool. It opens a connection
+ * whenever no idle one is free, so at most {@code max-connections} exchanges
+ * run at once. Block GETs carry {@code If-Match} with the stat'ed ETag, so an
+ * object replaced in between fails the read instead of caching new bytes under
+ * the old version.
+ * <p>
+ * Object metadata is kept for a short TTL ({@link FileAttributeCache} without a
+ * watcher), so the chunk, playlist and segment requests of one play do not each
+ * send a HEAD. A 412 on a block read drops the entry, so the next stat sees the
+ * replacement.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+public class S3AudioStorage implements AudioStorage, MeterBinder, DisposableBean {
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+
+    private final URI endpoint;
+    private final String bucket;
+    private final AwsSigV4Signer signer;
+    private final HttpClient httpClient;
+    private final ExecutorService httpExecutor;
+    private final Semaphore connections;
+    private final Duration requestTimeout;
+    private final DiskBlockCache blockCache;
+    private final long blockSize;
+    private final FileAttributeCache statCache;
+
+    public S3AudioStorage(
+            @Value("${app.storage.s3.endpoint}") String endpoint,
+            @Value("${app.storage.s3.bucket}") String bucket,
+            @Value("${app.storage.s3.region:us-east-1}") String region,
+            @Value("${app.storage.s3.access-key:}") String accessKey,
+            @Value("${app.storage.s3.secret-key:}") String secretKey,
+            @Value("${app.storage.s3.max-connections:32}") int maxConnections,
+            @Value("${app.storage.s3.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${app.storage.s3.request-timeout-ms:10000}") long requestTimeoutMs,
+            @Value("${app.storage.s3.cache.dir:${java.io.tmpdir}/audio-block-cache}") String cacheDir,
+            @Value("${app.storage.s3.cache.max-bytes:10737418240}") long cacheMaxBytes,
+            @Value("${app.storage.s3.cache.block-size:1048576}") long blockSize,
+            @Value("${app.storage.s3.stat-cache.ttl-seconds:5}") long statTtlSeconds,
+            @Value("${app.storage.s3.stat-cache.max-entries:10000}") int statMaxEntries) throws IOException {
+        this.endpoint = URI.create(endpoint.endsWith("/") ? endpoint : endpoint + "/");
+        this.bucket = bucket;
+        this.signer = accessKey.isBlank()
+                ? null
+                : new AwsSigV4Signer(accessKey, secretKey, region, "s3");
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.blockCache = new DiskBlockCache(Path.of(cacheDir), cacheMaxBytes);
+        this.blockSize = blockSize;
+        this.statCache = statTtlSeconds > 0
+                ? FileAttributeCache.ttlOnly(Duration.ofSeconds(statTtlSeconds), statMaxEntries)
+                : null;
+
+        // the client opens a new connection whenever no idle one is free; only this bounds them
+        this.connections = new Semaphore(maxConnections);
+        this.httpExecutor = Executors.newFixedThreadPool(maxConnections, Thread.ofPlatform()
+                .name("s3-http-", 0)
+                .daemon(true)
+                .factory());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(httpExecutor)
+                .build();
+    }
+
+    @Override
+    public StorageObject stat(String key) {
+        return statCache == null ? head(key) : statCache.get(key, this::head);
+    }
+
+    private StorageObject head(String key) {
+        HttpRequest request = request("HEAD", objectUri(key), Map.of());
+
+        HttpResponse<Void> response;
+        try {
+            response = send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new AudioStorageException("Failed to stat object: " + key, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AudioStorageException("Interrupted while stating object: " + key, e);
+        }
+
+        int status = response.statusCode();
+        if (status == 404 || status == 403) {
+            throw new AudioStorageException("Audio object not accessible: " + key);
+        }
+        if (status != 200) {
+            throw new AudioStorageException("Failed to stat object %s: HTTP %d".formatted(key, status));
+        }
+
+        HttpHeaders headers = response.headers();
+        long size = headers.firstValueAsLong("Content-Length")
+                .orElseThrow(() -> new AudioStorageException("Missing Content-Length for object: " + key));
+        Instant lastModified = headers.firstValue("Last-Modified")
+                .map(value -> ZonedDateTime.parse(value, HTTP_DATE).toInstant())
+                .orElse(Instant.EPOCH);
+        String version = headers.firstValue("ETag")
+                .orElse("%x-%x".formatted(lastModified.toEpochMilli(), size));
+
+        return new StorageObject(key, size, lastModified, version);
+    }
+
+    @Override
+    public ReadableByteChannel openRange(StorageObject object, long offset, long length) {
+        return new BlockChannel(object, offset, length);
+    }
+
+    long cacheHits() {
+        return blockCache.hitCount();
+    }
+
+    long cacheMisses() {
+        return blockCache.missCount();
+    }
+
+    long statCacheHits() {
+        return statCache == null ? 0 : statCache.hitCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", blockCache, DiskBlockCache::hitCount)
+                .tag("cache", "audio-blocks").tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", blockCache, DiskBlockCache::missCount)
+                .tag("cache", "audio-blocks").tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.loads.coalesced", blockCache, DiskBlockCache::coalescedCount)
+                .tag("cache", "audio-blocks")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", blockCache, DiskBlockCache::evictionCount)
+                .tag("cache", "audio-blocks")
+                .register(registry);
+        Gauge.builder("cache.size.bytes", blockCache, DiskBlockCache::sizeBytes)
+                .tag("cache", "audio-blocks")
+                .register(registry);
+
+        if (statCache == null) {
+            return;
+        }
+        FunctionCounter.builder("cache.gets", statCache, FileAttributeCache::hitCount)
+                .tag("cache", "object-metadata").tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", statCache, FileAttributeCache::missCount)
+                .tag("cache", "object-metadata").tag("result", "miss")
+                .register(registry);
+        Gauge.builder("cache.size", statCache, FileAttributeCache::size)
+                .tag("cache", "object-metadata")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        httpExecutor.shutdown();
+    }
+
+    private FileChannel openBlock(StorageObject object, long index) throws IOException {
+        long start = index * blockSize;
+        long end = Math.min(object.size(), start + blockSize) - 1;
+
+        return blockCache.open(blockName(object, index), target -> download(object, start, end, target));
+    }
+
+    private void download(StorageObject object, long start, long end, Path target) throws IOException {
+        String range = "bytes=%d-%d".formatted(start, end);
+        // only real ETags can be matched; the mtime/size fallback is not one
+        Map<String, String> headers = object.version().startsWith("\"")
+                ? Map.of("Range", range, "If-Match", object.version())
+                : Map.of("Range", range);
+        HttpRequest request = request("GET", objectUri(object.key()), headers);
+
+        HttpResponse<Path> response;
+        try {
+            response = send(request, HttpResponse.BodyHandlers.ofFile(
+                    target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading " + object.key());
+        }
+
+        int status = response.statusCode();
+        if (status == 412) {
+            // replaced since stat: the block must not be cached under the old version,
+            // and the cached metadata must not hand out that version again
+            if (statCache != null) {
+                statCache.invalidate(object.key());
+            }
+            throw new IOException("Object %s changed since it was stat'ed (version %s)"
+                    .formatted(object.key(), object.version()));
+        }
+        boolean wholeObject = start == 0 && end == object.size() - 1;
+        if (status != 206 && !(status == 200 && wholeObject)) {
+            throw new IOException("Range GET %s %s failed: HTTP %d".formatted(object.key(), range, status));
+        }
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        connections.acquire();
+        try {
+            return httpClient.send(request, handler);
+        } finally {
+            connections.release();
+        }
+    }
+
+    private HttpRequest request(String method, URI uri, Map<String, String> headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .method(method, HttpRequest.BodyPublishers.noBody());
+        headers.forEach(builder::header);
+
+        if (signer != null) {
+            signer.sign(method, uri, headers, Instant.now()).forEach(builder::header);
+        }
+        return builder.build();
+    }
+
+    private URI objectUri(String key) {
+        StringBuilder path = new StringBuilder(encode(bucket));
+        for (String segment : key.split("/")) {
+            if (!segment.isEmpty()) {
+                path.append('/').append(encode(segment));
+            }
+        }
+        return endpoint.resolve(path.toString());
+    }
+
+    private static String encode(String segment) {
+        return URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static String blockName(StorageObject object, long index) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(object.key().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(object.version().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest()) + "-" + index;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads a range block by block, opening each cached block as it is reached.
+     */
+    private final class BlockChannel implements ReadableByteChannel {
+
+        private final StorageObject object;
+        private long position;
+        private long remaining;
+
+        private FileChannel block;
+        private long blockIndex = -1;
+        private boolean open = true;
+
+        private BlockChannel(StorageObject object, long offset, long length) {
+            this.object = object;
+            this.position = offset;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (!open) {
+                throw new IOException("Channel closed");
+            }
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            long index = position / blockSize;
+            if (index != blockIndex) {
+                closeBlock();
+                block = openBlock(object, index);
+                blockIndex = index;
+            }
+
+            long offsetInBlock = position - index * blockSize;
+            long available = Math.min(remaining, blockSize - offsetInBlock);
+
+            int limit = dst.limit();
+            if (dst.remaining() > available) {
+                dst.limit(dst.position() + (int) available);
+            }
+
+            int read;
+            try {
+                read = block.read(dst, offsetInBlock);
+            } finally {
+                dst.limit(limit);
+            }
+
+            if (read < 0) {
+                throw new EOFException("Unexpected end of block %d of %s".formatted(index, object.key()));
+            }
+            position += read;
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            open = false;
+            closeBlock();
+        }
+
+        private void closeBlock() throws IOException {
+            if (block != null) {
+                block.close();
+                block = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Wraps whichever {@link AudioStorage} backend is active in an
+ * {@link EncryptedAudioStorage}, so every reader (streaming, HLS, seek index,
+ * read-ahead) gets plaintext without knowing about encryption.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.storage.encryption.enabled", havingValue = "true")
+public class StorageEncryptionConfig {
+
+    @Bean
+    static BeanPostProcessor encryptedAudioStoragePostProcessor(Environment environment) {
+        if ("accel".equalsIgnoreCase(environment.getProperty("app.streaming.delivery", "direct"))) {
+            // nginx would serve the files as they are on disk
+            throw new IllegalStateException(
+                    "app.storage.encryption.enabled cannot be combined with app.streaming.delivery=accel");
+        }
+
+        AudioCipher cipher = AudioCipher.of(
+                environment.getRequiredProperty("app.storage.encryption.keys"),
+                environment.getProperty("app.storage.encryption.active-key", Integer.class, 1)
+        );
+        int maxEntries = environment.getProperty("app.storage.encryption.header-cache.max-entries", Integer.class, 10_000);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof AudioStorage storage && !(bean instanceof EncryptedAudioStorage)) {
+                    return new EncryptedAudioStorage(storage, cipher, maxEntries);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import java.time.Instant;
+
+/**
+ * Metadata of a stored audio object.
+ *
+ * @param version changes whenever the content changes (ETag, or mtime and size);
+ *                used to key cached copies
+ */
+public record StorageObject(
+        String key,
+        long size,
+        Instant lastModified,
+        String version
+) {}
@@ -0,0 +1,75 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash placement of keys over storage roots.
+ * <p>
+ * Each root owns {@code virtualNodes} points on a 64-bit ring, hashed from its
+ * path. A key belongs to the first root clockwise from its hash; replicas go to
+ * the next distinct roots. Adding a root moves only the keys it takes over.
+ */
+final class StorageRing {
+
+    private final List<Path> roots;
+    private final TreeMap<Long, Path> ring = new TreeMap<>();
+
+    StorageRing(List<Path> roots, int virtualNodes) {
+        this.roots = List.copyOf(roots);
+        for (Path root : roots) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(root + "#" + i), root);
+            }
+        }
+    }
+
+    List<Path> roots() {
+        return roots;
+    }
+
+    /**
+     * @return up to {@code copies} distinct roots for the key, primary first
+     */
+    List<Path> placement(String key, int copies) {
+        int wanted = Math.min(copies, roots.size());
+        if (roots.size() == 1) {
+            return roots;
+        }
+
+        List<Path> placement = new ArrayList<>(wanted);
+        long hash = hash(key);
+        for (Map<Long, Path> part : List.of(ring.tailMap(hash), ring.headMap(hash))) {
+            for (Path root : part.values()) {
+                if (!placement.contains(root)) {
+                    placement.add(root);
+                    if (placement.size() == wanted) {
+                        return placement;
+                    }
+                }
+            }
+        }
+        return placement;
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 64-bit mixer.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
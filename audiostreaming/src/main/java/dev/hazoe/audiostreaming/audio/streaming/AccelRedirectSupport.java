@@ -0,0 +1,100 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptor;
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptorCache;
+import dev.hazoe.audiostreaming.audio.security.ListenerTier;
+import dev.hazoe.audiostreaming.audio.storage.AudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.LocalAudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Offloads authorized streams to nginx with {@code X-Accel-Redirect}.
+ * <p>
+ * The API only authorizes the request and names the file; nginx follows the
+ * redirect to an {@code internal} location backed by the storage volume and
+ * serves the bytes itself with sendfile, including Range, If-Range and
+ * conditional handling. No audio bytes go through the JVM.
+ * <p>
+ * The location maps onto one directory, so only local storage with a single
+ * root can be offloaded: the redirect names the file the storage resolves,
+ * relative to that root. Any other backend fails at startup.
+ */
+@Component
+public class AccelRedirectSupport {
+
+    static final String REDIRECT_HEADER = "X-Accel-Redirect";
+    static final String LIMIT_RATE_HEADER = "X-Accel-Limit-Rate";
+
+    private final boolean enabled;
+    private final String locationPrefix;
+    private final AudioDescriptorCache audioDescriptorCache;
+    private final AudioStorage audioStorage;
+    private final StreamPacing streamPacing;
+    private final Path root;
+
+    public AccelRedirectSupport(
+            @Value("${app.streaming.delivery:direct}") String delivery,
+            @Value("${app.streaming.accel.location-prefix:/protected-audio/}") String locationPrefix,
+            AudioDescriptorCache audioDescriptorCache,
+            AudioStorage audioStorage,
+            StreamPacing streamPacing) {
+        this.enabled = "accel".equalsIgnoreCase(delivery);
+        this.locationPrefix = locationPrefix.endsWith("/") ? locationPrefix : locationPrefix + "/";
+        this.audioDescriptorCache = audioDescriptorCache;
+        this.audioStorage = audioStorage;
+        this.streamPacing = streamPacing;
+        this.root = enabled ? singleRoot(audioStorage) : null;
+    }
+
+    private static Path singleRoot(AudioStorage audioStorage) {
+        // pack files, S3 objects and encrypted files cannot be sent as they are;
+        // with several roots the file is on a disk the location does not point to
+        if (!(audioStorage instanceof LocalAudioStorage local) || local.roots().size() != 1) {
+            throw new IllegalStateException(
+                    "app.streaming.delivery=accel requires app.storage.type=local with a single root");
+        }
+        return local.roots().getFirst();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Headers for an empty response that nginx turns into the actual stream.
+     *
+     * @throws dev.hazoe.audiostreaming.common.exception.AudioNotFoundException if the audio does not exist
+     */
+    public HttpHeaders redirectHeaders(Long audioId, ListenerTier tier) {
+        AudioDescriptor audio = audioDescriptorCache.get(audioId);
+
+        // served from the attribute cache; rejects keys outside the root
+        StorageObject object = audioStorage.stat(audio.audioPath());
+        Path file = audioStorage.localPath(object)
+                .orElseThrow(() -> new AudioStorageException("Audio has no local file: " + object.key()));
+        String relative = StreamSupport.stream(root.relativize(file).spliterator(), false)
+                .map(Path::toString)
+                .collect(Collectors.joining("/"));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(REDIRECT_HEADER, locationPrefix + UriUtils.encodePath(relative, StandardCharsets.UTF_8));
+        headers.set(HttpHeaders.CONTENT_TYPE, audio.contentType());
+
+        // nginx enforces the paced rate
+        if (streamPacing.isEnabled()) {
+            streamPacing.rateLimit(object.size(), audio.durationSeconds(), tier)
+                    .ifPresent(rate -> headers.set(LIMIT_RATE_HEADER, String.valueOf(rate)));
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,146 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import dev.hazoe.audiostreaming.audio.dto.AudioStreamResponse;
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers stream bodies with async servlet I/O instead of blocking a request thread.
+ * <p>
+ * The handler starts async processing and returns immediately; chunk reads run on
+ * a bounded I/O pool and writes happen only on write-readiness callbacks. When the
+ * pool queue is full the stream is aborted rather than tying up Tomcat threads,
+ * so slow listeners cannot starve the catalog and auth endpoints.
+ */
+@Component
+public class AsyncStreamDelivery implements MeterBinder, DisposableBean {
+
+    private final boolean enabled;
+    private final int chunkSize;
+    private final long timeoutMillis;
+    private final ThreadPoolTaskExecutor ioExecutor;
+    private final ThreadPoolTaskScheduler pacingScheduler;
+    private final AtomicInteger activeStreams = new AtomicInteger();
+
+    public AsyncStreamDelivery(
+            @Value("${app.streaming.delivery:direct}") String delivery,
+            @Value("${app.streaming.async.io-threads:8}") int ioThreads,
+            @Value("${app.streaming.async.queue-capacity:1024}") int queueCapacity,
+            @Value("${app.streaming.async.chunk-size:65536}") int chunkSize,
+            @Value("${app.streaming.async.timeout-seconds:3600}") long timeoutSeconds) {
+        this.enabled = "async".equalsIgnoreCase(delivery);
+        this.chunkSize = chunkSize;
+        this.timeoutMillis = timeoutSeconds * 1000;
+
+        this.ioExecutor = new ThreadPoolTaskExecutor();
+        ioExecutor.setCorePoolSize(ioThreads);
+        ioExecutor.setMaxPoolSize(ioThreads);
+        ioExecutor.setQueueCapacity(queueCapacity);
+        ioExecutor.setThreadNamePrefix("stream-io-");
+
+        // only re-submits paced reads to the I/O pool once their tokens are available
+        this.pacingScheduler = new ThreadPoolTaskScheduler();
+        pacingScheduler.setPoolSize(1);
+        pacingScheduler.setThreadNamePrefix("stream-pacer-");
+
+        if (enabled) {
+            ioExecutor.initialize();
+            pacingScheduler.initialize();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Writes status and headers, then hands the body over to a {@link NonBlockingStreamWriter}.
+     * The caller must not touch the response afterwards.
+     */
+    public void start(HttpServletRequest request,
+                      HttpServletResponse servletResponse,
+                      AudioStreamResponse response) {
+
+        servletResponse.setStatus(response.status().value());
+        response.headers().forEach((name, values) ->
+                values.forEach(value -> servletResponse.addHeader(name, value)));
+        servletResponse.setContentType(response.contentType());
+
+        StreamBody body = response.body();
+        TokenBucket pacer = null;
+        if (body instanceof PacedBody paced) {
+            body = paced.delegate();
+            pacer = paced.bucket();
+        }
+
+        ReadableByteChannel source;
+        try {
+            source = body.open();
+        } catch (IOException e) {
+            throw new AudioStorageException("Failed to open audio stream", e);
+        }
+
+        try {
+            ServletOutputStream out = servletResponse.getOutputStream();
+
+            AsyncContext asyncContext = request.startAsync();
+            asyncContext.setTimeout(timeoutMillis);
+
+            activeStreams.incrementAndGet();
+            NonBlockingStreamWriter writer = new NonBlockingStreamWriter(
+                    asyncContext,
+                    out,
+                    source,
+                    ioExecutor,
+                    chunkSize,
+                    pacer,
+                    pacingScheduler,
+                    activeStreams::decrementAndGet
+            );
+            asyncContext.addListener(writer);
+            out.setWriteListener(writer);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(source);
+            throw new AudioStorageException("Failed to start async stream", e);
+        }
+    }
+
+    public int activeStreams() {
+        return activeStreams.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("audio.stream.async.active", activeStreams, AtomicInteger::get)
+                .description("Streams currently delivered with async servlet I/O")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        pacingScheduler.shutdown();
+        ioExecutor.shutdown();
+    }
+
+    private static void closeQuietly(ReadableByteChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
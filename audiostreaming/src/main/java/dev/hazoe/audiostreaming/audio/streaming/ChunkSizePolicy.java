@@ -0,0 +1,171 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Chooses the length of open-ended ({@code bytes=N-}) range responses.
+ * <p>
+ * The base size is {@code target-seconds} of audio at the track's average
+ * bitrate, so 32 kbps speech and 320 kbps music need the same number of
+ * round trips per minute. Per listener, the size then doubles while requests
+ * continue exactly where the previous chunk ended and halves on a seek, within
+ * {@code [min-multiplier, max-multiplier]}. The result is clamped to
+ * {@code [min-bytes, max-bytes]}.
+ * <p>
+ * Without a known duration the old fixed chunk is used as the base. Requests
+ * without a listener key get the base: they may come from many clients, whose
+ * interleaved requests would look like seeks and shrink the chunk for all of them.
+ */
+@Component
+public class ChunkSizePolicy implements MeterBinder {
+
+    private static final double MIN_MULTIPLIER = 0.5;
+
+    private record State(String objectKey, long nextOffset, double multiplier) {}
+
+    private final boolean adaptive;
+    private final long defaultChunkSize;
+    private final int targetSeconds;
+    private final long minBytes;
+    private final long maxBytes;
+    private final double maxMultiplier;
+    private final int maxListeners;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, State> listeners;
+
+    private final LongAdder grown = new LongAdder();
+    private final LongAdder shrunk = new LongAdder();
+    private volatile DistributionSummary chosenSizes;
+
+    public ChunkSizePolicy(
+            @Value("${app.streaming.chunk.adaptive:true}") boolean adaptive,
+            @Value("${app.streaming.chunk.default-bytes:1048576}") long defaultChunkSize,
+            @Value("${app.streaming.chunk.target-seconds:30}") int targetSeconds,
+            @Value("${app.streaming.chunk.min-bytes:65536}") long minBytes,
+            @Value("${app.streaming.chunk.max-bytes:8388608}") long maxBytes,
+            @Value("${app.streaming.chunk.max-multiplier:4}") double maxMultiplier,
+            @Value("${app.streaming.chunk.max-listeners:10000}") int maxListeners) {
+        this.adaptive = adaptive;
+        this.defaultChunkSize = defaultChunkSize;
+        this.targetSeconds = targetSeconds;
+        this.minBytes = minBytes;
+        this.maxBytes = maxBytes;
+        this.maxMultiplier = maxMultiplier;
+        this.maxListeners = maxListeners;
+        this.listeners = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, State> eldest) {
+                return size() > ChunkSizePolicy.this.maxListeners;
+            }
+        };
+    }
+
+    /**
+     * @return bytes to send for an open-ended range of {@code object} starting at {@code start}
+     */
+    public long chunkSize(String listenerKey, StorageObject object, int durationSeconds, long start) {
+        if (!adaptive) {
+            record(defaultChunkSize);
+            return defaultChunkSize;
+        }
+
+        long base = base(object, durationSeconds);
+        double multiplier = listenerKey == null ? 1.0 : nextMultiplier(listenerKey, object, start);
+        long size = Math.clamp((long) (base * multiplier), minBytes, maxBytes);
+
+        if (listenerKey != null) {
+            remember(listenerKey, new State(object.key(), start + size, multiplier));
+        }
+        record(size);
+        return size;
+    }
+
+    /**
+     * The chunk a listener without history gets, without recording anything;
+     * for HEAD requests, which announce a length but send nothing.
+     */
+    public long initialChunkSize(StorageObject object, int durationSeconds) {
+        if (!adaptive) {
+            return defaultChunkSize;
+        }
+        return Math.clamp(base(object, durationSeconds), minBytes, maxBytes);
+    }
+
+    private long base(StorageObject object, int durationSeconds) {
+        return durationSeconds > 0
+                ? object.size() / durationSeconds * targetSeconds
+                : defaultChunkSize;
+    }
+
+    private double nextMultiplier(String listenerKey, StorageObject object, long start) {
+        State previous;
+        lock.lock();
+        try {
+            previous = listeners.get(listenerKey);
+        } finally {
+            lock.unlock();
+        }
+
+        if (previous == null || !previous.objectKey().equals(object.key())) {
+            return 1.0;
+        }
+        if (previous.nextOffset() == start) {
+            grown.increment();
+            return Math.min(previous.multiplier() * 2, maxMultiplier);
+        }
+        shrunk.increment();
+        return Math.max(previous.multiplier() / 2, MIN_MULTIPLIER);
+    }
+
+    private void remember(String listenerKey, State state) {
+        lock.lock();
+        try {
+            listeners.put(listenerKey, state);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(long size) {
+        DistributionSummary summary = chosenSizes;
+        if (summary != null) {
+            summary.record(size);
+        }
+    }
+
+    int trackedListeners() {
+        lock.lock();
+        try {
+            return listeners.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        chosenSizes = DistributionSummary.builder("audio.stream.chunk.size")
+                .description("Length of open-ended range responses")
+                .baseUnit("bytes")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(registry);
+        FunctionCounter.builder("audio.stream.chunk.adjustments", grown, LongAdder::sum)
+                .tag("direction", "grow")
+                .register(registry);
+        FunctionCounter.builder("audio.stream.chunk.adjustments", shrunk, LongAdder::sum)
+                .tag("direction", "shrink")
+                .register(registry);
+    }
+}
@@ -0,0 +1,88 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Conditional request headers of a stream request (RFC 9110 §13).
+ */
+public record ConditionalHeaders(
+        String ifNoneMatch,
+        String ifModifiedSince,
+        String ifRange
+) {
+
+    private static final ConditionalHeaders NONE = new ConditionalHeaders(null, null, null);
+
+    public static ConditionalHeaders none() {
+        return NONE;
+    }
+
+    /**
+     * If-None-Match takes precedence; If-Modified-Since is only evaluated
+     * when no If-None-Match is present.
+     */
+    public boolean isNotModified(StreamValidators validators) {
+        if (ifNoneMatch != null) {
+            return matchesAny(ifNoneMatch, validators.etag());
+        }
+        if (ifModifiedSince != null) {
+            long since = parseHttpDate(ifModifiedSince);
+            return since >= 0 && toSeconds(validators.lastModified()) <= toSeconds(since);
+        }
+        return false;
+    }
+
+    /**
+     * A Range header only applies if If-Range is absent or still matches
+     * the current representation; otherwise the full content is sent.
+     */
+    public boolean isRangeApplicable(StreamValidators validators) {
+        if (ifRange == null) {
+            return true;
+        }
+
+        String value = ifRange.trim();
+
+        // weak validators are never allowed in If-Range
+        if (value.startsWith("W/")) {
+            return false;
+        }
+        if (value.startsWith("\"")) {
+            return value.equals(validators.etag());
+        }
+
+        long date = parseHttpDate(value);
+        return date >= 0 && toSeconds(date) == toSeconds(validators.lastModified());
+    }
+
+    private static boolean matchesAny(String header, String etag) {
+        String opaqueTag = stripWeak(etag);
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static long parseHttpDate(String value) {
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant()
+                    .toEpochMilli();
+        } catch (DateTimeParseException ex) {
+            return -1;
+        }
+    }
+
+    private static long toSeconds(long millis) {
+        return millis / 1000;
+    }
+}
@@ -0,0 +1,65 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import dev.hazoe.audiostreaming.audio.storage.FileChannelPool;
+import dev.hazoe.audiostreaming.audio.storage.FileRangeChannel;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * A byte range of a local file, written with {@link FileChannel#transferTo}.
+ * <p>
+ * Only a file or socket channel target lets the kernel move the bytes directly.
+ * The servlet API exposes an {@code OutputStream}, so {@link StreamBodyHttpMessageConverter}
+ * hands in a stream wrapper and the JDK copies through a temporary buffer; responses
+ * are zero-copy only when Tomcat sends the region itself ({@link SendfileSupport}).
+ * The channel is borrowed from a {@link FileChannelPool}; both paths use
+ * positional I/O, so concurrent ranges of one file share the handle.
+ */
+public record FileRegion(
+        Path path,
+        ByteRange range,
+        FileChannelPool channelPool,
+        String version
+) implements StreamBody {
+
+    /**
+     * A region that opens its own channel.
+     */
+    public FileRegion(Path path, ByteRange range) {
+        this(path, range, FileChannelPool.unpooled(), null);
+    }
+
+    @Override
+    public long contentLength() {
+        return range.contentLength();
+    }
+
+    @Override
+    public ReadableByteChannel open() throws IOException {
+        FileChannelPool.Lease lease = channelPool.acquire(path, version);
+        return new FileRangeChannel(lease, range.start(), range.contentLength());
+    }
+
+    @Override
+    public void writeTo(WritableByteChannel target) throws IOException {
+        try (FileChannelPool.Lease lease = channelPool.acquire(path, version)) {
+            FileChannel channel = lease.channel();
+            long position = range.start();
+            long remaining = range.contentLength();
+
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, target);
+                if (written <= 0) {
+                    throw new EOFException("Unexpected end of file: " + path);
+                }
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+}
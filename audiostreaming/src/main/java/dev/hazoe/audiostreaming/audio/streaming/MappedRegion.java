@@ -0,0 +1,88 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * A byte range served from {@link MappedSegmentCache} windows instead of
+ * reading the file on every request.
+ */
+public record MappedRegion(
+        MappedSegmentCache cache,
+        Path path,
+        String version,
+        long fileSize,
+        ByteRange range
+) implements StreamBody {
+
+    @Override
+    public long contentLength() {
+        return range.contentLength();
+    }
+
+    @Override
+    public ReadableByteChannel open() {
+        return new ReadableByteChannel() {
+            private long position = range.start();
+            private boolean open = true;
+
+            @Override
+            public int read(ByteBuffer dst) {
+                long end = range.end() + 1;
+                if (position >= end) {
+                    return -1;
+                }
+
+                long segmentSize = cache.segmentSize();
+                long index = position / segmentSize;
+                long segmentStart = index * segmentSize;
+
+                try (MappedSegmentCache.Lease lease = cache.acquire(path, version, index, fileSize)) {
+                    long from = position - segmentStart;
+                    long to = Math.min(end - segmentStart, lease.memory().byteSize());
+                    int length = (int) Math.min(to - from, dst.remaining());
+
+                    dst.put(lease.memory().asSlice(from, length).asByteBuffer());
+                    position += length;
+                    return length;
+                }
+            }
+
+            @Override
+            public boolean isOpen() {
+                return open;
+            }
+
+            @Override
+            public void close() {
+                open = false;
+            }
+        };
+    }
+
+    @Override
+    public void writeTo(WritableByteChannel target) throws IOException {
+        long segmentSize = cache.segmentSize();
+        long position = range.start();
+        long end = range.end() + 1;
+
+        while (position < end) {
+            long index = position / segmentSize;
+            long segmentStart = index * segmentSize;
+
+            try (MappedSegmentCache.Lease lease = cache.acquire(path, version, index, fileSize)) {
+                long from = position - segmentStart;
+                long to = Math.min(end - segmentStart, lease.memory().byteSize());
+
+                ByteBuffer buffer = lease.memory().asSlice(from, to - from).asByteBuffer();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                position = segmentStart + to;
+            }
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import dev.hazoe.audiostreaming.audio.cache.SingleFlight;
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Off-heap cache of memory-mapped file windows.
+ * <p>
+ * Files are mapped in fixed-size segments (aligned to the default range chunk)
+ * keyed by path, file version and segment index. As in {@code FileChannelPool},
+ * keying by version means a file replaced by rename is mapped afresh; mappings of
+ * the old file age out of the LRU. Each segment owns a shared {@link Arena},
+ * so evicting it unmaps the memory deterministically instead of waiting for GC.
+ * Segments are reference counted: a segment evicted while a response is still
+ * writing from it is unmapped when that response releases it. Concurrent
+ * misses for one segment share a single mapping ({@link SingleFlight}).
+ * <p>
+ * Eviction is LRU, bounded by the total mapped bytes.
+ */
+@Component
+public class MappedSegmentCache implements MeterBinder, DisposableBean {
+
+    private record SegmentKey(Path path, String version, long index) {}
+
+    private final boolean enabled;
+    private final long segmentSize;
+    private final long maxBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<SegmentKey, Segment> segments =
+            new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final SingleFlight<SegmentKey, Boolean> mappings = new SingleFlight<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public MappedSegmentCache(
+            @Value("${app.streaming.mapped-cache.enabled:false}") boolean enabled,
+            @Value("${app.streaming.mapped-cache.segment-size:1048576}") long segmentSize,
+            @Value("${app.streaming.mapped-cache.max-bytes:268435456}") long maxBytes) {
+        this.enabled = enabled;
+        this.segmentSize = segmentSize;
+        this.maxBytes = maxBytes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long segmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Returns the mapped segment {@code index} of {@code path}, mapping it on a miss.
+     * The caller must close the returned lease.
+     *
+     * @param version identifies the file contents, e.g. {@code StorageObject.version()};
+     *                null when unknown
+     */
+    public Lease acquire(Path path, String version, long index, long fileSize) {
+        SegmentKey key = new SegmentKey(path, version, index);
+        long offset = index * segmentSize;
+        long length = Math.min(segmentSize, fileSize - offset);
+
+        Lease cached = lookup(key, length);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        while (true) {
+            Lease[] mine = new Lease[1];
+            try {
+                mappings.execute(key, () -> {
+                    misses.increment();
+                    mine[0] = insert(key, map(path, offset, length));
+                    return Boolean.TRUE;
+                });
+            } catch (IOException e) {
+                throw new AudioStorageException("Failed to map audio segment: " + path, e);
+            }
+            if (mine[0] != null) {
+                return mine[0];
+            }
+
+            // joined another reader's mapping
+            Lease shared = lookup(key, length);
+            if (shared != null) {
+                return shared;
+            }
+        }
+    }
+
+    private Lease lookup(SegmentKey key, long length) {
+        lock.lock();
+        try {
+            Segment cached = segments.get(key);
+            if (cached != null && cached.memory.byteSize() == length) {
+                cached.retain();
+                return new Lease(cached);
+            }
+            if (cached != null) {
+                // file changed size since it was mapped
+                remove(key);
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lease insert(SegmentKey key, Segment mapped) {
+        long length = mapped.memory.byteSize();
+        lock.lock();
+        try {
+            Segment raced = segments.get(key);
+            if (raced != null && raced.memory.byteSize() == length) {
+                mapped.release();
+                raced.retain();
+                return new Lease(raced);
+            }
+            if (raced != null) {
+                remove(key);
+            }
+            mapped.retain();
+            segments.put(key, mapped);
+            totalBytes += length;
+            evictOverflow();
+            return new Lease(mapped);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Misses that waited for another reader's mapping of the same segment.
+     */
+    public long coalescedCount() {
+        return mappings.sharedCount();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public long mappedBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", "audio-segments").tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", "audio-segments").tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.loads.coalesced", mappings, SingleFlight::sharedCount)
+                .tag("cache", "audio-segments")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", "audio-segments")
+                .register(registry);
+        Gauge.builder("cache.size.bytes", this, MappedSegmentCache::mappedBytes)
+                .tag("cache", "audio-segments")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        lock.lock();
+        try {
+            segments.values().forEach(Segment::release);
+            segments.clear();
+            totalBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Segment map(Path path, long offset, long length) {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MemorySegment memory = channel.map(FileChannel.MapMode.READ_ONLY, offset, length, arena);
+            return new Segment(arena, memory);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw new AudioStorageException("Failed to map audio segment: " + path, e);
+        }
+    }
+
+    private void remove(SegmentKey key) {
+        Segment removed = segments.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.memory.byteSize();
+            removed.release();
+        }
+    }
+
+    private void evictOverflow() {
+        List<Segment> evicted = new ArrayList<>();
+        Iterator<Map.Entry<SegmentKey, Segment>> eldest = segments.entrySet().iterator();
+
+        // keep at least the segment just inserted
+        while (totalBytes > maxBytes && segments.size() > 1 && eldest.hasNext()) {
+            Segment segment = eldest.next().getValue();
+            eldest.remove();
+            totalBytes -= segment.memory.byteSize();
+            evicted.add(segment);
+        }
+
+        evictions.add(evicted.size());
+        evicted.forEach(Segment::release);
+    }
+
+    private static final class Segment {
+
+        private final Arena arena;
+        private final MemorySegment memory;
+        // the cache itself holds one reference while the segment is mapped in
+        private final AtomicInteger refs = new AtomicInteger(1);
+
+        private Segment(Arena arena, MemorySegment memory) {
+            this.arena = arena;
+            this.memory = memory;
+        }
+
+        private void retain() {
+            refs.incrementAndGet();
+        }
+
+        private void release() {
+            if (refs.decrementAndGet() == 0) {
+                arena.close();
+            }
+        }
+    }
+
+    /**
+     * A pinned segment. The mapping stays valid until the lease is closed.
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final Segment segment;
+        private boolean closed;
+
+        private Lease(Segment segment) {
+            this.segment = segment;
+        }
+
+        public MemorySegment memory() {
+            return segment.memory;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                segment.release();
+            }
+        }
+    }
+}
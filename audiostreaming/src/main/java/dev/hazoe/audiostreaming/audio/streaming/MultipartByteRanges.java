@@ -0,0 +1,155 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A {@code multipart/byteranges} body (RFC 9110 §14.6).
+ * <p>
+ * Parts are written one after another from their own bodies, so the response
+ * is streamed without assembling it in memory. The exact length is known
+ * up front and sent as {@code Content-Length}.
+ */
+public final class MultipartByteRanges implements StreamBody {
+
+    public record Part(ByteRange range, StreamBody body) {}
+
+    private final List<Part> parts;
+    private final String boundary;
+    private final String partContentType;
+    private final long fileSize;
+    private final long contentLength;
+
+    public MultipartByteRanges(List<Part> parts,
+                               String boundary,
+                               String partContentType,
+                               long fileSize) {
+        this.parts = List.copyOf(parts);
+        this.boundary = boundary;
+        this.partContentType = partContentType;
+        this.fileSize = fileSize;
+        this.contentLength = computeContentLength();
+    }
+
+    public String contentType() {
+        return "multipart/byteranges; boundary=" + boundary;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public ReadableByteChannel open() {
+        List<StreamBody> sequence = new ArrayList<>(parts.size() * 2 + 1);
+        for (Part part : parts) {
+            sequence.add(new Bytes(partHeader(part.range())));
+            sequence.add(part.body());
+        }
+        sequence.add(new Bytes(closingDelimiter()));
+        return new SequenceChannel(sequence.iterator());
+    }
+
+    @Override
+    public void writeTo(WritableByteChannel target) throws IOException {
+        for (Part part : parts) {
+            writeFully(target, partHeader(part.range()));
+            part.body().writeTo(target);
+        }
+        writeFully(target, closingDelimiter());
+    }
+
+    private long computeContentLength() {
+        long length = closingDelimiter().length;
+        for (Part part : parts) {
+            length += partHeader(part.range()).length + part.range().contentLength();
+        }
+        return length;
+    }
+
+    private byte[] partHeader(ByteRange range) {
+        return ("\r\n--" + boundary + "\r\n"
+                + "Content-Type: " + partContentType + "\r\n"
+                + "Content-Range: bytes %d-%d/%d\r\n".formatted(range.start(), range.end(), fileSize)
+                + "\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private byte[] closingDelimiter() {
+        return ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void writeFully(WritableByteChannel target, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+    /** Delimiter bytes as a body, so they can be chained with the parts. */
+    private record Bytes(byte[] bytes) implements StreamBody {
+
+        @Override
+        public long contentLength() {
+            return bytes.length;
+        }
+
+        @Override
+        public ReadableByteChannel open() {
+            return Channels.newChannel(new ByteArrayInputStream(bytes));
+        }
+    }
+
+    /** Reads the bodies one after another, opening each only when reached. */
+    private static final class SequenceChannel implements ReadableByteChannel {
+
+        private final Iterator<StreamBody> bodies;
+        private ReadableByteChannel current;
+        private boolean open = true;
+
+        private SequenceChannel(Iterator<StreamBody> bodies) {
+            this.bodies = bodies;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            while (true) {
+                if (current == null) {
+                    if (!bodies.hasNext()) {
+                        return -1;
+                    }
+                    current = bodies.next().open();
+                }
+
+                int read = current.read(dst);
+                if (read >= 0) {
+                    return read;
+                }
+                current.close();
+                current = null;
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            open = false;
+            if (current != null) {
+                current.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Instant;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Copies a body to a non-blocking servlet output stream.
+ * <p>
+ * Chunks are read on the I/O executor and written only while the container
+ * reports the stream as ready, so a slow client never holds a thread: when the
+ * socket buffer is full the writer simply returns and the container calls
+ * {@link #onWritePossible()} again once it drains. At most one chunk is
+ * buffered and one read is in flight per stream.
+ * <p>
+ * With a pacer, each read first reserves its bytes; if the bucket is empty the
+ * read is scheduled for later instead of sleeping on an I/O thread.
+ */
+@Slf4j
+final class NonBlockingStreamWriter implements WriteListener, AsyncListener {
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream out;
+    private final ReadableByteChannel source;
+    private final Executor ioExecutor;
+    private final int chunkSize;
+    private final TokenBucket pacer;
+    private final TaskScheduler scheduler;
+    private final Runnable onFinish;
+
+    private ByteBuffer ready;
+    private boolean reading;
+    private boolean eof;
+    private boolean finished;
+
+    NonBlockingStreamWriter(AsyncContext asyncContext,
+                            ServletOutputStream out,
+                            ReadableByteChannel source,
+                            Executor ioExecutor,
+                            int chunkSize,
+                            TokenBucket pacer,
+                            TaskScheduler scheduler,
+                            Runnable onFinish) {
+        this.asyncContext = asyncContext;
+        this.out = out;
+        this.source = source;
+        this.ioExecutor = ioExecutor;
+        this.chunkSize = chunkSize;
+        this.pacer = pacer;
+        this.scheduler = scheduler;
+        this.onFinish = onFinish;
+    }
+
+    @Override
+    public void onWritePossible() {
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        fail(t);
+    }
+
+    /* ================= AsyncListener ================= */
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        fail(new TimeoutException("Stream write timed out"));
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        fail(event.getThrowable());
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        closeSource();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    /* ================= internals ================= */
+
+    private synchronized void drain() {
+        try {
+            while (!finished && out.isReady()) {
+                if (ready == null) {
+                    if (eof) {
+                        finish();
+                    } else {
+                        scheduleRead();
+                    }
+                    return;
+                }
+
+                out.write(ready.array(), ready.arrayOffset() + ready.position(), ready.remaining());
+                ready = null;
+                // prefetch the next chunk while the container flushes this one
+                scheduleRead();
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    private void scheduleRead() {
+        if (reading || eof || ready != null) {
+            return;
+        }
+        reading = true;
+        long delayNanos = pacer == null ? 0 : pacer.reserve(chunkSize);
+        try {
+            if (delayNanos > 0) {
+                scheduler.schedule(this::submitRead, Instant.now().plusNanos(delayNanos));
+            } else {
+                ioExecutor.execute(this::readChunk);
+            }
+        } catch (RejectedExecutionException e) {
+            reading = false;
+            fail(e);
+        }
+    }
+
+    private void submitRead() {
+        try {
+            ioExecutor.execute(this::readChunk);
+        } catch (RejectedExecutionException e) {
+            fail(e);
+        }
+    }
+
+    private void readChunk() {
+        ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+        boolean end = false;
+
+        try {
+            while (buffer.hasRemaining()) {
+                if (source.read(buffer) < 0) {
+                    end = true;
+                    break;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+            return;
+        }
+
+        buffer.flip();
+        synchronized (this) {
+            reading = false;
+            eof = end;
+            if (buffer.hasRemaining()) {
+                ready = buffer;
+            }
+        }
+        drain();
+    }
+
+    private synchronized void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        closeSource();
+        asyncContext.complete();
+        onFinish.run();
+    }
+
+    private synchronized void fail(Throwable cause) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        log.debug("Aborting stream: {}", cause.toString());
+        closeSource();
+        try {
+            asyncContext.complete();
+        } catch (IllegalStateException ignored) {
+            // already completed by the container (timeout / client gone)
+        }
+        onFinish.run();
+    }
+
+    private void closeSource() {
+        try {
+            source.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body throttled by its listener's token bucket.
+ * <p>
+ * The bucket is shared by all responses of one listener for one track (see
+ * {@link StreamPacing}), so consecutive chunk requests do not each start with
+ * a fresh burst. Async delivery unwraps the {@link #delegate()} and schedules
+ * reads from the {@link #bucket()}, so no thread is parked while a stream
+ * waits for tokens. {@link #open()} throttles by sleeping, for any other consumer.
+ */
+public record PacedBody(StreamBody delegate, TokenBucket bucket) implements StreamBody {
+
+    @Override
+    public long contentLength() {
+        return delegate.contentLength();
+    }
+
+    @Override
+    public ReadableByteChannel open() throws IOException {
+        ReadableByteChannel source = delegate.open();
+
+        return new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                int n = source.read(dst);
+                if (n > 0) {
+                    pause(bucket.reserve(n));
+                }
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return source.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                source.close();
+            }
+        };
+    }
+
+    private static void pause(long nanos) throws InterruptedIOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while pacing stream");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A few header bytes followed by another body, e.g. the ID3 timestamp tag of
+ * an HLS segment. The delegate still writes itself, so file regions keep
+ * their {@code transferTo} path.
+ */
+public record PrefixedBody(byte[] prefix, StreamBody delegate) implements StreamBody {
+
+    @Override
+    public long contentLength() {
+        return prefix.length + delegate.contentLength();
+    }
+
+    @Override
+    public ReadableByteChannel open() throws IOException {
+        ReadableByteChannel rest = delegate.open();
+        ByteBuffer head = ByteBuffer.wrap(prefix);
+
+        return new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                if (!head.hasRemaining()) {
+                    return rest.read(dst);
+                }
+                int n = Math.min(head.remaining(), dst.remaining());
+                dst.put(head.slice(head.position(), n));
+                head.position(head.position() + n);
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return rest.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                rest.close();
+            }
+        };
+    }
+
+    @Override
+    public void writeTo(WritableByteChannel target) throws IOException {
+        ByteBuffer head = ByteBuffer.wrap(prefix);
+        while (head.hasRemaining()) {
+            target.write(head);
+        }
+        delegate.writeTo(target);
+    }
+}
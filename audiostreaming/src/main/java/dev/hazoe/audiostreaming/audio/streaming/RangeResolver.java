@@ -2,29 +2,86 @@ package dev.hazoe.audiostreaming.audio.streaming;
 
 import dev.hazoe.audiostreaming.common.exception.RangeNotSatisfiableException;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
 public class RangeResolver {
 
+    private static final int DEFAULT_MAX_RANGES = 16;
+
     private final long defaultChunkSize;
+    private final int maxRanges;
 
     public RangeResolver(long defaultChunkSize) {
+        this(defaultChunkSize, DEFAULT_MAX_RANGES);
+    }
+
+    public RangeResolver(long defaultChunkSize, int maxRanges) {
         this.defaultChunkSize = defaultChunkSize;
+        this.maxRanges = maxRanges;
     }
 
     public ByteRange resolve(String rangeHeader, long fileSize) {
+        List<ByteRange> ranges = resolveAll(rangeHeader, fileSize);
+
+        if (ranges.size() != 1) {
+            throw new RangeNotSatisfiableException(
+                    "Multiple ranges not allowed: " + rangeHeader,
+                    fileSize
+            );
+        }
+        return ranges.getFirst();
+    }
+
+    /**
+     * Resolves a (possibly multi-range) header such as {@code bytes=0-99,200-299}.
+     * Overlapping and adjacent ranges are merged and returned in ascending order.
+     */
+    public List<ByteRange> resolveAll(String rangeHeader, long fileSize) {
+        return resolveAll(rangeHeader, fileSize, start -> defaultChunkSize);
+    }
+
+    /**
+     * Like {@link #resolveAll(String, long)}, with the length of open-ended
+     * specs ({@code bytes=N-}) chosen per request from their start offset.
+     */
+    public List<ByteRange> resolveAll(String rangeHeader, long fileSize, LongUnaryOperator openEndedChunkSize) {
 
         // No Range → full content
         if (rangeHeader == null || !rangeHeader.startsWith("bytes=")) {
-            return new ByteRange(
+            return List.of(new ByteRange(
                     0,
                     fileSize - 1,
                     fileSize,
                     false
+            ));
+        }
+
+        String[] specs = rangeHeader.substring(6).split(",");
+
+        // Many tiny ranges are a known amplification attack
+        if (specs.length > maxRanges) {
+            throw new RangeNotSatisfiableException(
+                    "Too many ranges: " + specs.length,
+                    fileSize
             );
         }
 
+        List<ByteRange> ranges = new ArrayList<>(specs.length);
+        for (String spec : specs) {
+            ranges.add(parseSpec(spec.trim(), rangeHeader, fileSize, openEndedChunkSize));
+        }
+        return coalesce(ranges);
+    }
+
+    private ByteRange parseSpec(String spec,
+                                String rangeHeader,
+                                long fileSize,
+                                LongUnaryOperator openEndedChunkSize) {
         try {
-            String value = rangeHeader.substring(6);
-            String[] parts = value.split("-", 2);
+            String[] parts = spec.split("-", 2);
 
             long start;
             long end;
@@ -46,7 +103,7 @@ public class RangeResolver {
 
                 end = (parts.length > 1 && !parts[1].isBlank())
                         ? Long.parseLong(parts[1])
-                        : Math.min(start + defaultChunkSize - 1, fileSize - 1);
+                        : openEndedEnd(start, fileSize, openEndedChunkSize);
             }
 
             if (start < 0 || start >= fileSize || end >= fileSize || start > end) {
@@ -67,4 +124,36 @@ public class RangeResolver {
             );
         }
     }
+
+    private static long openEndedEnd(long start, long fileSize, LongUnaryOperator chunkSize) {
+        // past-the-end starts are rejected by the caller; don't consult the policy for them
+        if (start < 0 || start >= fileSize) {
+            return start;
+        }
+        return Math.min(start + chunkSize.applyAsLong(start) - 1, fileSize - 1);
+    }
+
+    private List<ByteRange> coalesce(List<ByteRange> ranges) {
+        if (ranges.size() == 1) {
+            return ranges;
+        }
+
+        ranges.sort(Comparator.comparingLong(ByteRange::start));
+
+        List<ByteRange> merged = new ArrayList<>(ranges.size());
+        ByteRange current = ranges.getFirst();
+
+        for (ByteRange next : ranges.subList(1, ranges.size())) {
+            // overlapping or adjacent → one range
+            if (next.start() <= current.end() + 1) {
+                long end = Math.max(current.end(), next.end());
+                current = new ByteRange(current.start(), end, end - current.start() + 1, true);
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
 }
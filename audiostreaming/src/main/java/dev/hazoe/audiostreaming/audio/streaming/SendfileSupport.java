@@ -0,0 +1,50 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands file regions over to Tomcat's sendfile support.
+ * <p>
+ * When the connector advertises sendfile, the region is described through
+ * request attributes and Tomcat's poller writes the bytes from the kernel
+ * after the handler returns, so no worker thread copies them.
+ */
+@Component
+public class SendfileSupport {
+
+    static final String SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    static final String FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    static final String START_ATTR = "org.apache.tomcat.sendfile.start";
+    static final String END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private final boolean enabled;
+    private final long minSize;
+
+    public SendfileSupport(
+            @Value("${app.streaming.sendfile.enabled:true}") boolean enabled,
+            @Value("${app.streaming.sendfile.min-size:49152}") long minSize) {
+        this.enabled = enabled;
+        this.minSize = minSize;
+    }
+
+    /**
+     * @return true if the body will be written by the container,
+     * in which case the handler must not write a body itself.
+     */
+    public boolean offer(HttpServletRequest request, StreamBody body) {
+        if (!enabled
+                || !(body instanceof FileRegion region)
+                || region.contentLength() < minSize
+                || !Boolean.TRUE.equals(request.getAttribute(SUPPORT_ATTR))) {
+            return false;
+        }
+
+        ByteRange range = region.range();
+        request.setAttribute(FILENAME_ATTR, region.path().toAbsolutePath().toString());
+        request.setAttribute(START_ATTR, range.start());
+        request.setAttribute(END_ATTR, range.end() + 1); // exclusive
+        return true;
+    }
+}
@@ -0,0 +1,28 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import dev.hazoe.audiostreaming.audio.storage.AudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A byte range of an object in a backend without local files (e.g. S3).
+ * Written with the regular copy loop, since there is no file to hand to the kernel.
+ */
+public record StorageRegion(
+        AudioStorage storage,
+        StorageObject object,
+        ByteRange range
+) implements StreamBody {
+
+    @Override
+    public long contentLength() {
+        return range.contentLength();
+    }
+
+    @Override
+    public ReadableByteChannel open() throws IOException {
+        return storage.openRange(object, range.start(), range.contentLength());
+    }
+}
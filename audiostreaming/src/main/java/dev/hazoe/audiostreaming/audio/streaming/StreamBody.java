@@ -0,0 +1,36 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Response payload of a stream request.
+ * <p>
+ * Bodies write themselves to a channel so that file-backed bodies can use
+ * {@link java.nio.channels.FileChannel#transferTo} instead of copying
+ * through a heap buffer. {@link #open()} exposes the same bytes for
+ * pull-based (non-blocking) delivery.
+ */
+public interface StreamBody {
+
+    int COPY_BUFFER_SIZE = 64 * 1024;
+
+    long contentLength();
+
+    ReadableByteChannel open() throws IOException;
+
+    default void writeTo(WritableByteChannel target) throws IOException {
+        try (ReadableByteChannel source = open()) {
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+    }
+}
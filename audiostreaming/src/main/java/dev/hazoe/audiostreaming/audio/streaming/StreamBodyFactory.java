@@ -0,0 +1,35 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import dev.hazoe.audiostreaming.audio.storage.AudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.FileChannelPool;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Picks the cheapest body for a byte range of a stored object: a mapped
+ * segment or file region for local files, a ranged storage read otherwise.
+ */
+@Component
+@RequiredArgsConstructor
+public class StreamBodyFactory {
+
+    private final AudioStorage audioStorage;
+    private final MappedSegmentCache mappedSegmentCache;
+    private final FileChannelPool fileChannelPool;
+
+    public StreamBody create(StorageObject object, ByteRange range) {
+        Optional<Path> localPath = audioStorage.localPath(object);
+        if (localPath.isEmpty()) {
+            return new StorageRegion(audioStorage, object, range);
+        }
+
+        if (mappedSegmentCache.isEnabled()) {
+            return new MappedRegion(mappedSegmentCache, localPath.get(), object.version(), object.size(), range);
+        }
+        return new FileRegion(localPath.get(), range, fileChannelPool, object.version());
+    }
+}
@@ -0,0 +1,49 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+/**
+ * Writes {@link StreamBody} responses to the servlet output stream, bypassing the
+ * resource converter. The stream is wrapped in a channel, which is not one the
+ * kernel can transfer to, so this path copies; zero-copy needs {@link SendfileSupport}.
+ */
+@Component
+public class StreamBodyHttpMessageConverter extends AbstractHttpMessageConverter<StreamBody> {
+
+    public StreamBodyHttpMessageConverter() {
+        super(MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return StreamBody.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected StreamBody readInternal(Class<? extends StreamBody> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("StreamBody is write-only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(StreamBody body, MediaType contentType) {
+        return body.contentLength();
+    }
+
+    @Override
+    protected void writeInternal(StreamBody body, HttpOutputMessage outputMessage) throws IOException {
+        body.writeTo(Channels.newChannel(outputMessage.getBody()));
+    }
+}
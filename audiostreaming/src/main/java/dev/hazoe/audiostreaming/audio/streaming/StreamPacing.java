@@ -0,0 +1,176 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import dev.hazoe.audiostreaming.audio.security.Listener;
+import dev.hazoe.audiostreaming.audio.security.ListenerTier;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-listener pacing by track bitrate.
+ * <p>
+ * A listener gets {@code burst-seconds} worth of audio immediately, then is
+ * throttled to {@code rate-multiplier × bitrate}, where the bitrate is derived
+ * from file size and duration. Listeners who stop early no longer pull the
+ * whole file, and disk reads spread out across concurrent streams.
+ * <p>
+ * The token bucket is kept per listener and track, like {@link ChunkSizePolicy}
+ * keeps its multiplier, so the chunk requests of one player share one burst
+ * instead of each getting a new one. Bodies the bucket can cover right away are
+ * returned unchanged (and stay eligible for sendfile). Only async delivery
+ * waits for tokens without parking a thread, so pacing requires it; with
+ * {@code accel} delivery nginx paces from {@link #rateLimit} instead.
+ */
+@Component
+public class StreamPacing implements MeterBinder {
+
+    public record Policy(long burstSeconds, double rateMultiplier) {
+    }
+
+    private record State(String objectKey, TokenBucket bucket) {}
+
+    private final boolean enabled;
+    private final boolean wraps;
+    private final int maxListeners;
+    private final Map<ListenerTier, Policy> policies = new EnumMap<>(ListenerTier.class);
+    private final Map<ListenerTier, Counter> pacedStreams = new EnumMap<>(ListenerTier.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, State> listeners;
+
+    public StreamPacing(
+            @Value("${app.streaming.pacing.enabled:false}") boolean enabled,
+            @Value("${app.streaming.pacing.free.burst-seconds:10}") long freeBurstSeconds,
+            @Value("${app.streaming.pacing.free.rate-multiplier:1.5}") double freeRateMultiplier,
+            @Value("${app.streaming.pacing.premium.burst-seconds:30}") long premiumBurstSeconds,
+            @Value("${app.streaming.pacing.premium.rate-multiplier:3.0}") double premiumRateMultiplier,
+            @Value("${app.streaming.pacing.max-listeners:10000}") int maxListeners,
+            @Value("${app.streaming.delivery:direct}") String delivery) {
+        if (enabled && "direct".equalsIgnoreCase(delivery)) {
+            // blocking delivery would sleep on Tomcat request threads
+            throw new IllegalStateException(
+                    "app.streaming.pacing.enabled requires app.streaming.delivery=async or accel");
+        }
+        this.enabled = enabled;
+        // accel: nginx sends the streams; the JVM only serves ?t= seeks, unpaced
+        this.wraps = enabled && "async".equalsIgnoreCase(delivery);
+        this.maxListeners = maxListeners;
+        policies.put(ListenerTier.FREE, new Policy(freeBurstSeconds, freeRateMultiplier));
+        policies.put(ListenerTier.PREMIUM, new Policy(premiumBurstSeconds, premiumRateMultiplier));
+        this.listeners = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, State> eldest) {
+                return size() > StreamPacing.this.maxListeners;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Policy policy(ListenerTier tier) {
+        return policies.get(tier);
+    }
+
+    /**
+     * Paced rate in bytes per second, or empty when pacing does not apply.
+     * Used where the bytes are sent by someone else (e.g. nginx limit rate).
+     */
+    public OptionalLong rateLimit(long fileSize, int durationSeconds, ListenerTier tier) {
+        if (!enabled || durationSeconds <= 0 || fileSize <= 0) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(rate(bitrate(fileSize, durationSeconds), policies.get(tier)));
+    }
+
+    /**
+     * @param object          the whole audio object, whose size gives the bitrate
+     * @param durationSeconds track duration; pacing is skipped when unknown
+     */
+    public StreamBody pace(StreamBody body, StorageObject object, int durationSeconds, Listener listener) {
+        if (!wraps || durationSeconds <= 0 || object.size() <= 0) {
+            return body;
+        }
+
+        Policy policy = policies.get(listener.tier());
+        double bitrate = bitrate(object.size(), durationSeconds);
+        long burstBytes = (long) (bitrate * policy.burstSeconds());
+        long rate = rate(bitrate, policy);
+
+        TokenBucket bucket = bucket(listener.key(), object, burstBytes, rate);
+        if (bucket.tryReserve(body.contentLength())) {
+            return body;
+        }
+
+        Counter counter = pacedStreams.get(listener.tier());
+        if (counter != null) {
+            counter.increment();
+        }
+        return new PacedBody(body, bucket);
+    }
+
+    /**
+     * Average bytes per second of a track.
+     */
+    private static double bitrate(long fileSize, int durationSeconds) {
+        return (double) fileSize / durationSeconds;
+    }
+
+    private static long rate(double bitrate, Policy policy) {
+        return Math.max(1, (long) (bitrate * policy.rateMultiplier()));
+    }
+
+    /**
+     * The listener's bucket for this track, or a new one on another track or a
+     * changed rate. Requests without a listener key (anonymous ones) get a bucket
+     * of their own: a key shared by many clients would throttle them together and
+     * reset their burst whenever one of them switched tracks.
+     */
+    private TokenBucket bucket(String listenerKey, StorageObject object, long burstBytes, long rate) {
+        if (listenerKey == null) {
+            return new TokenBucket(burstBytes, rate);
+        }
+        lock.lock();
+        try {
+            State state = listeners.get(listenerKey);
+            if (state == null
+                    || !state.objectKey().equals(object.key())
+                    || state.bucket().bytesPerSecond() != rate) {
+                state = new State(object.key(), new TokenBucket(burstBytes, rate));
+                listeners.put(listenerKey, state);
+            }
+            return state.bucket();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int trackedListeners() {
+        lock.lock();
+        try {
+            return listeners.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (ListenerTier tier : ListenerTier.values()) {
+            pacedStreams.put(tier, Counter.builder("audio.stream.paced")
+                    .description("Streams throttled to a multiple of the track bitrate")
+                    .tag("tier", tier.name().toLowerCase())
+                    .register(registry));
+        }
+    }
+}
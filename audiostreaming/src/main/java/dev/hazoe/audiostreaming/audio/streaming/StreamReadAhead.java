@@ -0,0 +1,210 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import dev.hazoe.audiostreaming.audio.storage.AudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Speculatively reads the chunk that follows an open-ended range response.
+ * <p>
+ * Players fetch {@code bytes=N-} chunks back to back, so after serving one
+ * the next is read in the background: into the OS page cache for local files,
+ * into the block cache for object storage. The next request then starts
+ * without waiting for the disk or the network.
+ * <p>
+ * Reads run on a small bounded pool and are dropped when it is busy. Each
+ * listener has at most one pending read-ahead; a request that does not
+ * continue where it points (a seek) cancels it.
+ */
+@Slf4j
+@Component
+public class StreamReadAhead implements MeterBinder, DisposableBean {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private static final class Pending {
+        final String objectKey;
+        final long offset;
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        volatile Future<?> future;
+
+        Pending(String objectKey, long offset) {
+            this.objectKey = objectKey;
+            this.offset = offset;
+        }
+
+        boolean continuedBy(StorageObject object, long start) {
+            return objectKey.equals(object.key()) && offset == start;
+        }
+
+        void cancel() {
+            cancelled.set(true);
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+        }
+    }
+
+    private final AudioStorage audioStorage;
+    private final boolean enabled;
+    private final int chunks;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final ConcurrentHashMap<String, Pending> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+
+    public StreamReadAhead(
+            AudioStorage audioStorage,
+            @Value("${app.streaming.read-ahead.enabled:false}") boolean enabled,
+            @Value("${app.streaming.read-ahead.chunks:1}") int chunks,
+            @Value("${app.streaming.read-ahead.max-concurrent:4}") int maxConcurrent,
+            @Value("${app.streaming.read-ahead.queue-capacity:32}") int queueCapacity) {
+        this.audioStorage = audioStorage;
+        this.enabled = enabled;
+        this.chunks = chunks;
+
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("read-ahead-");
+
+        if (enabled) {
+            executor.initialize();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Called for every range a listener is served.
+     *
+     * @param sequential true for an open-ended ({@code bytes=N-}) range that
+     *                   the player will most likely continue
+     */
+    public void onRange(String listenerKey, StorageObject object, ByteRange served, boolean sequential) {
+        if (!enabled) {
+            return;
+        }
+
+        if (listenerKey != null) {
+            Pending previous = pending.get(listenerKey);
+            if (previous != null && !previous.continuedBy(object, served.start())) {
+                // seek: the warmed bytes will not be requested
+                if (pending.remove(listenerKey, previous)) {
+                    previous.cancel();
+                    cancelled.increment();
+                }
+            }
+        }
+
+        long next = served.end() + 1;
+        if (!sequential || next >= object.size()) {
+            return;
+        }
+        long length = Math.min(served.contentLength() * chunks, object.size() - next);
+        schedule(listenerKey, object, next, length);
+    }
+
+    private void schedule(String listenerKey, StorageObject object, long offset, long length) {
+        Pending task = new Pending(object.key(), offset);
+        if (listenerKey != null) {
+            // a replaced entry is the range being served right now: leave it running
+            pending.put(listenerKey, task);
+        }
+
+        try {
+            task.future = executor.submit(() -> {
+                try {
+                    warm(object, offset, length, task.cancelled);
+                } finally {
+                    if (listenerKey != null) {
+                        pending.remove(listenerKey, task);
+                    }
+                }
+            });
+            scheduled.increment();
+        } catch (TaskRejectedException e) {
+            if (listenerKey != null) {
+                pending.remove(listenerKey, task);
+            }
+            rejected.increment();
+        }
+    }
+
+    private void warm(StorageObject object, long offset, long length, AtomicBoolean cancelledFlag) {
+        if (cancelledFlag.get()) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        try (ReadableByteChannel channel = audioStorage.openRange(object, offset, length)) {
+            int read;
+            while (!cancelledFlag.get() && (read = channel.read(buffer)) >= 0) {
+                bytesRead.add(read);
+                buffer.clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Read-ahead of {} at {} failed: {}", object.key(), offset, e.toString());
+        }
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    long scheduledCount() {
+        return scheduled.sum();
+    }
+
+    long rejectedCount() {
+        return rejected.sum();
+    }
+
+    long cancelledCount() {
+        return cancelled.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("audio.stream.readahead", scheduled, LongAdder::sum)
+                .tag("result", "scheduled")
+                .register(registry);
+        FunctionCounter.builder("audio.stream.readahead", rejected, LongAdder::sum)
+                .tag("result", "rejected")
+                .register(registry);
+        FunctionCounter.builder("audio.stream.readahead", cancelled, LongAdder::sum)
+                .tag("result", "cancelled")
+                .register(registry);
+        FunctionCounter.builder("audio.stream.readahead.bytes", bytesRead, LongAdder::sum)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
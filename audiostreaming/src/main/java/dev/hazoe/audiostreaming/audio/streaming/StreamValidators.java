@@ -0,0 +1,17 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+/**
+ * Strong validators of an audio file, derived from its size and modification time.
+ */
+public record StreamValidators(
+        String etag,
+        long lastModified
+) {
+
+    public static StreamValidators of(long fileSize, long lastModified) {
+        return new StreamValidators(
+                "\"%x-%x\"".formatted(lastModified, fileSize),
+                lastModified
+        );
+    }
+}
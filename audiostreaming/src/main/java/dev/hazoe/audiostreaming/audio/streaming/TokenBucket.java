@@ -0,0 +1,81 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Byte-rate token bucket for a single listener.
+ * <p>
+ * Starts full, so the first {@code capacity} bytes go out immediately, then
+ * refills at {@code bytesPerSecond}. {@link #reserve(long)} never blocks: it
+ * takes the tokens (going into debt if needed) and tells the caller how long
+ * to wait before sending.
+ */
+public final class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long capacity;
+    private final long bytesPerSecond;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(long capacity, long bytesPerSecond) {
+        this(capacity, bytesPerSecond, System::nanoTime);
+    }
+
+    TokenBucket(long capacity, long bytesPerSecond, LongSupplier nanoClock) {
+        if (capacity < 0 || bytesPerSecond <= 0) {
+            throw new IllegalArgumentException("Invalid bucket: capacity=%d, rate=%d"
+                    .formatted(capacity, bytesPerSecond));
+        }
+        this.capacity = capacity;
+        this.bytesPerSecond = bytesPerSecond;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes {@code bytes} tokens.
+     *
+     * @return nanoseconds to wait before the bytes may be sent, 0 if they may go now
+     */
+    public synchronized long reserve(long bytes) {
+        refill();
+        tokens -= bytes;
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(-tokens * NANOS_PER_SECOND / bytesPerSecond);
+    }
+
+    /**
+     * Takes {@code bytes} tokens only if all of them are available now.
+     *
+     * @return whether the tokens were taken
+     */
+    public synchronized boolean tryReserve(long bytes) {
+        refill();
+        if (tokens < bytes) {
+            return false;
+        }
+        tokens -= bytes;
+        return true;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * (double) bytesPerSecond / NANOS_PER_SECOND);
+        lastRefill = now;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public long bytesPerSecond() {
+        return bytesPerSecond;
+    }
+}
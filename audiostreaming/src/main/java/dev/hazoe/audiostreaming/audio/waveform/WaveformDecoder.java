@@ -0,0 +1,62 @@
+package dev.hazoe.audiostreaming.audio.waveform;
+
+import javazoom.jl.decoder.Bitstream;
+import javazoom.jl.decoder.BitstreamException;
+import javazoom.jl.decoder.Decoder;
+import javazoom.jl.decoder.DecoderException;
+import javazoom.jl.decoder.Header;
+import javazoom.jl.decoder.SampleBuffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes an MP3 stream to PCM (JLayer) and keeps only the peaks of each frame.
+ * <p>
+ * Decoding is CPU-bound, one frame at a time; nothing but the per-frame peaks
+ * (4 bytes a frame) is kept, so memory does not grow with the bit rate.
+ */
+public final class WaveformDecoder {
+
+    private WaveformDecoder() {
+    }
+
+    /**
+     * @param maxPoints upper bound on the number of points
+     * @throws IOException if the stream cannot be read or is not MPEG audio
+     */
+    public static WaveformPeaks decode(InputStream mp3, int maxPoints) throws IOException {
+        WaveformPeaks.Builder peaks = WaveformPeaks.builder();
+        Bitstream bitstream = new Bitstream(mp3);
+        Decoder decoder = new Decoder();
+        try {
+            Header header;
+            while ((header = bitstream.readFrame()) != null) {
+                try {
+                    SampleBuffer output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+                    peaks.frame(header.frequency(), output.getBuffer(), output.getBufferLength(), output.getChannelCount());
+                } catch (DecoderException | ArrayIndexOutOfBoundsException e) {
+                    // a corrupt frame: the decoder throws or overruns its tables
+                    peaks.silentFrame();
+                } finally {
+                    bitstream.closeFrame();
+                }
+            }
+        } catch (BitstreamException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (peaks.frameCount() == 0) {
+                throw new IOException("Not an MPEG audio stream", e);
+            }
+            // trailing junk: keep what was decoded
+        } finally {
+            try {
+                bitstream.close();
+            } catch (BitstreamException e) {
+                // closing only releases the source stream
+            }
+        }
+        return peaks.build(maxPoints);
+    }
+}
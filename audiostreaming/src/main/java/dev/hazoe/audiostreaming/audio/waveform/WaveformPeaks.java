@@ -0,0 +1,174 @@
+package dev.hazoe.audiostreaming.audio.waveform;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Downsampled min/max peaks of an audio track, for drawing its waveform.
+ * <p>
+ * Each point covers {@code samplesPerPoint} consecutive samples (all channels
+ * combined) and holds their minimum and maximum, scaled to 8 bits. The binary
+ * form is the audiowaveform {@code .dat} version 1 layout, which web players
+ * (peaks.js, waveform-data.js) read as is: a 20-byte little-endian header
+ * (version, flags, sample rate, samples per point, point count) followed by
+ * one min/max byte pair per point. 1,000 points take 2,020 bytes.
+ */
+public final class WaveformPeaks {
+
+    private static final int VERSION = 1;
+    private static final int FLAG_8_BIT = 1;
+    private static final int HEADER_BYTES = 20;
+
+    private final int sampleRate;
+    private final int samplesPerPoint;
+    // min and max of each point, interleaved
+    private final byte[] data;
+
+    WaveformPeaks(int sampleRate, int samplesPerPoint, byte[] data) {
+        this.sampleRate = sampleRate;
+        this.samplesPerPoint = samplesPerPoint;
+        this.data = data;
+    }
+
+    public int sampleRate() {
+        return sampleRate;
+    }
+
+    public int samplesPerPoint() {
+        return samplesPerPoint;
+    }
+
+    public int size() {
+        return data.length / 2;
+    }
+
+    public int min(int point) {
+        return data[2 * point];
+    }
+
+    public int max(int point) {
+        return data[2 * point + 1];
+    }
+
+    public byte[] encode() {
+        return ByteBuffer.allocate(HEADER_BYTES + data.length)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(VERSION)
+                .putInt(FLAG_8_BIT)
+                .putInt(sampleRate)
+                .putInt(samplesPerPoint)
+                .putInt(size())
+                .put(data)
+                .array();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not an 8-bit version 1 waveform
+     */
+    public static WaveformPeaks decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length < HEADER_BYTES
+                || buffer.getInt() != VERSION
+                || buffer.getInt() != FLAG_8_BIT) {
+            throw new IllegalArgumentException("Not an 8-bit version 1 waveform");
+        }
+        int sampleRate = buffer.getInt();
+        int samplesPerPoint = buffer.getInt();
+        int points = buffer.getInt();
+        if (points < 0 || buffer.remaining() != 2L * points) {
+            throw new IllegalArgumentException("Waveform holds " + buffer.remaining() + " bytes for " + points + " points");
+        }
+        byte[] data = new byte[2 * points];
+        buffer.get(data);
+        return new WaveformPeaks(sampleRate, samplesPerPoint, data);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Collects the peaks of each decoded frame, then merges them into at most
+     * the requested number of points. A point spans whole frames, so points
+     * line up with frame boundaries (and seek offsets).
+     */
+    public static final class Builder {
+
+        private int sampleRate;
+        private int samplesPerFrame;
+        private short[] mins = new short[1024];
+        private short[] maxs = new short[1024];
+        private int frames;
+
+        private Builder() {
+        }
+
+        /**
+         * @param samples  interleaved PCM of one frame, {@code length} values in total
+         * @param channels number of interleaved channels
+         */
+        public Builder frame(int sampleRate, short[] samples, int length, int channels) {
+            if (frames == 0) {
+                this.sampleRate = sampleRate;
+                this.samplesPerFrame = length / channels;
+            }
+            short min = 0;
+            short max = 0;
+            for (int i = 0; i < length; i++) {
+                short sample = samples[i];
+                if (sample < min) {
+                    min = sample;
+                } else if (sample > max) {
+                    max = sample;
+                }
+            }
+            append(min, max);
+            return this;
+        }
+
+        /**
+         * A frame that could not be decoded; drawn as silence so later points keep their position.
+         */
+        public Builder silentFrame() {
+            append((short) 0, (short) 0);
+            return this;
+        }
+
+        private void append(short min, short max) {
+            if (frames == mins.length) {
+                mins = Arrays.copyOf(mins, frames * 2);
+                maxs = Arrays.copyOf(maxs, frames * 2);
+            }
+            mins[frames] = min;
+            maxs[frames] = max;
+            frames++;
+        }
+
+        public int frameCount() {
+            return frames;
+        }
+
+        public WaveformPeaks build(int maxPoints) {
+            if (frames == 0) {
+                return new WaveformPeaks(sampleRate, 0, new byte[0]);
+            }
+            int framesPerPoint = Math.ceilDiv(frames, maxPoints);
+            int points = Math.ceilDiv(frames, framesPerPoint);
+            byte[] data = new byte[2 * points];
+            for (int point = 0; point < points; point++) {
+                int from = point * framesPerPoint;
+                int to = Math.min(from + framesPerPoint, frames);
+                short min = 0;
+                short max = 0;
+                for (int frame = from; frame < to; frame++) {
+                    min = (short) Math.min(min, mins[frame]);
+                    max = (short) Math.max(max, maxs[frame]);
+                }
+                data[2 * point] = (byte) (min >> 8);
+                data[2 * point + 1] = (byte) (max >> 8);
+            }
+            return new WaveformPeaks(sampleRate, framesPerPoint * samplesPerFrame, data);
+        }
+    }
+}
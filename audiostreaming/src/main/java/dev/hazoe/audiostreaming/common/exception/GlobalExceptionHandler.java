@@ -1,5 +1,6 @@
 package dev.hazoe.audiostreaming.common.exception;
 
+import dev.hazoe.audiostreaming.audio.ingest.ResumableUploadService;
 import dev.hazoe.audiostreaming.common.response.ApiErrorResponse;
 import dev.hazoe.audiostreaming.common.response.ValidationErrorResponse;
 import io.jsonwebtoken.JwtException;
@@ -118,6 +119,50 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(HlsSegmentNotFoundException.class)
+    public ResponseEntity<ApiErrorResponse> handleSegmentNotFound(HlsSegmentNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ApiErrorResponse(
+                        404,
+                        "SEGMENT_NOT_FOUND",
+                        ex.getMessage(),
+                        Instant.now()
+                ));
+    }
+
+    @ExceptionHandler(UploadNotFoundException.class)
+    public ResponseEntity<ApiErrorResponse> handleUploadNotFound(UploadNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ApiErrorResponse(
+                        404,
+                        "UPLOAD_NOT_FOUND",
+                        ex.getMessage(),
+                        Instant.now()
+                ));
+    }
+
+    @ExceptionHandler(ImportNotFoundException.class)
+    public ResponseEntity<ApiErrorResponse> handleImportNotFound(ImportNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ApiErrorResponse(
+                        404,
+                        "IMPORT_NOT_FOUND",
+                        ex.getMessage(),
+                        Instant.now()
+                ));
+    }
+
+    @ExceptionHandler(WaveformNotFoundException.class)
+    public ResponseEntity<ApiErrorResponse> handleWaveformNotFound(WaveformNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ApiErrorResponse(
+                        404,
+                        "WAVEFORM_NOT_FOUND",
+                        ex.getMessage(),
+                        Instant.now()
+                ));
+    }
+
     /* ================= 403 ================= */
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ApiErrorResponse> handleAccessDenied(AccessDeniedException ex) {
@@ -149,6 +194,56 @@ public class GlobalExceptionHandler {
                 .body(response);
     }
 
+    @ExceptionHandler(UploadOffsetMismatchException.class)
+    public ResponseEntity<ApiErrorResponse> handleUploadOffsetMismatch(UploadOffsetMismatchException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                // lets the client resume without another HEAD
+                .header(ResumableUploadService.UPLOAD_OFFSET_HEADER, Long.toString(ex.getOffset()))
+                .body(new ApiErrorResponse(
+                        409,
+                        "UPLOAD_OFFSET_MISMATCH",
+                        ex.getMessage(),
+                        Instant.now()
+                ));
+    }
+
+    @ExceptionHandler(UploadIncompleteException.class)
+    public ResponseEntity<ApiErrorResponse> handleUploadIncomplete(UploadIncompleteException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ApiErrorResponse(
+                        409,
+                        "UPLOAD_INCOMPLETE",
+                        ex.getMessage(),
+                        Instant.now()
+                ));
+    }
+
+    /* ================= 413 ================= */
+
+    @ExceptionHandler(UploadTooLargeException.class)
+    public ResponseEntity<ApiErrorResponse> handleUploadTooLarge(UploadTooLargeException ex) {
+        return ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE)
+                .body(new ApiErrorResponse(
+                        413,
+                        "UPLOAD_TOO_LARGE",
+                        ex.getMessage(),
+                        Instant.now()
+                ));
+    }
+
+    /* ================= 415 ================= */
+
+    @ExceptionHandler(UnsupportedAudioException.class)
+    public ResponseEntity<ApiErrorResponse> handleUnsupportedAudio(UnsupportedAudioException ex) {
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                .body(new ApiErrorResponse(
+                        415,
+                        "UNSUPPORTED_AUDIO",
+                        ex.getMessage(),
+                        Instant.now()
+                ));
+    }
+
     /* ================= 416 ================= */
 
     @ExceptionHandler(RangeNotSatisfiableException.class)
@@ -169,6 +264,32 @@ public class GlobalExceptionHandler {
                 .build();// ⬅ NO BODY
     }
 
+    /* ================= 423 ================= */
+
+    @ExceptionHandler(UploadLockedException.class)
+    public ResponseEntity<ApiErrorResponse> handleUploadLocked(UploadLockedException ex) {
+        return ResponseEntity.status(HttpStatus.LOCKED)
+                .body(new ApiErrorResponse(
+                        423,
+                        "UPLOAD_LOCKED",
+                        ex.getMessage(),
+                        Instant.now()
+                ));
+    }
+
+    /* ================= 429 ================= */
+
+    @ExceptionHandler(UploadLimitExceededException.class)
+    public ResponseEntity<ApiErrorResponse> handleUploadLimitExceeded(UploadLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(new ApiErrorResponse(
+                        429,
+                        "UPLOAD_LIMIT_EXCEEDED",
+                        ex.getMessage(),
+                        Instant.now()
+                ));
+    }
+
     /* ================= 500 ================= */
 
     @ExceptionHandler(Exception.class)
@@ -0,0 +1,12 @@
+package dev.hazoe.audiostreaming.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class HlsSegmentNotFoundException extends RuntimeException {
+
+    public HlsSegmentNotFoundException(Long audioId, String version, int index) {
+        super("HLS segment not found: audio %d, version %s, index %d".formatted(audioId, version, index));
+    }
+}
@@ -0,0 +1,14 @@
+package dev.hazoe.audiostreaming.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ImportNotFoundException extends RuntimeException {
+
+    public ImportNotFoundException(UUID importId) {
+        super("Import not found with id: " + importId);
+    }
+}
@@ -0,0 +1,12 @@
+package dev.hazoe.audiostreaming.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+public class UnsupportedAudioException extends RuntimeException {
+
+    public UnsupportedAudioException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package dev.hazoe.audiostreaming.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class UploadIncompleteException extends RuntimeException {
+
+    public UploadIncompleteException(long offset, long length) {
+        super("Upload has " + offset + " of " + length + " bytes");
+    }
+}
@@ -0,0 +1,12 @@
+package dev.hazoe.audiostreaming.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class UploadLimitExceededException extends RuntimeException {
+
+    public UploadLimitExceededException(int maxSessions) {
+        super("At most " + maxSessions + " uploads may be open at once; complete or cancel one first");
+    }
+}
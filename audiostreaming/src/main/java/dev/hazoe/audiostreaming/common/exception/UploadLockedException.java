@@ -0,0 +1,14 @@
+package dev.hazoe.audiostreaming.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+@ResponseStatus(HttpStatus.LOCKED)
+public class UploadLockedException extends RuntimeException {
+
+    public UploadLockedException(UUID uploadId) {
+        super("Upload " + uploadId + " is being written by another request");
+    }
+}
@@ -0,0 +1,14 @@
+package dev.hazoe.audiostreaming.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class UploadNotFoundException extends RuntimeException {
+
+    public UploadNotFoundException(UUID uploadId) {
+        super("Upload not found with id: " + uploadId);
+    }
+}
@@ -0,0 +1,19 @@
+package dev.hazoe.audiostreaming.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class UploadOffsetMismatchException extends RuntimeException {
+
+    private final long offset;
+
+    public UploadOffsetMismatchException(long offset, long requested) {
+        super("Upload is at offset " + offset + ", not " + requested);
+        this.offset = offset;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,12 @@
+package dev.hazoe.audiostreaming.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class WaveformNotFoundException extends RuntimeException {
+
+    public WaveformNotFoundException(Long audioId, String reason) {
+        super("Waveform of audio " + audioId + " " + reason);
+    }
+}
@@ -40,9 +40,18 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET,
                                 "/api/audios",
                                 "/api/audios/*",
+                                "/api/audios/*/stream",
+                                "/api/audios/*/hls/**",
+                                "/api/audios/*/waveform").permitAll()
+
+                        .requestMatchers(HttpMethod.HEAD,
                                 "/api/audios/*/stream").permitAll()
 
                         .requestMatchers(HttpMethod.GET,"/actuator/health").permitAll()
+                        .requestMatchers("/actuator/metrics/**").hasRole("ADMIN")
+
+                        .requestMatchers(HttpMethod.POST, "/api/audios").hasRole("ADMIN")
+                        .requestMatchers("/api/uploads/**").hasRole("ADMIN")
 
                         .anyRequest().authenticated()
                 )
@@ -1,8 +1,7 @@
 package dev.hazoe.audiostreaming.progress.service;
 
-import dev.hazoe.audiostreaming.audio.domain.Audio;
-import dev.hazoe.audiostreaming.audio.repository.AudioRepository;
-import dev.hazoe.audiostreaming.common.exception.AudioNotFoundException;
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptor;
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptorCache;
 import dev.hazoe.audiostreaming.common.exception.InvalidProgressPositionException;
 import dev.hazoe.audiostreaming.progress.domain.ListeningProgress;
 import dev.hazoe.audiostreaming.progress.dto.ListeningProgressResponse;
@@ -15,16 +14,15 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class ListeningProgressService {
     private final ListeningProgressRepository progressRepository;
-    private final AudioRepository audioRepository;
+    private final AudioDescriptorCache audioDescriptorCache;
 
     @Transactional
     public void saveProgress(Long userId, Long audioId, int positionSeconds) {
 
-        Audio audio = audioRepository.findById(audioId)
-                .orElseThrow(() -> new AudioNotFoundException(audioId));
+        AudioDescriptor audio = audioDescriptorCache.get(audioId);
 
-        if (positionSeconds > audio.getDurationSeconds()) {
-            throw new InvalidProgressPositionException(positionSeconds, audio.getDurationSeconds());
+        if (positionSeconds > audio.durationSeconds()) {
+            throw new InvalidProgressPositionException(positionSeconds, audio.durationSeconds());
         }
 
         ListeningProgress progress =
@@ -41,8 +39,7 @@ public class ListeningProgressService {
 
     @Transactional(readOnly = true)
     public ListeningProgressResponse getProgress(Long userId, Long audioId) {
-        audioRepository.findById(audioId)
-                .orElseThrow(() -> new AudioNotFoundException(audioId));
+        audioDescriptorCache.get(audioId);
 
         return progressRepository.findByUserIdAndAudioId(userId, audioId)
                 .map(progress -> new ListeningProgressResponse(
@@ -0,0 +1,23 @@
+-- Step 10 – Resumable uploads
+-- One row per unfinished upload; the bytes live in a preallocated file named after the id
+
+CREATE TABLE upload_session
+(
+    id            UUID                        NOT NULL
+        PRIMARY KEY,
+    owner_id      BIGINT                      NOT NULL,
+    title         VARCHAR(255)                NOT NULL,
+    description   TEXT,
+    is_premium    BOOLEAN                     NOT NULL,
+    -- total size announced at creation
+    upload_length BIGINT                      NOT NULL,
+    -- bytes durably written; the next PATCH must start here
+    upload_offset BIGINT                      NOT NULL,
+    created_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_upload_session_updated_at ON upload_session (updated_at);
+
+ALTER TABLE upload_session
+    OWNER TO audio_user;
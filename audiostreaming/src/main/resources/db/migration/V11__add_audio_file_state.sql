@@ -0,0 +1,9 @@
+-- Step 11 – Recorded file state
+-- Size, mtime, storage version and SHA-256 of each audio file, as last seen by
+-- the storage reconciliation (or the upload that created it). NULL until then.
+
+ALTER TABLE audio
+    ADD COLUMN file_size      BIGINT,
+    ADD COLUMN file_mtime     TIMESTAMP(6) WITH TIME ZONE,
+    ADD COLUMN file_version   VARCHAR(100),
+    ADD COLUMN content_sha256 VARCHAR(64);
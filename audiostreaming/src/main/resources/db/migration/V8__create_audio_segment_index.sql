@@ -0,0 +1,20 @@
+-- Step 8 – HLS segment index
+-- One frame-aligned segment index per audio, rebuilt when the source file changes
+
+CREATE TABLE audio_segment_index
+(
+    audio_id               BIGINT                      NOT NULL
+        PRIMARY KEY
+        CONSTRAINT fk_segment_index_audio
+            REFERENCES audio
+            ON DELETE CASCADE,
+    source_version         VARCHAR(100)                NOT NULL,
+    target_duration_millis INTEGER                     NOT NULL,
+    segment_count          INTEGER                     NOT NULL,
+    -- 16 bytes per segment: offset (int8), length (int4), duration micros (int4)
+    data                   BYTEA                       NOT NULL,
+    created_at             TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+ALTER TABLE audio_segment_index
+    OWNER TO audio_user;
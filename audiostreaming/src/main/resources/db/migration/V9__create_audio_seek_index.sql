@@ -0,0 +1,20 @@
+-- Step 9 – MP3 seek index
+-- Time → byte offset table per audio, used by ?t= seeks on the stream endpoint
+
+CREATE TABLE audio_seek_index
+(
+    audio_id         BIGINT                      NOT NULL
+        PRIMARY KEY
+        CONSTRAINT fk_seek_index_audio
+            REFERENCES audio
+            ON DELETE CASCADE,
+    source_version   VARCHAR(100)                NOT NULL,
+    frames_per_entry INTEGER                     NOT NULL,
+    entry_count      INTEGER                     NOT NULL,
+    -- fixed header followed by varint-encoded offset deltas
+    data             BYTEA                       NOT NULL,
+    created_at       TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+ALTER TABLE audio_seek_index
+    OWNER TO audio_user;
@@ -0,0 +1,146 @@
+package dev.hazoe.audiostreaming.audio.cache;
+
+import dev.hazoe.audiostreaming.audio.domain.Audio;
+import dev.hazoe.audiostreaming.audio.repository.AudioRepository;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import dev.hazoe.audiostreaming.common.exception.AudioNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AudioDescriptorCacheTest {
+
+    @Mock
+    private AudioRepository audioRepository;
+
+    private final AtomicLong now = new AtomicLong();
+
+    private AudioDescriptorCache cache(int maxEntries) {
+        return new AudioDescriptorCache(audioRepository, true, maxEntries, Duration.ofMinutes(10), false, now::get);
+    }
+
+    private static Audio audio(long id) {
+        Audio audio = new Audio();
+        audio.setId(id);
+        audio.setAudioPath("audio/" + id + ".mp3");
+        audio.setContentType("audio/mpeg");
+        audio.setPremium(true);
+        audio.setDurationSeconds(180);
+        return audio;
+    }
+
+    @Test
+    void get_secondCall_isServedFromCache() {
+        // given
+        given(audioRepository.findById(1L)).willReturn(Optional.of(audio(1)));
+        AudioDescriptorCache cache = cache(10);
+
+        // when
+        cache.get(1L);
+        AudioDescriptor descriptor = cache.get(1L);
+
+        // then
+        assertThat(descriptor).isEqualTo(new AudioDescriptor(1L, "audio/1.mp3", "audio/mpeg", true, 180));
+        verify(audioRepository, times(1)).findById(1L);
+        assertThat(cache.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_withRecordedMetadata_carriesRecordedFileState() {
+        // given
+        Audio recorded = audio(1);
+        recorded.setFileSize(4096L);
+        recorded.setFileMtime(Instant.ofEpochMilli(1_700_000_000_000L));
+        recorded.setFileVersion("18bcfe56800-1000");
+        Audio unrecorded = audio(2);
+        given(audioRepository.findById(1L)).willReturn(Optional.of(recorded));
+        given(audioRepository.findById(2L)).willReturn(Optional.of(unrecorded));
+        AudioDescriptorCache cache = new AudioDescriptorCache(
+                audioRepository, true, 10, Duration.ofMinutes(10), true, now::get);
+
+        // when
+        AudioDescriptor withState = cache.get(1L);
+        AudioDescriptor withoutState = cache.get(2L);
+
+        // then
+        assertThat(withState.recorded()).isEqualTo(new StorageObject(
+                "audio/1.mp3", 4096L, Instant.ofEpochMilli(1_700_000_000_000L), "18bcfe56800-1000"));
+        assertThat(withoutState.recorded()).isNull();
+        assertThat(AudioDescriptor.from(recorded).recorded()).isNull();
+    }
+
+    @Test
+    void get_afterTtl_reloads() {
+        // given
+        given(audioRepository.findById(1L)).willReturn(Optional.of(audio(1)));
+        AudioDescriptorCache cache = cache(10);
+        cache.get(1L);
+
+        // when
+        now.addAndGet(Duration.ofMinutes(11).toNanos());
+        cache.get(1L);
+
+        // then
+        verify(audioRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void invalidate_forcesReload() {
+        // given
+        given(audioRepository.findById(1L)).willReturn(Optional.of(audio(1)));
+        AudioDescriptorCache cache = cache(10);
+        cache.get(1L);
+
+        // when
+        cache.invalidate(1L);
+        cache.get(1L);
+
+        // then
+        verify(audioRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void get_beyondMaxEntries_evictsLeastRecentlyUsed() {
+        // given
+        given(audioRepository.findById(1L)).willReturn(Optional.of(audio(1)));
+        given(audioRepository.findById(2L)).willReturn(Optional.of(audio(2)));
+        given(audioRepository.findById(3L)).willReturn(Optional.of(audio(3)));
+        AudioDescriptorCache cache = cache(2);
+        cache.get(1L);
+        cache.get(2L);
+        cache.get(1L);
+
+        // when
+        cache.get(3L);
+        cache.get(2L);
+
+        // then: 2 was the least recently used when 3 arrived
+        assertThat(cache.size()).isEqualTo(2);
+        verify(audioRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    void get_missingAudio_throwsAndIsNotCached() {
+        // given
+        given(audioRepository.findById(99L)).willReturn(Optional.empty());
+        AudioDescriptorCache cache = cache(10);
+
+        // when / then
+        assertThatThrownBy(() -> cache.get(99L)).isInstanceOf(AudioNotFoundException.class);
+        assertThat(cache.find(99L)).isEmpty();
+        verify(audioRepository, times(2)).findById(99L);
+    }
+}
@@ -0,0 +1,92 @@
+package dev.hazoe.audiostreaming.audio.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AudioIndexCacheTest {
+
+    @Test
+    void get_shouldLoadOncePerVersion() {
+        // given
+        AudioIndexCache<String> cache = new AudioIndexCache<>("test", 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        String first = cache.get(1L, "v1", () -> "index-" + loads.incrementAndGet());
+        String second = cache.get(1L, "v1", () -> "index-" + loads.incrementAndGet());
+        String replaced = cache.get(1L, "v2", () -> "index-" + loads.incrementAndGet());
+
+        // then
+        assertThat(first).isEqualTo("index-1");
+        assertThat(second).isEqualTo("index-1");
+        assertThat(replaced).isEqualTo("index-2");
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void get_concurrentMisses_shareOneLoad() throws Exception {
+        // given
+        AudioIndexCache<String> cache = new AudioIndexCache<>("test", 10);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // when
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> cache.get(1L, "v1", () -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "index";
+                })));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cache.coalescedCount() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            // then
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("index");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.coalescedCount()).isEqualTo(3);
+        assertThat(cache.get(1L, "v1", () -> "reloaded")).isEqualTo("index");
+    }
+
+    @Test
+    void get_shouldEvictLeastRecentlyUsed() {
+        // given
+        AudioIndexCache<String> cache = new AudioIndexCache<>("test", 2);
+        cache.get(1L, "v", () -> "a");
+        cache.get(2L, "v", () -> "b");
+        cache.get(1L, "v", () -> "a");
+
+        // when
+        cache.get(3L, "v", () -> "c");
+
+        // then: 2 was least recently used
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(2L, "v", () -> "reloaded")).isEqualTo("reloaded");
+    }
+}
@@ -0,0 +1,104 @@
+package dev.hazoe.audiostreaming.audio.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+
+    @Test
+    void execute_concurrentCallsForSameKey_shareOneLoad() throws Exception {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // when
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> flight.execute("a-0", () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "block";
+                })));
+            }
+            waitUntilJoined(3);
+            release.countDown();
+
+            // then
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("block");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(flight.leaderCount()).isEqualTo(1);
+        assertThat(flight.sharedCount()).isEqualTo(3);
+        assertThat(flight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void execute_afterCompletion_loadsAgain() throws Exception {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        flight.execute("a-0", () -> "v" + loads.incrementAndGet());
+        String second = flight.execute("a-0", () -> "v" + loads.incrementAndGet());
+
+        // then
+        assertThat(second).isEqualTo("v2");
+        assertThat(flight.sharedCount()).isZero();
+    }
+
+    @Test
+    void execute_failedLoad_propagatesToWaitersAndIsForgotten() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> flight.execute("a-0", () -> {
+                release.await();
+                throw new IOException("boom");
+            }));
+            while (flight.inFlightCount() == 0) {
+                Thread.onSpinWait();
+            }
+
+            // when
+            Future<String> waiter = executor.submit(() -> flight.execute("a-0", () -> "unused"));
+            waitUntilJoined(1);
+            release.countDown();
+
+            // then
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("boom");
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("boom");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(flight.inFlightCount()).isZero();
+        assertThat(flight.execute("a-0", () -> "retried")).isEqualTo("retried");
+    }
+
+    private void waitUntilJoined(long waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.sharedCount() < waiters && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
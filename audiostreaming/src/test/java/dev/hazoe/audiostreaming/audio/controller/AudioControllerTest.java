@@ -3,29 +3,45 @@ package dev.hazoe.audiostreaming.audio.controller;
 import dev.hazoe.audiostreaming.audio.dto.AudioDetailDto;
 import dev.hazoe.audiostreaming.audio.dto.AudioListItemDto;
 import dev.hazoe.audiostreaming.audio.dto.AudioStreamResponse;
+import dev.hazoe.audiostreaming.audio.dto.AudioUploadResponse;
+import dev.hazoe.audiostreaming.audio.ingest.AudioIngestService;
+import dev.hazoe.audiostreaming.audio.ingest.AudioUpload;
 import dev.hazoe.audiostreaming.audio.service.AudioService;
 import dev.hazoe.audiostreaming.audio.service.AudioStreamService;
+import dev.hazoe.audiostreaming.audio.streaming.AccelRedirectSupport;
+import dev.hazoe.audiostreaming.audio.streaming.AsyncStreamDelivery;
+import dev.hazoe.audiostreaming.audio.streaming.SendfileSupport;
+import dev.hazoe.audiostreaming.audio.streaming.StreamBody;
 import dev.hazoe.audiostreaming.auth.security.JwtAuthenticationFilter;
 import dev.hazoe.audiostreaming.common.exception.AudioNotFoundException;
+import dev.hazoe.audiostreaming.common.exception.UnsupportedAudioException;
+import dev.hazoe.audiostreaming.common.security.UserPrincipal;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.assertj.MockMvcTester;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.List;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 
 
@@ -44,6 +60,33 @@ class AudioControllerTest {
     @MockitoBean
     private AudioStreamService streamService;
 
+    @MockitoBean
+    private SendfileSupport sendfileSupport;
+
+    @MockitoBean
+    private AsyncStreamDelivery asyncStreamDelivery;
+
+    @MockitoBean
+    private AccelRedirectSupport accelRedirectSupport;
+
+    @MockitoBean
+    private AudioIngestService ingestService;
+
+    private static StreamBody body(String content) {
+        byte[] bytes = content.getBytes();
+        return new StreamBody() {
+            @Override
+            public long contentLength() {
+                return bytes.length;
+            }
+
+            @Override
+            public ReadableByteChannel open() {
+                return Channels.newChannel(new ByteArrayInputStream(bytes));
+            }
+        };
+    }
+
     @Test
     void getAudios_shouldReturnPagedResult() {
         AudioListItemDto dto = new AudioListItemDto(
@@ -129,6 +172,65 @@ class AudioControllerTest {
                 .isEqualTo("Audio not found with id: 99");
     }
 
+    /* ================= UPLOAD ================= */
+
+    @Test
+    void upload_shouldIngestRawBody_andReturnCreated() {
+        // given
+        UserPrincipal principal = new UserPrincipal(7L, "ADMIN");
+        given(ingestService.ingest(any(InputStream.class), eq(new AudioUpload("Morning Calm", null, true)), eq(7L)))
+                .willReturn(new AudioUploadResponse(42L, "Morning Calm", 600, "audio/mpeg", 9_600_000L, "ab12"));
+
+        // when
+        var result = mockMvc.post()
+                .uri("/api/audios")
+                .param("title", "Morning Calm")
+                .param("premium", "true")
+                .contentType(MediaType.parseMediaType("audio/mpeg"))
+                .content(new byte[]{1, 2, 3})
+                .with(request -> {
+                    request.setUserPrincipal(
+                            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities())
+                    );
+                    return request;
+                })
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.CREATED);
+        result.assertThat().hasHeader(HttpHeaders.LOCATION, "/api/audios/42");
+        var body = result.assertThat().bodyJson();
+        body.extractingPath("$.id").isEqualTo(42);
+        body.extractingPath("$.durationSeconds").isEqualTo(600);
+        body.extractingPath("$.sha256").isEqualTo("ab12");
+    }
+
+    @Test
+    void upload_shouldReturn415_whenBodyIsNotMp3() {
+        // given
+        UserPrincipal principal = new UserPrincipal(7L, "ADMIN");
+        given(ingestService.ingest(any(InputStream.class), any(), any()))
+                .willThrow(new UnsupportedAudioException("No MPEG audio frames in upload"));
+
+        // when
+        var result = mockMvc.post()
+                .uri("/api/audios")
+                .param("title", "Not audio")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(new byte[]{1, 2, 3})
+                .with(request -> {
+                    request.setUserPrincipal(
+                            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities())
+                    );
+                    return request;
+                })
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        result.assertThat().bodyJson().extractingPath("$.error").isEqualTo("UNSUPPORTED_AUDIO");
+    }
+
     /* ================= STREAM ================= */
 
     @Test
@@ -136,14 +238,14 @@ class AudioControllerTest {
         // given
 
         AudioStreamResponse response = new AudioStreamResponse(
-                new ByteArrayResource("test".getBytes()),
+                body("test"),
                 new HttpHeaders(),
                 HttpStatus.OK,
                 "audio/mpeg"
 
         );
 
-        given(streamService.stream(eq(1L), any()))
+        given(streamService.stream(eq(1L), any(), any(), any()))
                 .willReturn(response);
 
         // when
@@ -161,11 +263,37 @@ class AudioControllerTest {
                 );
     }
 
+    @Test
+    void stream_shouldOmitBody_whenContainerTakesSendfile() {
+        // given
+        AudioStreamResponse response = new AudioStreamResponse(
+                body("test"),
+                new HttpHeaders(),
+                HttpStatus.OK,
+                "audio/mpeg"
+        );
+
+        given(streamService.stream(eq(1L), any(), any(), any()))
+                .willReturn(response);
+        given(sendfileSupport.offer(any(), any()))
+                .willReturn(true);
+
+        // when
+        var result = mockMvc.get()
+                .uri("/api/audios/{id}/stream", 1L)
+                .with(user("premium").roles("PREMIUM"))
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.OK);
+        result.assertThat().body().isEmpty();
+    }
+
     @Test
     void stream_shouldReturn404_whenAudioNotFound() {
         // given
 
-        given(streamService.stream(eq(99L), any()))
+        given(streamService.stream(eq(99L), any(), any(), any()))
                 .willThrow(new AudioNotFoundException(99L));
 
         // when
@@ -186,16 +314,97 @@ class AudioControllerTest {
         // given
 
         AudioStreamResponse response = new AudioStreamResponse(
-                new ByteArrayResource("partial".getBytes()),
+                body("partial"),
                 new HttpHeaders(),
                 HttpStatus.PARTIAL_CONTENT,
                 "audio/mpeg"
 
         );
 
-        given(streamService.stream(eq(1L), eq("bytes=0-100")))
+        given(streamService.stream(eq(1L), eq("bytes=0-100"), any(), any()))
+                .willReturn(response);
+
+        // when
+        var result = mockMvc.get()
+                .uri("/api/audios/{id}/stream", 1L)
+                .header(HttpHeaders.RANGE, "bytes=0-100")
+                .with(user("premium").roles("PREMIUM"))
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.PARTIAL_CONTENT);
+    }
+
+    @Test
+    void stream_head_shouldReturnHeadersWithoutBody() {
+        // given
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentLength(4);
+        headers.setETag("\"abc-4\"");
+
+        AudioStreamResponse response = new AudioStreamResponse(
+                null,
+                headers,
+                HttpStatus.OK,
+                "audio/mpeg"
+        );
+
+        given(streamService.head(eq(1L), any(), any()))
+                .willReturn(response);
+
+        // when
+        var result = mockMvc.head()
+                .uri("/api/audios/{id}/stream", 1L)
+                .with(user("premium").roles("PREMIUM"))
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.OK);
+        result.assertThat().hasHeader(HttpHeaders.ETAG, "\"abc-4\"");
+        result.assertThat().body().isEmpty();
+        verify(sendfileSupport, never()).offer(any(), any());
+        verify(streamService, never()).stream(any(), any(), any(), any());
+    }
+
+    @Test
+    void stream_shouldReturn304_whenNotModified() {
+        // given
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"abc-4\"");
+
+        AudioStreamResponse response = new AudioStreamResponse(
+                null,
+                headers,
+                HttpStatus.NOT_MODIFIED,
+                "audio/mpeg"
+        );
+
+        given(streamService.stream(eq(1L), any(), argThat(conditions ->
+                "\"abc-4\"".equals(conditions.ifNoneMatch())), any()))
                 .willReturn(response);
 
+        // when
+        var result = mockMvc.get()
+                .uri("/api/audios/{id}/stream", 1L)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"abc-4\"")
+                .with(user("premium").roles("PREMIUM"))
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.NOT_MODIFIED);
+        result.assertThat().body().isEmpty();
+    }
+
+    @Test
+    void stream_accelMode_shouldRedirectToNginxWithoutStreaming() {
+        // given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Accel-Redirect", "/protected-audio/audio/a.mp3");
+
+        given(accelRedirectSupport.isEnabled()).willReturn(true);
+        given(accelRedirectSupport.redirectHeaders(eq(1L), any()))
+                .willReturn(headers);
+
         // when
         var result = mockMvc.get()
                 .uri("/api/audios/{id}/stream", 1L)
@@ -203,9 +412,67 @@ class AudioControllerTest {
                 .with(user("premium").roles("PREMIUM"))
                 .exchange();
 
+        // then
+        result.assertThat().hasStatus(HttpStatus.OK);
+        result.assertThat().hasHeader("X-Accel-Redirect", "/protected-audio/audio/a.mp3");
+        result.assertThat().body().isEmpty();
+        verify(streamService, never()).stream(any(), any(), any(), any());
+    }
+
+    @Test
+    void stream_withSeekTime_shouldResolveFrameAlignedRange() {
+        // given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes 156902-417109/417110");
+        headers.set(AudioStreamService.SEEK_POSITION_HEADER, "9.822");
+
+        AudioStreamResponse response = new AudioStreamResponse(
+                body("partial"),
+                headers,
+                HttpStatus.PARTIAL_CONTENT,
+                "audio/mpeg"
+        );
+
+        given(streamService.seek(eq(1L), eq(10.0), any(), any()))
+                .willReturn(response);
+
+        // when
+        var result = mockMvc.get()
+                .uri("/api/audios/{id}/stream", 1L)
+                .param("t", "10")
+                .header(HttpHeaders.RANGE, "bytes=0-100")
+                .with(user("premium").roles("PREMIUM"))
+                .exchange();
+
         // then
         result.assertThat().hasStatus(HttpStatus.PARTIAL_CONTENT);
+        result.assertThat().hasHeader(AudioStreamService.SEEK_POSITION_HEADER, "9.822");
+        verify(streamService, never()).stream(any(), any(), any(), any());
     }
 
+    @Test
+    void stream_accelMode_withSeekTime_shouldStreamFromBackend() {
+        // given
+        AudioStreamResponse response = new AudioStreamResponse(
+                body("partial"),
+                new HttpHeaders(),
+                HttpStatus.PARTIAL_CONTENT,
+                "audio/mpeg"
+        );
+
+        given(accelRedirectSupport.isEnabled()).willReturn(true);
+        given(streamService.seek(eq(1L), eq(30.0), any(), any()))
+                .willReturn(response);
 
+        // when
+        var result = mockMvc.get()
+                .uri("/api/audios/{id}/stream", 1L)
+                .param("t", "30")
+                .with(user("premium").roles("PREMIUM"))
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.PARTIAL_CONTENT);
+        verify(accelRedirectSupport, never()).redirectHeaders(any(), any());
+    }
 }
@@ -0,0 +1,102 @@
+package dev.hazoe.audiostreaming.audio.controller;
+
+import dev.hazoe.audiostreaming.audio.dto.AudioStreamResponse;
+import dev.hazoe.audiostreaming.audio.service.HlsService;
+import dev.hazoe.audiostreaming.audio.streaming.StreamBody;
+import dev.hazoe.audiostreaming.auth.security.JwtAuthenticationFilter;
+import dev.hazoe.audiostreaming.common.exception.HlsSegmentNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+import static org.mockito.BDDMockito.given;
+
+@WebMvcTest(HlsController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class HlsControllerTest {
+
+    @MockitoBean
+    JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @MockitoBean
+    private HlsService hlsService;
+
+    @Autowired
+    private MockMvcTester mockMvc;
+
+    @Test
+    void playlist_shouldReturnM3u8() {
+        // given
+        given(hlsService.playlist(1L))
+                .willReturn("#EXTM3U\n#EXT-X-ENDLIST\n");
+
+        // when
+        var result = mockMvc.get()
+                .uri("/api/audios/{id}/hls/playlist.m3u8", 1L)
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.OK);
+        result.assertThat().hasHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        result.assertThat().hasContentTypeCompatibleWith("application/vnd.apple.mpegurl");
+        result.assertThat().hasBodyTextEqualTo("#EXTM3U\n#EXT-X-ENDLIST\n");
+    }
+
+    @Test
+    void segment_shouldReturnImmutableSegment() {
+        // given
+        byte[] bytes = "segment".getBytes();
+        StreamBody body = new StreamBody() {
+            @Override
+            public long contentLength() {
+                return bytes.length;
+            }
+
+            @Override
+            public ReadableByteChannel open() {
+                return Channels.newChannel(new ByteArrayInputStream(bytes));
+            }
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("public, max-age=31536000, immutable");
+
+        given(hlsService.segment(1L, "0123456789abcdef", 2))
+                .willReturn(new AudioStreamResponse(body, headers, HttpStatus.OK, "audio/mpeg"));
+
+        // when
+        var result = mockMvc.get()
+                .uri("/api/audios/{id}/hls/{version}/{index}.mp3", 1L, "0123456789abcdef", 2)
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.OK);
+        result.assertThat().hasHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        result.assertThat().hasBodyTextEqualTo("segment");
+    }
+
+    @Test
+    void segment_shouldReturn404_whenVersionIsStale() {
+        // given
+        given(hlsService.segment(1L, "0000000000000000", 0))
+                .willThrow(new HlsSegmentNotFoundException(1L, "0000000000000000", 0));
+
+        // when
+        var result = mockMvc.get()
+                .uri("/api/audios/{id}/hls/{version}/{index}.mp3", 1L, "0000000000000000", 0)
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.NOT_FOUND);
+        result.assertThat().bodyJson().extractingPath("$.error").isEqualTo("SEGMENT_NOT_FOUND");
+    }
+}
@@ -0,0 +1,82 @@
+package dev.hazoe.audiostreaming.audio.controller;
+
+import dev.hazoe.audiostreaming.audio.dto.ImportReport;
+import dev.hazoe.audiostreaming.audio.ingest.CatalogImportService;
+import dev.hazoe.audiostreaming.auth.security.JwtAuthenticationFilter;
+import dev.hazoe.audiostreaming.common.exception.ImportNotFoundException;
+import dev.hazoe.audiostreaming.common.security.UserPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@WebMvcTest(ImportController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ImportControllerTest {
+
+    @MockitoBean
+    JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @MockitoBean
+    private CatalogImportService importService;
+
+    @Autowired
+    private MockMvcTester mockMvc;
+
+    @Test
+    void start_shouldAcceptManifest_andPointToReport() {
+        // given
+        UUID id = UUID.randomUUID();
+        UserPrincipal principal = new UserPrincipal(1L, "ADMIN");
+        given(importService.start(any(InputStream.class), eq("text/csv"), eq(1L)))
+                .willReturn(new ImportReport(id, "QUEUED", 0, 0, 0, 0, 0, null, null, null, List.of()));
+
+        // when
+        var result = mockMvc.post()
+                .uri("/api/admin/imports")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .content("audio_path,title\na/1.mp3,Calm\n")
+                .with(request -> {
+                    request.setUserPrincipal(
+                            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities())
+                    );
+                    return request;
+                })
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.ACCEPTED);
+        result.assertThat().hasHeader(HttpHeaders.LOCATION, "/api/admin/imports/" + id);
+        result.assertThat().bodyJson().extractingPath("$.phase").isEqualTo("QUEUED");
+    }
+
+    @Test
+    void status_shouldReturn404_whenUnknown() {
+        // given
+        UUID id = UUID.randomUUID();
+        given(importService.status(id)).willThrow(new ImportNotFoundException(id));
+
+        // when
+        var result = mockMvc.get()
+                .uri("/api/admin/imports/{id}", id)
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.NOT_FOUND);
+        result.assertThat().bodyJson().extractingPath("$.error").isEqualTo("IMPORT_NOT_FOUND");
+    }
+}
@@ -0,0 +1,62 @@
+package dev.hazoe.audiostreaming.audio.controller;
+
+import dev.hazoe.audiostreaming.audio.dto.ReconciliationReport;
+import dev.hazoe.audiostreaming.audio.service.StorageReconciliationService;
+import dev.hazoe.audiostreaming.auth.security.JwtAuthenticationFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.BDDMockito.given;
+
+@WebMvcTest(ReconciliationController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ReconciliationControllerTest {
+
+    @MockitoBean
+    JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @MockitoBean
+    private StorageReconciliationService reconciliationService;
+
+    @Autowired
+    private MockMvcTester mockMvc;
+
+    @Test
+    void start_shouldQueueRun_withVerifyFlag() {
+        // given
+        given(reconciliationService.start(true)).willReturn(
+                new ReconciliationReport(true, "QUEUED", 0, 0, 0, 0, 0, 0, 0, null, null, null, List.of()));
+
+        // when
+        var result = mockMvc.post()
+                .uri("/api/admin/storage/reconciliation?verify=true")
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.ACCEPTED);
+        result.assertThat().bodyJson().extractingPath("$.phase").isEqualTo("QUEUED");
+        result.assertThat().bodyJson().extractingPath("$.verify").isEqualTo(true);
+    }
+
+    @Test
+    void status_shouldReturn404_beforeFirstRun() {
+        // given
+        given(reconciliationService.latest()).willReturn(Optional.empty());
+
+        // when
+        var result = mockMvc.get()
+                .uri("/api/admin/storage/reconciliation")
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.NOT_FOUND);
+    }
+}
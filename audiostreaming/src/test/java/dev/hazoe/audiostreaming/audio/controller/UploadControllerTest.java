@@ -0,0 +1,149 @@
+package dev.hazoe.audiostreaming.audio.controller;
+
+import dev.hazoe.audiostreaming.audio.domain.UploadSession;
+import dev.hazoe.audiostreaming.audio.ingest.AudioUpload;
+import dev.hazoe.audiostreaming.audio.ingest.ResumableUploadService;
+import dev.hazoe.audiostreaming.auth.security.JwtAuthenticationFilter;
+import dev.hazoe.audiostreaming.common.exception.UploadLimitExceededException;
+import dev.hazoe.audiostreaming.common.exception.UploadOffsetMismatchException;
+import dev.hazoe.audiostreaming.common.security.UserPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@WebMvcTest(UploadController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class UploadControllerTest {
+
+    @MockitoBean
+    JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @MockitoBean
+    private ResumableUploadService uploadService;
+
+    @Autowired
+    private MockMvcTester mockMvc;
+
+    private static MockHttpServletRequest asAdmin(MockHttpServletRequest request) {
+        UserPrincipal principal = new UserPrincipal(7L, "ADMIN");
+        request.setUserPrincipal(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities())
+        );
+        return request;
+    }
+
+    @Test
+    void create_shouldReturnSessionLocation() {
+        // given
+        UploadSession session = new UploadSession(7L, "Morning Calm", null, false, 5000);
+        given(uploadService.create(new AudioUpload("Morning Calm", null, false), 5000, 7L))
+                .willReturn(session);
+
+        // when
+        var result = mockMvc.post()
+                .uri("/api/uploads")
+                .param("title", "Morning Calm")
+                .header(ResumableUploadService.UPLOAD_LENGTH_HEADER, "5000")
+                .with(UploadControllerTest::asAdmin)
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.CREATED);
+        result.assertThat().hasHeader(HttpHeaders.LOCATION, "/api/uploads/" + session.getId());
+        result.assertThat().hasHeader(ResumableUploadService.UPLOAD_OFFSET_HEADER, "0");
+    }
+
+    @Test
+    void create_shouldReturn429_whenOwnerHasTooManySessions() {
+        // given
+        given(uploadService.create(any(), eq(5000L), eq(7L)))
+                .willThrow(new UploadLimitExceededException(3));
+
+        // when
+        var result = mockMvc.post()
+                .uri("/api/uploads")
+                .param("title", "Morning Calm")
+                .header(ResumableUploadService.UPLOAD_LENGTH_HEADER, "5000")
+                .with(UploadControllerTest::asAdmin)
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.TOO_MANY_REQUESTS);
+        result.assertThat().bodyJson().extractingPath("$.error").isEqualTo("UPLOAD_LIMIT_EXCEEDED");
+    }
+
+    @Test
+    void head_shouldReportOffset() {
+        // given
+        UploadSession session = new UploadSession(7L, "Morning Calm", null, false, 5000);
+        session.setOffset(1200);
+        given(uploadService.get(session.getId(), 7L)).willReturn(session);
+
+        // when
+        var result = mockMvc.head()
+                .uri("/api/uploads/{id}", session.getId())
+                .with(UploadControllerTest::asAdmin)
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.OK);
+        result.assertThat().hasHeader(ResumableUploadService.UPLOAD_OFFSET_HEADER, "1200");
+        result.assertThat().hasHeader(ResumableUploadService.UPLOAD_LENGTH_HEADER, "5000");
+        result.assertThat().hasHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+    }
+
+    @Test
+    void patch_shouldReturnNewOffset() {
+        // given
+        UploadSession session = new UploadSession(7L, "Morning Calm", null, false, 5000);
+        given(uploadService.append(eq(session.getId()), eq(7L), eq(1200L), any()))
+                .willReturn(1203L);
+
+        // when
+        var result = mockMvc.patch()
+                .uri("/api/uploads/{id}", session.getId())
+                .header(ResumableUploadService.UPLOAD_OFFSET_HEADER, "1200")
+                .contentType(MediaType.parseMediaType(UploadController.CHUNK_CONTENT_TYPE))
+                .content(new byte[]{1, 2, 3})
+                .with(UploadControllerTest::asAdmin)
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.NO_CONTENT);
+        result.assertThat().hasHeader(ResumableUploadService.UPLOAD_OFFSET_HEADER, "1203");
+    }
+
+    @Test
+    void patch_shouldReturn409WithCurrentOffset_whenOffsetIsStale() {
+        // given
+        UploadSession session = new UploadSession(7L, "Morning Calm", null, false, 5000);
+        given(uploadService.append(eq(session.getId()), eq(7L), eq(0L), any()))
+                .willThrow(new UploadOffsetMismatchException(1200, 0));
+
+        // when
+        var result = mockMvc.patch()
+                .uri("/api/uploads/{id}", session.getId())
+                .header(ResumableUploadService.UPLOAD_OFFSET_HEADER, "0")
+                .contentType(MediaType.parseMediaType(UploadController.CHUNK_CONTENT_TYPE))
+                .content(new byte[]{1, 2, 3})
+                .with(UploadControllerTest::asAdmin)
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.CONFLICT);
+        result.assertThat().hasHeader(ResumableUploadService.UPLOAD_OFFSET_HEADER, "1200");
+        result.assertThat().bodyJson().extractingPath("$.error").isEqualTo("UPLOAD_OFFSET_MISMATCH");
+    }
+}
@@ -0,0 +1,86 @@
+package dev.hazoe.audiostreaming.audio.controller;
+
+import dev.hazoe.audiostreaming.audio.dto.WaveformResponse;
+import dev.hazoe.audiostreaming.audio.service.WaveformService;
+import dev.hazoe.audiostreaming.auth.security.JwtAuthenticationFilter;
+import dev.hazoe.audiostreaming.common.exception.WaveformNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+
+import java.time.Instant;
+
+import static org.mockito.BDDMockito.given;
+
+@WebMvcTest(WaveformController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class WaveformControllerTest {
+
+    private static final WaveformResponse WAVEFORM = new WaveformResponse(
+            new byte[]{1, 0, 0, 0}, "\"abc-4\"", Instant.parse("2026-01-01T00:00:00Z"));
+
+    @MockitoBean
+    JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @MockitoBean
+    private WaveformService waveformService;
+
+    @Autowired
+    private MockMvcTester mockMvc;
+
+    @Test
+    void waveform_shouldReturnPeaks_withCacheHeaders() {
+        // given
+        given(waveformService.peaks(1L)).willReturn(WAVEFORM);
+
+        // when
+        var result = mockMvc.get()
+                .uri("/api/audios/1/waveform")
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.OK);
+        result.assertThat().hasContentType("application/octet-stream");
+        result.assertThat().hasHeader(HttpHeaders.ETAG, "\"abc-4\"");
+        result.assertThat().hasHeader(HttpHeaders.CACHE_CONTROL, "max-age=86400, public");
+        result.assertThat().body().isEqualTo(new byte[]{1, 0, 0, 0});
+    }
+
+    @Test
+    void waveform_shouldReturn304_whenETagMatches() {
+        // given
+        given(waveformService.peaks(1L)).willReturn(WAVEFORM);
+
+        // when
+        var result = mockMvc.get()
+                .uri("/api/audios/1/waveform")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"abc-4\"")
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.NOT_MODIFIED);
+        result.assertThat().hasHeader(HttpHeaders.ETAG, "\"abc-4\"");
+        result.assertThat().body().isEmpty();
+    }
+
+    @Test
+    void waveform_shouldReturn404_whenNotComputedYet() {
+        // given
+        given(waveformService.peaks(1L))
+                .willThrow(new WaveformNotFoundException(1L, "is not computed yet"));
+
+        // when
+        var result = mockMvc.get()
+                .uri("/api/audios/1/waveform")
+                .exchange();
+
+        // then
+        result.assertThat().hasStatus(HttpStatus.NOT_FOUND);
+        result.assertThat().bodyJson().extractingPath("$.error").isEqualTo("WAVEFORM_NOT_FOUND");
+    }
+}
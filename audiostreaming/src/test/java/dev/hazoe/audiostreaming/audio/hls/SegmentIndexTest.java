@@ -0,0 +1,90 @@
+package dev.hazoe.audiostreaming.audio.hls;
+
+import dev.hazoe.audiostreaming.audio.mp3.Mp3FrameScanner;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3TestFiles;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentIndexTest {
+
+    private static SegmentIndex index(byte[] data, long targetMicros) throws IOException {
+        SegmentIndex.Builder builder = SegmentIndex.builder(targetMicros);
+        Mp3FrameScanner.scan(Channels.newChannel(new ByteArrayInputStream(data)), data.length, builder);
+        return builder.build("v1");
+    }
+
+    @Test
+    void builder_shouldCutAtFrameBoundariesAfterTargetDuration() throws IOException {
+        // given: 1000 frames of 26.122 ms = 26.12 s
+        byte[] data = Mp3TestFiles.frames(1000);
+
+        // when
+        SegmentIndex index = index(data, 6_000_000);
+
+        // then: 230 frames (6.008 s) per segment, the rest in the last one
+        assertThat(index.size()).isEqualTo(5);
+        assertThat(index.segment(0).offset()).isZero();
+        assertThat(index.segment(0).length()).isEqualTo(230 * Mp3TestFiles.FRAME_LENGTH);
+        assertThat(index.segment(1).offset()).isEqualTo(230L * Mp3TestFiles.FRAME_LENGTH);
+        assertThat(index.segment(4).length()).isEqualTo(80 * Mp3TestFiles.FRAME_LENGTH);
+
+        long total = index.segments().stream().mapToLong(SegmentIndex.Segment::durationMicros).sum();
+        assertThat(total).isEqualTo(1000L * 1152 * 1_000_000 / 44100);
+        assertThat(index.segment(4).startMicros() + index.segment(4).durationMicros()).isEqualTo(total);
+    }
+
+    @Test
+    void builder_shouldSkipInfoFrame() throws IOException {
+        // given
+        byte[] data = Mp3TestFiles.builder().id3v2(100).xing("Xing", 10).frames(10).build();
+
+        // when
+        SegmentIndex index = index(data, 6_000_000);
+
+        // then
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.segment(0).offset()).isEqualTo(110L + Mp3TestFiles.FRAME_LENGTH);
+        assertThat(index.segment(0).length()).isEqualTo(10 * Mp3TestFiles.FRAME_LENGTH);
+    }
+
+    @Test
+    void encode_shouldRoundTrip() throws IOException {
+        // given
+        SegmentIndex index = index(Mp3TestFiles.frames(700), 2_000_000);
+
+        // when
+        byte[] data = index.encode();
+        SegmentIndex decoded = SegmentIndex.decode("v1", data);
+
+        // then
+        assertThat(data).hasSize(index.size() * 16);
+        assertThat(decoded).isEqualTo(index);
+    }
+
+    @Test
+    void decode_shouldRejectTruncatedData() {
+        assertThatThrownBy(() -> SegmentIndex.decode("v1", new byte[20]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void timestampTag_shouldCarry90kHzTimestamp() {
+        // when
+        byte[] tag = Id3TimestampTag.of(6_000_000);
+
+        // then
+        assertThat(tag).hasSize(73);
+        assertThat(new String(tag, 0, 3)).isEqualTo("ID3");
+        assertThat(new String(tag, 10, 4)).isEqualTo("PRIV");
+        assertThat(new String(tag, 20, Id3TimestampTag.OWNER.length())).isEqualTo(Id3TimestampTag.OWNER);
+
+        long pts = java.nio.ByteBuffer.wrap(tag, 65, 8).getLong();
+        assertThat(pts).isEqualTo(540_000);
+    }
+}
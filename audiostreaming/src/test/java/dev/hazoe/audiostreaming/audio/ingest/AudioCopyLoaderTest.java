@@ -0,0 +1,47 @@
+package dev.hazoe.audiostreaming.audio.ingest;
+
+import dev.hazoe.audiostreaming.audio.mp3.Mp3SeekIndex;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AudioCopyLoaderTest {
+
+    @Test
+    void writeRow_quotesTextAndLeavesNullsEmpty() throws Exception {
+        // given
+        ImportEntry entry = new ImportEntry(
+                3, "a/1.mp3", "Calm, \"Deep\"", null, 600, null, "audio/mpeg", null, true, 7L, null, null);
+        StringWriter out = new StringWriter();
+
+        // when
+        AudioCopyLoader.writeRow(out, entry);
+
+        // then
+        assertThat(out.toString())
+                .isEqualTo("\"a/1.mp3\",\"Calm, \"\"Deep\"\"\",,600,\"audio/mpeg\",,true,7,,,,,,\n");
+    }
+
+    @Test
+    void writeRow_writesFileStateAndSeekIndex() throws Exception {
+        // given
+        StorageObject file = new StorageObject("a/1.mp3", 1000, Instant.parse("2015-10-21T07:28:00Z"), "\"v1\"");
+        Mp3SeekIndex index = Mp3SeekIndex.builder(8).build();
+        ImportEntry entry = new ImportEntry(
+                3, "a/1.mp3", "Calm", null, 600, null, "audio/mpeg", null, false, 7L, file, index);
+        StringWriter out = new StringWriter();
+
+        // when
+        AudioCopyLoader.writeRow(out, entry);
+
+        // then
+        assertThat(out.toString()).isEqualTo(
+                "\"a/1.mp3\",\"Calm\",,600,\"audio/mpeg\",,false,7,1000,2015-10-21T07:28:00Z,\"\"\"v1\"\"\","
+                        + "8,0,\\x" + HexFormat.of().formatHex(index.encode()) + "\n");
+    }
+}
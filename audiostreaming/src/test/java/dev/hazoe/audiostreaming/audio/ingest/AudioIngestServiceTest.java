@@ -0,0 +1,151 @@
+package dev.hazoe.audiostreaming.audio.ingest;
+
+import dev.hazoe.audiostreaming.audio.domain.Audio;
+import dev.hazoe.audiostreaming.audio.dto.AudioUploadResponse;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3SeekIndex;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3TestFiles;
+import dev.hazoe.audiostreaming.audio.repository.AudioRepository;
+import dev.hazoe.audiostreaming.audio.service.SeekIndexService;
+import dev.hazoe.audiostreaming.audio.service.WaveformService;
+import dev.hazoe.audiostreaming.audio.storage.LocalAudioStorage;
+import dev.hazoe.audiostreaming.common.exception.UnsupportedAudioException;
+import dev.hazoe.audiostreaming.common.exception.UploadTooLargeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class AudioIngestServiceTest {
+
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path staging;
+
+    private final AudioRepository audioRepository = mock(AudioRepository.class);
+    private final SeekIndexService seekIndexService = mock(SeekIndexService.class);
+    private final WaveformService waveformService = mock(WaveformService.class);
+
+    private AudioIngestService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        given(seekIndexService.framesPerEntry()).willReturn(8);
+        given(audioRepository.save(any(Audio.class))).willAnswer(invocation -> {
+            Audio audio = invocation.getArgument(0);
+            audio.setId(42L);
+            return audio;
+        });
+        // small buffers, so the reader and the scanner take turns many times
+        service = new AudioIngestService(
+                new LocalAudioStorage(root), audioRepository, seekIndexService, waveformService,
+                staging.toString(), 1_000_000, 4096, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void ingest_storesFileAndCreatesRowWithScannedMetadata() throws Exception {
+        // given
+        byte[] mp3 = Mp3TestFiles.builder().id3v2(100).frames(1000).build();
+
+        // when
+        AudioUploadResponse response = service.ingest(
+                new ByteArrayInputStream(mp3), new AudioUpload("Morning Calm", "Breathing", true), 7L);
+
+        // then
+        assertThat(response.id()).isEqualTo(42L);
+        assertThat(response.sizeBytes()).isEqualTo(mp3.length);
+        assertThat(response.sha256())
+                .isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(mp3)));
+        // 1000 frames × 1152 samples / 44.1 kHz
+        assertThat(response.durationSeconds()).isEqualTo(26);
+
+        ArgumentCaptor<Audio> saved = ArgumentCaptor.forClass(Audio.class);
+        verify(audioRepository).save(saved.capture());
+        Audio audio = saved.getValue();
+        assertThat(audio.getTitle()).isEqualTo("Morning Calm");
+        assertThat(audio.getOwnerId()).isEqualTo(7L);
+        assertThat(audio.getContentType()).isEqualTo("audio/mpeg");
+        assertThat(Files.readAllBytes(root.resolve(audio.getAudioPath()))).isEqualTo(mp3);
+        assertThat(audio.getFileSize()).isEqualTo(mp3.length);
+        assertThat(audio.getContentSha256()).isEqualTo(response.sha256());
+        assertThat(audio.getFileVersion()).isNotNull();
+
+        ArgumentCaptor<Mp3SeekIndex> index = ArgumentCaptor.forClass(Mp3SeekIndex.class);
+        verify(seekIndexService).save(eq(42L), any(), index.capture());
+        assertThat(index.getValue().frameCount()).isEqualTo(1000);
+        verify(waveformService).schedule(42L);
+
+        assertThat(staging).isEmptyDirectory();
+    }
+
+    @Test
+    void ingest_movesCompletedFileIntoStorage() throws Exception {
+        // given
+        byte[] mp3 = Mp3TestFiles.frames(500);
+        Path file = Files.write(staging.resolve("session.part"), mp3);
+
+        // when
+        AudioUploadResponse response = service.ingest(file, new AudioUpload("Evening", null, false), 7L);
+
+        // then
+        assertThat(response.sizeBytes()).isEqualTo(mp3.length);
+        assertThat(response.durationSeconds()).isEqualTo(13);
+        assertThat(file).doesNotExist();
+        ArgumentCaptor<Audio> saved = ArgumentCaptor.forClass(Audio.class);
+        verify(audioRepository).save(saved.capture());
+        assertThat(Files.readAllBytes(root.resolve(saved.getValue().getAudioPath()))).isEqualTo(mp3);
+    }
+
+    @Test
+    void ingest_rejectsBodyWithoutMpegFrames() {
+        // given
+        byte[] text = "not an mp3 at all".repeat(1000).getBytes(StandardCharsets.US_ASCII);
+
+        // when / then
+        assertThatThrownBy(() -> service.ingest(
+                new ByteArrayInputStream(text), new AudioUpload("Text", null, false), 7L))
+                .isInstanceOf(UnsupportedAudioException.class);
+
+        verify(audioRepository, never()).save(any());
+        assertThat(root).isEmptyDirectory();
+        assertThat(staging).isEmptyDirectory();
+    }
+
+    @Test
+    void ingest_rejectsBodyOverTheLimit() {
+        // given
+        byte[] mp3 = Mp3TestFiles.frames(3000);
+
+        // when / then
+        assertThatThrownBy(() -> service.ingest(
+                new ByteArrayInputStream(mp3), new AudioUpload("Long", null, false), 7L))
+                .isInstanceOf(UploadTooLargeException.class);
+
+        verify(audioRepository, never()).save(any());
+        assertThat(root).isEmptyDirectory();
+        assertThat(staging).isEmptyDirectory();
+    }
+}
@@ -0,0 +1,127 @@
+package dev.hazoe.audiostreaming.audio.ingest;
+
+import dev.hazoe.audiostreaming.audio.dto.ImportReport;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3TestFiles;
+import dev.hazoe.audiostreaming.audio.repository.AudioSeekIndexRepository;
+import dev.hazoe.audiostreaming.audio.service.SeekIndexService;
+import dev.hazoe.audiostreaming.audio.storage.LocalAudioStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class CatalogImportServiceTest {
+
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path staging;
+
+    private final AudioCopyLoader loader = mock(AudioCopyLoader.class);
+    private final List<ImportEntry> loaded = new ArrayList<>();
+
+    private CatalogImportService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        given(loader.load(any(), any())).willAnswer(invocation -> {
+            Iterator<ImportEntry> rows = invocation.getArgument(0);
+            rows.forEachRemaining(loaded::add);
+            invocation.<Runnable>getArgument(1).run();
+            return new AudioCopyLoader.Result(loaded.size(), 0, true);
+        });
+        LocalAudioStorage storage = new LocalAudioStorage(root);
+        service = new CatalogImportService(
+                storage, new SeekIndexService(storage, mock(AudioSeekIndexRepository.class), 8, 100),
+                loader, JsonMapper.builder().build(),
+                staging.toString(), 4, true, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void import_loadsVerifiedEntries_andReportsRejectedLines() throws Exception {
+        // given
+        Files.createDirectories(root.resolve("audio"));
+        for (int i = 0; i < 20; i++) {
+            Files.write(root.resolve("audio/" + i + ".mp3"), Mp3TestFiles.frames(500));
+        }
+        Files.writeString(root.resolve("audio/text.mp3"), "not audio");
+        StringBuilder manifest = new StringBuilder("audio_path,title,duration_seconds,owner_id\n");
+        for (int i = 0; i < 20; i++) {
+            manifest.append("audio/").append(i).append(".mp3,Track ").append(i).append(",,\n");
+        }
+        manifest.append("audio/missing.mp3,Missing,,\n");   // line 22
+        manifest.append("audio/text.mp3,Text,,\n");         // line 23
+        manifest.append("audio/0.mp3,Wrong length,300,\n"); // line 24
+        manifest.append("audio/1.mp3,Other owner,13,9\n");  // line 25
+
+        // when
+        ImportReport started = service.start(
+                new ByteArrayInputStream(manifest.toString().getBytes(StandardCharsets.UTF_8)), "text/csv", 7L);
+        ImportReport report = awaitFinished(started);
+
+        // then
+        assertThat(report.phase()).isEqualTo("COMPLETED");
+        assertThat(report.read()).isEqualTo(24);
+        assertThat(report.verified()).isEqualTo(21);
+        assertThat(report.rejected()).isEqualTo(3);
+        assertThat(report.inserted()).isEqualTo(21);
+        assertThat(report.rejections()).extracting(ImportReport.Rejection::line)
+                .containsExactlyInAnyOrder(22L, 23L, 24L);
+
+        // 500 frames × 1152 samples / 44.1 kHz
+        assertThat(loaded).allSatisfy(entry -> {
+            assertThat(entry.durationSeconds()).isEqualTo(13);
+            // kept for the row's file state and seek index
+            assertThat(entry.file().size()).isEqualTo(Files.size(root.resolve(entry.audioPath())));
+            assertThat(entry.seekIndex().frameCount()).isEqualTo(500);
+        });
+        assertThat(loaded).filteredOn(entry -> entry.ownerId() == 9L)
+                .extracting(ImportEntry::title).containsExactly("Other owner");
+        assertThat(staging).isEmptyDirectory();
+    }
+
+    @Test
+    void import_fails_whenManifestCannotBeLoaded() throws Exception {
+        // given
+        given(loader.load(any(), any())).willThrow(new java.sql.SQLException("connection refused"));
+
+        // when
+        ImportReport report = awaitFinished(service.start(
+                new ByteArrayInputStream("{\"audio_path\": \"a.mp3\", \"title\": \"A\"}\n".getBytes()),
+                "application/x-ndjson", 7L));
+
+        // then
+        assertThat(report.phase()).isEqualTo("FAILED");
+        assertThat(report.error()).contains("connection refused");
+    }
+
+    private ImportReport awaitFinished(ImportReport started) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        ImportReport report = service.status(started.id());
+        while (report.finishedAt() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            report = service.status(started.id());
+        }
+        return report;
+    }
+}
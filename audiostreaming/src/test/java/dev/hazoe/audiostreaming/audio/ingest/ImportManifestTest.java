@@ -0,0 +1,84 @@
+package dev.hazoe.audiostreaming.audio.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImportManifestTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void csv_readsQuotedFieldsAcrossLines() throws Exception {
+        // given
+        Path file = Files.writeString(dir.resolve("manifest.csv"), """
+                audio_path,title,description,is_premium\r
+                a/1.mp3,"Calm, Deep","Line one
+                line ""two""\",true\r
+                a/2.mp3,Focus,,false
+                """);
+
+        // when
+        try (ImportManifest manifest = new ImportManifest(file, ImportManifest.Format.CSV, JsonMapper.builder().build())) {
+            Map<String, Object> first = manifest.next();
+            long firstLine = manifest.line();
+            Map<String, Object> second = manifest.next();
+            long secondLine = manifest.line();
+
+            // then
+            assertThat(first).containsEntry("title", "Calm, Deep")
+                    .containsEntry("description", "Line one\nline \"two\"")
+                    .containsEntry("is_premium", "true");
+            assertThat(firstLine).isEqualTo(2);
+            assertThat(second).containsEntry("audio_path", "a/2.mp3").containsEntry("description", "");
+            assertThat(secondLine).isEqualTo(4);
+            assertThat(manifest.next()).isNull();
+        }
+    }
+
+    @Test
+    void csv_rejectsRecordWithWrongFieldCount_andContinues() throws Exception {
+        // given
+        Path file = Files.writeString(dir.resolve("manifest.csv"), """
+                audio_path,title
+                a/1.mp3
+                a/2.mp3,Focus
+                """);
+
+        // when / then
+        try (ImportManifest manifest = new ImportManifest(file, ImportManifest.Format.CSV, JsonMapper.builder().build())) {
+            assertThatThrownBy(manifest::next).isInstanceOf(IllegalArgumentException.class);
+            assertThat(manifest.line()).isEqualTo(2);
+            assertThat(manifest.next()).containsEntry("title", "Focus");
+        }
+    }
+
+    @Test
+    void jsonl_readsOneObjectPerLine_skippingBlankLines() throws Exception {
+        // given
+        Path file = Files.writeString(dir.resolve("manifest.jsonl"), """
+                {"audio_path": "a/1.mp3", "title": "Calm", "duration_seconds": 600, "is_premium": true}
+
+                {"audio_path": "a/2.mp3", "title": "Focus"
+                {"audio_path": "a/3.mp3", "title": "Sleep"}
+                """);
+
+        // when / then
+        try (ImportManifest manifest = new ImportManifest(file, ImportManifest.Format.JSONL, JsonMapper.builder().build())) {
+            assertThat(manifest.next()).containsEntry("duration_seconds", 600).containsEntry("is_premium", true);
+            assertThatThrownBy(manifest::next).isInstanceOf(IllegalArgumentException.class);
+            assertThat(manifest.line()).isEqualTo(3);
+            assertThat(manifest.next()).containsEntry("title", "Sleep");
+            assertThat(manifest.line()).isEqualTo(4);
+            assertThat(manifest.next()).isNull();
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package dev.hazoe.audiostreaming.audio.ingest;
+
+import dev.hazoe.audiostreaming.audio.domain.UploadSession;
+import dev.hazoe.audiostreaming.audio.dto.AudioUploadResponse;
+import dev.hazoe.audiostreaming.audio.repository.UploadSessionRepository;
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import dev.hazoe.audiostreaming.common.exception.UnsupportedAudioException;
+import dev.hazoe.audiostreaming.common.exception.UploadIncompleteException;
+import dev.hazoe.audiostreaming.common.exception.UploadLimitExceededException;
+import dev.hazoe.audiostreaming.common.exception.UploadNotFoundException;
+import dev.hazoe.audiostreaming.common.exception.UploadOffsetMismatchException;
+import dev.hazoe.audiostreaming.common.exception.UploadTooLargeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ResumableUploadServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final Map<UUID, UploadSession> rows = new HashMap<>();
+    private final UploadSessionRepository sessionRepository = mock(UploadSessionRepository.class);
+    private final AudioIngestService ingestService = mock(AudioIngestService.class);
+
+    private ResumableUploadService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        given(sessionRepository.save(any(UploadSession.class))).willAnswer(invocation -> {
+            UploadSession session = invocation.getArgument(0);
+            rows.put(session.getId(), session);
+            return session;
+        });
+        given(sessionRepository.findById(any(UUID.class)))
+                .willAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<UUID>getArgument(0))));
+        given(sessionRepository.countByOwnerId(any())).willAnswer(invocation -> rows.values().stream()
+                .filter(session -> session.getOwnerId().equals(invocation.getArgument(0)))
+                .count());
+        given(sessionRepository.findByUpdatedAtBefore(any(Instant.class))).willAnswer(invocation -> {
+            Instant cutoff = invocation.getArgument(0);
+            return rows.values().stream().filter(session -> session.getUpdatedAt().isBefore(cutoff)).toList();
+        });
+        willAnswer(invocation -> rows.remove(invocation.<UploadSession>getArgument(0).getId()))
+                .given(sessionRepository).delete(any(UploadSession.class));
+
+        // two sessions per owner, checkpoint every 1000 bytes
+        service = new ResumableUploadService(
+                sessionRepository, ingestService, directory.toString(), 100_000, 2, 256, 1000, 24);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void create_preallocatesFileOfAnnouncedLength() throws Exception {
+        // when
+        UploadSession session = service.create(new AudioUpload("Morning Calm", null, false), 5000, 7L);
+
+        // then
+        assertThat(session.getOffset()).isZero();
+        assertThat(Files.size(service.fileOf(session.getId()))).isEqualTo(5000);
+        assertThat(rows).containsKey(session.getId());
+    }
+
+    @Test
+    void create_rejectsLengthOverTheLimit() {
+        assertThatThrownBy(() -> service.create(new AudioUpload("Long", null, false), 100_001, 7L))
+                .isInstanceOf(UploadTooLargeException.class);
+        assertThatThrownBy(() -> service.create(new AudioUpload("Empty", null, false), 0, 7L))
+                .isInstanceOf(UnsupportedAudioException.class);
+    }
+
+    @Test
+    void create_rejectsSessionsOverThePerOwnerLimit() {
+        // given
+        service.create(new AudioUpload("One", null, false), 5000, 7L);
+        UploadSession second = service.create(new AudioUpload("Two", null, false), 5000, 7L);
+
+        // when / then
+        assertThatThrownBy(() -> service.create(new AudioUpload("Three", null, false), 5000, 7L))
+                .isInstanceOf(UploadLimitExceededException.class);
+        assertThat(service.create(new AudioUpload("Other owner", null, false), 5000, 8L)).isNotNull();
+
+        service.cancel(second.getId(), 7L);
+        assertThat(service.create(new AudioUpload("Three", null, false), 5000, 7L)).isNotNull();
+    }
+
+    @Test
+    void append_writesChunksAtTheirOffsets() throws Exception {
+        // given
+        byte[] content = bytes(3000);
+        UploadSession session = service.create(new AudioUpload("Morning Calm", null, false), content.length, 7L);
+
+        // when
+        long first = service.append(session.getId(), 7L, 0, slice(content, 0, 1200));
+        long second = service.append(session.getId(), 7L, first, slice(content, 1200, 3000));
+
+        // then
+        assertThat(first).isEqualTo(1200);
+        assertThat(second).isEqualTo(3000);
+        assertThat(service.get(session.getId(), 7L).isComplete()).isTrue();
+        assertThat(Files.readAllBytes(service.fileOf(session.getId()))).isEqualTo(content);
+    }
+
+    @Test
+    void append_rejectsWrongOffset_andForeignSessions() {
+        // given
+        UploadSession session = service.create(new AudioUpload("Morning Calm", null, false), 3000, 7L);
+        service.append(session.getId(), 7L, 0, slice(bytes(3000), 0, 500));
+
+        // when / then
+        assertThatThrownBy(() -> service.append(session.getId(), 7L, 0, slice(bytes(3000), 0, 500)))
+                .isInstanceOfSatisfying(UploadOffsetMismatchException.class,
+                        e -> assertThat(e.getOffset()).isEqualTo(500));
+        assertThatThrownBy(() -> service.append(session.getId(), 8L, 500, slice(bytes(3000), 500, 1000)))
+                .isInstanceOf(UploadNotFoundException.class);
+    }
+
+    @Test
+    void append_keepsBytesReceivedBeforeTheConnectionDropped() throws Exception {
+        // given
+        byte[] content = bytes(3000);
+        UploadSession session = service.create(new AudioUpload("Morning Calm", null, false), content.length, 7L);
+        InputStream dropping = new InputStream() {
+            private final InputStream delegate = slice(content, 0, 1700);
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = delegate.read(b, off, len);
+                if (read < 0) {
+                    throw new IOException("Connection reset");
+                }
+                return read;
+            }
+        };
+
+        // when
+        assertThatThrownBy(() -> service.append(session.getId(), 7L, 0, dropping))
+                .isInstanceOf(AudioStorageException.class);
+
+        // then
+        assertThat(service.get(session.getId(), 7L).getOffset()).isEqualTo(1700);
+        long offset = service.append(session.getId(), 7L, 1700, slice(content, 1700, 3000));
+        assertThat(offset).isEqualTo(3000);
+        assertThat(Files.readAllBytes(service.fileOf(session.getId()))).isEqualTo(content);
+    }
+
+    @Test
+    void append_rejectsBytesPastTheAnnouncedLength() {
+        // given
+        UploadSession session = service.create(new AudioUpload("Morning Calm", null, false), 1000, 7L);
+
+        // when / then
+        assertThatThrownBy(() -> service.append(session.getId(), 7L, 0, slice(bytes(2000), 0, 2000)))
+                .isInstanceOf(UploadTooLargeException.class);
+        assertThat(service.get(session.getId(), 7L).getOffset()).isLessThanOrEqualTo(1000);
+    }
+
+    @Test
+    void complete_handsFileToIngest_andEndsSession() {
+        // given
+        UploadSession session = service.create(new AudioUpload("Morning Calm", "Breathing", true), 1000, 7L);
+        service.append(session.getId(), 7L, 0, slice(bytes(1000), 0, 1000));
+        AudioUploadResponse created = new AudioUploadResponse(42L, "Morning Calm", 26, "audio/mpeg", 1000, "ab12");
+        given(ingestService.ingest(eq(service.fileOf(session.getId())),
+                eq(new AudioUpload("Morning Calm", "Breathing", true)), eq(7L)))
+                .willReturn(created);
+
+        // when
+        AudioUploadResponse response = service.complete(session.getId(), 7L);
+
+        // then
+        assertThat(response).isEqualTo(created);
+        assertThat(rows).isEmpty();
+        assertThat(service.fileOf(session.getId())).doesNotExist();
+    }
+
+    @Test
+    void complete_rejectsIncompleteUpload() {
+        // given
+        UploadSession session = service.create(new AudioUpload("Morning Calm", null, false), 1000, 7L);
+        service.append(session.getId(), 7L, 0, slice(bytes(1000), 0, 400));
+
+        // when / then
+        assertThatThrownBy(() -> service.complete(session.getId(), 7L))
+                .isInstanceOf(UploadIncompleteException.class);
+        verify(ingestService, never()).ingest(any(Path.class), any(), any());
+    }
+
+    @Test
+    void complete_endsSession_whenUploadIsNotAudio() {
+        // given
+        UploadSession session = service.create(new AudioUpload("Text", null, false), 1000, 7L);
+        service.append(session.getId(), 7L, 0, slice(bytes(1000), 0, 1000));
+        given(ingestService.ingest(any(Path.class), any(), any()))
+                .willThrow(new UnsupportedAudioException("No MPEG audio frames in upload"));
+
+        // when / then
+        assertThatThrownBy(() -> service.complete(session.getId(), 7L))
+                .isInstanceOf(UnsupportedAudioException.class);
+        assertThat(rows).isEmpty();
+        assertThat(service.fileOf(session.getId())).doesNotExist();
+    }
+
+    @Test
+    void purgeExpired_removesIdleSessionsAndTheirFiles() {
+        // given
+        UploadSession idle = service.create(new AudioUpload("Idle", null, false), 1000, 7L);
+        idle.setUpdatedAt(Instant.now().minusSeconds(25 * 3600));
+        UploadSession active = service.create(new AudioUpload("Active", null, false), 1000, 7L);
+
+        // when
+        int removed = service.purgeExpired();
+
+        // then
+        assertThat(removed).isEqualTo(1);
+        assertThat(rows.keySet()).containsExactly(active.getId());
+        assertThat(service.fileOf(idle.getId())).doesNotExist();
+        assertThat(service.fileOf(active.getId())).exists();
+    }
+
+    private static byte[] bytes(int count) {
+        byte[] bytes = new byte[count];
+        for (int i = 0; i < count; i++) {
+            bytes[i] = (byte) (i * 31 + 7);
+        }
+        return bytes;
+    }
+
+    private static InputStream slice(byte[] content, int from, int to) {
+        return new ByteArrayInputStream(content, from, to - from);
+    }
+}
@@ -0,0 +1,60 @@
+package dev.hazoe.audiostreaming.audio.mp3;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Mp3FrameHeaderTest {
+
+    @Test
+    void parse_shouldDecodeMpeg1Layer3() {
+        // when
+        Mp3FrameHeader header = Mp3FrameHeader.parse(0xFFFB9064);
+
+        // then
+        assertThat(header).isNotNull();
+        assertThat(header.version()).isEqualTo(Mp3FrameHeader.MPEG1);
+        assertThat(header.layer()).isEqualTo(3);
+        assertThat(header.bitrateKbps()).isEqualTo(128);
+        assertThat(header.sampleRate()).isEqualTo(44100);
+        assertThat(header.frameLength()).isEqualTo(417);
+        assertThat(header.samplesPerFrame()).isEqualTo(1152);
+        assertThat(header.xingOffset()).isEqualTo(36);
+    }
+
+    @Test
+    void parse_shouldAddPaddingByte() {
+        // when
+        Mp3FrameHeader header = Mp3FrameHeader.parse(0xFFFB9264);
+
+        // then
+        assertThat(header.padding()).isTrue();
+        assertThat(header.frameLength()).isEqualTo(418);
+    }
+
+    @Test
+    void parse_shouldUseHalfFramesForMpeg2Layer3() {
+        // given: MPEG-2, layer III, 64 kbps, 22.05 kHz, mono
+        int bits = 0xFFF380C0;
+
+        // when
+        Mp3FrameHeader header = Mp3FrameHeader.parse(bits);
+
+        // then
+        assertThat(header.version()).isEqualTo(Mp3FrameHeader.MPEG2);
+        assertThat(header.bitrateKbps()).isEqualTo(64);
+        assertThat(header.sampleRate()).isEqualTo(22050);
+        assertThat(header.samplesPerFrame()).isEqualTo(576);
+        assertThat(header.frameLength()).isEqualTo(72 * 64000 / 22050);
+        assertThat(header.xingOffset()).isEqualTo(13);
+    }
+
+    @Test
+    void parse_shouldRejectInvalidHeaders() {
+        assertThat(Mp3FrameHeader.parse(0x00000000)).isNull(); // no sync
+        assertThat(Mp3FrameHeader.parse(0xFFFB0064)).isNull(); // free format
+        assertThat(Mp3FrameHeader.parse(0xFFFBF064)).isNull(); // bad bitrate
+        assertThat(Mp3FrameHeader.parse(0xFFFB9C64)).isNull(); // reserved sample rate
+        assertThat(Mp3FrameHeader.parse(0xFFEB9064)).isNull(); // reserved version
+    }
+}
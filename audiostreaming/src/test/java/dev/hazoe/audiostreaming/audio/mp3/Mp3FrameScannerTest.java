@@ -0,0 +1,97 @@
+package dev.hazoe.audiostreaming.audio.mp3;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Mp3FrameScannerTest {
+
+    private static final class Recorder implements Mp3FrameScanner.FrameVisitor {
+        final List<Long> offsets = new ArrayList<>();
+        final List<Long> infoOffsets = new ArrayList<>();
+
+        @Override
+        public void frame(long offset, Mp3FrameHeader header) {
+            offsets.add(offset);
+        }
+
+        @Override
+        public void infoFrame(long offset, Mp3FrameHeader header, byte[] frame) {
+            infoOffsets.add(offset);
+        }
+    }
+
+    private static Recorder scan(byte[] data) throws IOException {
+        Recorder recorder = new Recorder();
+        Mp3FrameScanner.scan(Channels.newChannel(new ByteArrayInputStream(data)), data.length, recorder);
+        return recorder;
+    }
+
+    @Test
+    void scan_shouldVisitEveryFrame() throws IOException {
+        // given
+        byte[] data = Mp3TestFiles.frames(500);
+
+        // when
+        Recorder recorder = scan(data);
+
+        // then
+        assertThat(recorder.offsets).hasSize(500);
+        assertThat(recorder.offsets.get(0)).isZero();
+        assertThat(recorder.offsets.get(499)).isEqualTo(499L * Mp3TestFiles.FRAME_LENGTH);
+    }
+
+    @Test
+    void scan_shouldSkipTagsAndReportInfoFrame() throws IOException {
+        // given
+        byte[] data = Mp3TestFiles.builder()
+                .id3v2(1000)
+                .xing("Info", 3)
+                .frames(3)
+                .id3v1()
+                .build();
+
+        // when
+        Recorder recorder = scan(data);
+
+        // then
+        assertThat(recorder.infoOffsets).containsExactly(1010L);
+        assertThat(recorder.offsets).containsExactly(
+                1010L + 417, 1010L + 2 * 417, 1010L + 3 * 417);
+    }
+
+    @Test
+    void scan_shouldResyncAfterJunkAndIgnoreFalseSync() throws IOException {
+        // given: a lone sync word that is not followed by another frame
+        byte[] data = Mp3TestFiles.builder()
+                .frames(2)
+                .junk((byte) 0xFF, (byte) 0xFB, (byte) 0x90, (byte) 0x64, (byte) 1, (byte) 2)
+                .frames(2)
+                .build();
+
+        // when
+        Recorder recorder = scan(data);
+
+        // then
+        assertThat(recorder.offsets).containsExactly(0L, 417L, 840L, 1257L);
+    }
+
+    @Test
+    void scan_shouldDropTruncatedLastFrame() throws IOException {
+        // given
+        byte[] frames = Mp3TestFiles.frames(3);
+        byte[] data = java.util.Arrays.copyOf(frames, frames.length - 100);
+
+        // when
+        Recorder recorder = scan(data);
+
+        // then
+        assertThat(recorder.offsets).containsExactly(0L, 417L);
+    }
+}
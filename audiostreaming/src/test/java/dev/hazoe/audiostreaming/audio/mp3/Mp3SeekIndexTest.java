@@ -0,0 +1,91 @@
+package dev.hazoe.audiostreaming.audio.mp3;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+class Mp3SeekIndexTest {
+
+    private static Mp3SeekIndex.Builder scan(byte[] data, int framesPerEntry) throws IOException {
+        Mp3SeekIndex.Builder builder = Mp3SeekIndex.builder(framesPerEntry);
+        Mp3FrameScanner.scan(Channels.newChannel(new ByteArrayInputStream(data)), data.length, builder);
+        return builder;
+    }
+
+    @Test
+    void seek_shouldReturnIndexedFrameAtOrBeforeTime() throws IOException {
+        // given
+        Mp3SeekIndex index = scan(Mp3TestFiles.frames(1000), 8).build();
+
+        // when: 10 s = frame 382 → entry 47 (frame 376)
+        Mp3SeekIndex.Seek seek = index.seek(10.0);
+
+        // then
+        assertThat(seek.offset()).isEqualTo(376L * Mp3TestFiles.FRAME_LENGTH);
+        assertThat(seek.seconds()).isCloseTo(376 * 1152 / 44100.0, offset(1e-9));
+        assertThat(index.seek(0).offset()).isZero();
+        assertThat(index.entryCount()).isEqualTo(125);
+    }
+
+    @Test
+    void seek_shouldRejectTimesOutsideAudio() throws IOException {
+        // given: 1000 frames ≈ 26.12 s
+        Mp3SeekIndex index = scan(Mp3TestFiles.frames(1000), 8).build();
+
+        // then
+        assertThat(index.durationSeconds()).isCloseTo(26.122, offset(0.001));
+        assertThat(index.seek(26.2)).isNull();
+        assertThat(index.seek(-1)).isNull();
+        assertThat(index.seek(Double.NaN)).isNull();
+    }
+
+    @Test
+    void builder_shouldSkipTagsAndReadDeclaredFrameCount() throws IOException {
+        // given
+        byte[] data = Mp3TestFiles.builder().id3v2(100).xing("Xing", 20).frames(20).id3v1().build();
+
+        // when
+        Mp3SeekIndex.Builder builder = scan(data, 4);
+        Mp3SeekIndex index = builder.build();
+
+        // then
+        long firstAudioFrame = 110 + Mp3TestFiles.FRAME_LENGTH;
+        assertThat(builder.declaredFrames()).isEqualTo(20);
+        assertThat(index.frameCount()).isEqualTo(20);
+        assertThat(index.seek(0).offset()).isEqualTo(firstAudioFrame);
+        assertThat(index.audioEnd()).isEqualTo(firstAudioFrame + 20L * Mp3TestFiles.FRAME_LENGTH);
+    }
+
+    @Test
+    void encode_shouldRoundTripCompactly() throws IOException {
+        // given
+        Mp3SeekIndex index = scan(Mp3TestFiles.frames(1000), 8).build();
+
+        // when
+        byte[] data = index.encode();
+        Mp3SeekIndex decoded = Mp3SeekIndex.decode(data);
+
+        // then: 28-byte header + 2-byte deltas (8 × 417 = 3336)
+        assertThat(data).hasSize(28 + 1 + 124 * 2);
+        assertThat(decoded.frameCount()).isEqualTo(1000);
+        assertThat(decoded.seek(10.0)).isEqualTo(index.seek(10.0));
+        assertThat(decoded.seek(25.0)).isEqualTo(index.seek(25.0));
+    }
+
+    @Test
+    void decode_shouldRejectTruncatedData() throws IOException {
+        // given
+        byte[] data = scan(Mp3TestFiles.frames(100), 8).build().encode();
+
+        // when / then
+        assertThatThrownBy(() -> Mp3SeekIndex.decode(Arrays.copyOf(data, data.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
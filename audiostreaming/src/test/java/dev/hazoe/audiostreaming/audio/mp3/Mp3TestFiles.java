@@ -0,0 +1,89 @@
+package dev.hazoe.audiostreaming.audio.mp3;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Synthesizes minimal MP3 streams: MPEG-1 layer III, 128 kbps, 44.1 kHz, stereo,
+ * 417-byte frames of 1152 samples with silent payload.
+ */
+public final class Mp3TestFiles {
+
+    public static final int FRAME_HEADER = 0xFFFB9064;
+    public static final int FRAME_LENGTH = 417;
+    public static final int SAMPLES_PER_FRAME = 1152;
+    public static final int SAMPLE_RATE = 44100;
+
+    private Mp3TestFiles() {
+    }
+
+    public static byte[] frames(int count) {
+        return builder().frames(count).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static byte[] frame() {
+        byte[] frame = new byte[FRAME_LENGTH];
+        frame[0] = (byte) (FRAME_HEADER >>> 24);
+        frame[1] = (byte) (FRAME_HEADER >>> 16);
+        frame[2] = (byte) (FRAME_HEADER >>> 8);
+        frame[3] = (byte) FRAME_HEADER;
+        return frame;
+    }
+
+    public static final class Builder {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        /** ID3v2.4 tag with {@code payload} zero bytes of content. */
+        public Builder id3v2(int payload) {
+            out.writeBytes(new byte[]{'I', 'D', '3', 4, 0, 0,
+                    (byte) ((payload >>> 21) & 0x7F), (byte) ((payload >>> 14) & 0x7F),
+                    (byte) ((payload >>> 7) & 0x7F), (byte) (payload & 0x7F)});
+            out.writeBytes(new byte[payload]);
+            return this;
+        }
+
+        /** A first frame carrying a Xing/Info tag instead of audio. */
+        public Builder xing(String tag, int frameCount) {
+            byte[] frame = frame();
+            int offset = 4 + 32;
+            System.arraycopy(tag.getBytes(StandardCharsets.US_ASCII), 0, frame, offset, 4);
+            frame[offset + 7] = 0x01; // frames field present
+            frame[offset + 8] = (byte) (frameCount >>> 24);
+            frame[offset + 9] = (byte) (frameCount >>> 16);
+            frame[offset + 10] = (byte) (frameCount >>> 8);
+            frame[offset + 11] = (byte) frameCount;
+            out.writeBytes(frame);
+            return this;
+        }
+
+        public Builder frames(int count) {
+            for (int i = 0; i < count; i++) {
+                out.writeBytes(frame());
+            }
+            return this;
+        }
+
+        public Builder junk(byte... bytes) {
+            out.writeBytes(bytes);
+            return this;
+        }
+
+        public Builder id3v1() {
+            byte[] tag = new byte[128];
+            tag[0] = 'T';
+            tag[1] = 'A';
+            tag[2] = 'G';
+            out.writeBytes(tag);
+            return this;
+        }
+
+        public byte[] build() {
+            return out.toByteArray();
+        }
+    }
+}
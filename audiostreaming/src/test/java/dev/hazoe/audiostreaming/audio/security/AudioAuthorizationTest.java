@@ -1,10 +1,11 @@
 package dev.hazoe.audiostreaming.audio.security;
 
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptorCache;
 import dev.hazoe.audiostreaming.audio.domain.Audio;
 import dev.hazoe.audiostreaming.audio.repository.AudioRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.TestingAuthenticationToken;
@@ -22,9 +23,15 @@ class AudioAuthorizationTest {
     @Mock
     private AudioRepository audioRepository;
 
-    @InjectMocks
     private AudioAuthorization audioAuthorization;
 
+    @BeforeEach
+    void setUp() {
+        audioAuthorization = new AudioAuthorization(
+                new AudioDescriptorCache(audioRepository, true, 100, 600, false)
+        );
+    }
+
     @Test
     void canStream_shouldReturnTrue_whenAudioIsNotPremium() {
         // given
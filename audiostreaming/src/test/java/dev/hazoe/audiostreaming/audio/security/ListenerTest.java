@@ -0,0 +1,56 @@
+package dev.hazoe.audiostreaming.audio.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListenerTest {
+
+    private static MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    @Test
+    void of_shouldNotKeyAnonymousRequests() {
+        // given
+        AnonymousAuthenticationToken anonymous = new AnonymousAuthenticationToken(
+                "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        // when / then
+        assertThat(Listener.of(null, request("10.0.0.1"))).isEqualTo(Listener.ANONYMOUS);
+        assertThat(Listener.of(anonymous, request("10.0.0.1"))).isEqualTo(Listener.ANONYMOUS);
+    }
+
+    @Test
+    void of_shouldKeyUsersByClientAddress() {
+        // given
+        TestingAuthenticationToken alice = new TestingAuthenticationToken("alice", null, "ROLE_PREMIUM");
+
+        // when
+        Listener listener = Listener.of(alice, request("10.0.0.1"));
+
+        // then
+        assertThat(listener.tier()).isEqualTo(ListenerTier.PREMIUM);
+        assertThat(listener.key()).isEqualTo("alice@10.0.0.1");
+    }
+
+    @Test
+    void of_shouldPreferPlayerId_whenWellFormed() {
+        // given
+        TestingAuthenticationToken alice = new TestingAuthenticationToken("alice", null, "ROLE_FREE");
+        MockHttpServletRequest player = request("10.0.0.1");
+        player.addHeader(Listener.PLAYER_ID_HEADER, "3f2a9c1e-tab-1");
+        MockHttpServletRequest forged = request("10.0.0.1");
+        forged.addHeader(Listener.PLAYER_ID_HEADER, "bob@10.0.0.2");
+
+        // when / then
+        assertThat(Listener.of(alice, player).key()).isEqualTo("alice#3f2a9c1e-tab-1");
+        assertThat(Listener.of(alice, forged).key()).isEqualTo("alice@10.0.0.1");
+    }
+}
@@ -1,8 +1,25 @@
 package dev.hazoe.audiostreaming.audio.service;
 
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptorCache;
 import dev.hazoe.audiostreaming.audio.domain.Audio;
+import dev.hazoe.audiostreaming.audio.domain.AudioSeekIndex;
 import dev.hazoe.audiostreaming.audio.dto.AudioStreamResponse;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3TestFiles;
 import dev.hazoe.audiostreaming.audio.repository.AudioRepository;
+import dev.hazoe.audiostreaming.audio.repository.AudioSeekIndexRepository;
+import dev.hazoe.audiostreaming.audio.security.Listener;
+import dev.hazoe.audiostreaming.audio.security.ListenerTier;
+import dev.hazoe.audiostreaming.audio.storage.FileChannelPool;
+import dev.hazoe.audiostreaming.audio.storage.LocalAudioStorage;
+import dev.hazoe.audiostreaming.audio.streaming.ChunkSizePolicy;
+import dev.hazoe.audiostreaming.audio.streaming.ConditionalHeaders;
+import dev.hazoe.audiostreaming.audio.streaming.FileRegion;
+import dev.hazoe.audiostreaming.audio.streaming.MappedSegmentCache;
+import dev.hazoe.audiostreaming.audio.streaming.MultipartByteRanges;
+import dev.hazoe.audiostreaming.audio.streaming.PacedBody;
+import dev.hazoe.audiostreaming.audio.streaming.StreamBodyFactory;
+import dev.hazoe.audiostreaming.audio.streaming.StreamPacing;
+import dev.hazoe.audiostreaming.audio.streaming.StreamReadAhead;
 import dev.hazoe.audiostreaming.common.exception.AudioNotFoundException;
 import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
 import dev.hazoe.audiostreaming.common.exception.RangeNotSatisfiableException;
@@ -14,18 +31,24 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class AudioStreamServiceTest {
@@ -33,21 +56,26 @@ class AudioStreamServiceTest {
     @Mock
     private AudioRepository audioRepository;
 
+    @Mock
+    private AudioSeekIndexRepository seekIndexRepository;
+
     private AudioStreamService audioStreamService;
 
     private Path tempDir;
 
     @BeforeEach
     void setUp() throws Exception {
-        audioStreamService = new AudioStreamService(audioRepository);
-
         tempDir = Files.createTempDirectory("audio-test");
 
-        // inject @Value field manually
-        ReflectionTestUtils.setField(
-                audioStreamService,
-                "storageRoot",
-                tempDir.toString()
+        LocalAudioStorage storage = new LocalAudioStorage(tempDir);
+        audioStreamService = new AudioStreamService(
+                new AudioDescriptorCache(audioRepository, true, 100, 600, false),
+                storage,
+                new StreamBodyFactory(storage, new MappedSegmentCache(false, 1024 * 1024, 0), FileChannelPool.unpooled()),
+                new StreamPacing(false, 10, 1.5, 30, 3.0, 10000, "direct"),
+                new SeekIndexService(storage, seekIndexRepository, 8, 100),
+                new StreamReadAhead(storage, false, 1, 1, 0),
+                new ChunkSizePolicy(true, 1024 * 1024, 30, 64 * 1024, 8 * 1024 * 1024, 4, 100)
         );
     }
 
@@ -94,7 +122,7 @@ class AudioStreamServiceTest {
                 .isNull();
 
         assertThat(response.contentType()).isNotBlank();
-        assertThat(response.resource()).isNotNull();
+        assertThat(response.body()).isNotNull();
     }
 
     @Test
@@ -121,6 +149,222 @@ class AudioStreamServiceTest {
                 .isEqualTo("bytes 0-999/2000");
     }
 
+    @Test
+    void head_shouldReturnStreamHeadersWithoutBody() throws Exception {
+        // given
+        createTestAudioFile("test.mp3", 2000);
+        Audio audio = new Audio();
+        audio.setId(1L);
+        audio.setAudioPath("test.mp3");
+        audio.setContentType("audio/mpeg");
+
+        given(audioRepository.findById(1L))
+                .willReturn(Optional.of(audio));
+
+        // when
+        AudioStreamResponse response = audioStreamService.head(1L, "bytes=1000-", ConditionalHeaders.none());
+
+        // then
+        assertThat(response.status()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.body()).isNull();
+        assertThat(response.headers().getFirst(HttpHeaders.CONTENT_LENGTH))
+                .isEqualTo("1000");
+        assertThat(response.headers().getFirst(HttpHeaders.CONTENT_RANGE))
+                .isEqualTo("bytes 1000-1999/2000");
+    }
+
+    @Test
+    void stream_partialAudio_shouldTransferOnlyRequestedBytes() throws Exception {
+        // given
+        Path audioFile = createTestAudioFile("test.mp3", 2000);
+        Audio audio = new Audio();
+        audio.setId(1L);
+        audio.setAudioPath("test.mp3");
+        audio.setContentType("audio/mpeg");
+
+        given(audioRepository.findById(1L))
+                .willReturn(Optional.of(audio));
+
+        // when
+        AudioStreamResponse response =
+                audioStreamService.stream(1L, "bytes=100-199");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.body().writeTo(Channels.newChannel(out));
+
+        // then
+        assertThat(response.body()).isInstanceOf(FileRegion.class);
+        byte[] expected = Arrays.copyOfRange(Files.readAllBytes(audioFile), 100, 200);
+        assertThat(out.toByteArray()).isEqualTo(expected);
+    }
+
+    @Test
+    void stream_multipleRanges_shouldReturnMultipartByteranges() throws Exception {
+        // given
+        createTestAudioFile("test.mp3", 2000);
+        Audio audio = new Audio();
+        audio.setId(1L);
+        audio.setAudioPath("test.mp3");
+        audio.setContentType("audio/mpeg");
+
+        given(audioRepository.findById(1L))
+                .willReturn(Optional.of(audio));
+
+        // when
+        AudioStreamResponse response =
+                audioStreamService.stream(1L, "bytes=0-9,100-109");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.body().writeTo(Channels.newChannel(out));
+        String body = out.toString(StandardCharsets.ISO_8859_1);
+
+        // then
+        assertThat(response.status()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.contentType()).startsWith("multipart/byteranges; boundary=");
+        assertThat(response.headers().getFirst(HttpHeaders.CONTENT_LENGTH))
+                .isEqualTo(String.valueOf(out.size()));
+        assertThat(body)
+                .contains("Content-Range: bytes 0-9/2000")
+                .contains("Content-Range: bytes 100-109/2000")
+                .contains("Content-Type: audio/mpeg");
+    }
+
+    @Test
+    void stream_multipleRanges_shouldBePaced() throws Exception {
+        // given: 2000 B over 100 s, so the free burst covers 200 B
+        createTestAudioFile("test.mp3", 2000);
+        Audio audio = new Audio();
+        audio.setId(1L);
+        audio.setAudioPath("test.mp3");
+        audio.setContentType("audio/mpeg");
+        audio.setDurationSeconds(100);
+
+        given(audioRepository.findById(1L))
+                .willReturn(Optional.of(audio));
+
+        LocalAudioStorage storage = new LocalAudioStorage(tempDir);
+        AudioStreamService pacedService = new AudioStreamService(
+                new AudioDescriptorCache(audioRepository, true, 100, 600, false),
+                storage,
+                new StreamBodyFactory(storage, new MappedSegmentCache(false, 1024 * 1024, 0), FileChannelPool.unpooled()),
+                new StreamPacing(true, 10, 1.5, 30, 3.0, 10000, "async"),
+                new SeekIndexService(storage, seekIndexRepository, 8, 100),
+                new StreamReadAhead(storage, false, 1, 1, 0),
+                new ChunkSizePolicy(true, 1024 * 1024, 30, 64 * 1024, 8 * 1024 * 1024, 4, 100)
+        );
+
+        // when
+        AudioStreamResponse response = pacedService.stream(
+                1L, "bytes=0-0,2-", ConditionalHeaders.none(), new Listener(ListenerTier.FREE, "alice@10.0.0.1"));
+
+        // then
+        assertThat(response.status()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.body()).isInstanceOf(PacedBody.class);
+        assertThat(((PacedBody) response.body()).delegate()).isInstanceOf(MultipartByteRanges.class);
+    }
+
+    @Test
+    void stream_shouldSendStrongValidators() throws Exception {
+        // given
+        createTestAudioFile("test.mp3", 1024);
+        Audio audio = new Audio();
+        audio.setId(1L);
+        audio.setAudioPath("test.mp3");
+        audio.setContentType("audio/mpeg");
+
+        given(audioRepository.findById(1L))
+                .willReturn(Optional.of(audio));
+
+        // when
+        AudioStreamResponse response =
+                audioStreamService.stream(1L, null);
+
+        // then
+        assertThat(response.headers().getETag()).startsWith("\"").doesNotStartWith("W/");
+        assertThat(response.headers().getLastModified()).isPositive();
+    }
+
+    @Test
+    void stream_ifNoneMatchCurrentEtag_shouldReturn304WithoutBody() throws Exception {
+        // given
+        createTestAudioFile("test.mp3", 1024);
+        Audio audio = new Audio();
+        audio.setId(1L);
+        audio.setAudioPath("test.mp3");
+        audio.setContentType("audio/mpeg");
+
+        given(audioRepository.findById(1L))
+                .willReturn(Optional.of(audio));
+
+        String etag = audioStreamService.stream(1L, null).headers().getETag();
+
+        // when
+        AudioStreamResponse response = audioStreamService.stream(
+                1L,
+                "bytes=0-99",
+                new ConditionalHeaders(etag, null, null)
+        );
+
+        // then
+        assertThat(response.status()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.body()).isNull();
+        assertThat(response.headers().getETag()).isEqualTo(etag);
+    }
+
+    @Test
+    void stream_ifRangeMatches_shouldReturnPartialContent() throws Exception {
+        // given
+        createTestAudioFile("test.mp3", 2000);
+        Audio audio = new Audio();
+        audio.setId(1L);
+        audio.setAudioPath("test.mp3");
+        audio.setContentType("audio/mpeg");
+
+        given(audioRepository.findById(1L))
+                .willReturn(Optional.of(audio));
+
+        String etag = audioStreamService.stream(1L, null).headers().getETag();
+
+        // when
+        AudioStreamResponse response = audioStreamService.stream(
+                1L,
+                "bytes=0-99",
+                new ConditionalHeaders(null, null, etag)
+        );
+
+        // then
+        assertThat(response.status()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.headers().getFirst(HttpHeaders.CONTENT_RANGE))
+                .isEqualTo("bytes 0-99/2000");
+    }
+
+    @Test
+    void stream_ifRangeStale_shouldReturnFullContent() throws Exception {
+        // given
+        createTestAudioFile("test.mp3", 2000);
+        Audio audio = new Audio();
+        audio.setId(1L);
+        audio.setAudioPath("test.mp3");
+        audio.setContentType("audio/mpeg");
+
+        given(audioRepository.findById(1L))
+                .willReturn(Optional.of(audio));
+
+        // when
+        AudioStreamResponse response = audioStreamService.stream(
+                1L,
+                "bytes=0-99",
+                new ConditionalHeaders(null, null, "\"stale-etag\"")
+        );
+
+        // then
+        assertThat(response.status()).isEqualTo(HttpStatus.OK);
+        assertThat(response.headers().getFirst(HttpHeaders.CONTENT_LENGTH))
+                .isEqualTo("2000");
+        assertThat(response.headers().getFirst(HttpHeaders.CONTENT_RANGE))
+                .isNull();
+    }
+
     @Test
     void stream_audioNotFound_throwsAudioNotFoundException() {
         given(audioRepository.findById(1L))
@@ -178,4 +422,78 @@ class AudioStreamServiceTest {
         ).isInstanceOf(RangeNotSatisfiableException.class);
     }
 
-}
\ No newline at end of file
+    /* ================= SEEK ================= */
+
+    private void givenMp3(String name, byte[] data) throws IOException {
+        Files.write(tempDir.resolve(name), data);
+        Audio audio = new Audio();
+        audio.setId(1L);
+        audio.setAudioPath(name);
+        audio.setContentType("audio/mpeg");
+
+        given(audioRepository.findById(1L))
+                .willReturn(Optional.of(audio));
+    }
+
+    @Test
+    void seek_shouldStartAtIndexedFrame() throws Exception {
+        // given: 100-byte ID3 tag + 1000 frames of 417 bytes
+        givenMp3("seek.mp3", Mp3TestFiles.builder().id3v2(100).frames(1000).build());
+        given(seekIndexRepository.findById(1L)).willReturn(Optional.empty());
+
+        // when: 10 s = frame 382 → indexed frame 376 (8 frames per entry)
+        AudioStreamResponse response = audioStreamService.seek(1L, 10.0, ConditionalHeaders.none(), Listener.ANONYMOUS);
+
+        // then
+        long offset = 110 + 376 * 417;
+        assertThat(response.status()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.headers().getFirst(HttpHeaders.CONTENT_RANGE))
+                .isEqualTo("bytes %d-%d/%d".formatted(offset, 110 + 1000 * 417 - 1, 110 + 1000 * 417));
+        assertThat(response.headers().getFirst(AudioStreamService.SEEK_POSITION_HEADER))
+                .isEqualTo("9.822");
+    }
+
+    @Test
+    void seek_shouldReuseIndexAcrossRequests() throws Exception {
+        // given
+        givenMp3("seek.mp3", Mp3TestFiles.frames(200));
+        given(seekIndexRepository.findById(1L)).willReturn(Optional.empty());
+
+        // when
+        audioStreamService.seek(1L, 1.0, ConditionalHeaders.none(), Listener.ANONYMOUS);
+        audioStreamService.seek(1L, 2.0, ConditionalHeaders.none(), Listener.ANONYMOUS);
+
+        // then
+        verify(seekIndexRepository, times(1)).upsert(any(AudioSeekIndex.class));
+    }
+
+    @Test
+    void seek_pastEnd_throwsRangeNotSatisfiableException() throws Exception {
+        // given: 200 frames ≈ 5.2 s
+        givenMp3("seek.mp3", Mp3TestFiles.frames(200));
+        given(seekIndexRepository.findById(1L)).willReturn(Optional.empty());
+
+        // when / then
+        assertThatThrownBy(() ->
+                audioStreamService.seek(1L, 6.0, ConditionalHeaders.none(), Listener.ANONYMOUS)
+        ).isInstanceOf(RangeNotSatisfiableException.class);
+    }
+
+    @Test
+    void seek_nonMp3_throwsRangeNotSatisfiableException() throws Exception {
+        // given
+        createTestAudioFile("test.ogg", 500);
+        Audio audio = new Audio();
+        audio.setId(1L);
+        audio.setAudioPath("test.ogg");
+        audio.setContentType("audio/ogg");
+
+        given(audioRepository.findById(1L))
+                .willReturn(Optional.of(audio));
+
+        // when / then
+        assertThatThrownBy(() ->
+                audioStreamService.seek(1L, 1.0, ConditionalHeaders.none(), Listener.ANONYMOUS)
+        ).isInstanceOf(RangeNotSatisfiableException.class);
+    }
+}
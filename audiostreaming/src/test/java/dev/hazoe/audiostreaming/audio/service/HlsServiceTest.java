@@ -0,0 +1,219 @@
+package dev.hazoe.audiostreaming.audio.service;
+
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptorCache;
+import dev.hazoe.audiostreaming.audio.domain.Audio;
+import dev.hazoe.audiostreaming.audio.domain.AudioSegmentIndex;
+import dev.hazoe.audiostreaming.audio.dto.AudioStreamResponse;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3TestFiles;
+import dev.hazoe.audiostreaming.audio.repository.AudioRepository;
+import dev.hazoe.audiostreaming.audio.repository.AudioSegmentIndexRepository;
+import dev.hazoe.audiostreaming.audio.storage.FileChannelPool;
+import dev.hazoe.audiostreaming.audio.storage.LocalAudioStorage;
+import dev.hazoe.audiostreaming.audio.streaming.MappedSegmentCache;
+import dev.hazoe.audiostreaming.audio.streaming.StreamBodyFactory;
+import dev.hazoe.audiostreaming.common.exception.HlsSegmentNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class HlsServiceTest {
+
+    @Mock
+    private AudioRepository audioRepository;
+
+    @Mock
+    private AudioSegmentIndexRepository segmentIndexRepository;
+
+    @TempDir
+    Path tempDir;
+
+    private HlsService hlsService;
+
+    private byte[] mp3;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 1000 frames ≈ 26.1 s → four 6 s segments and a short last one
+        mp3 = Mp3TestFiles.builder().id3v2(100).frames(1000).build();
+        Files.write(tempDir.resolve("a.mp3"), mp3);
+
+        LocalAudioStorage storage = new LocalAudioStorage(tempDir);
+        hlsService = new HlsService(
+                new AudioDescriptorCache(audioRepository, true, 100, 600, false),
+                storage,
+                new StreamBodyFactory(storage, new MappedSegmentCache(false, 1024 * 1024, 0), FileChannelPool.unpooled()),
+                segmentIndexRepository,
+                6,
+                100
+        );
+    }
+
+    private void givenAudio(boolean premium) {
+        Audio audio = new Audio();
+        audio.setId(1L);
+        audio.setAudioPath("a.mp3");
+        audio.setContentType("audio/mpeg");
+        audio.setPremium(premium);
+        given(audioRepository.findById(1L)).willReturn(Optional.of(audio));
+    }
+
+    private static List<String> segmentUris(String playlist) {
+        return playlist.lines().filter(line -> line.endsWith(".mp3")).toList();
+    }
+
+    @Test
+    void playlist_shouldListFrameAlignedSegments() {
+        // given
+        givenAudio(false);
+        given(segmentIndexRepository.findById(1L)).willReturn(Optional.empty());
+
+        // when
+        String playlist = hlsService.playlist(1L);
+
+        // then
+        assertThat(playlist).startsWith("#EXTM3U\n");
+        assertThat(playlist).contains("#EXT-X-TARGETDURATION:7\n");
+        assertThat(playlist).contains("#EXT-X-PLAYLIST-TYPE:VOD\n");
+        assertThat(playlist).contains("#EXTINF:6.008,\n");
+        assertThat(playlist).endsWith("#EXT-X-ENDLIST\n");
+
+        List<String> uris = segmentUris(playlist);
+        assertThat(uris).hasSize(5);
+        assertThat(uris.getFirst()).matches("[0-9a-f]{16}/0\\.mp3");
+    }
+
+    @Test
+    void playlist_shouldPersistIndexOnce() {
+        // given
+        givenAudio(false);
+        given(segmentIndexRepository.findById(1L)).willReturn(Optional.empty());
+
+        // when
+        hlsService.playlist(1L);
+        hlsService.playlist(1L);
+
+        // then
+        ArgumentCaptor<AudioSegmentIndex> saved = ArgumentCaptor.forClass(AudioSegmentIndex.class);
+        verify(segmentIndexRepository).upsert(saved.capture());
+        assertThat(saved.getValue().getSegmentCount()).isEqualTo(5);
+        assertThat(saved.getValue().getData()).hasSize(5 * 16);
+        assertThat(hlsService.buildCount()).isEqualTo(1);
+    }
+
+    @Test
+    void playlist_shouldReuseStoredIndexForSameVersion() {
+        // given: an index persisted by another instance
+        givenAudio(false);
+        given(segmentIndexRepository.findById(1L)).willReturn(Optional.empty());
+        String expected = hlsService.playlist(1L);
+
+        ArgumentCaptor<AudioSegmentIndex> saved = ArgumentCaptor.forClass(AudioSegmentIndex.class);
+        verify(segmentIndexRepository).upsert(saved.capture());
+
+        HlsService otherInstance = new HlsService(
+                new AudioDescriptorCache(audioRepository, true, 100, 600, false),
+                new LocalAudioStorage(tempDir),
+                new StreamBodyFactory(new LocalAudioStorage(tempDir), new MappedSegmentCache(false, 1024 * 1024, 0), FileChannelPool.unpooled()),
+                segmentIndexRepository,
+                6,
+                100
+        );
+        given(segmentIndexRepository.findById(1L)).willReturn(Optional.of(saved.getValue()));
+
+        // when
+        String playlist = otherInstance.playlist(1L);
+
+        // then
+        assertThat(playlist).isEqualTo(expected);
+        assertThat(otherInstance.buildCount()).isZero();
+    }
+
+    @Test
+    void segment_shouldReturnTimestampTagAndFrames() throws Exception {
+        // given
+        givenAudio(false);
+        given(segmentIndexRepository.findById(1L)).willReturn(Optional.empty());
+        String uri = segmentUris(hlsService.playlist(1L)).get(1);
+        String version = uri.substring(0, uri.indexOf('/'));
+
+        // when
+        AudioStreamResponse response = hlsService.segment(1L, version, 1);
+
+        // then
+        assertThat(response.status()).isEqualTo(HttpStatus.OK);
+        assertThat(response.contentType()).isEqualTo("audio/mpeg");
+        assertThat(response.headers().getCacheControl()).isEqualTo("public, max-age=31536000, immutable");
+        assertThat(response.headers().getETag()).isEqualTo("\"" + version + "-1\"");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.body().writeTo(Channels.newChannel(out));
+        byte[] written = out.toByteArray();
+
+        int frames = 230 * Mp3TestFiles.FRAME_LENGTH;
+        int offset = 110 + frames;
+        assertThat(written).hasSize(73 + frames);
+        assertThat(response.body().contentLength()).isEqualTo(written.length);
+        assertThat(new String(written, 0, 3)).isEqualTo("ID3");
+        assertThat(Arrays.copyOfRange(written, 73, written.length))
+                .isEqualTo(Arrays.copyOfRange(mp3, offset, offset + frames));
+    }
+
+    @Test
+    void segment_shouldBePrivate_forPremiumAudio() {
+        // given
+        givenAudio(true);
+        given(segmentIndexRepository.findById(1L)).willReturn(Optional.empty());
+
+        String uri = segmentUris(hlsService.playlist(1L)).getFirst();
+
+        // when
+        AudioStreamResponse response = hlsService.segment(1L, uri.substring(0, uri.indexOf('/')), 0);
+
+        // then
+        assertThat(response.headers().getFirst(HttpHeaders.CACHE_CONTROL))
+                .isEqualTo("private, max-age=31536000, immutable");
+    }
+
+    @Test
+    void segment_shouldThrow_whenVersionIsStale() {
+        // given
+        givenAudio(false);
+        given(segmentIndexRepository.findById(1L)).willReturn(Optional.empty());
+
+        // when / then
+        assertThatThrownBy(() -> hlsService.segment(1L, "0000000000000000", 0))
+                .isInstanceOf(HlsSegmentNotFoundException.class);
+    }
+
+    @Test
+    void segment_shouldThrow_whenIndexOutOfRange() {
+        // given
+        givenAudio(false);
+        given(segmentIndexRepository.findById(1L)).willReturn(Optional.empty());
+        String uri = segmentUris(hlsService.playlist(1L)).getFirst();
+
+        // when / then
+        assertThatThrownBy(() -> hlsService.segment(1L, uri.substring(0, uri.indexOf('/')), 5))
+                .isInstanceOf(HlsSegmentNotFoundException.class);
+    }
+}
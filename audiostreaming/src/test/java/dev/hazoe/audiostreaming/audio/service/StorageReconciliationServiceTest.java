@@ -0,0 +1,136 @@
+package dev.hazoe.audiostreaming.audio.service;
+
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptorCache;
+import dev.hazoe.audiostreaming.audio.domain.AudioFileState;
+import dev.hazoe.audiostreaming.audio.dto.ReconciliationReport;
+import dev.hazoe.audiostreaming.audio.repository.AudioRepository;
+import dev.hazoe.audiostreaming.audio.storage.LocalAudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class StorageReconciliationServiceTest {
+
+    @TempDir
+    Path root;
+
+    private final AudioRepository audioRepository = mock(AudioRepository.class);
+
+    private LocalAudioStorage storage;
+    private StorageReconciliationService service;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalAudioStorage(root);
+        service = new StorageReconciliationService(
+                audioRepository,
+                storage,
+                new AudioDescriptorCache(audioRepository, true, 100, 600, false),
+                4, 1000, 4096, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void run_recordsNewAndChangedFiles_andReportsMissingAndOrphans() throws Exception {
+        // given
+        write("audio/new.mp3", "new file");
+        write("audio/same.mp3", "unchanged file");
+        write("audio/changed.mp3", "rewritten with a different size");
+        write("audio/orphan.mp3", "no row");
+        write("audio/.upload-1.tmp", "staged upload");
+
+        StorageObject same = storage.stat("audio/same.mp3");
+        given(audioRepository.findFileStates(eq(0L), any())).willReturn(List.of(
+                new AudioFileState(1L, "audio/new.mp3", "audio/mpeg", null, null, null, null),
+                recorded(2L, same, sha256("unchanged file")),
+                new AudioFileState(3L, "audio/changed.mp3", "audio/mpeg", 5L, same.lastModified(), "old", "abc"),
+                new AudioFileState(4L, "audio/gone.mp3", "audio/mpeg", 5L, same.lastModified(), "old", "abc")
+        ));
+
+        // when
+        ReconciliationRun run = new ReconciliationRun(false);
+        service.run(run);
+        ReconciliationReport report = run.report();
+
+        // then
+        assertThat(report.phase()).isEqualTo("COMPLETED");
+        assertThat(report.checked()).isEqualTo(4);
+        assertThat(report.unchanged()).isEqualTo(1);
+        assertThat(report.updated()).isEqualTo(2);
+        assertThat(report.missing()).isEqualTo(1);
+        assertThat(report.orphans()).isEqualTo(1);
+        assertThat(report.findings()).containsExactlyInAnyOrder(
+                new ReconciliationReport.Finding("MISSING", 4L, "audio/gone.mp3"),
+                new ReconciliationReport.Finding("ORPHAN", null, "audio/orphan.mp3"));
+
+        StorageObject created = storage.stat("audio/new.mp3");
+        verify(audioRepository).updateFileState(
+                1L, created.size(), created.lastModified(), created.version(), sha256("new file"));
+        verify(audioRepository).updateFileState(
+                eq(3L), eq(31L), any(), any(), eq(sha256("rewritten with a different size")));
+        verify(audioRepository, never()).updateFileState(eq(2L), any(), any(), any(), any());
+        // a missing file's recorded state is dropped
+        verify(audioRepository).updateFileState(4L, null, null, null, null);
+    }
+
+    @Test
+    void run_withVerify_reportsContentChangedUnderSameVersion() throws Exception {
+        // given
+        write("audio/a.mp3", "bit rot");
+        StorageObject object = storage.stat("audio/a.mp3");
+        given(audioRepository.findFileStates(eq(0L), any()))
+                .willReturn(List.of(recorded(1L, object, sha256("original"))));
+
+        // when
+        ReconciliationRun quick = new ReconciliationRun(false);
+        service.run(quick);
+        ReconciliationRun verified = new ReconciliationRun(true);
+        service.run(verified);
+
+        // then
+        assertThat(quick.report().unchanged()).isEqualTo(1);
+        assertThat(verified.report().mismatched()).isEqualTo(1);
+        assertThat(verified.report().findings())
+                .containsExactly(new ReconciliationReport.Finding("MISMATCHED", 1L, "audio/a.mp3"));
+        // the recorded hash is kept, so the mismatch is reported until someone looks
+        verify(audioRepository, never()).updateFileState(anyLong(), any(), any(), any(), any());
+    }
+
+    private void write(String key, String content) throws Exception {
+        Path file = root.resolve(key);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private static AudioFileState recorded(Long id, StorageObject object, String sha256) {
+        return new AudioFileState(
+                id, object.key(), "audio/mpeg", object.size(), object.lastModified(), object.version(), sha256);
+    }
+
+    private static String sha256(String content) throws Exception {
+        return HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
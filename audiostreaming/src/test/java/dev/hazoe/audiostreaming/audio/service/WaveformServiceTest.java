@@ -0,0 +1,225 @@
+package dev.hazoe.audiostreaming.audio.service;
+
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptorCache;
+import dev.hazoe.audiostreaming.audio.domain.Audio;
+import dev.hazoe.audiostreaming.audio.domain.AudioFileState;
+import dev.hazoe.audiostreaming.audio.dto.WaveformResponse;
+import dev.hazoe.audiostreaming.audio.mp3.Mp3TestFiles;
+import dev.hazoe.audiostreaming.audio.repository.AudioRepository;
+import dev.hazoe.audiostreaming.audio.storage.LocalAudioStorage;
+import dev.hazoe.audiostreaming.audio.waveform.WaveformPeaks;
+import dev.hazoe.audiostreaming.common.exception.WaveformNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class WaveformServiceTest {
+
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path staging;
+
+    private final AudioRepository audioRepository = mock(AudioRepository.class);
+
+    private WaveformService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 2000 frames ≈ 52 s of silence
+        Files.write(root.resolve("a.mp3"), Mp3TestFiles.frames(2000));
+        service = new WaveformService(
+                new AudioDescriptorCache(audioRepository, true, 100, 600, false),
+                new LocalAudioStorage(root),
+                audioRepository,
+                staging.toString(),
+                // one thread, one queued audio
+                1000, 1, 1, 4096, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (service.pendingCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void givenAudio(Long id, String path, String contentType) {
+        Audio audio = new Audio();
+        audio.setId(id);
+        audio.setAudioPath(path);
+        audio.setContentType(contentType);
+        given(audioRepository.findById(id)).willReturn(Optional.of(audio));
+    }
+
+    @Test
+    void generate_shouldStorePeaksNextToAudio() throws Exception {
+        // given
+        givenAudio(1L, "a.mp3", "audio/mpeg");
+
+        // when
+        WaveformPeaks peaks = service.generate(1L);
+
+        // then: two frames per point
+        assertThat(peaks.size()).isEqualTo(1000);
+        assertThat(peaks.sampleRate()).isEqualTo(Mp3TestFiles.SAMPLE_RATE);
+        assertThat(peaks.samplesPerPoint()).isEqualTo(2 * Mp3TestFiles.SAMPLES_PER_FRAME);
+
+        Path stored = root.resolve("a.mp3" + WaveformService.PEAKS_SUFFIX);
+        assertThat(stored).exists();
+        assertThat(Files.size(stored)).isEqualTo(2020);
+        assertThat(WaveformPeaks.decode(Files.readAllBytes(stored)).max(0)).isZero();
+        assertThat(staging).isEmptyDirectory();
+    }
+
+    @Test
+    void peaks_shouldReturnStoredPeaks_withETag() throws Exception {
+        // given
+        givenAudio(1L, "a.mp3", "audio/mpeg");
+        service.generate(1L);
+
+        // when
+        WaveformResponse waveform = service.peaks(1L);
+
+        // then
+        assertThat(waveform.data()).hasSize(2020);
+        assertThat(waveform.etag()).startsWith("\"").endsWith("\"");
+        assertThat(waveform.lastModified()).isNotNull();
+    }
+
+    /**
+     * Makes the computation for {@code id} wait for the returned latch.
+     */
+    private CountDownLatch givenSlowAudio(Long id, String path) {
+        CountDownLatch release = new CountDownLatch(1);
+        Audio audio = new Audio();
+        audio.setId(id);
+        audio.setAudioPath(path);
+        audio.setContentType("audio/mpeg");
+        given(audioRepository.findById(id)).willAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return Optional.of(audio);
+        });
+        return release;
+    }
+
+    @Test
+    void peaks_shouldNotQueueComputation_whenMissing() {
+        // given
+        givenAudio(1L, "a.mp3", "audio/mpeg");
+
+        // when / then
+        assertThatThrownBy(() -> service.peaks(1L))
+                .isInstanceOf(WaveformNotFoundException.class)
+                .hasMessageContaining("not computed yet");
+
+        assertThat(service.pendingCount()).isZero();
+        assertThat(root.resolve("a.mp3" + WaveformService.PEAKS_SUFFIX)).doesNotExist();
+    }
+
+    @Test
+    void schedule_shouldReject_whenQueueIsFull() throws Exception {
+        // given: one audio computing, one queued
+        CountDownLatch release = givenSlowAudio(1L, "a.mp3");
+        givenAudio(2L, "a.mp3", "audio/mpeg");
+        assertThat(service.schedule(1L)).isTrue();
+        assertThat(service.schedule(2L)).isTrue();
+
+        // when
+        boolean queued = service.schedule(3L);
+
+        // then
+        assertThat(queued).isFalse();
+        assertThat(service.pendingCount()).isEqualTo(2);
+        release.countDown();
+        awaitIdle();
+        assertThat(service.schedule(3L)).isTrue();
+    }
+
+    @Test
+    void peaks_shouldReject_nonMp3Audio() {
+        // given
+        givenAudio(2L, "b.m4a", "audio/mp4");
+
+        // when / then
+        assertThatThrownBy(() -> service.peaks(2L))
+                .isInstanceOf(WaveformNotFoundException.class)
+                .hasMessageContaining("audio/mp4");
+    }
+
+    @Test
+    void backfill_shouldContinueAfterTheQueueFilledUp() throws Exception {
+        // given
+        CountDownLatch release = givenSlowAudio(1L, "a.mp3");
+        service.schedule(1L);
+        for (String path : List.of("c.mp3", "d.mp3")) {
+            Files.write(root.resolve(path), Mp3TestFiles.frames(10));
+        }
+        givenAudio(3L, "c.mp3", "audio/mpeg");
+        givenAudio(4L, "d.mp3", "audio/mpeg");
+        given(audioRepository.findFileStates(eq(0L), any())).willReturn(List.of(
+                new AudioFileState(3L, "c.mp3", "audio/mpeg", null, null, null, null),
+                new AudioFileState(4L, "d.mp3", "audio/mpeg", null, null, null, null)
+        ));
+        given(audioRepository.findFileStates(eq(3L), any())).willReturn(List.of(
+                new AudioFileState(4L, "d.mp3", "audio/mpeg", null, null, null, null)
+        ));
+
+        // when
+        int first = service.backfill();
+        release.countDown();
+        awaitIdle();
+        int second = service.backfill();
+
+        // then
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(1);
+        verify(audioRepository).findFileStates(eq(3L), any());
+        awaitIdle();
+        assertThat(root.resolve("d.mp3" + WaveformService.PEAKS_SUFFIX)).exists();
+    }
+
+    @Test
+    void backfill_shouldQueueOnlyMp3sWithoutFreshPeaks() throws Exception {
+        // given
+        givenAudio(1L, "a.mp3", "audio/mpeg");
+        service.generate(1L);
+        Files.write(root.resolve("c.mp3"), Mp3TestFiles.frames(10));
+        given(audioRepository.findFileStates(eq(0L), any())).willReturn(List.of(
+                new AudioFileState(1L, "a.mp3", "audio/mpeg", null, null, null, null),
+                new AudioFileState(2L, "b.m4a", "audio/mp4", null, null, null, null),
+                new AudioFileState(3L, "c.mp3", "audio/mpeg", null, null, null, null)
+        ));
+        givenAudio(3L, "c.mp3", "audio/mpeg");
+
+        // when
+        int queued = service.backfill();
+
+        // then
+        assertThat(queued).isEqualTo(1);
+        awaitIdle();
+        assertThat(root.resolve("c.mp3" + WaveformService.PEAKS_SUFFIX)).exists();
+    }
+}
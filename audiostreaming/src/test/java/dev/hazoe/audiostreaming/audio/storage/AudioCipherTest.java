@@ -0,0 +1,107 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AudioCipherTest {
+
+    private static final byte[] KEY = new byte[16];
+
+    private final AudioCipher cipher = new AudioCipher(Map.of(1, KEY), 1);
+
+    private static byte[] plaintext(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private byte[] encrypt(byte[] plaintext) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cipher.encrypt(Channels.newChannel(new ByteArrayInputStream(plaintext)), Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private byte[] decryptRange(byte[] encrypted, long offset, int length) throws IOException {
+        AudioCipher.Header header = cipher.readHeader(ByteBuffer.wrap(encrypted));
+        int from = AudioCipher.HEADER_BYTES + (int) offset;
+        byte[] ciphertext = Arrays.copyOfRange(encrypted, from, from + length);
+        try (InputStream in = Channels.newInputStream(
+                cipher.decrypt(Channels.newChannel(new ByteArrayInputStream(ciphertext)), header, offset))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void encrypt_addsHeaderOnly_andHidesPlaintext() throws Exception {
+        // given
+        byte[] plaintext = plaintext(1000);
+
+        // when
+        byte[] encrypted = encrypt(plaintext);
+
+        // then
+        assertThat(encrypted).hasSize(AudioCipher.HEADER_BYTES + plaintext.length);
+        assertThat(Arrays.copyOfRange(encrypted, AudioCipher.HEADER_BYTES, encrypted.length)).isNotEqualTo(plaintext);
+        assertThat(cipher.readHeader(ByteBuffer.wrap(encrypted)).keyId()).isEqualTo(1);
+    }
+
+    @Test
+    void decrypt_anyUnalignedRange_matchesPlaintext() throws Exception {
+        // given
+        byte[] plaintext = plaintext(200_000);
+        byte[] encrypted = encrypt(plaintext);
+
+        // when / then
+        for (int[] range : new int[][]{{0, 200_000}, {1, 15}, {15, 2}, {16, 16}, {100_003, 70_001}, {199_999, 1}}) {
+            assertThat(decryptRange(encrypted, range[0], range[1]))
+                    .isEqualTo(Arrays.copyOfRange(plaintext, range[0], range[0] + range[1]));
+        }
+    }
+
+    @Test
+    void counterAt_carriesAcrossBytes() {
+        // given
+        byte[] iv = new byte[16];
+        Arrays.fill(iv, 8, 16, (byte) 0xFF);
+
+        // when
+        byte[] counter = AudioCipher.counterAt(iv, 1);
+
+        // then
+        byte[] expected = new byte[16];
+        expected[7] = 1;
+        assertThat(counter).isEqualTo(expected);
+    }
+
+    @Test
+    void readHeader_plainBytes_returnsNull() {
+        assertThat(cipher.readHeader(ByteBuffer.wrap(plaintext(AudioCipher.HEADER_BYTES)))).isNull();
+        assertThat(cipher.readHeader(ByteBuffer.wrap(new byte[4]))).isNull();
+    }
+
+    @Test
+    void decrypt_unknownKeyId_throws() throws Exception {
+        // given
+        byte[] encrypted = encrypt(plaintext(32));
+        AudioCipher rotated = AudioCipher.of("2:" + Base64.getEncoder().encodeToString(new byte[32]), 2);
+        AudioCipher.Header header = rotated.readHeader(ByteBuffer.wrap(encrypted));
+
+        // when / then
+        assertThatThrownBy(() -> rotated.decrypt(Channels.newChannel(new ByteArrayInputStream(new byte[0])), header, 0))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("key id 1");
+    }
+}
@@ -0,0 +1,160 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiskBlockCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private DiskBlockCache.BlockLoader bytes(int size) {
+        return target -> {
+            loads.incrementAndGet();
+            Files.write(target, new byte[size]);
+        };
+    }
+
+    private static long sizeOf(FileChannel channel) throws IOException {
+        try (channel) {
+            return channel.size();
+        }
+    }
+
+    @Test
+    void open_secondTime_isServedFromDisk() throws Exception {
+        // given
+        DiskBlockCache cache = new DiskBlockCache(dir, 1_000);
+
+        // when
+        assertThat(sizeOf(cache.open("a-0", bytes(100)))).isEqualTo(100);
+        assertThat(sizeOf(cache.open("a-0", bytes(100)))).isEqualTo(100);
+
+        // then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void open_beyondCapacity_evictsLeastRecentlyUsed() throws Exception {
+        // given
+        DiskBlockCache cache = new DiskBlockCache(dir, 250);
+        sizeOf(cache.open("a-0", bytes(100)));
+        sizeOf(cache.open("a-1", bytes(100)));
+        sizeOf(cache.open("a-0", bytes(100))); // a-1 is now eldest
+
+        // when
+        sizeOf(cache.open("a-2", bytes(100)));
+
+        // then
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        assertThat(cache.sizeBytes()).isEqualTo(200);
+        assertThat(dir.resolve("a-1.blk")).doesNotExist();
+        assertThat(dir.resolve("a-0.blk")).exists();
+    }
+
+    @Test
+    void open_evictedWhileOpen_staysReadable() throws Exception {
+        // given
+        DiskBlockCache cache = new DiskBlockCache(dir, 150);
+        FileChannel reader = cache.open("a-0", target -> Files.write(target, new byte[]{1, 2, 3}));
+
+        // when
+        sizeOf(cache.open("a-1", bytes(149)));
+
+        // then
+        ByteBuffer buffer = ByteBuffer.allocate(3);
+        try (reader) {
+            reader.read(buffer, 0);
+        }
+        assertThat(buffer.array()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void open_concurrentMisses_downloadBlockOnce() throws Exception {
+        // given
+        DiskBlockCache cache = new DiskBlockCache(dir, 1_000);
+        CountDownLatch release = new CountDownLatch(1);
+        DiskBlockCache.BlockLoader slow = target -> {
+            loads.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            Files.write(target, new byte[100]);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        // when
+        List<Future<Long>> sizes = new ArrayList<>();
+        try {
+            for (int i = 0; i < 3; i++) {
+                sizes.add(executor.submit(() -> sizeOf(cache.open("a-0", slow))));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cache.coalescedCount() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            // then
+            for (Future<Long> size : sizes) {
+                assertThat(size.get(5, TimeUnit.SECONDS)).isEqualTo(100);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.coalescedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void open_whenLoaderFails_leavesNoFiles() throws Exception {
+        // given
+        DiskBlockCache cache = new DiskBlockCache(dir, 1_000);
+
+        // when / then
+        assertThatThrownBy(() -> cache.open("a-0", target -> {
+            throw new IOException("boom");
+        })).isInstanceOf(IOException.class);
+
+        try (var files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void constructor_removesBlocksFromPreviousRun() throws Exception {
+        // given
+        Files.write(dir.resolve("stale-0.blk"), new byte[10]);
+
+        // when
+        new DiskBlockCache(dir, 1_000);
+
+        // then
+        assertThat(dir.resolve("stale-0.blk")).doesNotExist();
+    }
+}
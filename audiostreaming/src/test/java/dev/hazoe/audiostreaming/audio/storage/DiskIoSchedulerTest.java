@@ -0,0 +1,124 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiskIoSchedulerTest {
+
+    @TempDir
+    Path root;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private DiskIoScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        if (scheduler != null) {
+            scheduler.destroy();
+        }
+    }
+
+    private record Read(int count, String content) {}
+
+    private Future<Read> submit(FileChannel channel, long position, int length) {
+        return executor.submit(() -> {
+            ByteBuffer dst = ByteBuffer.allocate(length);
+            int count = scheduler.read(root, channel, dst, position);
+            return new Read(count, new String(dst.array(), 0, Math.max(count, 0), StandardCharsets.US_ASCII));
+        });
+    }
+
+    @Test
+    void read_adjacentAndOverlappingRequests_mergedIntoOneRead() throws Exception {
+        // given: the worker lingers until the batch of three is complete
+        scheduler = new DiskIoScheduler(true, TimeUnit.SECONDS.toMicros(5), 3, 1024);
+        Path file = Files.writeString(root.resolve("a.mp3"), "0123456789abcdefghij");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // when
+            List<Future<Read>> reads = new ArrayList<>();
+            reads.add(submit(channel, 8, 4));
+            reads.add(submit(channel, 0, 4));
+            reads.add(submit(channel, 4, 6));
+
+            // then
+            assertThat(reads.get(0).get(10, TimeUnit.SECONDS)).isEqualTo(new Read(4, "89ab"));
+            assertThat(reads.get(1).get(10, TimeUnit.SECONDS)).isEqualTo(new Read(4, "0123"));
+            assertThat(reads.get(2).get(10, TimeUnit.SECONDS)).isEqualTo(new Read(6, "456789"));
+        }
+        assertThat(scheduler.mergedReadCount()).isEqualTo(1);
+        assertThat(scheduler.mergedRequestCount()).isEqualTo(3);
+        assertThat(scheduler.singleReadCount()).isZero();
+    }
+
+    @Test
+    void read_distantRequests_servedSeparately() throws Exception {
+        // given
+        scheduler = new DiskIoScheduler(true, TimeUnit.SECONDS.toMicros(5), 2, 1024);
+        Path file = Files.writeString(root.resolve("a.mp3"), "0123456789abcdefghij");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // when
+            Future<Read> first = submit(channel, 0, 2);
+            Future<Read> second = submit(channel, 15, 2);
+
+            // then
+            assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo(new Read(2, "01"));
+            assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo(new Read(2, "fg"));
+        }
+        assertThat(scheduler.singleReadCount()).isEqualTo(2);
+        assertThat(scheduler.mergedReadCount()).isZero();
+    }
+
+    @Test
+    void read_mergedSpanPastEndOfFile_returnsShortReadAndEof() throws Exception {
+        // given
+        scheduler = new DiskIoScheduler(true, TimeUnit.SECONDS.toMicros(5), 2, 1024);
+        Path file = Files.writeString(root.resolve("a.mp3"), "0123456789");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // when
+            Future<Read> tail = submit(channel, 6, 6);
+            Future<Read> beyond = submit(channel, 12, 4);
+
+            // then
+            assertThat(tail.get(10, TimeUnit.SECONDS)).isEqualTo(new Read(4, "6789"));
+            assertThat(beyond.get(10, TimeUnit.SECONDS)).isEqualTo(new Read(-1, ""));
+        }
+    }
+
+    @Test
+    void read_disabled_readsOnCallerThread() throws Exception {
+        // given
+        scheduler = DiskIoScheduler.disabled();
+        Path file = Files.writeString(root.resolve("a.mp3"), "0123456789");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // when
+            ByteBuffer dst = ByteBuffer.allocate(3);
+            int count = scheduler.read(null, channel, dst, 5);
+
+            // then
+            assertThat(count).isEqualTo(3);
+            assertThat(new String(dst.array(), StandardCharsets.US_ASCII)).isEqualTo("567");
+        }
+        assertThat(scheduler.singleReadCount() + scheduler.mergedReadCount()).isZero();
+    }
+}
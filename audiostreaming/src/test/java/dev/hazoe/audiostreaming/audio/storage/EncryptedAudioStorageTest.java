@@ -0,0 +1,101 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EncryptedAudioStorageTest {
+
+    @TempDir
+    Path root;
+
+    private final AudioCipher cipher = new AudioCipher(Map.of(1, new byte[32]), 1);
+
+    private void writeEncrypted(String key, String content) throws IOException {
+        try (ReadableByteChannel source = Channels.newChannel(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII)));
+             FileChannel target = FileChannel.open(root.resolve(key),
+                     StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            cipher.encrypt(source, target);
+        }
+    }
+
+    private static String read(AudioStorage storage, StorageObject object, long offset, long length) throws IOException {
+        try (InputStream in = Channels.newInputStream(storage.openRange(object, offset, length))) {
+            return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Test
+    void stat_encryptedObject_reportsPlaintextSizeAndNoLocalPath() throws Exception {
+        // given
+        writeEncrypted("a.mp3", "0123456789abcdefghij");
+        EncryptedAudioStorage storage = new EncryptedAudioStorage(new LocalAudioStorage(root), cipher, 16);
+
+        // when
+        StorageObject object = storage.stat("a.mp3");
+
+        // then
+        assertThat(object.size()).isEqualTo(20);
+        assertThat(object.version()).endsWith(EncryptedAudioStorage.VERSION_SUFFIX);
+        assertThat(storage.localPath(object)).isEmpty();
+    }
+
+    @Test
+    void openRange_encryptedObject_decryptsOnlyTheRange() throws Exception {
+        // given
+        writeEncrypted("a.mp3", "0123456789abcdefghij");
+        EncryptedAudioStorage storage = new EncryptedAudioStorage(new LocalAudioStorage(root), cipher, 16);
+        StorageObject object = storage.stat("a.mp3");
+
+        // when / then
+        assertThat(read(storage, object, 0, 20)).isEqualTo("0123456789abcdefghij");
+        assertThat(read(storage, object, 17, 3)).isEqualTo("hij");
+        assertThat(read(storage, object, 5, 12)).isEqualTo("56789abcdefg");
+    }
+
+    @Test
+    void plainObject_passesThrough() throws Exception {
+        // given
+        Files.writeString(root.resolve("b.mp3"), "0123456789abcdefghijklmnop");
+        LocalAudioStorage local = new LocalAudioStorage(root);
+        EncryptedAudioStorage storage = new EncryptedAudioStorage(local, cipher, 16);
+
+        // when
+        StorageObject object = storage.stat("b.mp3");
+
+        // then
+        assertThat(object).isEqualTo(local.stat("b.mp3"));
+        assertThat(storage.localPath(object)).contains(root.resolve("b.mp3"));
+        assertThat(read(storage, object, 2, 3)).isEqualTo("234");
+    }
+
+    @Test
+    void stat_sameVersion_readsHeaderOnce() throws Exception {
+        // given
+        writeEncrypted("a.mp3", "0123456789");
+        EncryptedAudioStorage storage = new EncryptedAudioStorage(new LocalAudioStorage(root), cipher, 16);
+
+        // when
+        StorageObject first = storage.stat("a.mp3");
+        StorageObject second = storage.stat("a.mp3");
+        read(storage, second, 0, 10);
+
+        // then
+        assertThat(second).isEqualTo(first);
+        assertThat(storage.cachedHeaderCount()).isEqualTo(1);
+    }
+}
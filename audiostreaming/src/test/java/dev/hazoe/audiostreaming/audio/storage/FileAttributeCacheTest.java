@@ -0,0 +1,120 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileAttributeCacheTest {
+
+    @TempDir
+    Path root;
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, StorageObject> loader = key -> {
+        loads.incrementAndGet();
+        return new StorageObject(key, 10, Instant.EPOCH, "v" + loads.get());
+    };
+
+    @Test
+    void get_withinTtl_loadsOnce() {
+        // given
+        FileAttributeCache cache = new FileAttributeCache(root, Duration.ofSeconds(60), 100, false, now::get);
+
+        // when
+        cache.get("a.mp3", loader);
+        now.addAndGet(Duration.ofSeconds(59).toNanos());
+        StorageObject object = cache.get("a.mp3", loader);
+
+        // then
+        assertThat(object.version()).isEqualTo("v1");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_afterTtl_reloads() {
+        // given
+        FileAttributeCache cache = new FileAttributeCache(root, Duration.ofSeconds(60), 100, false, now::get);
+        cache.get("a.mp3", loader);
+
+        // when
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+        StorageObject object = cache.get("a.mp3", loader);
+
+        // then
+        assertThat(object.version()).isEqualTo("v2");
+    }
+
+    @Test
+    void invalidate_directory_dropsItsFiles() {
+        // given
+        FileAttributeCache cache = new FileAttributeCache(root, Duration.ofSeconds(60), 100, false, now::get);
+        cache.get("audio/2026/a.mp3", loader);
+        cache.get("audio/2026/b.mp3", loader);
+        cache.get("other/c.mp3", loader);
+
+        // when
+        cache.invalidate("audio/2026");
+
+        // then
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void get_beyondMaxEntries_evictsLeastRecentlyUsed() {
+        // given
+        FileAttributeCache cache = new FileAttributeCache(root, Duration.ofSeconds(60), 2, false, now::get);
+        cache.get("a.mp3", loader);
+        cache.get("b.mp3", loader);
+        cache.get("a.mp3", loader);
+
+        // when
+        cache.get("c.mp3", loader);
+        cache.get("a.mp3", loader);
+
+        // then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(loads.get()).isEqualTo(3); // a.mp3 survived, b.mp3 was evicted
+    }
+
+    @Test
+    void watch_modifiedFile_isInvalidated() throws Exception {
+        // given
+        Path dir = Files.createDirectories(root.resolve("audio"));
+        Path file = Files.writeString(dir.resolve("a.mp3"), "v1");
+
+        try (FileAttributeCache cache = new FileAttributeCache(root, Duration.ofHours(1), 100, true)) {
+            assertThat(cache.isWatching()).isTrue();
+            cache.get("audio/a.mp3", loader);
+
+            // when
+            Files.writeString(file, "v2-longer");
+
+            // then
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (cache.size() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertThat(cache.size()).isZero();
+        }
+    }
+
+    @Test
+    void watch_missingRoot_fallsBackToTtl() throws Exception {
+        try (FileAttributeCache cache = new FileAttributeCache(
+                root.resolve("missing"), Duration.ofSeconds(60), 100, true)) {
+            assertThat(cache.isWatching()).isFalse();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileChannelPoolTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void acquire_sameFileAndVersion_sharesOneChannel() throws Exception {
+        // given
+        Path file = Files.writeString(root.resolve("a.mp3"), "0123456789");
+        FileChannelPool pool = new FileChannelPool(true, 4);
+
+        // when
+        try (FileChannelPool.Lease first = pool.acquire(file, "v1");
+             FileChannelPool.Lease second = pool.acquire(file, "v1")) {
+
+            // then
+            assertThat(second.channel()).isSameAs(first.channel());
+            assertThat(read(first.channel(), 2, 3)).isEqualTo("234");
+            assertThat(read(second.channel(), 7, 3)).isEqualTo("789");
+            assertThat(pool.leasedCount()).isEqualTo(2);
+        }
+        assertThat(pool.leasedCount()).isZero();
+        assertThat(pool.openCount()).isEqualTo(1);
+    }
+
+    @Test
+    void acquire_newVersion_opensNewChannel() throws Exception {
+        // given
+        Path file = Files.writeString(root.resolve("a.mp3"), "0123456789");
+        FileChannelPool pool = new FileChannelPool(true, 4);
+        FileChannel old;
+        try (FileChannelPool.Lease lease = pool.acquire(file, "v1")) {
+            old = lease.channel();
+        }
+
+        // when
+        try (FileChannelPool.Lease lease = pool.acquire(file, "v2")) {
+
+            // then
+            assertThat(lease.channel()).isNotSameAs(old);
+        }
+    }
+
+    @Test
+    void eviction_keepsLeasedChannelOpenUntilReleased() throws Exception {
+        // given
+        Path a = Files.writeString(root.resolve("a.mp3"), "aaaa");
+        Path b = Files.writeString(root.resolve("b.mp3"), "bbbb");
+        FileChannelPool pool = new FileChannelPool(true, 1);
+        FileChannelPool.Lease leaseA = pool.acquire(a, "v1");
+
+        // when
+        try (FileChannelPool.Lease leaseB = pool.acquire(b, "v1")) {
+
+            // then
+            assertThat(pool.openCount()).isEqualTo(1);
+            assertThat(leaseA.channel().isOpen()).isTrue();
+            assertThat(read(leaseA.channel(), 0, 4)).isEqualTo("aaaa");
+        }
+        leaseA.close();
+        assertThat(leaseA.channel().isOpen()).isFalse();
+    }
+
+    @Test
+    void eviction_closesIdleChannel() throws Exception {
+        // given
+        Path a = Files.writeString(root.resolve("a.mp3"), "aaaa");
+        Path b = Files.writeString(root.resolve("b.mp3"), "bbbb");
+        FileChannelPool pool = new FileChannelPool(true, 1);
+        FileChannel channelA;
+        try (FileChannelPool.Lease lease = pool.acquire(a, "v1")) {
+            channelA = lease.channel();
+        }
+
+        // when
+        pool.acquire(b, "v1").close();
+
+        // then
+        assertThat(channelA.isOpen()).isFalse();
+        assertThat(pool.openCount()).isEqualTo(1);
+    }
+
+    @Test
+    void acquire_closedChannel_isReopened() throws Exception {
+        // given
+        Path file = Files.writeString(root.resolve("a.mp3"), "0123456789");
+        FileChannelPool pool = new FileChannelPool(true, 4);
+        try (FileChannelPool.Lease lease = pool.acquire(file, "v1")) {
+            lease.channel().close(); // e.g. an interrupted reader
+        }
+
+        // when
+        try (FileChannelPool.Lease lease = pool.acquire(file, "v1")) {
+
+            // then
+            assertThat(lease.channel().isOpen()).isTrue();
+            assertThat(read(lease.channel(), 0, 2)).isEqualTo("01");
+        }
+    }
+
+    @Test
+    void invalidate_closesIdleChannelsOfPath() throws Exception {
+        // given
+        Path file = Files.writeString(root.resolve("a.mp3"), "0123456789");
+        FileChannelPool pool = new FileChannelPool(true, 4);
+        FileChannel channel;
+        try (FileChannelPool.Lease lease = pool.acquire(file, "v1")) {
+            channel = lease.channel();
+        }
+
+        // when
+        pool.invalidate(file);
+
+        // then
+        assertThat(channel.isOpen()).isFalse();
+        assertThat(pool.openCount()).isZero();
+    }
+
+    @Test
+    void unpooled_closesChannelOnRelease() throws Exception {
+        // given
+        Path file = Files.writeString(root.resolve("a.mp3"), "0123456789");
+        FileChannelPool pool = FileChannelPool.unpooled();
+
+        // when
+        FileChannelPool.Lease lease = pool.acquire(file, "v1");
+        lease.close();
+        lease.close();
+
+        // then
+        assertThat(lease.channel().isOpen()).isFalse();
+        assertThat(pool.leasedCount()).isZero();
+    }
+
+    @Test
+    void bindTo_reportsHitsAndMisses() throws Exception {
+        // given
+        Path file = Files.writeString(root.resolve("a.mp3"), "0123456789");
+        FileChannelPool pool = new FileChannelPool(true, 4);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pool.bindTo(registry);
+
+        // when
+        pool.acquire(file, "v1").close();
+        pool.acquire(file, "v1").close();
+
+        // then
+        assertThat(registry.get("cache.gets").tag("cache", "file-channels").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "file-channels").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.size").tag("cache", "file-channels").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void acquire_countsLeasesPerRegisteredRoot() throws Exception {
+        // given
+        Path disk = Files.createDirectories(root.resolve("disk1"));
+        Path file = Files.writeString(disk.resolve("a.mp3"), "0123456789");
+        FileChannelPool pool = new FileChannelPool(true, 4);
+        pool.diskLoad().register(disk);
+
+        // when
+        FileChannelPool.Lease first = pool.acquire(file, "v1");
+        FileChannelPool.Lease second = pool.acquire(file, "v1");
+        first.close();
+
+        // then
+        assertThat(pool.diskLoad().inFlight(disk)).isEqualTo(1);
+        second.close();
+        assertThat(pool.diskLoad().inFlight(disk)).isZero();
+        assertThat(pool.diskLoad().inFlight(root)).isZero();
+    }
+
+    private static String read(FileChannel channel, long position, int length) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        channel.read(buffer, position);
+        return new String(buffer.array(), StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,190 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalAudioStorageTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void stat_returnsSizeAndVersion() throws Exception {
+        // given
+        Files.createDirectories(root.resolve("audio"));
+        Files.writeString(root.resolve("audio/a.mp3"), "0123456789");
+        LocalAudioStorage storage = new LocalAudioStorage(root);
+
+        // when
+        StorageObject object = storage.stat("audio/a.mp3");
+
+        // then
+        assertThat(object.size()).isEqualTo(10);
+        assertThat(object.version()).endsWith("-a");
+        assertThat(storage.localPath(object)).contains(root.resolve("audio/a.mp3"));
+    }
+
+    @Test
+    void openRange_readsOnlyTheRange() throws Exception {
+        // given
+        Files.writeString(root.resolve("a.mp3"), "0123456789");
+        LocalAudioStorage storage = new LocalAudioStorage(root);
+        StorageObject object = storage.stat("a.mp3");
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ReadableByteChannel channel = storage.openRange(object, 2, 5);
+             InputStream in = Channels.newInputStream(channel)) {
+            in.transferTo(out);
+        }
+
+        // then
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("23456");
+    }
+
+    @Test
+    void stat_missingFile_throwsAudioStorageException() {
+        LocalAudioStorage storage = new LocalAudioStorage(root);
+
+        assertThatThrownBy(() -> storage.stat("missing.mp3"))
+                .isInstanceOf(AudioStorageException.class)
+                .hasMessageContaining("not accessible");
+    }
+
+    @Test
+    void stat_pathOutsideRoot_isRejected() {
+        LocalAudioStorage storage = new LocalAudioStorage(root.resolve("audio"));
+
+        assertThatThrownBy(() -> storage.stat("../secret.txt"))
+                .isInstanceOf(AudioStorageException.class)
+                .hasMessageContaining("escapes");
+    }
+
+    @Test
+    void stat_withAttributeCache_servesCachedMetadataUntilInvalidated() throws Exception {
+        // given
+        Path file = Files.writeString(root.resolve("a.mp3"), "0123456789");
+        LocalAudioStorage storage = new LocalAudioStorage(
+                root.toString(), "", 128, true, 60, 100, false, 1, 200, 60, FileChannelPool.unpooled());
+        storage.stat("a.mp3");
+
+        // when
+        Files.writeString(file, "0123");
+
+        // then
+        assertThat(storage.stat("a.mp3").size()).isEqualTo(10);
+        storage.invalidate("a.mp3");
+        assertThat(storage.stat("a.mp3").size()).isEqualTo(4);
+    }
+
+    @Test
+    void stat_multipleRoots_findsFileOnAnyRoot() throws Exception {
+        // given
+        Path disk1 = Files.createDirectories(root.resolve("disk1"));
+        Path disk2 = Files.createDirectories(root.resolve("disk2"));
+        Files.writeString(disk2.resolve("a.mp3"), "0123456789");
+        LocalAudioStorage storage = new LocalAudioStorage(
+                "", disk1 + "," + disk2, 16, false, 60, 100, false, 1, 200, 60, FileChannelPool.unpooled());
+
+        // when
+        StorageObject object = storage.stat("a.mp3");
+
+        // then
+        assertThat(object.size()).isEqualTo(10);
+        assertThat(storage.localPath(object)).contains(disk2.resolve("a.mp3"));
+    }
+
+    @Test
+    void stat_hotKey_isReplicatedAndReadFromLeastLoadedRoot() throws Exception {
+        // given
+        Path disk1 = Files.createDirectories(root.resolve("disk1"));
+        Path disk2 = Files.createDirectories(root.resolve("disk2"));
+        Files.writeString(disk1.resolve("a.mp3"), "0123456789");
+        FileChannelPool pool = new FileChannelPool(true, 16);
+        LocalAudioStorage storage = new LocalAudioStorage(
+                "", disk1 + "," + disk2, 16, true, 60, 100, false, 2, 3, 60, pool);
+
+        // when
+        StorageObject object = null;
+        for (int i = 0; i < 3; i++) {
+            object = storage.stat("a.mp3");
+        }
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (storage.replicasOf("a.mp3").size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        // then
+        assertThat(storage.replicasOf("a.mp3")).containsExactlyInAnyOrder(disk1, disk2);
+        assertThat(storage.replicationCount()).isEqualTo(1);
+        assertThat(Files.readString(disk2.resolve("a.mp3"))).isEqualTo("0123456789");
+        assertThat(storage.stat("a.mp3").version()).isEqualTo(object.version());
+
+        try (FileChannelPool.Lease busy = pool.acquire(disk1.resolve("a.mp3"), object.version())) {
+            assertThat(storage.localPath(object)).contains(disk2.resolve("a.mp3"));
+        }
+        try (FileChannelPool.Lease busy = pool.acquire(disk2.resolve("a.mp3"), object.version())) {
+            assertThat(storage.localPath(object)).contains(disk1.resolve("a.mp3"));
+        }
+        // sendfile reads are not counted, so idle copies are taken in turn
+        assertThat(Stream.of(storage.localPath(object), storage.localPath(object)).map(Optional::orElseThrow))
+                .containsExactlyInAnyOrder(disk1.resolve("a.mp3"), disk2.resolve("a.mp3"));
+        storage.destroy();
+        pool.destroy();
+    }
+
+    @Test
+    void store_movesFileUnderKeyAndReplacesCachedMetadata(@TempDir Path staging) throws Exception {
+        // given
+        Files.createDirectories(root.resolve("audio"));
+        Files.writeString(root.resolve("audio/a.mp3"), "old");
+        LocalAudioStorage storage = new LocalAudioStorage(root);
+        storage.stat("audio/a.mp3");
+        Path upload = Files.writeString(staging.resolve("upload.part"), "0123456789");
+
+        // when
+        StorageObject stored = storage.store("audio/a.mp3", upload);
+
+        // then
+        assertThat(stored.size()).isEqualTo(10);
+        assertThat(storage.stat("audio/a.mp3")).isEqualTo(stored);
+        assertThat(Files.readString(root.resolve("audio/a.mp3"))).isEqualTo("0123456789");
+        assertThat(upload).doesNotExist();
+    }
+
+    @Test
+    void keys_listsFilesOnEveryRootOnce_skippingTemporaryFiles() throws Exception {
+        // given
+        Path disk1 = Files.createDirectories(root.resolve("disk1/audio"));
+        Path disk2 = Files.createDirectories(root.resolve("disk2/audio"));
+        Files.writeString(disk1.resolve("a.mp3"), "a");
+        Files.writeString(disk2.resolve("b.mp3"), "b");
+        // a replicated key and an unfinished replica
+        Files.writeString(disk2.resolve("a.mp3"), "a");
+        Files.writeString(disk2.resolve(".replica-1.tmp"), "a");
+        LocalAudioStorage storage = new LocalAudioStorage(
+                "", root.resolve("disk1") + "," + root.resolve("disk2"), 16,
+                false, 60, 100, false, 1, 200, 60, FileChannelPool.unpooled());
+
+        // when
+        try (Stream<String> keys = storage.keys()) {
+
+            // then
+            assertThat(keys).containsExactlyInAnyOrder("audio/a.mp3", "audio/b.mp3");
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PackAudioStorageTest {
+
+    private static final Instant MTIME = Instant.ofEpochMilli(1_700_000_000_000L);
+
+    @TempDir
+    Path root;
+
+    private final FileChannelPool pool = new FileChannelPool(true, 16);
+
+    @AfterEach
+    void tearDown() {
+        pool.destroy();
+    }
+
+    private PackAudioStorage storage(long maxPackBytes) throws IOException {
+        // ratio > 1: compaction only when a test asks for it
+        return new PackAudioStorage(root.resolve("packs").toString(), maxPackBytes, 2.0, "", pool);
+    }
+
+    private static StorageObject put(PackAudioStorage storage, String key, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.US_ASCII);
+        return storage.put(key, Channels.newChannel(new ByteArrayInputStream(bytes)), bytes.length, MTIME);
+    }
+
+    private static String read(PackAudioStorage storage, String key, long offset, long length) throws IOException {
+        StorageObject object = storage.stat(key);
+        try (ReadableByteChannel channel = storage.openRange(object, offset, length);
+             InputStream in = Channels.newInputStream(channel)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            in.transferTo(out);
+            return out.toString(StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Test
+    void put_thenStatAndOpenRange_readsWithinPack() throws Exception {
+        // given
+        PackAudioStorage storage = storage(1 << 20);
+        put(storage, "audio/a.mp3", "0123456789");
+        put(storage, "audio/b.mp3", "abcdefghij");
+
+        // when
+        StorageObject object = storage.stat("audio/b.mp3");
+
+        // then
+        assertThat(object.size()).isEqualTo(10);
+        assertThat(object.lastModified()).isEqualTo(MTIME);
+        assertThat(read(storage, "audio/b.mp3", 2, 3)).isEqualTo("cde");
+        assertThat(read(storage, "audio/a.mp3", 0, 10)).isEqualTo("0123456789");
+        assertThat(storage.packCount()).isEqualTo(1);
+    }
+
+    @Test
+    void stat_unknownKey_throws() throws Exception {
+        // given
+        PackAudioStorage storage = storage(1 << 20);
+
+        // when / then
+        assertThatThrownBy(() -> storage.stat("missing.mp3"))
+                .isInstanceOf(AudioStorageException.class)
+                .hasMessageContaining("missing.mp3");
+    }
+
+    @Test
+    void put_existingKey_replacesContentAndVersion() throws Exception {
+        // given
+        PackAudioStorage storage = storage(1 << 20);
+        StorageObject first = put(storage, "a.mp3", "0123456789");
+
+        // when
+        StorageObject second = put(storage, "a.mp3", "xyz");
+
+        // then
+        assertThat(second.version()).isNotEqualTo(first.version());
+        assertThat(read(storage, "a.mp3", 0, 3)).isEqualTo("xyz");
+        assertThat(storage.garbageBytes()).isEqualTo(PackFile.recordLength("a.mp3", 10));
+        assertThatThrownBy(() -> storage.openRange(first, 0, 10)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void constructor_rebuildsIndexFromPacks() throws Exception {
+        // given
+        PackAudioStorage before = storage(1 << 20);
+        put(before, "a.mp3", "0123456789");
+        put(before, "b.mp3", "abcdefghij");
+        put(before, "a.mp3", "new");
+        before.delete("b.mp3");
+        before.destroy();
+
+        // when
+        PackAudioStorage after = storage(1 << 20);
+
+        // then
+        assertThat(read(after, "a.mp3", 0, 3)).isEqualTo("new");
+        assertThatThrownBy(() -> after.stat("b.mp3")).isInstanceOf(AudioStorageException.class);
+        assertThat(after.liveBytes()).isEqualTo(PackFile.recordLength("a.mp3", 3));
+    }
+
+    @Test
+    void constructor_dropsTornTailOfActivePack() throws Exception {
+        // given
+        PackAudioStorage before = storage(1 << 20);
+        put(before, "a.mp3", "0123456789");
+        before.destroy();
+        Path pack = PackFile.pathOf(root.resolve("packs"), 1);
+        long complete = Files.size(pack);
+        try (FileChannel channel = FileChannel.open(pack, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // a header whose data never made it to disk
+            channel.write(ByteBuffer.allocate(PackFile.HEADER_BYTES).putInt(PackFile.MAGIC).put(PackFile.PENDING).rewind());
+        }
+
+        // when
+        PackAudioStorage after = storage(1 << 20);
+        put(after, "b.mp3", "abc");
+
+        // then
+        assertThat(read(after, "a.mp3", 0, 10)).isEqualTo("0123456789");
+        assertThat(read(after, "b.mp3", 0, 3)).isEqualTo("abc");
+        assertThat(Files.size(pack)).isEqualTo(complete + PackFile.recordLength("b.mp3", 3));
+    }
+
+    @Test
+    void put_beyondMaxPackBytes_rollsOverToNewPack() throws Exception {
+        // given
+        long record = PackFile.recordLength("a.mp3", 10);
+        PackAudioStorage storage = storage(record * 2);
+
+        // when
+        put(storage, "a.mp3", "0123456789");
+        put(storage, "b.mp3", "0123456789");
+        put(storage, "c.mp3", "0123456789");
+
+        // then
+        assertThat(storage.packCount()).isEqualTo(2);
+        assertThat(read(storage, "c.mp3", 0, 10)).isEqualTo("0123456789");
+    }
+
+    @Test
+    void compact_movesLiveRecordsAndRemovesPack() throws Exception {
+        // given
+        long record = PackFile.recordLength("a.mp3", 10);
+        PackAudioStorage storage = storage(record * 2);
+        StorageObject a = put(storage, "a.mp3", "0123456789");
+        put(storage, "b.mp3", "abcdefghij");
+        put(storage, "c.mp3", "ABCDEFGHIJ"); // seals pack 1
+        storage.delete("b.mp3");
+
+        // when
+        storage.compact(storage.pack(1));
+
+        // then
+        assertThat(PackFile.pathOf(root.resolve("packs"), 1)).doesNotExist();
+        assertThat(storage.stat("a.mp3").version()).isEqualTo(a.version());
+        assertThat(read(storage, "a.mp3", 0, 10)).isEqualTo("0123456789");
+        assertThat(read(storage, "c.mp3", 0, 10)).isEqualTo("ABCDEFGHIJ");
+        assertThat(storage.garbageBytes()).isZero();
+    }
+
+    @Test
+    void compact_readerHoldingOldPack_keepsReading() throws Exception {
+        // given
+        long record = PackFile.recordLength("a.mp3", 10);
+        PackAudioStorage storage = storage(record * 2);
+        put(storage, "a.mp3", "0123456789");
+        put(storage, "b.mp3", "abcdefghij");
+        put(storage, "c.mp3", "ABCDEFGHIJ");
+        storage.delete("b.mp3");
+        ReadableByteChannel reader = storage.openRange(storage.stat("a.mp3"), 0, 10);
+
+        // when
+        storage.compact(storage.pack(1));
+
+        // then
+        try (InputStream in = Channels.newInputStream(reader)) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.US_ASCII)).isEqualTo("0123456789");
+        }
+    }
+
+    @Test
+    void constructor_importFrom_packsExistingFiles() throws Exception {
+        // given
+        Path source = Files.createDirectories(root.resolve("storage/audio/2024/01"));
+        Files.writeString(source.resolve("a.mp3"), "0123456789");
+
+        // when
+        PackAudioStorage storage = new PackAudioStorage(
+                root.resolve("packs").toString(), 1 << 20, 2.0, root.resolve("storage").toString(), pool);
+
+        // then
+        assertThat(read(storage, "audio/2024/01/a.mp3", 0, 10)).isEqualTo("0123456789");
+    }
+}
@@ -0,0 +1,224 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the S3 backend against a tiny in-process stand-in that implements
+ * HEAD and ranged GET for a single object, like a local MinIO would.
+ */
+class S3AudioStorageTest {
+
+    private static final String CONTENT = "0123456789abcdefghij"; // 20 bytes
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+    @TempDir
+    Path cacheDir;
+
+    private HttpServer server;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private final List<String> ifMatches = new CopyOnWriteArrayList<>();
+    private volatile String etag = "\"v1\"";
+
+    private S3AudioStorage storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/audio/", this::handle);
+        server.start();
+
+        storage = new S3AudioStorage(
+                "http://127.0.0.1:" + server.getAddress().getPort(),
+                "audio",
+                "us-east-1",
+                "minio",
+                "minio-secret",
+                4,
+                1_000,
+                5_000,
+                cacheDir.toString(),
+                1024 * 1024,
+                8,
+                60,
+                100
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        storage.destroy();
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        requests.add(exchange.getRequestMethod() + " " + path + (range == null ? "" : " " + range));
+        authorizations.add(String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+
+        if (!path.equals("/audio/tracks/a.mp3")) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+
+        byte[] content = CONTENT.getBytes(StandardCharsets.US_ASCII);
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT");
+
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(content.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+
+        String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+        ifMatches.add(String.valueOf(ifMatch));
+        if (ifMatch != null && !ifMatch.equals(etag)) {
+            exchange.sendResponseHeaders(412, -1);
+            exchange.close();
+            return;
+        }
+
+        Matcher matcher = RANGE.matcher(range);
+        if (!matcher.matches()) {
+            exchange.sendResponseHeaders(416, -1);
+            exchange.close();
+            return;
+        }
+        int start = Integer.parseInt(matcher.group(1));
+        int end = Integer.parseInt(matcher.group(2));
+
+        exchange.sendResponseHeaders(206, end - start + 1);
+        exchange.getResponseBody().write(content, start, end - start + 1);
+        exchange.close();
+    }
+
+    private String read(StorageObject object, long offset, long length) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ReadableByteChannel channel = storage.openRange(object, offset, length);
+             InputStream in = Channels.newInputStream(channel)) {
+            in.transferTo(out);
+        }
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void stat_returnsObjectMetadata() {
+        // when
+        StorageObject object = storage.stat("tracks/a.mp3");
+
+        // then
+        assertThat(object.size()).isEqualTo(20);
+        assertThat(object.version()).isEqualTo("\"v1\"");
+        assertThat(object.lastModified()).isEqualTo("2015-10-21T07:28:00Z");
+        assertThat(storage.localPath(object)).isEmpty();
+        assertThat(authorizations.getFirst()).startsWith("AWS4-HMAC-SHA256 Credential=minio/");
+    }
+
+    @Test
+    void stat_repeated_sendsOneHead() {
+        // when
+        StorageObject first = storage.stat("tracks/a.mp3");
+        StorageObject second = storage.stat("tracks/a.mp3");
+
+        // then
+        assertThat(second).isEqualTo(first);
+        assertThat(requests).containsExactly("HEAD /audio/tracks/a.mp3");
+        assertThat(storage.statCacheHits()).isEqualTo(1);
+    }
+
+    @Test
+    void openRange_objectReplacedAfterStat_failsWithoutCaching() throws Exception {
+        // given
+        StorageObject stale = storage.stat("tracks/a.mp3");
+        etag = "\"v2\"";
+
+        // when / then
+        assertThatThrownBy(() -> read(stale, 0, 8))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("changed since it was stat'ed");
+        assertThat(ifMatches).containsExactly("\"v1\"");
+
+        // the 412 dropped the cached metadata, so the next stat reads the new version
+        assertThat(read(storage.stat("tracks/a.mp3"), 0, 8)).isEqualTo("01234567");
+        assertThat(ifMatches).containsExactly("\"v1\"", "\"v2\"");
+    }
+
+    @Test
+    void stat_missingObject_throwsAudioStorageException() {
+        assertThatThrownBy(() -> storage.stat("tracks/missing.mp3"))
+                .isInstanceOf(AudioStorageException.class)
+                .hasMessageContaining("not accessible");
+    }
+
+    @Test
+    void openRange_fetchesAlignedBlocks() throws Exception {
+        // given
+        StorageObject object = storage.stat("tracks/a.mp3");
+
+        // when: bytes 5..12 span blocks 0 and 1 (block size 8)
+        String content = read(object, 5, 8);
+
+        // then
+        assertThat(content).isEqualTo("56789abc");
+        assertThat(requests).containsExactly(
+                "HEAD /audio/tracks/a.mp3",
+                "GET /audio/tracks/a.mp3 bytes=0-7",
+                "GET /audio/tracks/a.mp3 bytes=8-15"
+        );
+    }
+
+    @Test
+    void openRange_lastBlock_isClampedToObjectSize() throws Exception {
+        // given
+        StorageObject object = storage.stat("tracks/a.mp3");
+
+        // when
+        String content = read(object, 16, 4);
+
+        // then
+        assertThat(content).isEqualTo("ghij");
+        assertThat(requests).contains("GET /audio/tracks/a.mp3 bytes=16-19");
+    }
+
+    @Test
+    void openRange_warmBlocks_areServedFromDiskCache() throws Exception {
+        // given
+        StorageObject object = storage.stat("tracks/a.mp3");
+        read(object, 0, 20);
+        int requestsAfterFirstRead = requests.size();
+
+        // when
+        String content = read(object, 3, 10);
+
+        // then
+        assertThat(content).isEqualTo("3456789abc");
+        assertThat(requests).hasSize(requestsAfterFirstRead);
+        assertThat(storage.cacheHits()).isEqualTo(2);
+    }
+}
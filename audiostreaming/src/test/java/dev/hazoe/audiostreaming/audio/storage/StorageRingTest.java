@@ -0,0 +1,68 @@
+package dev.hazoe.audiostreaming.audio.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StorageRingTest {
+
+    private static final Path DISK1 = Path.of("/mnt/disk1");
+    private static final Path DISK2 = Path.of("/mnt/disk2");
+    private static final Path DISK3 = Path.of("/mnt/disk3");
+
+    @Test
+    void placement_returnsDistinctRootsPrimaryFirst() {
+        // given
+        StorageRing ring = new StorageRing(List.of(DISK1, DISK2, DISK3), 64);
+
+        // when
+        List<Path> placement = ring.placement("audio/2024/01/a.mp3", 2);
+
+        // then
+        assertThat(placement).hasSize(2).doesNotHaveDuplicates();
+        assertThat(ring.placement("audio/2024/01/a.mp3", 1)).containsExactly(placement.getFirst());
+        assertThat(ring.placement("audio/2024/01/a.mp3", 5)).hasSize(3).startsWith(placement.toArray(Path[]::new));
+    }
+
+    @Test
+    void placement_spreadsKeysAcrossRoots() {
+        // given
+        StorageRing ring = new StorageRing(List.of(DISK1, DISK2, DISK3), 128);
+
+        // when
+        Map<Path, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 30_000; i++) {
+            counts.merge(ring.placement("audio/track-" + i + ".mp3", 1).getFirst(), 1, Integer::sum);
+        }
+
+        // then
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(8_000, 12_000));
+    }
+
+    @Test
+    void placement_addingRoot_movesOnlyKeysItTakesOver() {
+        // given
+        StorageRing before = new StorageRing(List.of(DISK1, DISK2), 128);
+        StorageRing after = new StorageRing(List.of(DISK1, DISK2, DISK3), 128);
+
+        // when
+        int moved = 0;
+        for (int i = 0; i < 30_000; i++) {
+            String key = "audio/track-" + i + ".mp3";
+            Path was = before.placement(key, 1).getFirst();
+            Path is = after.placement(key, 1).getFirst();
+            if (!was.equals(is)) {
+                assertThat(is).isEqualTo(DISK3);
+                moved++;
+            }
+        }
+
+        // then
+        assertThat(moved).isBetween(8_000, 12_000);
+    }
+}
@@ -0,0 +1,122 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptor;
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptorCache;
+import dev.hazoe.audiostreaming.audio.security.ListenerTier;
+import dev.hazoe.audiostreaming.audio.storage.AudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.LocalAudioStorage;
+import dev.hazoe.audiostreaming.common.exception.AudioStorageException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class AccelRedirectSupportTest {
+
+    @Mock
+    private AudioDescriptorCache audioDescriptorCache;
+
+    @Mock
+    private AudioStorage remoteStorage;
+
+    @TempDir
+    Path root;
+
+    private AccelRedirectSupport support(StreamPacing pacing) {
+        return new AccelRedirectSupport("accel", "/protected-audio", audioDescriptorCache,
+                new LocalAudioStorage(root), pacing);
+    }
+
+    private static StreamPacing pacingDisabled() {
+        return new StreamPacing(false, 10, 1.5, 30, 3.0, 10000, "accel");
+    }
+
+    private void write(String key, int size) throws Exception {
+        Path file = root.resolve(key);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[size]);
+    }
+
+    @Test
+    void isEnabled_onlyInAccelMode() {
+        assertThat(support(pacingDisabled()).isEnabled()).isTrue();
+        assertThat(new AccelRedirectSupport("direct", "/p/", audioDescriptorCache, remoteStorage, pacingDisabled())
+                .isEnabled()).isFalse();
+    }
+
+    @Test
+    void constructor_rejectsStorageWithoutSingleLocalRoot() {
+        assertThatThrownBy(() -> new AccelRedirectSupport(
+                "accel", "/p/", audioDescriptorCache, remoteStorage, pacingDisabled()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("single root");
+    }
+
+    @Test
+    void redirectHeaders_pointToInternalLocation() throws Exception {
+        // given
+        write("audio/2026/01/mindful focus.mp3", 10);
+        given(audioDescriptorCache.get(1L)).willReturn(
+                new AudioDescriptor(1L, "audio/2026/01/mindful focus.mp3", "audio/mpeg", false, 100));
+
+        // when
+        HttpHeaders headers = support(pacingDisabled()).redirectHeaders(1L, ListenerTier.FREE);
+
+        // then
+        assertThat(headers.getFirst(AccelRedirectSupport.REDIRECT_HEADER))
+                .isEqualTo("/protected-audio/audio/2026/01/mindful%20focus.mp3");
+        assertThat(headers.getFirst(HttpHeaders.CONTENT_TYPE)).isEqualTo("audio/mpeg");
+        assertThat(headers.containsHeader(AccelRedirectSupport.LIMIT_RATE_HEADER)).isFalse();
+    }
+
+    @Test
+    void redirectHeaders_useResolvedFile_forNonNormalizedKeys() throws Exception {
+        // given
+        write("audio/a.mp3", 10);
+        given(audioDescriptorCache.get(1L)).willReturn(
+                new AudioDescriptor(1L, "audio/./x/../a.mp3", "audio/mpeg", false, 100));
+
+        // when
+        HttpHeaders headers = support(pacingDisabled()).redirectHeaders(1L, ListenerTier.FREE);
+
+        // then
+        assertThat(headers.getFirst(AccelRedirectSupport.REDIRECT_HEADER))
+                .isEqualTo("/protected-audio/audio/a.mp3");
+    }
+
+    @Test
+    void redirectHeaders_withPacing_setNginxLimitRate() throws Exception {
+        // given: 1 MB over 100 s → 10 kB/s, free multiplier 1.5
+        write("audio/a.mp3", 1_000_000);
+        given(audioDescriptorCache.get(1L)).willReturn(
+                new AudioDescriptor(1L, "audio/a.mp3", "audio/mpeg", false, 100));
+
+        // when
+        HttpHeaders headers = support(new StreamPacing(true, 10, 1.5, 30, 3.0, 10000, "accel"))
+                .redirectHeaders(1L, ListenerTier.FREE);
+
+        // then
+        assertThat(headers.getFirst(AccelRedirectSupport.LIMIT_RATE_HEADER)).isEqualTo("15000");
+    }
+
+    @Test
+    void redirectHeaders_rejectPathsOutsideStorage() {
+        // given
+        given(audioDescriptorCache.get(1L)).willReturn(
+                new AudioDescriptor(1L, "../etc/passwd", "audio/mpeg", false, 100));
+
+        // when / then
+        assertThatThrownBy(() -> support(pacingDisabled()).redirectHeaders(1L, ListenerTier.FREE))
+                .isInstanceOf(AudioStorageException.class);
+    }
+}
@@ -0,0 +1,127 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkSizePolicyTest {
+
+    private static final long KB = 1024;
+    private static final long MB = 1024 * KB;
+
+    // 600 s tracks: 128 kbps ≈ 9.6 MB, 32 kbps ≈ 2.4 MB, 320 kbps = 24 MB
+    private static final StorageObject MUSIC = new StorageObject("music.mp3", 24_000_000, Instant.EPOCH, "v");
+    private static final StorageObject SPEECH = new StorageObject("speech.mp3", 2_400_000, Instant.EPOCH, "v");
+    private static final int DURATION = 600;
+
+    private final ChunkSizePolicy policy = new ChunkSizePolicy(true, MB, 30, 64 * KB, 8 * MB, 4, 100);
+
+    @Test
+    void chunkSize_shouldTargetSecondsOfAudio() {
+        // then: 30 s of audio at each track's bitrate
+        assertThat(policy.chunkSize(null, MUSIC, DURATION, 0)).isEqualTo(1_200_000);
+        assertThat(policy.chunkSize(null, SPEECH, DURATION, 0)).isEqualTo(120_000);
+    }
+
+    @Test
+    void chunkSize_shouldFallBackToDefault_whenDurationUnknown() {
+        assertThat(policy.chunkSize(null, MUSIC, 0, 0)).isEqualTo(MB);
+    }
+
+    @Test
+    void chunkSize_shouldGrowForSequentialReads_upToMaxMultiplier() {
+        // when
+        long first = policy.chunkSize("l", MUSIC, DURATION, 0);
+        long second = policy.chunkSize("l", MUSIC, DURATION, first);
+        long third = policy.chunkSize("l", MUSIC, DURATION, first + second);
+        long fourth = policy.chunkSize("l", MUSIC, DURATION, first + second + third);
+
+        // then
+        assertThat(first).isEqualTo(1_200_000);
+        assertThat(second).isEqualTo(2_400_000);
+        assertThat(third).isEqualTo(4_800_000);
+        assertThat(fourth).isEqualTo(4_800_000);
+    }
+
+    @Test
+    void chunkSize_shouldNeitherAdaptNorRemember_withoutListenerKey() {
+        // when: interleaved requests of two anonymous clients
+        long first = policy.chunkSize(null, MUSIC, DURATION, 0);
+        long other = policy.chunkSize(null, MUSIC, DURATION, 10_000_000);
+        long second = policy.chunkSize(null, MUSIC, DURATION, first);
+
+        // then
+        assertThat(first).isEqualTo(1_200_000);
+        assertThat(other).isEqualTo(1_200_000);
+        assertThat(second).isEqualTo(1_200_000);
+        assertThat(policy.trackedListeners()).isZero();
+    }
+
+    @Test
+    void chunkSize_shouldShrinkAfterSeek() {
+        // given: grown once
+        long first = policy.chunkSize("l", MUSIC, DURATION, 0);
+        policy.chunkSize("l", MUSIC, DURATION, first);
+
+        // when: jump elsewhere, twice
+        long afterSeek = policy.chunkSize("l", MUSIC, DURATION, 10_000_000);
+        long afterSecondSeek = policy.chunkSize("l", MUSIC, DURATION, 100);
+
+        // then
+        assertThat(afterSeek).isEqualTo(1_200_000);
+        assertThat(afterSecondSeek).isEqualTo(600_000);
+    }
+
+    @Test
+    void chunkSize_shouldResetForNewTrack() {
+        // given
+        long first = policy.chunkSize("l", MUSIC, DURATION, 0);
+        policy.chunkSize("l", MUSIC, DURATION, first);
+
+        // when
+        long size = policy.chunkSize("l", SPEECH, DURATION, first);
+
+        // then
+        assertThat(size).isEqualTo(120_000);
+    }
+
+    @Test
+    void chunkSize_shouldClampToBounds() {
+        // given: 8 kbps → 30 s = 30 KB, below the 64 KB minimum
+        StorageObject tiny = new StorageObject("tiny.mp3", 600_000, Instant.EPOCH, "v");
+
+        // then
+        assertThat(policy.chunkSize(null, tiny, DURATION, 0)).isEqualTo(64 * KB);
+    }
+
+    @Test
+    void chunkSize_fixed_shouldAlwaysUseDefault() {
+        // given
+        ChunkSizePolicy fixed = new ChunkSizePolicy(false, MB, 30, 64 * KB, 8 * MB, 4, 100);
+
+        // then
+        assertThat(fixed.chunkSize("l", SPEECH, DURATION, 0)).isEqualTo(MB);
+        assertThat(fixed.chunkSize("l", SPEECH, DURATION, MB)).isEqualTo(MB);
+    }
+
+    @Test
+    void chunkSize_shouldRecordChosenSizes() {
+        // given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        policy.bindTo(registry);
+
+        // when
+        policy.chunkSize(null, MUSIC, DURATION, 0);
+        policy.chunkSize(null, SPEECH, DURATION, 0);
+
+        // then
+        DistributionSummary summary = registry.get("audio.stream.chunk.size").summary();
+        assertThat(summary.count()).isEqualTo(2);
+        assertThat(summary.totalAmount()).isEqualTo(1_320_000);
+    }
+}
@@ -0,0 +1,79 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalHeadersTest {
+
+    // Tue, 20 Jan 2026 16:42:14 GMT plus some millis
+    private static final long LAST_MODIFIED = 1_768_927_334_636L;
+
+    private final StreamValidators validators = StreamValidators.of(1000, LAST_MODIFIED);
+
+    @Test
+    void isNotModified_whenNoConditions_returnsFalse() {
+        assertFalse(ConditionalHeaders.none().isNotModified(validators));
+    }
+
+    @Test
+    void isNotModified_whenWeakEtagMatches_returnsTrue() {
+        ConditionalHeaders conditions =
+                new ConditionalHeaders("\"other\", W/" + validators.etag(), null, null);
+
+        assertTrue(conditions.isNotModified(validators));
+    }
+
+    @Test
+    void isNotModified_whenWildcard_returnsTrue() {
+        assertTrue(new ConditionalHeaders("*", null, null).isNotModified(validators));
+    }
+
+    @Test
+    void isNotModified_whenModifiedSinceIsSameSecond_returnsTrue() {
+        ConditionalHeaders conditions =
+                new ConditionalHeaders(null, "Tue, 20 Jan 2026 16:42:14 GMT", null);
+
+        assertTrue(conditions.isNotModified(validators));
+    }
+
+    @Test
+    void isNotModified_whenModifiedAfterDate_returnsFalse() {
+        ConditionalHeaders conditions =
+                new ConditionalHeaders(null, "Tue, 20 Jan 2026 16:42:13 GMT", null);
+
+        assertFalse(conditions.isNotModified(validators));
+    }
+
+    @Test
+    void isNotModified_whenEtagDiffers_ignoresModifiedSince() {
+        ConditionalHeaders conditions =
+                new ConditionalHeaders("\"other\"", "Tue, 20 Jan 2026 16:42:14 GMT", null);
+
+        assertFalse(conditions.isNotModified(validators));
+    }
+
+    @Test
+    void isRangeApplicable_whenWeakEtag_returnsFalse() {
+        ConditionalHeaders conditions =
+                new ConditionalHeaders(null, null, "W/" + validators.etag());
+
+        assertFalse(conditions.isRangeApplicable(validators));
+    }
+
+    @Test
+    void isRangeApplicable_whenDateMatches_returnsTrue() {
+        ConditionalHeaders conditions =
+                new ConditionalHeaders(null, null, "Tue, 20 Jan 2026 16:42:14 GMT");
+
+        assertTrue(conditions.isRangeApplicable(validators));
+    }
+
+    @Test
+    void isRangeApplicable_whenDateUnparseable_returnsFalse() {
+        ConditionalHeaders conditions =
+                new ConditionalHeaders(null, null, "yesterday");
+
+        assertFalse(conditions.isRangeApplicable(validators));
+    }
+}
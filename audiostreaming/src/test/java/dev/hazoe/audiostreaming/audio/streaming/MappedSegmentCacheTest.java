@@ -0,0 +1,121 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedSegmentCacheTest {
+
+    private static final long SEGMENT_SIZE = 100;
+
+    private Path file;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.createTempFile("mapped-cache", ".mp3");
+        content = new byte[450];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i % 251);
+        }
+        Files.write(file, content);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void writeTo_whenRangeSpansSegments_returnsExactBytes() throws Exception {
+        MappedSegmentCache cache = new MappedSegmentCache(true, SEGMENT_SIZE, 1_000);
+        ByteRange range = new ByteRange(150, 420, 271, true);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MappedRegion(cache, file, "v1", content.length, range)
+                .writeTo(Channels.newChannel(out));
+
+        assertThat(out.toByteArray()).isEqualTo(Arrays.copyOfRange(content, 150, 421));
+        cache.destroy();
+    }
+
+    @Test
+    void acquire_whenSegmentAlreadyMapped_countsHit() {
+        MappedSegmentCache cache = new MappedSegmentCache(true, SEGMENT_SIZE, 1_000);
+
+        cache.acquire(file, "v1", 0, content.length).close();
+        cache.acquire(file, "v1", 0, content.length).close();
+
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        cache.destroy();
+    }
+
+    @Test
+    void acquire_whenFileReplaced_mapsNewVersion() throws Exception {
+        MappedSegmentCache cache = new MappedSegmentCache(true, SEGMENT_SIZE, 1_000);
+        cache.acquire(file, "v1", 0, content.length).close();
+
+        // same path and size, new contents swapped in by rename
+        Path replacement = Files.createTempFile(file.getParent(), "mapped-cache", ".tmp");
+        Files.write(replacement, new byte[content.length]);
+        Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        try (MappedSegmentCache.Lease lease = cache.acquire(file, "v2", 0, content.length)) {
+            assertThat(lease.memory().get(ValueLayout.JAVA_BYTE, 10)).isZero();
+        }
+        assertThat(cache.missCount()).isEqualTo(2);
+        cache.destroy();
+    }
+
+    @Test
+    void acquire_lastSegment_isTruncatedToFileSize() {
+        MappedSegmentCache cache = new MappedSegmentCache(true, SEGMENT_SIZE, 1_000);
+
+        try (MappedSegmentCache.Lease lease = cache.acquire(file, "v1", 4, content.length)) {
+            assertThat(lease.memory().byteSize()).isEqualTo(50);
+        }
+        cache.destroy();
+    }
+
+    @Test
+    void acquire_whenOverBudget_evictsLeastRecentlyUsed() {
+        MappedSegmentCache cache = new MappedSegmentCache(true, SEGMENT_SIZE, 200);
+
+        cache.acquire(file, "v1", 0, content.length).close();
+        cache.acquire(file, "v1", 1, content.length).close();
+        cache.acquire(file, "v1", 0, content.length).close(); // touch 0, 1 becomes eldest
+        cache.acquire(file, "v1", 2, content.length).close();
+
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        assertThat(cache.mappedBytes()).isEqualTo(200);
+
+        cache.acquire(file, "v1", 0, content.length).close();
+        assertThat(cache.hitCount()).isEqualTo(2);
+        cache.destroy();
+    }
+
+    @Test
+    void lease_evictedWhileHeld_remainsReadable() {
+        MappedSegmentCache cache = new MappedSegmentCache(true, SEGMENT_SIZE, 100);
+
+        try (MappedSegmentCache.Lease held = cache.acquire(file, "v1", 0, content.length)) {
+            cache.acquire(file, "v1", 1, content.length).close(); // evicts segment 0
+
+            assertThat(cache.evictionCount()).isEqualTo(1);
+            assertThat(held.memory().get(ValueLayout.JAVA_BYTE, 10))
+                    .isEqualTo(content[10]);
+        }
+        cache.destroy();
+    }
+}
@@ -0,0 +1,149 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class NonBlockingStreamWriterTest {
+
+    /** Output stream whose readiness is controlled by the test. */
+    private static class TestOutputStream extends ServletOutputStream {
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        boolean ready = true;
+        WriteListener listener;
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.listener = writeListener;
+        }
+
+        @Override
+        public void write(int b) {
+            written.write(b);
+        }
+    }
+
+    private final AsyncContext asyncContext = mock(AsyncContext.class);
+    private final TestOutputStream out = new TestOutputStream();
+    private final Queue<Runnable> ioTasks = new ArrayDeque<>();
+    private final AtomicInteger finished = new AtomicInteger();
+
+    private NonBlockingStreamWriter writer(byte[] content, int chunkSize) {
+        ReadableByteChannel source = Channels.newChannel(new ByteArrayInputStream(content));
+        return new NonBlockingStreamWriter(
+                asyncContext, out, source, ioTasks::add, chunkSize, null, null, finished::incrementAndGet);
+    }
+
+    private void runIoTasks() {
+        while (!ioTasks.isEmpty()) {
+            ioTasks.poll().run();
+        }
+    }
+
+    @Test
+    void onWritePossible_whenAlwaysReady_writesWholeBodyAndCompletes() {
+        byte[] content = "0123456789abcdef".getBytes();
+        NonBlockingStreamWriter writer = writer(content, 5);
+
+        writer.onWritePossible();
+        runIoTasks();
+
+        assertThat(out.written.toByteArray()).isEqualTo(content);
+        verify(asyncContext).complete();
+        assertThat(finished.get()).isEqualTo(1);
+    }
+
+    @Test
+    void onWritePossible_whenNotReady_waitsForNextCallback() {
+        byte[] content = "0123456789".getBytes();
+        NonBlockingStreamWriter writer = writer(content, 5);
+
+        writer.onWritePossible();
+        out.ready = false;
+        runIoTasks(); // first chunk is buffered but cannot be written yet
+
+        assertThat(out.written.size()).isZero();
+        verify(asyncContext, times(0)).complete();
+
+        out.ready = true;
+        writer.onWritePossible();
+        runIoTasks();
+
+        assertThat(out.written.toByteArray()).isEqualTo(content);
+        verify(asyncContext).complete();
+    }
+
+    @Test
+    void onWritePossible_whenExecutorRejects_abortsStream() {
+        ReadableByteChannel source = Channels.newChannel(new ByteArrayInputStream(new byte[10]));
+        NonBlockingStreamWriter writer = new NonBlockingStreamWriter(
+                asyncContext,
+                out,
+                source,
+                task -> {
+                    throw new RejectedExecutionException("full");
+                },
+                5,
+                null,
+                null,
+                finished::incrementAndGet
+        );
+
+        writer.onWritePossible();
+
+        verify(asyncContext).complete();
+        assertThat(finished.get()).isEqualTo(1);
+        assertThat(source.isOpen()).isFalse();
+    }
+
+    @Test
+    void onWritePossible_whenPacerIsEmpty_schedulesReadInsteadOfRunningIt() {
+        // given
+        TaskScheduler scheduler = mock(TaskScheduler.class);
+        TokenBucket pacer = new TokenBucket(5, 10, () -> 0L);
+        ReadableByteChannel source = Channels.newChannel(new ByteArrayInputStream("0123456789".getBytes()));
+        NonBlockingStreamWriter writer = new NonBlockingStreamWriter(
+                asyncContext, out, source, ioTasks::add, 5, pacer, scheduler, finished::incrementAndGet);
+
+        // when: the burst covers the first chunk only
+        writer.onWritePossible();
+        runIoTasks();
+
+        // then
+        assertThat(out.written.toString()).isEqualTo("01234");
+        ArgumentCaptor<Runnable> delayed = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(delayed.capture(), any(Instant.class));
+        assertThat(ioTasks).isEmpty();
+
+        // when: the scheduler fires
+        delayed.getValue().run();
+        runIoTasks();
+
+        // then
+        assertThat(out.written.toString()).isEqualTo("0123456789");
+    }
+}
@@ -4,6 +4,9 @@ import dev.hazoe.audiostreaming.common.exception.RangeNotSatisfiableException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 
@@ -71,6 +74,20 @@ class RangeResolverTest {
         assertTrue(range.partial());
     }
 
+    @Test
+    void resolveAll_withChunkPolicy_shouldAskPolicyOnlyForOpenEndedSpecs() {
+        List<Long> starts = new ArrayList<>();
+
+        List<ByteRange> ranges = resolver.resolveAll("bytes=0-9,500-", FILE_SIZE, start -> {
+            starts.add(start);
+            return 300;
+        });
+
+        assertEquals(List.of(500L), starts);
+        assertEquals(799, ranges.get(1).end());
+        assertEquals(9, ranges.get(0).end());
+    }
+
     @Test
     void resolve_whenSuffixRange_shouldReturnBytes_dash_200_returnsLast200Bytes() {
         ByteRange range = resolver.resolve("bytes=-200", FILE_SIZE);
@@ -147,4 +164,65 @@ class RangeResolverTest {
         assertEquals(FILE_SIZE, ex.getFileSize());
     }
 
+    /* ================= MULTI RANGE ================= */
+
+    @Test
+    void resolveAll_whenDisjointRanges_returnsSortedRanges() {
+        List<ByteRange> ranges = resolver.resolveAll("bytes=500-599,0-99", FILE_SIZE);
+
+        assertEquals(2, ranges.size());
+        assertEquals(0, ranges.get(0).start());
+        assertEquals(99, ranges.get(0).end());
+        assertEquals(500, ranges.get(1).start());
+        assertEquals(599, ranges.get(1).end());
+    }
+
+    @Test
+    void resolveAll_whenOverlappingRanges_mergesThem() {
+        List<ByteRange> ranges = resolver.resolveAll("bytes=0-199, 100-299", FILE_SIZE);
+
+        assertEquals(1, ranges.size());
+        assertEquals(0, ranges.get(0).start());
+        assertEquals(299, ranges.get(0).end());
+        assertEquals(300, ranges.get(0).contentLength());
+        assertTrue(ranges.get(0).partial());
+    }
+
+    @Test
+    void resolveAll_whenAdjacentRanges_mergesThem() {
+        List<ByteRange> ranges = resolver.resolveAll("bytes=0-99,100-199,-100", FILE_SIZE);
+
+        assertEquals(2, ranges.size());
+        assertEquals(0, ranges.get(0).start());
+        assertEquals(199, ranges.get(0).end());
+        assertEquals(900, ranges.get(1).start());
+        assertEquals(999, ranges.get(1).end());
+    }
+
+    @Test
+    void resolveAll_whenTooManyRanges_throwsException() {
+        RangeResolver limited = new RangeResolver(CHUNK_SIZE, 2);
+
+        assertThrows(
+                RangeNotSatisfiableException.class,
+                () -> limited.resolveAll("bytes=0-1,10-11,20-21", FILE_SIZE)
+        );
+    }
+
+    @Test
+    void resolveAll_whenOneSpecInvalid_throwsException() {
+        assertThrows(
+                RangeNotSatisfiableException.class,
+                () -> resolver.resolveAll("bytes=0-99,abc", FILE_SIZE)
+        );
+    }
+
+    @Test
+    void resolve_whenRangesCannotBeMerged_throwsException() {
+        assertThrows(
+                RangeNotSatisfiableException.class,
+                () -> resolver.resolve("bytes=0-99,500-599", FILE_SIZE)
+        );
+    }
+
 }
@@ -0,0 +1,53 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SendfileSupportTest {
+
+    private final SendfileSupport sendfileSupport = new SendfileSupport(true, 100);
+
+    private final FileRegion region = new FileRegion(
+            Path.of("storage", "audio", "test.mp3"),
+            new ByteRange(1000, 1999, 1000, true)
+    );
+
+    @Test
+    void offer_whenContainerSupportsSendfile_setsExclusiveEndAttributes() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(SendfileSupport.SUPPORT_ATTR, Boolean.TRUE);
+
+        boolean offered = sendfileSupport.offer(request, region);
+
+        assertThat(offered).isTrue();
+        assertThat(request.getAttribute(SendfileSupport.FILENAME_ATTR))
+                .isEqualTo(region.path().toAbsolutePath().toString());
+        assertThat(request.getAttribute(SendfileSupport.START_ATTR)).isEqualTo(1000L);
+        assertThat(request.getAttribute(SendfileSupport.END_ATTR)).isEqualTo(2000L);
+    }
+
+    @Test
+    void offer_whenContainerDoesNotSupportSendfile_returnsFalse() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        assertThat(sendfileSupport.offer(request, region)).isFalse();
+        assertThat(request.getAttribute(SendfileSupport.FILENAME_ATTR)).isNull();
+    }
+
+    @Test
+    void offer_whenRegionBelowMinSize_returnsFalse() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(SendfileSupport.SUPPORT_ATTR, Boolean.TRUE);
+
+        FileRegion small = new FileRegion(
+                region.path(),
+                new ByteRange(0, 9, 10, true)
+        );
+
+        assertThat(sendfileSupport.offer(request, small)).isFalse();
+    }
+}
@@ -0,0 +1,147 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import dev.hazoe.audiostreaming.audio.security.Listener;
+import dev.hazoe.audiostreaming.audio.security.ListenerTier;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamPacingTest {
+
+    // 1 MB over 100 s → 10_000 B/s
+    private static final long FILE_SIZE = 1_000_000;
+    private static final int DURATION = 100;
+    private static final StorageObject TRACK = new StorageObject("a.mp3", FILE_SIZE, Instant.EPOCH, "v1");
+
+    private static final Listener FREE = new Listener(ListenerTier.FREE, "alice@10.0.0.1");
+    private static final Listener PREMIUM = new Listener(ListenerTier.PREMIUM, "bob@10.0.0.2");
+
+    private final StreamPacing pacing = new StreamPacing(true, 10, 1.5, 30, 4.0, 10000, "async");
+
+    private static StreamBody region(long start, long end) {
+        return new FileRegion(Path.of("unused.mp3"), new ByteRange(start, end, end - start + 1, end - start + 1 < FILE_SIZE));
+    }
+
+    @Test
+    void pace_freeTier_usesFreePolicy() {
+        // when
+        StreamBody body = pacing.pace(region(0, FILE_SIZE - 1), TRACK, DURATION, FREE);
+
+        // then
+        assertThat(body).isInstanceOf(PacedBody.class);
+        PacedBody paced = (PacedBody) body;
+        assertThat(paced.bucket().capacity()).isEqualTo(100_000);
+        assertThat(paced.bucket().bytesPerSecond()).isEqualTo(15_000);
+    }
+
+    @Test
+    void pace_premiumTier_usesPremiumPolicy() {
+        // when
+        PacedBody paced = (PacedBody) pacing.pace(region(0, FILE_SIZE - 1), TRACK, DURATION, PREMIUM);
+
+        // then
+        assertThat(paced.bucket().capacity()).isEqualTo(300_000);
+        assertThat(paced.bucket().bytesPerSecond()).isEqualTo(40_000);
+    }
+
+    @Test
+    void pace_rangeWithinBurst_isNotWrapped() {
+        // given
+        StreamBody region = region(0, 99_999);
+
+        // when / then
+        assertThat(pacing.pace(region, TRACK, DURATION, FREE)).isSameAs(region);
+    }
+
+    @Test
+    void pace_consecutiveChunks_shareOneBurst() {
+        // given: two 60 kB chunks, burst is 100 kB
+        StreamBody first = region(0, 59_999);
+        StreamBody second = region(60_000, 119_999);
+
+        // when
+        StreamBody firstBody = pacing.pace(first, TRACK, DURATION, FREE);
+        StreamBody secondBody = pacing.pace(second, TRACK, DURATION, FREE);
+
+        // then
+        assertThat(firstBody).isSameAs(first);
+        assertThat(secondBody).isInstanceOf(PacedBody.class);
+        assertThat(pacing.trackedListeners()).isEqualTo(1);
+    }
+
+    @Test
+    void pace_anonymousRequests_doNotShareABucket() {
+        // given: the burst covers one 60 kB chunk, not two
+        StreamBody first = region(0, 59_999);
+        StreamBody second = region(0, 59_999);
+
+        // when
+        StreamBody firstBody = pacing.pace(first, TRACK, DURATION, Listener.ANONYMOUS);
+        StreamBody secondBody = pacing.pace(second, TRACK, DURATION, Listener.ANONYMOUS);
+
+        // then
+        assertThat(firstBody).isSameAs(first);
+        assertThat(secondBody).isSameAs(second);
+        assertThat(pacing.trackedListeners()).isZero();
+    }
+
+    @Test
+    void pace_otherTrack_getsNewBurst() {
+        // given
+        StorageObject other = new StorageObject("b.mp3", FILE_SIZE, Instant.EPOCH, "v1");
+        pacing.pace(region(0, 99_999), TRACK, DURATION, FREE);
+        StreamBody region = region(0, 99_999);
+
+        // when / then
+        assertThat(pacing.pace(region, other, DURATION, FREE)).isSameAs(region);
+    }
+
+    @Test
+    void pace_unknownDuration_isNotWrapped() {
+        StreamBody region = region(0, FILE_SIZE - 1);
+
+        assertThat(pacing.pace(region, TRACK, 0, FREE)).isSameAs(region);
+    }
+
+    @Test
+    void pace_disabled_isNotWrapped() {
+        StreamPacing disabled = new StreamPacing(false, 10, 1.5, 30, 4.0, 10000, "direct");
+        StreamBody region = region(0, FILE_SIZE - 1);
+
+        assertThat(disabled.pace(region, TRACK, DURATION, FREE)).isSameAs(region);
+    }
+
+    @Test
+    void pace_accelDelivery_isNotWrapped() {
+        StreamPacing accel = new StreamPacing(true, 10, 1.5, 30, 4.0, 10000, "accel");
+        StreamBody region = region(0, FILE_SIZE - 1);
+
+        assertThat(accel.pace(region, TRACK, DURATION, FREE)).isSameAs(region);
+    }
+
+    @Test
+    void constructor_rejectsPacingWithDirectDelivery() {
+        assertThatThrownBy(() -> new StreamPacing(true, 10, 1.5, 30, 4.0, 10000, "direct"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void pace_countsPacedStreamsPerTier() {
+        // given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pacing.bindTo(registry);
+
+        // when
+        pacing.pace(region(0, FILE_SIZE - 1), TRACK, DURATION, FREE);
+
+        // then
+        assertThat(registry.get("audio.stream.paced").tag("tier", "free").counter().count())
+                .isEqualTo(1.0);
+    }
+}
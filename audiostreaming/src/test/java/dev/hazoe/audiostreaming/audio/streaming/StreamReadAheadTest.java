@@ -0,0 +1,192 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import dev.hazoe.audiostreaming.audio.storage.AudioStorage;
+import dev.hazoe.audiostreaming.audio.storage.StorageObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamReadAheadTest {
+
+    private static final long MB = 1024 * 1024;
+    private static final StorageObject OBJECT = new StorageObject("a.mp3", 10 * MB, Instant.EPOCH, "v1");
+
+    /** Records opened ranges; reads block until released. */
+    private static final class RecordingStorage implements AudioStorage {
+        final List<long[]> opened = new CopyOnWriteArrayList<>();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final boolean blocking;
+
+        RecordingStorage(boolean blocking) {
+            this.blocking = blocking;
+        }
+
+        @Override
+        public StorageObject stat(String key) {
+            return OBJECT;
+        }
+
+        @Override
+        public ReadableByteChannel openRange(StorageObject object, long offset, long length) {
+            opened.add(new long[]{offset, length});
+            return new ReadableByteChannel() {
+                long remaining = length;
+
+                @Override
+                public int read(ByteBuffer dst) {
+                    started.countDown();
+                    if (blocking) {
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    if (remaining == 0) {
+                        return -1;
+                    }
+                    int n = (int) Math.min(dst.remaining(), remaining);
+                    dst.position(dst.position() + n);
+                    remaining -= n;
+                    return n;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return true;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+
+    private StreamReadAhead readAhead;
+
+    @AfterEach
+    void tearDown() {
+        if (readAhead != null) {
+            readAhead.destroy();
+        }
+    }
+
+    private static ByteRange chunk(long start) {
+        return new ByteRange(start, start + MB - 1, MB, true);
+    }
+
+    private static void awaitIdle(StreamReadAhead readAhead) throws InterruptedException {
+        for (int i = 0; i < 500 && readAhead.pendingCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void onRange_sequential_shouldWarmFollowingChunk() throws Exception {
+        // given
+        RecordingStorage storage = new RecordingStorage(false);
+        readAhead = new StreamReadAhead(storage, true, 2, 2, 8);
+
+        // when
+        readAhead.onRange("listener", OBJECT, chunk(0), true);
+        awaitIdle(readAhead);
+
+        // then
+        assertThat(storage.opened).hasSize(1);
+        assertThat(storage.opened.getFirst()).containsExactly(MB, 2 * MB);
+        assertThat(readAhead.scheduledCount()).isEqualTo(1);
+    }
+
+    @Test
+    void onRange_shouldStopAtEndOfFile() throws Exception {
+        // given
+        RecordingStorage storage = new RecordingStorage(false);
+        readAhead = new StreamReadAhead(storage, true, 4, 2, 8);
+
+        // when: next chunk is the last 1 MB; the one after does not exist
+        readAhead.onRange("listener", OBJECT, chunk(8 * MB), true);
+        awaitIdle(readAhead);
+        readAhead.onRange("listener", OBJECT, chunk(9 * MB), true);
+
+        // then
+        assertThat(storage.opened).hasSize(1);
+        assertThat(storage.opened.getFirst()).containsExactly(9 * MB, MB);
+    }
+
+    @Test
+    void onRange_seek_shouldCancelPendingReadAhead() throws Exception {
+        // given
+        RecordingStorage storage = new RecordingStorage(true);
+        readAhead = new StreamReadAhead(storage, true, 1, 2, 8);
+        readAhead.onRange("listener", OBJECT, chunk(0), true);
+        assertThat(storage.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when: the listener jumps elsewhere
+        readAhead.onRange("listener", OBJECT, new ByteRange(5 * MB, 5 * MB + 99, 100, true), false);
+        storage.release.countDown();
+
+        // then
+        assertThat(readAhead.cancelledCount()).isEqualTo(1);
+        awaitIdle(readAhead);
+        assertThat(readAhead.pendingCount()).isZero();
+    }
+
+    @Test
+    void onRange_continuation_shouldKeepPendingReadAhead() throws Exception {
+        // given
+        RecordingStorage storage = new RecordingStorage(true);
+        readAhead = new StreamReadAhead(storage, true, 1, 2, 8);
+        readAhead.onRange("listener", OBJECT, chunk(0), true);
+
+        // when: the player asks for exactly the warmed chunk
+        readAhead.onRange("listener", OBJECT, chunk(MB), true);
+        storage.release.countDown();
+        awaitIdle(readAhead);
+
+        // then
+        assertThat(readAhead.cancelledCount()).isZero();
+        assertThat(readAhead.scheduledCount()).isEqualTo(2);
+    }
+
+    @Test
+    void onRange_shouldDropWhenPoolIsBusy() throws Exception {
+        // given: one thread, no queue, and it is busy
+        RecordingStorage storage = new RecordingStorage(true);
+        readAhead = new StreamReadAhead(storage, true, 1, 1, 0);
+        readAhead.onRange("a", OBJECT, chunk(0), true);
+        assertThat(storage.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when
+        readAhead.onRange("b", OBJECT, chunk(3 * MB), true);
+        storage.release.countDown();
+
+        // then
+        assertThat(readAhead.rejectedCount()).isEqualTo(1);
+        assertThat(readAhead.scheduledCount()).isEqualTo(1);
+    }
+
+    @Test
+    void onRange_disabled_shouldDoNothing() {
+        // given
+        RecordingStorage storage = new RecordingStorage(false);
+        readAhead = new StreamReadAhead(storage, false, 1, 1, 0);
+
+        // when
+        readAhead.onRange("listener", OBJECT, chunk(0), true);
+
+        // then
+        assertThat(storage.opened).isEmpty();
+        assertThat(readAhead.scheduledCount()).isZero();
+    }
+}
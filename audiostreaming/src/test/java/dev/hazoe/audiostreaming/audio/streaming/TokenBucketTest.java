@@ -0,0 +1,64 @@
+package dev.hazoe.audiostreaming.audio.streaming;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void reserve_withinBurst_doesNotWait() {
+        TokenBucket bucket = new TokenBucket(1_000, 100, now::get);
+
+        assertThat(bucket.reserve(600)).isZero();
+        assertThat(bucket.reserve(400)).isZero();
+    }
+
+    @Test
+    void reserve_beyondBurst_waitsForRefill() {
+        TokenBucket bucket = new TokenBucket(1_000, 100, now::get);
+        bucket.reserve(1_000);
+
+        // 50 bytes at 100 B/s → half a second
+        assertThat(bucket.reserve(50)).isEqualTo(500_000_000L);
+    }
+
+    @Test
+    void reserve_afterIdle_refillsUpToCapacityOnly() {
+        TokenBucket bucket = new TokenBucket(1_000, 100, now::get);
+        bucket.reserve(1_000);
+
+        now.set(60_000_000_000L); // a minute later
+        assertThat(bucket.reserve(1_000)).isZero();
+        assertThat(bucket.reserve(100)).isEqualTo(1_000_000_000L);
+    }
+
+    @Test
+    void tryReserve_takesTokensOnlyWhenAllAreAvailable() {
+        TokenBucket bucket = new TokenBucket(1_000, 100, now::get);
+
+        assertThat(bucket.tryReserve(600)).isTrue();
+        assertThat(bucket.tryReserve(600)).isFalse();
+        assertThat(bucket.tryReserve(400)).isTrue();
+        assertThat(bucket.reserve(100)).isEqualTo(1_000_000_000L);
+    }
+
+    @Test
+    void reserve_accumulatesDebt() {
+        TokenBucket bucket = new TokenBucket(0, 100, now::get);
+
+        assertThat(bucket.reserve(100)).isEqualTo(1_000_000_000L);
+        assertThat(bucket.reserve(100)).isEqualTo(2_000_000_000L);
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveRate() {
+        assertThatThrownBy(() -> new TokenBucket(10, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,107 @@
+package dev.hazoe.audiostreaming.audio.waveform;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WaveformPeaksTest {
+
+    @Test
+    void build_shouldMergeWholeFramesIntoAtMostMaxPoints() {
+        // given: 5 stereo frames of 4 samples per channel
+        WaveformPeaks.Builder builder = WaveformPeaks.builder();
+        builder.frame(44100, new short[]{0, 256, -512, 0, 0, 0, 0, 0}, 8, 2);
+        builder.frame(44100, new short[]{1024, 0, 0, 0, 0, 0, -256, 0}, 8, 2);
+        builder.silentFrame();
+        builder.frame(44100, new short[]{Short.MAX_VALUE, Short.MIN_VALUE, 0, 0, 0, 0, 0, 0}, 8, 2);
+        builder.frame(44100, new short[]{512, 0, 0, 0, 0, 0, 0, 0}, 8, 2);
+
+        // when
+        WaveformPeaks peaks = builder.build(2);
+
+        // then: 3 frames per point, the last one shorter
+        assertThat(peaks.sampleRate()).isEqualTo(44100);
+        assertThat(peaks.samplesPerPoint()).isEqualTo(12);
+        assertThat(peaks.size()).isEqualTo(2);
+        assertThat(peaks.min(0)).isEqualTo(-2);
+        assertThat(peaks.max(0)).isEqualTo(4);
+        assertThat(peaks.min(1)).isEqualTo(-128);
+        assertThat(peaks.max(1)).isEqualTo(127);
+    }
+
+    @Test
+    void build_shouldKeepOnePointPerFrame_whenFewerFramesThanPoints() {
+        // given
+        WaveformPeaks.Builder builder = WaveformPeaks.builder();
+        for (int i = 0; i < 10; i++) {
+            builder.frame(48000, new short[]{(short) (i * 256), (short) (-i * 256)}, 2, 1);
+        }
+
+        // when
+        WaveformPeaks peaks = builder.build(1000);
+
+        // then
+        assertThat(peaks.size()).isEqualTo(10);
+        assertThat(peaks.samplesPerPoint()).isEqualTo(2);
+        assertThat(peaks.max(9)).isEqualTo(9);
+        assertThat(peaks.min(9)).isEqualTo(-9);
+    }
+
+    @Test
+    void encode_shouldWriteDatV1Layout_andDecodeBack() {
+        // given
+        WaveformPeaks.Builder builder = WaveformPeaks.builder();
+        for (int i = 0; i < 1000; i++) {
+            builder.frame(44100, new short[]{(short) (i * 32), (short) (-i * 32)}, 2, 1);
+        }
+        WaveformPeaks peaks = builder.build(1000);
+
+        // when
+        byte[] bytes = peaks.encode();
+        WaveformPeaks decoded = WaveformPeaks.decode(bytes);
+
+        // then
+        assertThat(bytes).hasSize(2020);
+        ByteBuffer header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(header.getInt()).isEqualTo(1); // version
+        assertThat(header.getInt()).isEqualTo(1); // 8-bit
+        assertThat(header.getInt()).isEqualTo(44100);
+        assertThat(header.getInt()).isEqualTo(2);
+        assertThat(header.getInt()).isEqualTo(1000);
+
+        assertThat(decoded.size()).isEqualTo(1000);
+        assertThat(decoded.sampleRate()).isEqualTo(44100);
+        assertThat(decoded.max(999)).isEqualTo(peaks.max(999));
+        assertThat(decoded.min(999)).isEqualTo(peaks.min(999));
+    }
+
+    @Test
+    void decode_shouldRejectTruncatedData() {
+        // given
+        WaveformPeaks.Builder builder = WaveformPeaks.builder();
+        builder.frame(44100, new short[]{1, -1}, 2, 1);
+        byte[] bytes = builder.build(10).encode();
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+
+        // when / then
+        assertThatThrownBy(() -> WaveformPeaks.decode(truncated))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> WaveformPeaks.decode(new byte[8]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void build_shouldBeEmpty_withoutFrames() {
+        // when
+        WaveformPeaks peaks = WaveformPeaks.builder().build(1000);
+
+        // then
+        assertThat(peaks.size()).isZero();
+        assertThat(peaks.encode()).hasSize(20);
+    }
+}
@@ -1,5 +1,6 @@
 package dev.hazoe.audiostreaming.progress.service;
 
+import dev.hazoe.audiostreaming.audio.cache.AudioDescriptorCache;
 import dev.hazoe.audiostreaming.audio.domain.Audio;
 import dev.hazoe.audiostreaming.audio.repository.AudioRepository;
 import dev.hazoe.audiostreaming.common.exception.AudioNotFoundException;
@@ -7,9 +8,9 @@ import dev.hazoe.audiostreaming.common.exception.InvalidProgressPositionExceptio
 import dev.hazoe.audiostreaming.progress.domain.ListeningProgress;
 import dev.hazoe.audiostreaming.progress.dto.ListeningProgressResponse;
 import dev.hazoe.audiostreaming.progress.repository.ListeningProgressRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -29,9 +30,16 @@ class ListeningProgressServiceTest {
     @Mock
     private AudioRepository audioRepository;
 
-    @InjectMocks
     private ListeningProgressService service;
 
+    @BeforeEach
+    void setUp() {
+        service = new ListeningProgressService(
+                progressRepository,
+                new AudioDescriptorCache(audioRepository, true, 100, 600, false)
+        );
+    }
+
     /* ================= SAVE ================= */
 
     @Test